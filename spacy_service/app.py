@@ -9,6 +9,11 @@ import spacy
 import json
 from datetime import datetime
 import logging
+import os
+import queue
+import threading
+import time
+from concurrent.futures import Future
 
 # Initialize Flask app
 app = Flask(__name__)
@@ -67,6 +72,26 @@ INTENT_PATTERNS = {
     "help": ["help", "menu", "guide", "what can you do", "commands"]
 }
 
+# Batch processing: entities come from NER alone, so the other components are
+# skipped (POS tags are only returned when a batch asks for them)
+BATCH_DISABLED_PIPES = ["parser", "tagger", "attribute_ruler", "lemmatizer", "senter"]
+DEFAULT_PIPE_BATCH_SIZE = 64
+MAX_BATCH_TEXTS = 1000
+
+# Per-endpoint pipelines: each endpoint runs only the components its response
+# reads. /process needs the tagger (pos_tags) and NER, /entities and
+# /extract-route need NER alone; /intent is keyword-based and needs no model.
+ENDPOINT_DISABLED_PIPES = {
+    "process": ["parser", "lemmatizer", "senter"],
+    "entities": BATCH_DISABLED_PIPES,
+    "extract-route": BATCH_DISABLED_PIPES,
+}
+
+# Micro-batching of concurrent single-text requests (see MicroBatcher);
+# SPACY_BATCH_MAX=1 turns it off
+MICROBATCH_MAX = max(1, int(os.environ.get("SPACY_BATCH_MAX", "32")))
+MICROBATCH_WAIT_MS = max(0.0, float(os.environ.get("SPACY_BATCH_WAIT_MS", "0")))
+
 # City/Airport mappings
 CITY_SYNONYMS = {
     "delhi": ["delhi", "new delhi", "dxb", "ndls"],
@@ -79,6 +104,94 @@ CITY_SYNONYMS = {
     "jaipur": ["jaipur", "jai", "jpr"],
 }
 
+def disabled_pipes(endpoint):
+    """Components the given endpoint does not need (only those in the loaded model)"""
+    return [name for name in ENDPOINT_DISABLED_PIPES.get(endpoint, []) if name in nlp.pipe_names]
+
+class MicroBatcher:
+    """
+    Runs concurrent single-text requests through nlp.pipe on one thread.
+    
+    Requests that arrive while a batch is being parsed queue up and form the
+    next batch, so an idle service adds no latency and a busy one amortizes
+    the per-call overhead; SPACY_BATCH_WAIT_MS adds a short collection window
+    on top. Texts in one batch are grouped by endpoint pipeline.
+    """
+    
+    def __init__(self, model, max_batch, wait_ms):
+        self._nlp = model
+        self._max_batch = max_batch
+        self._wait = wait_ms / 1000.0
+        self._queue = queue.Queue()
+        self.batches = 0
+        self.texts = 0
+        threading.Thread(target=self._run, name="spacy-microbatcher", daemon=True).start()
+    
+    def parse(self, text, endpoint):
+        """Queue one text and block until its Doc is ready"""
+        future = Future()
+        self._queue.put((text, endpoint, future))
+        return future.result()
+    
+    def stats(self):
+        return {
+            "batches": self.batches,
+            "texts": self.texts,
+            "avg_batch_size": round(self.texts / self.batches, 2) if self.batches else 0.0,
+            "max_batch_size": self._max_batch,
+            "wait_ms": self._wait * 1000.0
+        }
+    
+    def _run(self):
+        while True:
+            batch = [self._queue.get()]
+            deadline = time.monotonic() + self._wait
+            while len(batch) < self._max_batch:
+                try:
+                    remaining = deadline - time.monotonic()
+                    batch.append(self._queue.get(timeout=remaining) if remaining > 0 else self._queue.get_nowait())
+                except queue.Empty:
+                    break
+            
+            groups = {}
+            for item in batch:
+                groups.setdefault(item[1], []).append(item)
+            for endpoint, items in groups.items():
+                try:
+                    docs = self._nlp.pipe([text for text, _, _ in items], batch_size=len(items),
+                                          disable=disabled_pipes(endpoint))
+                    for (_, _, future), doc in zip(items, docs):
+                        future.set_result(doc)
+                except Exception as e:
+                    for _, _, future in items:
+                        if not future.done():
+                            future.set_exception(e)
+            
+            self.batches += 1
+            self.texts += len(batch)
+
+_batcher = None
+_batcher_lock = threading.Lock()
+
+def get_batcher():
+    """The process's MicroBatcher, started on first use (after any fork)"""
+    global _batcher
+    if _batcher is None and nlp is not None and MICROBATCH_MAX > 1:
+        with _batcher_lock:
+            if _batcher is None:
+                _batcher = MicroBatcher(nlp, MICROBATCH_MAX, MICROBATCH_WAIT_MS)
+                logger.info(f"✅ Micro-batching enabled (max {MICROBATCH_MAX}, wait {MICROBATCH_WAIT_MS} ms)")
+    return _batcher
+
+def parse(text, endpoint):
+    """Doc for a single-text endpoint with only its components, or None without a model"""
+    if nlp is None:
+        return None
+    batcher = get_batcher()
+    if batcher is not None:
+        return batcher.parse(text, endpoint)
+    return nlp(text, disable=disabled_pipes(endpoint))
+
 def normalize_city(city_name):
     """Normalize city names to standard format"""
     city_lower = city_name.lower().strip()
@@ -237,10 +350,46 @@ def extract_aadhaar(text):
     
     return None
 
+def build_process_response(user_text, doc, include_pos=True):
+    """Build the /process response for one text (doc may be None without a model)"""
+    # Extract entities (works with or without spaCy model)
+    entities = extract_entities(doc, user_text)
+    
+    # Detect intent
+    intent = detect_intent(user_text, entities)
+    
+    # Extract specific data based on intent
+    extracted_data = {
+        "route": extract_route_from_text(user_text, entities),
+        "travel_date": extract_date_from_text(user_text),
+        "travel_class": extract_travel_class(user_text),
+        "aadhaar": extract_aadhaar(user_text)
+    }
+    
+    response = {
+        "success": True,
+        "original_text": user_text,
+        "intent": intent,
+        "entities": entities,
+        "extracted_data": {
+            key: value for key, value in extracted_data.items() if value is not None
+        },
+        "processed_at": datetime.now().isoformat()
+    }
+    
+    # POS tags for additional context
+    if include_pos:
+        response["pos_tags"] = [(token.text, token.pos_) for token in doc] if doc is not None else []
+    
+    return response
+
 @app.route("/health", methods=["GET"])
 def health():
     """Health check endpoint"""
-    return jsonify({"status": "healthy", "service": "spaCy NLP Microservice"}), 200
+    health_info = {"status": "healthy", "service": "spaCy NLP Microservice", "pid": os.getpid()}
+    if _batcher is not None:
+        health_info["microbatch"] = _batcher.stats()
+    return jsonify(health_info), 200
 
 @app.route("/process", methods=["POST"])
 def process_text():
@@ -261,45 +410,69 @@ def process_text():
             return jsonify({"error": "Empty text provided"}), 400
         
         # Process with spaCy if available, otherwise use rule-based extraction
-        doc = None
-        if nlp is not None:
-            doc = nlp(user_text)
+        doc = parse(user_text, "process")
         
-        # Extract entities (works with or without spaCy model)
-        entities = extract_entities(doc, user_text)
+        response = build_process_response(user_text, doc, include_pos=True)
         
-        # Detect intent
-        intent = detect_intent(user_text, entities)
+        logger.info(f"✅ Processed: '{user_text}' -> Intent: {response['intent']['primary_intent']}")
         
-        # Extract specific data based on intent
-        extracted_data = {
-            "route": extract_route_from_text(user_text, entities),
-            "travel_date": extract_date_from_text(user_text),
-            "travel_class": extract_travel_class(user_text),
-            "aadhaar": extract_aadhaar(user_text)
-        }
+        return jsonify(response), 200
+    
+    except Exception as e:
+        logger.error(f"❌ Error processing text: {str(e)}")
+        return jsonify({"error": str(e), "success": False}), 500
+
+@app.route("/process/batch", methods=["POST"])
+def process_batch():
+    """
+    Batch NLP processing for offline analysis (e.g. re-scoring chat logs)
+    Expects: {"texts": ["...", ...], "batch_size": 64, "include_pos": false}
+    Returns: {"results": [<same shape as /process>, ...], "count": n,
+              "elapsed_ms": t, "utterances_per_second": r}
+    
+    Texts go through nlp.pipe in batches with the components batch results
+    don't use (parser, lemmatizer, tagger...) disabled. Results are in input
+    order; an empty text gets {"success": false, "error": ...} in its slot.
+    """
+    try:
+        data = request.get_json()
         
-        # POS tags for additional context
-        pos_tags = [(token.text, token.pos_) for token in doc]
+        if not data or not isinstance(data.get("texts"), list):
+            return jsonify({"error": "Missing 'texts' list in request"}), 400
         
-        response = {
-            "success": True,
-            "original_text": user_text,
-            "intent": intent,
-            "entities": entities,
-            "extracted_data": {
-                key: value for key, value in extracted_data.items() if value is not None
-            },
-            "pos_tags": pos_tags,
-            "processed_at": datetime.now().isoformat()
-        }
+        texts = [text.strip() if isinstance(text, str) else "" for text in data["texts"]]
+        if len(texts) > MAX_BATCH_TEXTS:
+            return jsonify({"error": f"At most {MAX_BATCH_TEXTS} texts per request"}), 413
         
-        logger.info(f"✅ Processed: '{user_text}' -> Intent: {intent['primary_intent']}")
+        batch_size = max(1, min(int(data.get("batch_size", DEFAULT_PIPE_BATCH_SIZE)), MAX_BATCH_TEXTS))
+        include_pos = bool(data.get("include_pos", False))
         
-        return jsonify(response), 200
+        started = time.perf_counter()
+        non_empty = [i for i, text in enumerate(texts) if text]
+        docs = iter(())
+        if nlp is not None:
+            disabled = [] if include_pos else [name for name in BATCH_DISABLED_PIPES if name in nlp.pipe_names]
+            docs = nlp.pipe((texts[i] for i in non_empty), batch_size=batch_size, disable=disabled)
+        
+        results = [{"success": False, "error": "Empty text provided"} for _ in texts]
+        for i in non_empty:
+            doc = next(docs, None) if nlp is not None else None
+            results[i] = build_process_response(texts[i], doc, include_pos=include_pos)
+        
+        elapsed = time.perf_counter() - started
+        rate = len(texts) / elapsed if elapsed > 0 else 0.0
+        logger.info(f"✅ Batch processed: {len(texts)} texts in {elapsed * 1000:.1f} ms ({rate:.0f} utterances/s)")
+        
+        return jsonify({
+            "success": True,
+            "count": len(texts),
+            "results": results,
+            "elapsed_ms": round(elapsed * 1000, 1),
+            "utterances_per_second": round(rate, 1)
+        }), 200
     
     except Exception as e:
-        logger.error(f"❌ Error processing text: {str(e)}")
+        logger.error(f"❌ Error processing batch: {str(e)}")
         return jsonify({"error": str(e), "success": False}), 500
 
 @app.route("/entities", methods=["POST"])
@@ -320,7 +493,7 @@ def extract_entities_only():
         if not user_text:
             return jsonify({"error": "Empty text provided"}), 400
         
-        doc = nlp(user_text) if nlp is not None else None
+        doc = parse(user_text, "entities")
         entities = extract_entities(doc, user_text)
         
         return jsonify({"success": True, "entities": entities}), 200
@@ -347,8 +520,8 @@ def detect_intent_only():
         if not user_text:
             return jsonify({"error": "Empty text provided"}), 400
         
-        doc = nlp(user_text) if nlp is not None else None
-        entities = extract_entities(doc, user_text)
+        # Intent scoring is keyword-based: no model run needed
+        entities = extract_entities(None, user_text)
         intent = detect_intent(user_text, entities)
         
         return jsonify({"success": True, "intent": intent}), 200
@@ -375,8 +548,8 @@ def extract_route():
         if nlp is None:
             return jsonify({"error": "spaCy model not loaded"}), 500
         
-        doc = nlp(user_text)
-        entities = extract_entities(doc)
+        doc = parse(user_text, "extract-route")
+        entities = extract_entities(doc, user_text)
         route = extract_route_from_text(user_text, entities)
         
         return jsonify({"success": True, "route": route}), 200
@@ -391,8 +564,10 @@ if __name__ == "__main__":
     logger.info("Available endpoints:")
     logger.info("  - GET  /health")
     logger.info("  - POST /process")
+    logger.info("  - POST /process/batch")
     logger.info("  - POST /entities")
     logger.info("  - POST /intent")
     logger.info("  - POST /extract-route")
+    logger.info("(single process; use serve.py for the multi-worker serving mode)")
     
     app.run(host="0.0.0.0", port=5000, debug=False)
@@ -0,0 +1,129 @@
+"""
+Load test for the spaCy NLP Microservice
+
+Runs N concurrent clients (threads, one keep-alive connection each) that
+POST chatbot-style utterances for a fixed time, then reports throughput and
+p50/p90/p99/max latency per endpoint. Standard library only, so it runs
+against either app.py or serve.py without extra installs.
+
+Usage: python load_test.py [--url http://localhost:5000] [--clients 100]
+                           [--duration 30] [--warmup 5]
+                           [--endpoints process,intent,entities,extract-route]
+"""
+
+import argparse
+import http.client
+import json
+import math
+import random
+import threading
+import time
+from urllib.parse import urlparse
+
+UTTERANCES = [
+    "Book a flight from Delhi to Mumbai on 2026-11-02",
+    "I want to fly business class from Bangalore to Kolkata",
+    "Show my bookings",
+    "Cancel my booking for tomorrow",
+    "What is the status of my flight to Goa?",
+    "Are there any flights from Hyderabad to Pune next Friday?",
+    "Generate my boarding pass",
+    "Look up customer with aadhaar 1234 5678 9012",
+    "How much is an economy ticket from BOM to BLR?",
+    "I need to travel from Jaipur to New Delhi on 15/12/2026",
+    "Reserve two seats to Chennai with Air India",
+    "help",
+]
+
+def percentile(sorted_values, p):
+    """Nearest-rank percentile of an already sorted list"""
+    if not sorted_values:
+        return 0.0
+    rank = max(1, math.ceil(p / 100.0 * len(sorted_values)))
+    return sorted_values[rank - 1]
+
+class Client(threading.Thread):
+    def __init__(self, target, endpoints, start_at, stop_at, seed):
+        super().__init__(daemon=True)
+        self.target = target
+        self.endpoints = endpoints
+        self.start_at = start_at
+        self.stop_at = stop_at
+        self.random = random.Random(seed)
+        self.latencies = {endpoint: [] for endpoint in endpoints}
+        self.errors = {endpoint: 0 for endpoint in endpoints}
+
+    def connect(self):
+        return http.client.HTTPConnection(self.target.hostname, self.target.port or 80, timeout=30)
+
+    def run(self):
+        connection = self.connect()
+        headers = {"Content-Type": "application/json"}
+        while True:
+            now = time.perf_counter()
+            if now >= self.stop_at:
+                break
+            endpoint = self.random.choice(self.endpoints)
+            body = json.dumps({"text": self.random.choice(UTTERANCES)})
+            try:
+                connection.request("POST", "/" + endpoint, body=body, headers=headers)
+                response = connection.getresponse()
+                response.read()
+                ok = response.status == 200
+            except (OSError, http.client.HTTPException):
+                ok = False
+                connection.close()
+                connection = self.connect()
+            elapsed_ms = (time.perf_counter() - now) * 1000.0
+
+            if now < self.start_at:
+                continue  # warm-up: not measured
+            if ok:
+                self.latencies[endpoint].append(elapsed_ms)
+            else:
+                self.errors[endpoint] += 1
+        connection.close()
+
+def main():
+    parser = argparse.ArgumentParser(description="spaCy NLP service load test")
+    parser.add_argument("--url", default="http://localhost:5000")
+    parser.add_argument("--clients", type=int, default=100)
+    parser.add_argument("--duration", type=float, default=30.0, help="measured seconds")
+    parser.add_argument("--warmup", type=float, default=5.0, help="unmeasured seconds first")
+    parser.add_argument("--endpoints", default="process,intent,entities,extract-route")
+    args = parser.parse_args()
+
+    target = urlparse(args.url)
+    endpoints = [endpoint.strip().strip("/") for endpoint in args.endpoints.split(",") if endpoint.strip()]
+
+    print("==============================================")
+    print("spaCy NLP Service Load Test")
+    print(f"url={args.url} clients={args.clients} duration={args.duration}s warmup={args.warmup}s")
+    print("==============================================\n")
+
+    start_at = time.perf_counter() + args.warmup
+    stop_at = start_at + args.duration
+    clients = [Client(target, endpoints, start_at, stop_at, seed) for seed in range(args.clients)]
+    for client in clients:
+        client.start()
+    for client in clients:
+        client.join()
+
+    print(f"{'endpoint':<15}{'requests':>10}{'errors':>8}{'req/s':>10}"
+          f"{'p50 ms':>10}{'p90 ms':>10}{'p99 ms':>10}{'max ms':>10}")
+    all_latencies = []
+    total_errors = 0
+    for endpoint in endpoints + ["(all)"]:
+        if endpoint == "(all)":
+            latencies, errors = sorted(all_latencies), total_errors
+        else:
+            latencies = sorted(l for client in clients for l in client.latencies[endpoint])
+            errors = sum(client.errors[endpoint] for client in clients)
+            all_latencies.extend(latencies)
+            total_errors += errors
+        print(f"{endpoint:<15}{len(latencies):>10}{errors:>8}{len(latencies) / args.duration:>10.1f}"
+              f"{percentile(latencies, 50):>10.1f}{percentile(latencies, 90):>10.1f}"
+              f"{percentile(latencies, 99):>10.1f}{(latencies[-1] if latencies else 0.0):>10.1f}")
+
+if __name__ == "__main__":
+    main()
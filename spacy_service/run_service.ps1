@@ -1,4 +1,7 @@
 # PowerShell script to run the spaCy NLP service
+# -Workers N (N > 1) starts the multi-worker serving mode (serve.py)
+param([int]$Workers = 1)
+
 Write-Host "================================"
 Write-Host "  spaCy NLP Microservice"
 Write-Host "================================"
@@ -7,6 +10,7 @@ Write-Host ""
 $serviceDir = Get-Location
 $pythonExe = "$serviceDir\venv\Scripts\python.exe"
 $appFile = "$serviceDir\app.py"
+$serveFile = "$serviceDir\serve.py"
 
 # Check if Python exists
 if (-not (Test-Path $pythonExe)) {
@@ -24,4 +28,9 @@ Write-Host "================================"
 Write-Host ""
 
 # Run Python with the app
-& $pythonExe $appFile
+if ($Workers -gt 1) {
+    Write-Host "Multi-worker mode: $Workers workers"
+    & $pythonExe $serveFile --workers $Workers
+} else {
+    & $pythonExe $appFile
+}
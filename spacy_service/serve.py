@@ -0,0 +1,89 @@
+"""
+Multi-worker serving mode for the spaCy NLP Microservice
+
+The main process binds the listening socket and starts N worker processes
+that all accept on it. Each worker imports app.py (loading the spaCy model
+once, in that process) and serves it with waitress on a pool of threads;
+concurrent requests inside a worker are micro-batched through nlp.pipe
+(see MicroBatcher in app.py). Workers that die are restarted.
+
+Usage: python serve.py [--workers N] [--threads T] [--host H] [--port P]
+                       [--batch-max B] [--batch-wait-ms W]
+"""
+
+import argparse
+import logging
+import multiprocessing
+import os
+import socket
+import time
+
+logging.basicConfig(level=logging.INFO)
+logger = logging.getLogger("serve")
+
+def run_worker(sock, threads, batch_max, batch_wait_ms):
+    """Worker process: load the model, then serve on the shared socket"""
+    # Read by app.py at import time
+    os.environ["SPACY_BATCH_MAX"] = str(batch_max)
+    os.environ["SPACY_BATCH_WAIT_MS"] = str(batch_wait_ms)
+
+    from waitress import serve
+    import app as service
+
+    logger.info(f"✅ Worker {os.getpid()} ready ({threads} threads)")
+    sock.setblocking(False)
+    serve(service.app, sockets=[sock], threads=threads, ident="spacy-nlp")
+
+def main():
+    parser = argparse.ArgumentParser(description="Multi-worker spaCy NLP service")
+    parser.add_argument("--host", default="0.0.0.0")
+    parser.add_argument("--port", type=int, default=5000)
+    parser.add_argument("--workers", type=int, default=max(1, min(os.cpu_count() or 1, 4)),
+                        help="worker processes, one model each (default: CPUs, at most 4)")
+    parser.add_argument("--threads", type=int, default=32,
+                        help="request threads per worker; these feed the micro-batcher")
+    parser.add_argument("--batch-max", type=int, default=32,
+                        help="most texts per micro-batch (1 disables micro-batching)")
+    parser.add_argument("--batch-wait-ms", type=float, default=0.0,
+                        help="extra time to wait for a micro-batch to fill")
+    args = parser.parse_args()
+
+    sock = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+    sock.setsockopt(socket.SOL_SOCKET, socket.SO_REUSEADDR, 1)
+    sock.bind((args.host, args.port))
+    sock.listen(1024)
+
+    # spawn on every platform, so each worker loads the model itself instead
+    # of inheriting half-initialized state from a fork
+    context = multiprocessing.get_context("spawn")
+    worker_args = (sock, args.threads, args.batch_max, args.batch_wait_ms)
+
+    def start_worker():
+        process = context.Process(target=run_worker, args=worker_args, daemon=True)
+        process.start()
+        return process
+
+    logger.info("🚀 Starting spaCy NLP Microservice (multi-worker)...")
+    logger.info(f"📡 Service running on http://{args.host}:{args.port}")
+    logger.info(f"   {args.workers} workers x {args.threads} threads, "
+                f"micro-batch max {args.batch_max}, wait {args.batch_wait_ms} ms")
+
+    workers = [start_worker() for _ in range(args.workers)]
+    try:
+        while True:
+            time.sleep(1)
+            for i, process in enumerate(workers):
+                if not process.is_alive():
+                    logger.warning(f"⚠️  Worker {process.pid} exited ({process.exitcode}); restarting")
+                    workers[i] = start_worker()
+    except KeyboardInterrupt:
+        logger.info("Stopping workers...")
+    finally:
+        for process in workers:
+            process.terminate()
+        for process in workers:
+            process.join(5)
+        sock.close()
+
+if __name__ == "__main__":
+    main()
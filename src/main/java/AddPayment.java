@@ -2,7 +2,7 @@ package com.mycompany.airlinereservation;
 
 import javax.swing.*;
 import java.awt.*;
-import java.sql.*;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.awt.event.ActionEvent;
 
 public class AddPayment extends JFrame {
@@ -10,6 +10,7 @@ public class AddPayment extends JFrame {
 
     private JTextField txtPnr, txtAmount;
     private JComboBox<String> comboMethod, comboStatus;
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     public AddPayment() {
         setTitle("💳 Record Payment");
@@ -67,10 +68,6 @@ public class AddPayment extends JFrame {
         setVisible(true);
     }
 
-    private Connection getConnection() throws SQLException {
-        return com.mycompany.airlinereservation.DBConnection.getConnection();
-    }
-
     private void handleRecordPayment(ActionEvent e) {
         String pnr = txtPnr.getText().trim().toUpperCase();
         String amountStr = txtAmount.getText().trim();
@@ -90,21 +87,10 @@ public class AddPayment extends JFrame {
             return;
         }
 
-        // SQL to insert payment record. transaction_date uses NOW() to record current time.
-        String sql = "INSERT INTO payments (pnr, amount, payment_method, payment_status, transaction_date) VALUES (?, ?, ?, ?, NOW())";
-
-        try (Connection con = getConnection();
-             PreparedStatement pst = con.prepareStatement(sql)) {
-
-            // Validate PNR exists in the ticket table (Good practice, but skipped for simplicity)
-
-            pst.setString(1, pnr);
-            pst.setDouble(2, amount);
-            pst.setString(3, method);
-            pst.setString(4, status);
-
-            int rows = pst.executeUpdate();
-            if (rows > 0) {
+        // Validate PNR exists in the ticket table (Good practice, but skipped for simplicity)
+        // transaction_date is recorded as NOW() by the repository
+        db.update(() -> com.mycompany.airlinereservation.PaymentRepository.insert(pnr, amount, method, status), recorded -> {
+            if (recorded) {
                 JOptionPane.showMessageDialog(this, "✅ Payment recorded successfully for PNR " + pnr + "!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 // Clear fields
                 txtPnr.setText("");
@@ -114,14 +100,15 @@ public class AddPayment extends JFrame {
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to record payment.", "Error", JOptionPane.ERROR_MESSAGE);
             }
-
-        } catch (SQLIntegrityConstraintViolationException ex) {
-             // Likely a foreign key constraint failure if PNR does not exist in the ticket table
-             JOptionPane.showMessageDialog(this, "Invalid PNR. Please ensure the ticket exists.", "Database Error", JOptionPane.ERROR_MESSAGE);
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Database Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ex -> {
+            if (ex instanceof SQLIntegrityConstraintViolationException) {
+                // Likely a foreign key constraint failure if PNR does not exist in the ticket table
+                JOptionPane.showMessageDialog(this, "Invalid PNR. Please ensure the ticket exists.", "Database Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                ex.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Database Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
 
     public static void main(String[] args) {
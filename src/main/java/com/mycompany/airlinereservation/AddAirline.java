@@ -3,17 +3,14 @@ package com.mycompany.airlinereservation;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.sql.*;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.Objects;
 
 public class AddAirline extends JFrame {
 
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/airline_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "Spoorthi@2005";
-
     private JTextField txtAirlineName;
     private JTextField txtRating; // Decimal(2,1)
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     public AddAirline() {
         setTitle("✈️ Add New Airline");
@@ -64,10 +61,6 @@ public class AddAirline extends JFrame {
         setVisible(true);
     }
 
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-    }
-
     private void handleAddAirline(ActionEvent event) {
         Objects.requireNonNull(event, "event");
         String name = txtAirlineName.getText().trim();
@@ -94,33 +87,23 @@ public class AddAirline extends JFrame {
         }
 
 
-        String sql = "INSERT INTO airlines (airline_name, rating) VALUES (?, ?)";
-
-        try (Connection con = getConnection();
-             PreparedStatement pst = con.prepareStatement(sql)) {
-
-            pst.setString(1, name);
-            // Handle NULL for rating if not provided, otherwise set the parsed value
-            if (ratingStr.isEmpty()) {
-                pst.setNull(2, Types.DECIMAL); 
-            } else {
-                pst.setDouble(2, rating);
-            }
-
-            int rows = pst.executeUpdate();
-            if (rows > 0) {
+        // Handle NULL for rating if not provided, otherwise store the parsed value
+        Double ratingValue = ratingStr.isEmpty() ? null : rating;
+        db.update(() -> AirlineRepository.insert(name, ratingValue), added -> {
+            if (added) {
                 JOptionPane.showMessageDialog(this, "✅ Airline '" + name + "' added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 txtAirlineName.setText("");
                 txtRating.setText("");
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to add airline.", "Error", JOptionPane.ERROR_MESSAGE);
             }
-
-        } catch (SQLIntegrityConstraintViolationException ex) {
-             JOptionPane.showMessageDialog(this, "Airline name may already exist.", "Database Error", JOptionPane.ERROR_MESSAGE);
-        } catch (SQLException ex) {
-            ThemeManager.showError(this, "Database Error: " + ex.getMessage());
-        }
+        }, ex -> {
+            if (ex instanceof SQLIntegrityConstraintViolationException) {
+                JOptionPane.showMessageDialog(this, "Airline name may already exist.", "Database Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                ThemeManager.showError(this, "Database Error: " + ex.getMessage());
+            }
+        });
     }
 
     public static void main(String[] args) {
@@ -3,25 +3,18 @@ package com.mycompany.airlinereservation;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 public class AddCustomer extends JFrame {
 
-    // 🚨 1. JDBC CONNECTION CONSTANTS (UPDATE THESE)
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/airline_db"; 
-    private static final String DB_USER = "root"; 
-    private static final String DB_PASSWORD = "Spoorthi@2005"; 
-    
-    // 🚨 2. Form fields declared as instance variables so the ActionListener can access them
+    // 🚨 1. Form fields declared as instance variables so the ActionListener can access them
     private JTextField nameField;
     private JTextField nationalityField;
     private JTextField phoneField;
     private JTextField addressField;
     private JTextField aadharField;
     private JComboBox<String> genderBox;
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     public AddCustomer() {
         setTitle("Add Customer Details");
@@ -131,33 +124,29 @@ public class AddCustomer extends JFrame {
             JOptionPane.showMessageDialog(this, "Please select a gender!");
             return;
         }
-        // Attempt to save data
-        if (addCustomerToDatabase()) {
-            JOptionPane.showMessageDialog(this, "Customer Added Successfully!");
-            dispose();
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to add customer. Check console for details.", "Database Error", JOptionPane.ERROR_MESSAGE);
-        }
+        // Read the form on the EDT, then save it in the background
+        String name = nameField.getText();
+        String nationality = nationalityField.getText();
+        String phone = phoneField.getText();
+        String address = addressField.getText();
+        String aadhar = aadharField.getText();
+        String gender = (String) genderBox.getSelectedItem();
+        db.update(() -> addCustomerToDatabase(name, nationality, phone, address, aadhar, gender), added -> {
+            if (added) {
+                JOptionPane.showMessageDialog(this, "Customer Added Successfully!");
+                dispose();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to add customer. Check console for details.", "Database Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }, null);
     }
 
-    // 🚨 4. Database insertion method
-    private boolean addCustomerToDatabase() {
-        String sql = "INSERT INTO customer (name, nationality, phone, address, aadhar_no, gender) VALUES (?, ?, ?, ?, ?, ?)";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Set the values from the form fields
-            pstmt.setString(1, nameField.getText());
-            pstmt.setString(2, nationalityField.getText());
-            pstmt.setString(3, phoneField.getText());
-            pstmt.setString(4, addressField.getText());
-            pstmt.setString(5, aadharField.getText());
-            pstmt.setString(6, (String) genderBox.getSelectedItem());
-
-            // Execute the insertion
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+    // 🚨 2. Database insertion method (runs off the EDT)
+    private static boolean addCustomerToDatabase(String name, String nationality, String phone,
+                                                 String address, String aadhar, String gender) {
+        try {
+            // Insert the values from the form fields
+            return CustomerRepository.insert(name, nationality, phone, address, aadhar, gender);
 
         } catch (SQLException ex) {
             System.err.println("SQL Error during customer insertion: " + ex.getMessage());
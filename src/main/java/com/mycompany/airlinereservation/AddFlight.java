@@ -2,18 +2,13 @@ package com.mycompany.airlinereservation;
 
 import javax.swing.*;
 import java.awt.*;
-import java.sql.*;
-import java.time.LocalDateTime;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 
 public class AddFlight extends JFrame {
 
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/airline_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "Spoorthi@2005";
-
     private JTextField txtCode, txtName, txtSource, txtDest, txtPrice, txtSeats, txtTotalSeats;
     private JTextField txtDepartureTime, txtArrivalTime; // For datetime input
     private JComboBox<String> comboAirline;
@@ -21,6 +16,8 @@ public class AddFlight extends JFrame {
     // Map to store Airline Name -> Airline ID for insertion
     private Map<String, Integer> airlineMap = new HashMap<>();
 
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
+
     public AddFlight() {
         setTitle("✈️ Add New Flight Information");
         setSize(650, 600);
@@ -167,33 +164,22 @@ public class AddFlight extends JFrame {
         setVisible(true);
     }
     
-    // Helper to get Connection
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-    }
-    
     // Load Airlines from DB into the ComboBox
     private void loadAirlines() {
-        String sql = "SELECT airline_id, airline_name FROM airlines ORDER BY airline_name";
-        try (Connection con = getConnection();
-             PreparedStatement pst = con.prepareStatement(sql);
-             ResultSet rs = pst.executeQuery()) {
-            
+        db.query(AirlineRepository::findAirlineIds, airlines -> {
             comboAirline.removeAllItems();
-            while (rs.next()) {
-                String name = rs.getString("airline_name");
-                int id = rs.getInt("airline_id");
-                airlineMap.put(name, id);
-                comboAirline.addItem(name);
+            airlineMap.clear();
+            for (Map.Entry<String, Integer> airline : airlines.entrySet()) {
+                airlineMap.put(airline.getKey(), airline.getValue());
+                comboAirline.addItem(airline.getKey());
             }
             if (comboAirline.getItemCount() == 0) {
                 JOptionPane.showMessageDialog(this, "No airlines found. Please add an airline first.", "Setup Required", JOptionPane.WARNING_MESSAGE);
             }
-            
-        } catch (SQLException e) {
+        }, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error loading airlines: " + e.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     private void handleAddFlight() {
@@ -244,35 +230,28 @@ public class AddFlight extends JFrame {
             return;
         }
 
-        String sql = "INSERT INTO flight (flight_code, flight_name, airline_id, source, destination, price, seats_available, total_seats, departure_time, arrival_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-        try (Connection con = getConnection();
-             PreparedStatement pst = con.prepareStatement(sql)) {
-
-            pst.setString(1, code);
-            pst.setString(2, name);
-            pst.setInt(3, airlineId); // Using the retrieved ID
-            pst.setString(4, source);
-            pst.setString(5, dest);
-            pst.setDouble(6, price);
-            pst.setInt(7, seats);
-            pst.setInt(8, totalSeats);
-            pst.setTimestamp(9, Timestamp.valueOf(LocalDateTime.parse(deptTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
-            pst.setTimestamp(10, Timestamp.valueOf(LocalDateTime.parse(arrTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
-
-            int rows = pst.executeUpdate();
-            if (rows > 0) {
+        // Times were validated above as yyyy-MM-dd HH:mm:ss
+        db.update(() -> {
+            boolean added = FlightRepository.insert(code, name, airlineId, source, dest, price,
+                    seats, totalSeats, deptTimeStr, arrTimeStr);
+            if (added) {
+                RouteIndex.refresh(); // make the new flight searchable right away
+            }
+            return added;
+        }, added -> {
+            if (added) {
                 JOptionPane.showMessageDialog(this, "✅ Flight '" + code + "' added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 // Clear fields after success
                 clearFields();
             }
-
-        } catch (SQLIntegrityConstraintViolationException ex) {
-            JOptionPane.showMessageDialog(this, "Flight Code already exists. Please choose a unique code.", "Database Error", JOptionPane.ERROR_MESSAGE);
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Database Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ex -> {
+            if (ex instanceof SQLIntegrityConstraintViolationException) {
+                JOptionPane.showMessageDialog(this, "Flight Code already exists. Please choose a unique code.", "Database Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                ex.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Database Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
     
     private void clearFields() {
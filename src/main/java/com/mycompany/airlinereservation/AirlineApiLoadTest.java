@@ -0,0 +1,145 @@
+package com.mycompany.airlinereservation;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AirlineApiLoadTest.java - Concurrent clients against a running AirlineApiServer
+ *
+ * Each client (a virtual thread) loops over a read mix for a fixed time:
+ * - 60% GET /api/flights (direct search on the given route)
+ * - 20% GET /api/itineraries (same route, with connections)
+ * - 20% GET /api/bookings?username= (a user's bookings)
+ *
+ * and reports requests/s, status codes, and p50/p95/p99/max latency per
+ * endpoint. Read-only, so it can run against a shared database.
+ * The bookings reads need a session: pass a token from POST /api/sessions
+ * (for that username, or an Admin's), otherwise they are all answered 401.
+ *
+ * Usage: AirlineApiLoadTest [url=http://127.0.0.1:8080] [clients=100] [seconds=30]
+ *                           [from=Delhi] [to=Mumbai] [username=testuser] [token]
+ */
+public class AirlineApiLoadTest {
+
+    private record Target(String name, String path, int weight) {
+    }
+
+    private static final class Stats {
+        final List<Long> latencyMicros = new ArrayList<>();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder errors = new LongAdder();
+
+        synchronized void record(long micros) {
+            latencyMicros.add(micros);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://127.0.0.1:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String from = args.length > 3 ? args[3] : "Delhi";
+        String to = args.length > 4 ? args[4] : "Mumbai";
+        String username = args.length > 5 ? args[5] : "testuser";
+        String token = args.length > 6 ? args[6] : null;
+
+        String route = "from=" + encode(from) + "&to=" + encode(to);
+        List<Target> targets = List.of(
+                new Target("flights", "/api/flights?" + route, 60),
+                new Target("itineraries", "/api/itineraries?" + route, 20),
+                new Target("bookings", "/api/bookings?username=" + encode(username), 20));
+        Map<String, Stats> stats = new TreeMap<>();
+        targets.forEach(target -> stats.put(target.name(), new Stats()));
+
+        System.out.println("==============================================");
+        System.out.println("Airline API Load Test");
+        System.out.println("url=" + url + " clients=" + clients + " seconds=" + seconds);
+        System.out.println("==============================================\n");
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(seconds).toNanos();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                pool.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Target target = pick(targets);
+                        Stats s = stats.get(target.name());
+                        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url + target.path()))
+                                .timeout(Duration.ofSeconds(10)).GET();
+                        if (token != null) {
+                            builder.header("Authorization", "Bearer " + token);
+                        }
+                        HttpRequest request = builder.build();
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            s.statuses.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+                            s.record((System.nanoTime() - t0) / 1_000);
+                        } catch (java.io.IOException e) {
+                            s.errors.increment();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                });
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            long[] sorted = s.latencyMicros.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.println("▶ " + entry.getKey());
+            System.out.printf("  requests=%d (%.0f/s) statuses=%s errors=%d%n",
+                    sorted.length, sorted.length / elapsed, new TreeMap<>(s.statuses), s.errors.sum());
+            if (sorted.length > 0) {
+                System.out.printf("  latency ms: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n%n",
+                        percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                        sorted[sorted.length - 1] / 1000.0);
+            }
+        }
+        long total = stats.values().stream().mapToLong(s -> s.latencyMicros.size()).sum();
+        System.out.printf("Total: %d requests in %.1f s (%.0f/s)%n", total, elapsed, total / elapsed);
+        System.exit(0);
+    }
+
+    private static Target pick(List<Target> targets) {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (Target target : targets) {
+            roll -= target.weight();
+            if (roll < 0) {
+                return target;
+            }
+        }
+        return targets.get(targets.size() - 1);
+    }
+
+    private static double percentile(long[] sortedMicros, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sortedMicros.length) - 1;
+        return sortedMicros[Math.max(0, index)] / 1000.0;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
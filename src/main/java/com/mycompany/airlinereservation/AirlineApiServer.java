@@ -0,0 +1,524 @@
+package com.mycompany.airlinereservation;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * AirlineApiServer.java - Headless JSON API over AirlineService
+ *
+ * Lets the web frontend and kiosks share one JVM, and its connection pool,
+ * without the Swing screens. JDK HttpServer with one virtual thread per
+ * request; no framework.
+ *
+ * Endpoints:
+ * - GET    /api/health                          pool and request counters
+ * - GET    /api/flights?from=&to=[&date=]       direct flights
+ * - GET    /api/flights/{code}
+ * - GET    /api/itineraries?from=&to=[&date=]   direct, 1-stop and 2-stop
+ * - GET    /api/bookings?username=
+ * - POST   /api/bookings                        {username, passengerName, flightCode, date, travelClass, aadhaar}
+ * - GET    /api/bookings/{pnr}
+ * - DELETE /api/bookings/{pnr}                  cancel
+ * - GET    /api/tickets/{pnr}
+ * - GET    /api/payments/{pnr}
+ * - POST   /api/boarding-passes                 {pnr, passengerName, flightCode, boardingTime, gateNumber, seatNumber}
+ * - GET    /api/boarding-passes/{pnr}
+ * - POST   /api/sessions                        {username, password[, role=Customer]} -> {token, ...}
+ * - GET    /api/sessions                        the caller's session
+ * - DELETE /api/sessions                        log out
+ *
+ * Sessions: requests carrying "Authorization: Bearer <token>" act as that
+ * session's user (see SessionManager). A Customer only sees their own
+ * bookings, tickets, payments and boarding passes - other users' PNRs are
+ * answered 404 - and books as themselves; an Admin may act for anyone.
+ * Everything needs a session except health, login and the flight and
+ * itinerary searches; airline.api.requireSession=true closes the searches
+ * too. For local development only, airline.api.allowAnonymous=true serves
+ * every endpoint without a token (acting for the "username" named, with
+ * no ownership checks).
+ *
+ * Errors come back as {"error": "..."}: 400 bad input, 401 missing, unknown
+ * or expired token, 403 acting for another user, 404, 405, 409 sold
+ * out, already cancelled or boarding pass already issued, 413 body over
+ * 64 KiB, 500, and 503 when the database is unreachable or once
+ * airline.api.maxInFlight requests (default 200) are already running -
+ * shed rather than queued up behind the connection pool. A database
+ * failure is never answered as an empty 200 or a 404.
+ *
+ * Usage: AirlineApiServer [port=8080]
+ * Binds airline.api.host (default 127.0.0.1); see AirlineApiLoadTest.
+ */
+public final class AirlineApiServer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(AirlineApiServer.class.getName());
+
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("airline.api.maxInFlight", 200);
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final boolean REQUIRE_SESSION = Boolean.getBoolean("airline.api.requireSession");
+    private static final boolean ALLOW_ANONYMOUS = Boolean.getBoolean("airline.api.allowAnonymous");
+    // Served without a token unless airline.api.requireSession=true (health never needs one)
+    private static final Set<String> PUBLIC_PATHS = Set.of("/api/flights", "/api/itineraries");
+    private static final String BEARER = "Bearer ";
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Answered as {"error": message} with the given status
+     */
+    private static final class ApiException extends Exception {
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(HttpExchange exchange, String id) throws ApiException, SQLException, IOException;
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Bind (port 0 picks a free one, see port()); call start() to serve
+     */
+    public AirlineApiServer(String host, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 1024);
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("airline-api-", 0).factory());
+        server.setExecutor(executor);
+
+        route("/api/health", "GET", (exchange, id) -> health());
+        route("/api/flights", "GET", this::flights);
+        route("/api/itineraries", "GET", (exchange, id) -> {
+            Map<String, String> query = query(exchange);
+            return AirlineService.searchItineraries(required(query, "from"), required(query, "to"), query.get("date"));
+        });
+        route("/api/bookings", null, this::bookings);
+        route("/api/tickets", "GET", (exchange, id) -> {
+            requireOwner(exchange, requiredId(id));
+            return found(AirlineService.getTicketByPNR(id), "Ticket");
+        });
+        route("/api/payments", "GET", (exchange, id) -> {
+            requireOwner(exchange, requiredId(id));
+            return found(AirlineService.getPaymentByPNR(id), "Payment");
+        });
+        route("/api/boarding-passes", null, this::boardingPasses);
+        route("/api/sessions", null, this::sessions);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                send(exchange, 404, error("Not found"));
+            }
+        });
+    }
+
+    public AirlineApiServer start() {
+        server.start();
+        LOGGER.info("🚀 Airline API serving on " + url());
+        return this;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + port();
+    }
+
+    // ==================== Endpoints ====================
+
+    private Object flights(HttpExchange exchange, String code) throws ApiException, SQLException {
+        if (code != null) {
+            AirlineService.Flight flight = AirlineService.getFlightByCode(code);
+            if (flight == null) {
+                throw new ApiException(404, "Flight not found: " + code);
+            }
+            return flight;
+        }
+        Map<String, String> query = query(exchange);
+        return AirlineService.searchFlights(required(query, "from"), required(query, "to"), query.get("date"));
+    }
+
+    private Object bookings(HttpExchange exchange, String pnr) throws ApiException, SQLException, IOException {
+        String method = exchange.getRequestMethod();
+        if (pnr == null) {
+            if ("GET".equals(method)) {
+                return AirlineService.getBookingsByUsername(actingUser(exchange, query(exchange).get("username")));
+            }
+            requireMethod(method, "POST");
+            JsonObject body = body(exchange);
+            String username = actingUser(exchange, optional(body, "username", null));
+            String flightCode = required(body, "flightCode");
+            try {
+                String created = AirlineService.createBooking(username, required(body, "passengerName"), flightCode,
+                        required(body, "date"), required(body, "travelClass"), required(body, "aadhaar"));
+                exchange.getResponseHeaders().set("Location", "/api/bookings/" + created);
+                return new Created(Map.of("pnr", created));
+            } catch (FlightRepository.SeatUnavailableException e) {
+                throw new ApiException(e.flightExists() ? 409 : 404, e.getMessage());
+            } catch (SQLException e) {
+                if (e.getMessage() != null && e.getMessage().startsWith("Flight not found")) {
+                    throw new ApiException(404, e.getMessage());
+                }
+                throw e;
+            }
+        }
+
+        requireOwner(exchange, pnr);
+        if ("DELETE".equals(method)) {
+            if (AirlineService.cancelBooking(pnr)) {
+                return Map.of("pnr", pnr, "status", "Cancelled");
+            }
+            found(AirlineService.getBookingByPNR(pnr), "Booking");
+            throw new ApiException(409, "Booking " + pnr + " is already cancelled");
+        }
+        requireMethod(method, "GET");
+        return found(AirlineService.getBookingByPNR(pnr), "Booking");
+    }
+
+    private Object boardingPasses(HttpExchange exchange, String pnr) throws ApiException, SQLException, IOException {
+        if (pnr != null) {
+            requireMethod(exchange.getRequestMethod(), "GET");
+            requireOwner(exchange, pnr);
+            return found(AirlineService.getBoardingPassByPNR(pnr), "Boarding pass");
+        }
+        requireMethod(exchange.getRequestMethod(), "POST");
+        JsonObject body = body(exchange);
+        String forPnr = required(body, "pnr");
+        requireOwner(exchange, forPnr);
+        found(AirlineService.getBookingByPNR(forPnr), "Booking");
+        boolean created;
+        try {
+            created = AirlineService.createBoardingPass(forPnr, required(body, "passengerName"),
+                    required(body, "flightCode"), required(body, "boardingTime"), required(body, "gateNumber"),
+                    required(body, "seatNumber"));
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw new ApiException(409, "Boarding pass already issued for " + forPnr);
+        }
+        if (!created) {
+            throw new ApiException(500, "Boarding pass was not created");
+        }
+        return new Created(found(AirlineService.getBoardingPassByPNR(forPnr), "Boarding pass"));
+    }
+
+    private Object sessions(HttpExchange exchange, String id) throws ApiException, SQLException, IOException {
+        if (id != null) {
+            throw new ApiException(404, "Not found");
+        }
+        SessionManager manager = SessionManager.getInstance();
+        String method = exchange.getRequestMethod();
+        if ("POST".equals(method)) {
+            JsonObject body = body(exchange);
+            String username = required(body, "username");
+            String role = optional(body, "role", "Customer");
+            if (!Login.authenticate(username, required(body, "password"), role)) {
+                throw new ApiException(401, "Invalid credentials or role");
+            }
+            return new Created(describe(manager.createSession(username, role), true));
+        }
+        SessionManager.Session session = session(exchange);
+        if (session == null) {
+            throw new ApiException(401, "Missing bearer token");
+        }
+        if ("DELETE".equals(method)) {
+            manager.invalidate(session.getToken());
+            return Map.of("status", "Logged out");
+        }
+        requireMethod(method, "GET");
+        return describe(session, false);
+    }
+
+    private static JsonObject describe(SessionManager.Session session, boolean withToken) {
+        JsonObject json = new JsonObject();
+        if (withToken) {
+            json.addProperty("token", session.getToken());
+        }
+        json.addProperty("username", session.getUsername());
+        json.addProperty("role", session.getRole());
+        json.addProperty("expiresInSeconds",
+                Math.max(0, (session.getExpiresAtMillis() - System.currentTimeMillis()) / 1000));
+        return json;
+    }
+
+    private JsonObject health() {
+        JsonObject health = new JsonObject();
+        health.addProperty("status", "healthy");
+        health.addProperty("requests", requests.sum());
+        health.addProperty("rejected", rejected.sum());
+        health.addProperty("failures", failures.sum());
+        health.addProperty("inFlight", MAX_IN_FLIGHT - inFlight.availablePermits());
+        health.addProperty("sessions", SessionManager.getInstance().getActiveSessionCount());
+        health.addProperty("pool", DBConnection.getPoolStats().toString());
+        return health;
+    }
+
+    // ==================== Plumbing ====================
+
+    // 201 with the wrapped value as the body
+    private record Created(Object value) {
+    }
+
+    /**
+     * Serve path and path/{id}; method null means the handler checks it
+     */
+    private void route(String path, String method, Handler handler) {
+        server.createContext(path, exchange -> {
+            requests.increment();
+            if (!inFlight.tryAcquire()) {
+                rejected.increment();
+                send(exchange, 503, error("Server busy, retry shortly"));
+                return;
+            }
+            try {
+                String rest = exchange.getRequestURI().getPath().substring(path.length());
+                String id = rest.isEmpty() || rest.equals("/") ? null : rest.substring(1);
+                if (id != null && id.contains("/")) {
+                    throw new ApiException(404, "Not found");
+                }
+                if (method != null) {
+                    requireMethod(exchange.getRequestMethod(), method);
+                }
+                if (!"/api/health".equals(path)) {
+                    session(exchange); // 401 for a bad token, or no token when one is required
+                }
+                Object result = handler.handle(exchange, id);
+                if (result instanceof Created created) {
+                    send(exchange, 201, created.value());
+                } else {
+                    send(exchange, 200, result);
+                }
+            } catch (ApiException e) {
+                if (e.status >= 500) {
+                    failures.increment();
+                }
+                send(exchange, e.status, error(e.getMessage()));
+            } catch (SQLTransientException | SQLNonTransientConnectionException | SQLRecoverableException e) {
+                failures.increment();
+                LOGGER.log(Level.WARNING, "❌ " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI() + " - database unavailable: " + e.getMessage());
+                send(exchange, 503, error("Database unavailable, retry shortly"));
+            } catch (SQLException | RuntimeException e) {
+                failures.increment();
+                LOGGER.log(Level.WARNING, "❌ " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI() + " failed: " + e.getMessage(), e);
+                send(exchange, 500, error("Internal error"));
+            } finally {
+                inFlight.release();
+                exchange.close();
+            }
+        });
+    }
+
+    /**
+     * The caller's session, or null for an anonymous request where those are
+     * allowed: the public searches, login (the sessions endpoint answers its
+     * own 401s), and anything in the airline.api.allowAnonymous dev mode
+     */
+    private static SessionManager.Session session(HttpExchange exchange) throws ApiException {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null) {
+            String path = exchange.getHttpContext().getPath();
+            if (!ALLOW_ANONYMOUS && !"/api/sessions".equals(path)
+                    && (REQUIRE_SESSION || !PUBLIC_PATHS.contains(path))) {
+                throw new ApiException(401, "Missing bearer token");
+            }
+            return null;
+        }
+        SessionManager.Session session = header.regionMatches(true, 0, BEARER, 0, BEARER.length())
+                ? SessionManager.getInstance().getSession(header.substring(BEARER.length()).trim())
+                : null;
+        if (session == null) {
+            throw new ApiException(401, "Invalid or expired session");
+        }
+        return session;
+    }
+
+    /**
+     * The user a request acts for: the session's own user for a Customer,
+     * the requested one (default: self) for an Admin, the requested one
+     * for an anonymous caller (dev mode only)
+     */
+    private static String actingUser(HttpExchange exchange, String requested) throws ApiException {
+        SessionManager.Session session = session(exchange);
+        if (session == null) {
+            if (!ALLOW_ANONYMOUS) {
+                throw new ApiException(401, "Missing bearer token");
+            }
+            if (requested == null || requested.isBlank()) {
+                throw new ApiException(400, "Missing 'username' parameter");
+            }
+            return requested;
+        }
+        if (requested == null || requested.isBlank()) {
+            return session.getUsername();
+        }
+        if (!session.isAdmin() && !requested.equals(session.getUsername())) {
+            throw new ApiException(403, "Not allowed to act for another user");
+        }
+        return requested;
+    }
+
+    /**
+     * 404 unless the caller may see the booking (hides whether it exists)
+     */
+    private static void requireOwner(HttpExchange exchange, String pnr) throws ApiException, SQLException {
+        SessionManager.Session session = session(exchange);
+        if (session == null && !ALLOW_ANONYMOUS) {
+            throw new ApiException(401, "Missing bearer token");
+        }
+        if (session == null || session.isAdmin()) {
+            return;
+        }
+        Object owner = AirlineService.getBookingByPNR(pnr).get("username");
+        if (!session.getUsername().equals(owner)) {
+            throw new ApiException(404, "Booking not found");
+        }
+    }
+
+    private static void requireMethod(String method, String allowed) throws ApiException {
+        if (!allowed.equals(method)) {
+            throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    private static <M extends Map<?, ?>> M found(M row, String what) throws ApiException {
+        if (row == null || row.isEmpty()) {
+            throw new ApiException(404, what + " not found");
+        }
+        return row;
+    }
+
+    private static String requiredId(String id) throws ApiException {
+        if (id == null) {
+            throw new ApiException(404, "Not found");
+        }
+        return id;
+    }
+
+    private static String required(Map<String, String> query, String name) throws ApiException {
+        String value = query.get(name);
+        if (value == null || value.isBlank()) {
+            throw new ApiException(400, "Missing '" + name + "' parameter");
+        }
+        return value.trim();
+    }
+
+    private static String required(JsonObject body, String name) throws ApiException {
+        JsonElement value = body.get(name);
+        if (value == null || !value.isJsonPrimitive() || value.getAsString().isBlank()) {
+            throw new ApiException(400, "Missing '" + name + "' field");
+        }
+        return value.getAsString().trim();
+    }
+
+    private static String optional(JsonObject body, String name, String fallback) {
+        JsonElement value = body.get(name);
+        if (value == null || !value.isJsonPrimitive() || value.getAsString().isBlank()) {
+            return fallback;
+        }
+        return value.getAsString().trim();
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static JsonObject body(HttpExchange exchange) throws ApiException, IOException {
+        byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Request body too large");
+        }
+        try (InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+            JsonElement body = JsonParser.parseReader(reader);
+            if (!body.isJsonObject()) {
+                throw new ApiException(400, "Expected a JSON object");
+            }
+            return body.getAsJsonObject();
+        } catch (JsonParseException e) {
+            throw new ApiException(400, "Malformed JSON");
+        }
+    }
+
+    private static JsonObject error(String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        return error;
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = (body instanceof JsonElement json ? json.toString() : GSON.toJson(body))
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        if (ALLOW_ANONYMOUS) {
+            LOGGER.warning("⚠️ airline.api.allowAnonymous=true: anyone can read and change any booking"
+                    + " - development only");
+        }
+        SchemaMigrator.migrate();
+        AirlineApiServer server = new AirlineApiServer(System.getProperty("airline.api.host", "127.0.0.1"), port).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            System.out.println("Pool: " + DBConnection.getPoolStats());
+        }));
+    }
+}
@@ -0,0 +1,48 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AirlineRepository.java - Data access for the `airlines` table
+ */
+public final class AirlineRepository {
+
+    private AirlineRepository() {
+    }
+
+    /**
+     * @return airline name -> id, ordered by name (for the airline pickers)
+     */
+    public static Map<String, Integer> findAirlineIds() throws SQLException {
+        Map<String, Integer> airlines = new LinkedHashMap<>();
+        List<Object[]> rows = RepositorySupport.queryList(
+                "SELECT id, airline_name FROM airlines ORDER BY airline_name",
+                rs -> new Object[]{rs.getString("airline_name"), rs.getInt("id")});
+        for (Object[] row : rows) {
+            airlines.put((String) row[0], (Integer) row[1]);
+        }
+        return airlines;
+    }
+
+    /**
+     * Cheap fingerprint of the table; changes when airlines are added or removed
+     */
+    public record ChangeMarker(long rowCount, long maxId) {
+    }
+
+    public static ChangeMarker readChangeMarker() throws SQLException {
+        return RepositorySupport.queryOne("SELECT COUNT(*) AS row_count, COALESCE(MAX(id), 0) AS max_id FROM airlines",
+                rs -> new ChangeMarker(rs.getLong("row_count"), rs.getLong("max_id")));
+    }
+
+    /**
+     * Insert an airline; a null rating is stored as NULL
+     */
+    public static boolean insert(String airlineName, Double rating) throws SQLException {
+        return RepositorySupport.update("INSERT INTO airlines (airline_name, rating) VALUES (?, ?)",
+                airlineName, rating) > 0;
+    }
+}
@@ -1,13 +1,11 @@
 package com.mycompany.airlinereservation;
-import java.sql.*;
 import javax.swing.*;
 
 public class Airlines extends javax.swing.JFrame {
-    Connection con;
-    PreparedStatement pst;
     private JTextField txtAirlineName;
     private JTextField txtRating;
     private JButton btnAdd;
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     public Airlines() {
         setTitle("Add Airline");
@@ -36,27 +34,27 @@ public class Airlines extends javax.swing.JFrame {
         add(btnAdd);
 
         btnAdd.addActionListener(e -> addAirline());
-
-        con = DBConnection.getConnection();
     }
 
     private void addAirline() {
+        String name = txtAirlineName.getText();
+        double rating;
         try {
-            String name = txtAirlineName.getText();
-            double rating = Double.parseDouble(txtRating.getText());
-
-            pst = con.prepareStatement("INSERT INTO Airlines (airline_name, rating) VALUES (?, ?)");
-            pst.setString(1, name);
-            pst.setDouble(2, rating);
-            pst.executeUpdate();
+            rating = Double.parseDouble(txtRating.getText());
+        } catch (NumberFormatException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error adding airline!");
+            return;
+        }
 
+        db.update(() -> AirlineRepository.insert(name, rating), added -> {
             JOptionPane.showMessageDialog(this, "Airline added successfully!");
             txtAirlineName.setText("");
             txtRating.setText("");
-        } catch (Exception e) {
+        }, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error adding airline!");
-        }
+        });
     }
 
     // 🟢 Add this to run directly from NetBeans
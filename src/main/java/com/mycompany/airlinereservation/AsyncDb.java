@@ -0,0 +1,231 @@
+package com.mycompany.airlinereservation;
+
+import javax.swing.SwingUtilities;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * AsyncDb.java - Runs database (and other blocking) work off the Swing event thread
+ *
+ * Features:
+ * - One virtual thread per task, so a slow query never freezes the UI
+ * - Results and errors are delivered back on the EDT
+ * - A Scope per screen: caps how many tasks that screen runs at once
+ *   (extra tasks queue) and cancels them all when its window closes;
+ *   callbacks of cancelled tasks never run
+ *
+ * Typical use in a screen:
+ *   private final AsyncDb.Scope db = AsyncDb.scope(this);
+ *   db.query(() -> TicketRepository.find...(pnr), this::showTicket, this::showDbError);
+ *
+ * Reads (query) are interrupted on cancel; writes (update) are never cut off
+ * once started - only their callbacks are dropped.
+ */
+public final class AsyncDb {
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncDb.class.getName());
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("async-db-", 0).factory());
+
+    public static final int DEFAULT_MAX_CONCURRENT = 2;
+
+    /**
+     * Blocking work; may throw (SQLException and friends go to the error callback)
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T call() throws Exception;
+    }
+
+    private AsyncDb() {
+    }
+
+    /**
+     * Run work on a virtual thread with no EDT callback (e.g. speculative
+     * reads a non-UI caller waits on itself)
+     */
+    public static <T> CompletableFuture<T> background(Work<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            try {
+                future.complete(work.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * A scope bound to a window: closing it (even hide-on-close) cancels its
+     * tasks; disposing it also refuses new work
+     */
+    public static Scope scope(Window window) {
+        return scope(window, DEFAULT_MAX_CONCURRENT);
+    }
+
+    public static Scope scope(Window window, int maxConcurrent) {
+        Scope scope = new Scope(maxConcurrent);
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                scope.cancelAll();
+            }
+
+            @Override
+            public void windowClosed(WindowEvent e) {
+                scope.close();
+            }
+        });
+        return scope;
+    }
+
+    /**
+     * A scope with no window; call close() when its owner goes away
+     */
+    public static Scope scope(int maxConcurrent) {
+        return new Scope(maxConcurrent);
+    }
+
+    /**
+     * A scope task's future. cancel() also works after the result is in
+     * (when CompletableFuture would ignore it): the callback queued on the
+     * EDT then doesn't run.
+     */
+    private static final class Pending<T> extends CompletableFuture<T> {
+        private volatile boolean cancelled;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            cancelled = true;
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    public static final class Scope {
+        private final Semaphore permits;
+        // Tasks whose callback hasn't run (or been skipped) yet
+        private final Set<Pending<?>> running = ConcurrentHashMap.newKeySet();
+        private volatile boolean closed;
+
+        private Scope(int maxConcurrent) {
+            this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        }
+
+        /**
+         * Run a read on a virtual thread; exactly one callback runs on the EDT
+         * unless the task is cancelled first. Cancelling interrupts the query.
+         */
+        public <T> Future<T> query(Work<T> work, Consumer<? super T> onSuccess, Consumer<? super Exception> onError) {
+            return submit(work, onSuccess, onError, true);
+        }
+
+        /**
+         * Run a write on a virtual thread. Cancelling stops it only if it hasn't
+         * started; once running it completes (so a transaction is never cut off
+         * half-way), but its callbacks are skipped.
+         */
+        public <T> Future<T> update(Work<T> work, Consumer<? super T> onSuccess, Consumer<? super Exception> onError) {
+            return submit(work, onSuccess, onError, false);
+        }
+
+        private <T> Future<T> submit(Work<T> work, Consumer<? super T> onSuccess,
+                                     Consumer<? super Exception> onError, boolean interruptible) {
+            Pending<T> future = new Pending<>();
+            if (closed) {
+                future.cancel(false);
+                return future;
+            }
+            Future<?> task = EXECUTOR.submit(() -> {
+                T result;
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    future.cancel(false);
+                    return;
+                }
+                try {
+                    if (future.isDone()) {
+                        return;
+                    }
+                    result = work.call();
+                } catch (Exception e) {
+                    if (future.completeExceptionally(e)) {
+                        deliver(future, () -> {
+                            if (onError != null) {
+                                onError.accept(e);
+                            } else {
+                                LOGGER.log(Level.WARNING, "⚠️ AsyncDb: background task failed", e);
+                            }
+                        });
+                    }
+                    return;
+                } finally {
+                    permits.release();
+                }
+                if (future.complete(result)) {
+                    deliver(future, () -> {
+                        if (onSuccess != null) {
+                            onSuccess.accept(result);
+                        }
+                    });
+                }
+            });
+            running.add(future);
+            future.whenComplete((r, e) -> {
+                if (future.isCancelled()) {
+                    running.remove(future); // no callback will be queued
+                    task.cancel(interruptible);
+                }
+            });
+            if (closed) {
+                future.cancel(false);
+            }
+            return future;
+        }
+
+        /**
+         * Cancel everything in flight, including results already waiting for
+         * the EDT; the scope stays usable
+         */
+        public void cancelAll() {
+            for (Pending<?> future : running) {
+                future.cancel(false);
+            }
+        }
+
+        /**
+         * Cancel everything in flight and refuse new work
+         */
+        public void close() {
+            closed = true;
+            cancelAll();
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        // Skip the callback if the task was cancelled (superseded, or its window closed) before the EDT got to it
+        private void deliver(Pending<?> future, Runnable callback) {
+            SwingUtilities.invokeLater(() -> {
+                running.remove(future);
+                if (!closed && !future.cancelled) {
+                    callback.run();
+                }
+            });
+        }
+    }
+}
@@ -3,24 +3,17 @@ package com.mycompany.airlinereservation; // Adjust package name if needed
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
 public class BoardingPass extends JFrame {
 
-    // ✅ DB CONNECTION DETAILS (MUST MATCH your airline_db settings)
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/airline_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "Spoorthi@2005"; // Ensure this is correct
+    // Ticket lookups go through TicketRepository (pooled connections)
 
     private JTextField pnrInputField;
     private JLabel pnrValueLabel, nameValueLabel, nationalityValueLabel, srcValueLabel, destValueLabel, flightNameValueLabel, flightCodeValueLabel, dateValueLabel;
     private JButton fetchBtn;
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     public BoardingPass() {
         setTitle("AIR INDIA - Boarding Pass");
@@ -169,36 +162,31 @@ public class BoardingPass extends JFrame {
             return;
         }
 
-        String sql = "SELECT customer_name, nationality, source, destination, flight_name, flight_code, date_of_travel FROM ticket WHERE pnr = ?";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, pnr);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
+        fetchBtn.setEnabled(false);
+        db.query(() -> TicketRepository.findForBoardingPass(pnr), ticket -> {
+            fetchBtn.setEnabled(true);
+            if (ticket != null) {
                 // Populate GUI labels
                 pnrValueLabel.setText(pnr);
-                nameValueLabel.setText(rs.getString("customer_name"));
-                nationalityValueLabel.setText(rs.getString("nationality"));
-                srcValueLabel.setText(rs.getString("source"));
-                destValueLabel.setText(rs.getString("destination"));
-                flightNameValueLabel.setText(rs.getString("flight_name"));
-                flightCodeValueLabel.setText(rs.getString("flight_code"));
+                nameValueLabel.setText((String) ticket.get("customer_name"));
+                nationalityValueLabel.setText((String) ticket.get("nationality"));
+                srcValueLabel.setText((String) ticket.get("source"));
+                destValueLabel.setText((String) ticket.get("destination"));
+                flightNameValueLabel.setText((String) ticket.get("flight_name"));
+                flightCodeValueLabel.setText((String) ticket.get("flight_code"));
                 
                 // Format date
                 SimpleDateFormat sdf = new SimpleDateFormat("dd-MMM-yyyy");
-                Date travelDate = rs.getDate("date_of_travel");
+                Date travelDate = (Date) ticket.get("date_of_travel");
                 dateValueLabel.setText(sdf.format(travelDate));
 
             } else {
                 JOptionPane.showMessageDialog(this, "No ticket found for PNR: " + pnr, "Not Found", JOptionPane.ERROR_MESSAGE);
             }
-
-        } catch (SQLException ex) {
+        }, ex -> {
+            fetchBtn.setEnabled(true);
             JOptionPane.showMessageDialog(this, "Database Error: " + ex.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     public static void main(String[] args) {
@@ -3,17 +3,12 @@ package com.mycompany.airlinereservation;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.sql.*;
-import java.util.UUID;
+import java.util.List;
 import com.toedter.calendar.JDateChooser;
 
 public class BookFlight extends JFrame {
 
-    // ✅ DB CONNECTION DETAILS (kept for compatibility with existing code)
-    // IMPORTANT: Replace these with your actual database credentials
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/airline_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "your_mysql_password"; // CHANGE THIS: replace with your MySQL password
+    // Database access goes through the repository classes (pooled connections)
 
     private JTextField aadharField, nameField, nationalityField, flightNameField, flightCodeField;
     private JTextArea addressArea;
@@ -26,6 +21,8 @@ public class BookFlight extends JFrame {
     // ✅ Store current user's username for session-based booking
     private String currentUsername;
 
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
+
     public BookFlight() {
         // ✅ ENHANCEMENT: Get the current logged-in user from SessionManager
         currentUsername = SessionManager.getInstance().getCurrentUser();
@@ -247,27 +244,19 @@ public class BookFlight extends JFrame {
             return;
         }
 
-        String sql = "SELECT name, nationality, address, gender FROM customer WHERE aadhar_no = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            // ... (rest of the fetchUserAction logic)
-            pstmt.setString(1, aadhar);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                nameField.setText(rs.getString("name"));
-                nationalityField.setText(rs.getString("nationality"));
-                addressArea.setText(rs.getString("address"));
-                genderCombo.setSelectedItem(rs.getString("gender"));
+        db.query(() -> CustomerRepository.findByAadhaar(aadhar), customer -> {
+            if (!customer.isEmpty()) {
+                nameField.setText(customer.get("name"));
+                nationalityField.setText(customer.get("nationality"));
+                addressArea.setText(customer.get("address"));
+                genderCombo.setSelectedItem(customer.get("gender"));
             } else {
                 showWarningMessage("Customer not found. Please add customer first.");
                 nameField.setEditable(true);
                 nationalityField.setEditable(true);
                 addressArea.setEditable(true);
             }
-        } catch (SQLException ex) {
-            showErrorMessage("DB Error fetching user: " + ex.getMessage());
-        }
+        }, ex -> showErrorMessage("DB Error fetching user: " + ex.getMessage()));
     }
 
     // ✅ Fetch Flight Details and Price
@@ -280,30 +269,54 @@ public class BookFlight extends JFrame {
             return;
         }
 
-        // Fetch flight details AND price
-        String sql = "SELECT flight_name, flight_code, price FROM flight WHERE source = ? AND destination = ? LIMIT 1";
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, source);
-            pstmt.setString(2, destination);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                flightNameField.setText(rs.getString("flight_name"));
-                String code = rs.getString("flight_code");
+        // Fetch flight details AND price (connections only when there's no direct flight)
+        db.query(() -> {
+            List<AirlineService.Flight> flights = RouteIndex.search(source, destination, null);
+            return new RouteResult(flights, flights.isEmpty()
+                    ? AirlineService.searchItineraries(source, destination, null)
+                    : List.of());
+        }, result -> {
+            List<AirlineService.Flight> flights = result.flights();
+            if (!flights.isEmpty()) {
+                AirlineService.Flight flight = flights.get(0);
+                flightNameField.setText(flight.flightName);
+                String code = flight.flightCode;
                 flightCodeField.setText(code);
                 
                 // Store the price
-                ticketPrice = rs.getDouble("price");
+                ticketPrice = flight.price;
                 
                 showInfoMessage(String.format("Flight %s found. Price: %.2f INR", code, ticketPrice));
             } else {
-                showWarningMessage("No flight found for this route.");
                 ticketPrice = 0.0;
+                List<ItineraryEngine.Itinerary> connections = result.connections();
+                if (connections.isEmpty()) {
+                    showWarningMessage("No flight found for this route.");
+                } else {
+                    showInfoMessage(describeConnections(connections));
+                }
+            }
+        }, ex -> showErrorMessage("Error fetching flight: " + ex.getMessage()));
+    }
+
+    private record RouteResult(List<AirlineService.Flight> flights, List<ItineraryEngine.Itinerary> connections) {
+    }
+
+    // No direct flight: list the best connections (book each leg separately)
+    private String describeConnections(List<ItineraryEngine.Itinerary> connections) {
+        StringBuilder sb = new StringBuilder("No direct flight. Connecting options:\n");
+        for (ItineraryEngine.Itinerary itinerary : connections.subList(0, Math.min(5, connections.size()))) {
+            sb.append("\n• ");
+            for (int i = 0; i < itinerary.legs().size(); i++) {
+                AirlineService.Flight leg = itinerary.legs().get(i);
+                sb.append(i == 0 ? "" : " → ").append(leg.flightCode)
+                        .append(" (").append(leg.source).append("-").append(leg.destination).append(")");
             }
-        } catch (SQLException ex) {
-            showErrorMessage("Error fetching flight: " + ex.getMessage());
+            sb.append(String.format("\n   %dh %02dm, %d stop(s), %d INR, departs %s",
+                    itinerary.totalMinutes() / 60, itinerary.totalMinutes() % 60,
+                    itinerary.stops(), itinerary.totalPrice(), itinerary.departureTime()));
         }
+        return sb.toString();
     }
 
     // ✅ Book Flight Action (Insert into ticket, booking, and payments tables)
@@ -313,161 +326,70 @@ public class BookFlight extends JFrame {
             return;
         }
 
-        String pnr = generatePNR(); 
-        
         System.out.println("🔍 DEBUG: Booking with username: " + currentUsername);  // Debug log
 
-        // 1. INSERT INTO TICKET AND BOOKING TABLES
-        // ✅ FIXED: Added username field so bookings are linked to the current user
-        String sqlTicket = "INSERT INTO ticket (pnr, username, customer_aadhar, customer_name, nationality, address, gender, source, destination, flight_name, flight_code, date_of_travel) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        String sqlBooking = "INSERT INTO booking (pnr, username, flight_code, booking_date, date_of_travel, class, aadhaar, status) VALUES (?, ?, ?, NOW(), ?, ?, ?, 'Confirmed')";
-        // Use a transaction so: check seats -> insert ticket -> insert payment -> decrement seats (atomic)
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-            try {
-                conn.setAutoCommit(false);
-
-                // 0. Check seat availability with row-level lock
-                String checkSql = "SELECT seats_available FROM flight WHERE flight_code = ? FOR UPDATE";
-                try (PreparedStatement pstCheck = conn.prepareStatement(checkSql)) {
-                    pstCheck.setString(1, flightCodeField.getText());
-                    try (ResultSet rs = pstCheck.executeQuery()) {
-                        if (!rs.next()) {
-                            conn.rollback();
-                            showErrorMessage("Selected flight not found. Booking cancelled.");
-                            return;
-                        }
-                        int avail = rs.getInt("seats_available");
-                        if (avail <= 0) {
-                            conn.rollback();
-                            showWarningMessage("No seats available for the selected flight.");
-                            return;
-                        }
-                    }
-                }
-
-                // 1. INSERT INTO TICKET TABLE
-                try (PreparedStatement pstmtTicket = conn.prepareStatement(sqlTicket)) {
-                    pstmtTicket.setString(1, pnr);
-                    pstmtTicket.setString(2, currentUsername);  // ✅ FIXED: Added username
-                    pstmtTicket.setString(3, aadharField.getText());
-                    pstmtTicket.setString(4, nameField.getText());
-                    pstmtTicket.setString(5, nationalityField.getText());
-                    pstmtTicket.setString(6, addressArea.getText());
-                    pstmtTicket.setString(7, (String) genderCombo.getSelectedItem());
-                    pstmtTicket.setString(8, (String) sourceCombo.getSelectedItem());
-                    pstmtTicket.setString(9, (String) destinationCombo.getSelectedItem());
-                    pstmtTicket.setString(10, flightNameField.getText());
-                    pstmtTicket.setString(11, flightCodeField.getText());
-                    pstmtTicket.setDate(12, new java.sql.Date(dateChooser.getDate().getTime()));
-
-                    pstmtTicket.executeUpdate();
-                }
-
-                // 2. INSERT INTO BOOKING TABLE
-                try (PreparedStatement pstmtBooking = conn.prepareStatement(sqlBooking)) {
-                    pstmtBooking.setString(1, pnr);  // pnr
-                    pstmtBooking.setString(2, currentUsername);  // username
-                    pstmtBooking.setString(3, flightCodeField.getText());  // flight_code
-                    pstmtBooking.setDate(4, new java.sql.Date(dateChooser.getDate().getTime()));  // date_of_travel
-                    pstmtBooking.setString(5, "Economy");  // class (default to Economy)
-                    pstmtBooking.setString(6, aadharField.getText());  // aadhaar
-                    
-                    pstmtBooking.executeUpdate();
-                }
-
-                // 2. INSERT INTO PAYMENTS TABLE (use same connection so it's part of the transaction)
-                String paymentSql = "INSERT INTO payments (pnr, amount, payment_method, payment_status, transaction_date) VALUES (?, ?, ?, ?, NOW())";
-                try (PreparedStatement pstPay = conn.prepareStatement(paymentSql)) {
-                    pstPay.setString(1, pnr);
-                    pstPay.setDouble(2, ticketPrice);
-                    pstPay.setString(3, "Credit Card");
-                    pstPay.setString(4, "Completed");
-                    pstPay.executeUpdate();
-                }
-
-                // 3. Decrement seats_available
-                String updSql = "UPDATE flight SET seats_available = seats_available - 1 WHERE flight_code = ?";
-                try (PreparedStatement pstUpd = conn.prepareStatement(updSql)) {
-                    pstUpd.setString(1, flightCodeField.getText());
-                    pstUpd.executeUpdate();
-                }
-
-                conn.commit();
-                dispose();
-
-            } catch (SQLException exInner) {
-                try { conn.rollback(); } catch (SQLException ignore) {}
-                showErrorMessage("Booking failed (transaction rolled back): " + exInner.getMessage());
-            } finally {
-                try { conn.setAutoCommit(true); } catch (SQLException ignore) {}
+        String flightCode = flightCodeField.getText();
+        String aadhar = aadharField.getText();
+        java.sql.Date travelDate = new java.sql.Date(dateChooser.getDate().getTime());
+        TicketRepository.NewTicket ticket = new TicketRepository.NewTicket(
+                null, // PNR assigned per attempt below
+                currentUsername,  // ✅ FIXED: Added username so bookings are linked to the current user
+                aadharField.getText(),
+                nameField.getText(),
+                nationalityField.getText(),
+                addressArea.getText(),
+                (String) genderCombo.getSelectedItem(),
+                (String) sourceCombo.getSelectedItem(),
+                (String) destinationCombo.getSelectedItem(),
+                flightNameField.getText(),
+                flightCode,
+                travelDate);
+
+        // Take the seat with one conditional UPDATE, then insert ticket -> booking -> payment,
+        // all in one transaction: the seat and its booking commit together or not at all.
+        // The PNR needs no DB round trip; if it was already issued the booking is retried under a new one
+        db.update(() -> PnrGenerator.withFreshPnr(pnr -> FlightRepository.bookSeat(flightCode, (conn, fare) -> {
+            // 1. INSERT INTO TICKET TABLE
+            TicketRepository.insert(conn, ticket.withPnr(pnr));
+
+            // 2. INSERT INTO BOOKING TABLE (class defaults to Economy)
+            BookingRepository.insert(conn, pnr, currentUsername, flightCode, travelDate, "Economy", aadhar);
+
+            // 3. INSERT INTO PAYMENTS TABLE at the fare read with the seat, not the one shown earlier
+            PaymentRepository.insert(conn, pnr, fare, "Credit Card", "Completed");
+            return null;
+        })), ignored -> dispose(), ex -> {
+            if (ex instanceof FlightRepository.SeatUnavailableException seatEx) {
+                showWarningMessage(seatEx.flightExists()
+                        ? "No seats available for the selected flight."
+                        : "Selected flight not found. Booking cancelled.");
+            } else {
+                showErrorMessage("Booking failed (transaction rolled back): " + ex.getMessage());
             }
-
-        } catch (SQLException ex) {
-            showErrorMessage("Booking failed: " + ex.getMessage());
-        }
+        });
     }
 
-    // --- Utility: Generate Random 6-char PNR using UUID and ensure (best-effort) uniqueness ---
-    private String generatePNR() {
-        String pnr = null;
-        int attempts = 0;
-        while (attempts < 5) {
-            // generate 6-char alphanumeric from UUID and uppercase it
-            pnr = UUID.randomUUID().toString().replace("-", "").substring(0, 6).toUpperCase();
-
-            // Check DB for collision (best-effort). If DB check fails, just return the generated PNR.
-            String sql = "SELECT COUNT(*) FROM ticket WHERE pnr = ?";
-            try (Connection conn = DBConnection.getConnection();
-                 PreparedStatement pst = conn.prepareStatement(sql)) {
-                pst.setString(1, pnr);
-                try (ResultSet rs = pst.executeQuery()) {
-                    if (rs.next()) {
-                        int count = rs.getInt(1);
-                        if (count == 0) return pnr;
-                    } else {
-                        return pnr;
-                    }
-                }
-            } catch (SQLException ex) {
-                // If DB check fails, log and return the generated PNR (so booking can proceed)
-                System.err.println("PNR uniqueness check failed: " + ex.getMessage());
-                return pnr;
-            }
-
-            attempts++;
-        }
-
-        // After a few attempts, return the last generated PNR
-        return pnr != null ? pnr : UUID.randomUUID().toString().replace("-", "").substring(0,6).toUpperCase();
-    }
-    
     // ... (loadSources, loadDestinations, and PopupMenuListenerAdapter remain the same) ...
 
     private void loadSources() {
-        sourceCombo.removeAllItems();
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement("SELECT DISTINCT source FROM flight");
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                sourceCombo.addItem(rs.getString("source"));
-            }
-        } catch (SQLException ex) {
-            showErrorMessage("Error loading sources: " + ex.getMessage());
-        }
+        db.query(RouteIndex::sources, sources -> fillCombo(sourceCombo, sources),
+                ex -> showErrorMessage("Error loading sources: " + ex.getMessage()));
     }
 
     private void loadDestinations() {
-        destinationCombo.removeAllItems();
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement("SELECT DISTINCT destination FROM flight");
-             ResultSet rs = pstmt.executeQuery()) {
+        db.query(RouteIndex::destinations, destinations -> fillCombo(destinationCombo, destinations),
+                ex -> showErrorMessage("Error loading destinations: " + ex.getMessage()));
+    }
 
-            while (rs.next()) {
-                destinationCombo.addItem(rs.getString("destination"));
-            }
-        } catch (SQLException ex) {
-            showErrorMessage("Error loading destinations: " + ex.getMessage());
+    // Replace the items (the list arrives after the popup opened), keeping the selection if still offered
+    private static void fillCombo(JComboBox<String> combo, List<String> items) {
+        Object selected = combo.getSelectedItem();
+        combo.removeAllItems();
+        for (String item : items) {
+            combo.addItem(item);
+        }
+        if (selected != null && items.contains(selected)) {
+            combo.setSelectedItem(selected);
         }
     }
 
@@ -0,0 +1,145 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BookingPathBenchmark.java - Old vs new AirlineService.createBooking path
+ *
+ * Runs the same number of bookings, from a fixed number of concurrent
+ * clients, through both paths against a real airline_db:
+ * - TWO-CONNECTION: the old path - booking insert on one connection, ticket
+ *   insert on a second, each in autocommit; no seat check or payment row
+ * - TRANSACTIONAL: AirlineService.createBooking - seat reservation, then
+ *   booking, ticket and payment rows in one transaction on one connection
+ *
+ * The new path does strictly more work (seat and payment writes), so the
+ * comparison is per booking, not per statement.
+ * Reports throughput and latency percentiles. Creates (and removes) its own
+ * BENCH flight and the rows booked on it.
+ *
+ * Usage: BookingPathBenchmark [bookings=2000] [clients=20]
+ */
+public class BookingPathBenchmark {
+
+    private static final String FLIGHT_CODE = "BENCH-PATH";
+    private static final String USERNAME = "bench_user";
+    private static final String AADHAAR = "999999999999";
+
+    private interface BookingPath {
+        void book(String pnr) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int bookings = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        System.out.println("==============================================");
+        System.out.println("Booking Path Benchmark");
+        System.out.println("bookings=" + bookings + " clients=" + clients);
+        System.out.println("==============================================\n");
+
+        SchemaMigrator.migrate();
+        try {
+            setUpFlight(bookings * 3);
+            // Warm up the pool and statement caches before measuring
+            run("warm-up", BookingPathBenchmark::bookTwoConnections, Math.min(bookings, 100), clients);
+            run("warm-up", BookingPathBenchmark::bookTransactional, Math.min(bookings, 100), clients);
+
+            run("TWO-CONNECTION (old)", BookingPathBenchmark::bookTwoConnections, bookings, clients);
+            run("TRANSACTIONAL (createBooking)", BookingPathBenchmark::bookTransactional, bookings, clients);
+        } finally {
+            tearDown();
+        }
+        System.out.println("Pool: " + DBConnection.getPoolStats());
+        System.exit(0);
+    }
+
+    // Old path: two connections, two autocommit inserts
+    private static void bookTwoConnections(String pnr) throws SQLException {
+        try (Connection conn = RepositorySupport.open()) {
+            BookingRepository.insert(conn, pnr, USERNAME, FLIGHT_CODE, "2030-01-01", "Economy", AADHAAR);
+        }
+        try (Connection conn = RepositorySupport.open()) {
+            RepositorySupport.update(conn,
+                    "INSERT INTO ticket (pnr, username, customer_aadhar, customer_name, flight_code, date_of_travel) " +
+                    "VALUES (?, ?, ?, ?, ?, NOW())",
+                    pnr, USERNAME, AADHAAR, USERNAME, FLIGHT_CODE);
+        }
+    }
+
+    private static void bookTransactional(String pnr) throws SQLException {
+        AirlineService.createBooking(USERNAME, "Bench Passenger", FLIGHT_CODE, "2030-01-01", "Economy", AADHAAR);
+    }
+
+    private static void run(String name, BookingPath path, int bookings, int clients) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencyMicros = new long[bookings];
+
+        long wallStart = System.nanoTime();
+        try (ExecutorService pool = Executors.newFixedThreadPool(clients)) {
+            Future<?>[] futures = new Future<?>[clients];
+            for (int c = 0; c < clients; c++) {
+                futures[c] = pool.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < bookings) {
+                        long t0 = System.nanoTime();
+                        try {
+                            path.book(PnrGenerator.next());
+                        } catch (SQLException | RuntimeException e) {
+                            errors.incrementAndGet();
+                            System.err.println("❌ booking " + i + ": " + e.getMessage());
+                        }
+                        latencyMicros[i] = (System.nanoTime() - t0) / 1_000;
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long wallMicros = (System.nanoTime() - wallStart) / 1_000;
+        Arrays.sort(latencyMicros);
+
+        System.out.println("▶ " + name);
+        System.out.printf("  bookings=%d errors=%d%n", bookings, errors.get());
+        System.out.printf("  wall=%.1f ms  throughput=%.0f bookings/s%n",
+                wallMicros / 1000.0, bookings / (wallMicros / 1_000_000.0));
+        System.out.printf("  latency ms: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n%n",
+                percentile(latencyMicros, 50), percentile(latencyMicros, 95),
+                percentile(latencyMicros, 99), latencyMicros[latencyMicros.length - 1] / 1000.0);
+    }
+
+    private static double percentile(long[] sortedMicros, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sortedMicros.length) - 1;
+        return sortedMicros[Math.max(0, index)] / 1000.0;
+    }
+
+    private static void setUpFlight(int seats) throws SQLException {
+        Integer airlineId = RepositorySupport.queryOne("SELECT MIN(id) AS id FROM airlines", rs -> {
+            int id = rs.getInt("id");
+            return rs.wasNull() ? null : id;
+        });
+        if (airlineId == null) {
+            AirlineRepository.insert("Bench Airline", null);
+            airlineId = AirlineRepository.findAirlineIds().get("Bench Airline");
+        }
+        tearDown();
+        FlightRepository.insert(FLIGHT_CODE, "Benchmark Flight", airlineId, "BenchSrc", "BenchDst",
+                4999.0, seats, seats, "2030-01-01 10:00:00", "2030-01-01 12:00:00");
+    }
+
+    private static void tearDown() throws SQLException {
+        RepositorySupport.update("DELETE p FROM payments p JOIN booking b ON p.pnr = b.pnr WHERE b.flight_code = ?",
+                FLIGHT_CODE);
+        RepositorySupport.update("DELETE FROM ticket WHERE flight_code = ?", FLIGHT_CODE);
+        RepositorySupport.update("DELETE FROM booking WHERE flight_code = ?", FLIGHT_CODE);
+        RepositorySupport.update("DELETE FROM flight WHERE flight_code = ?", FLIGHT_CODE);
+    }
+}
@@ -0,0 +1,124 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BookingRepository.java - Data access for the `booking` table
+ *
+ * Handles:
+ * - Booking inserts (standalone or inside a booking transaction)
+ * - Lookups by PNR and by username
+ * - Status changes (cancellation)
+ */
+public final class BookingRepository {
+
+    private static final String BOOKING_WITH_FLIGHT_COLUMNS =
+            "SELECT b.pnr, b.username, b.flight_code, b.booking_date, b.date_of_travel, b.class, b.status, " +
+            "f.source, f.destination, f.price, a.airline_name " +
+            "FROM booking b " +
+            "JOIN flight f ON b.flight_code = f.flight_code " +
+            "LEFT JOIN airlines a ON f.airline_id = a.id ";
+
+    private BookingRepository() {
+    }
+
+    /**
+     * Insert a confirmed booking on the caller's connection.
+     * travelDate may be a java.sql.Date or a "yyyy-MM-dd" string.
+     */
+    public static void insert(Connection conn, String pnr, String username, String flightCode,
+                              Object travelDate, String travelClass, String aadhaar) throws SQLException {
+        String sql = "INSERT INTO booking (pnr, username, flight_code, booking_date, date_of_travel, " +
+                     "class, aadhaar, status) VALUES (?, ?, ?, NOW(), ?, ?, ?, 'Confirmed')";
+        RepositorySupport.update(conn, sql, pnr, username, flightCode, travelDate, travelClass, aadhaar);
+    }
+
+    /**
+     * @return booking details keyed like AirlineService expects, or an empty map if not found
+     */
+    public static Map<String, Object> findByPnr(String pnr) throws SQLException {
+        Map<String, Object> booking = RepositorySupport.queryOne(
+                BOOKING_WITH_FLIGHT_COLUMNS + "WHERE b.pnr = ?",
+                rs -> {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("pnr", rs.getString("pnr"));
+                    row.put("username", rs.getString("username"));
+                    row.put("flightCode", rs.getString("flight_code"));
+                    row.put("bookingDate", rs.getString("booking_date"));
+                    row.put("travelDate", rs.getString("date_of_travel"));
+                    row.put("class", rs.getString("class"));
+                    row.put("status", rs.getString("status"));
+                    row.put("source", rs.getString("source"));
+                    row.put("destination", rs.getString("destination"));
+                    row.put("airline", rs.getString("airline_name"));
+                    return row;
+                }, pnr);
+        return booking != null ? booking : new HashMap<>();
+    }
+
+    /**
+     * All bookings of a user, newest first
+     */
+    public static List<Map<String, Object>> findByUsername(String username) throws SQLException {
+        return RepositorySupport.queryList(
+                BOOKING_WITH_FLIGHT_COLUMNS + "WHERE b.username = ? ORDER BY b.booking_date DESC",
+                rs -> {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("pnr", rs.getString("pnr"));
+                    row.put("flightCode", rs.getString("flight_code"));
+                    row.put("bookingDate", rs.getString("booking_date"));
+                    row.put("travelDate", rs.getString("date_of_travel"));
+                    row.put("class", rs.getString("class"));
+                    row.put("status", rs.getString("status"));
+                    row.put("source", rs.getString("source"));
+                    row.put("destination", rs.getString("destination"));
+                    row.put("airline", rs.getString("airline_name"));
+                    row.put("price", rs.getInt("price"));
+                    return row;
+                }, username);
+    }
+
+    /**
+     * @return {status, flight_code} of a booking owned by the user, or null if not found
+     */
+    public static String[] findStatusForOwner(String pnr, String username) throws SQLException {
+        return RepositorySupport.queryOne(
+                "SELECT status, flight_code FROM booking WHERE pnr = ? AND username = ?",
+                rs -> new String[]{rs.getString("status"), rs.getString("flight_code")},
+                pnr, username);
+    }
+
+    /**
+     * Mark a booking cancelled on the caller's connection (locks the booking row).
+     *
+     * @return true if a not-yet-cancelled booking was updated
+     */
+    public static boolean cancel(Connection conn, String pnr) throws SQLException {
+        return RepositorySupport.update(conn,
+                "UPDATE booking SET status = 'Cancelled' WHERE pnr = ? AND status != 'Cancelled'", pnr) > 0;
+    }
+
+    /**
+     * Mark a booking cancelled if it belongs to the user (locks the booking row).
+     *
+     * @return true if a not-yet-cancelled booking of theirs was updated
+     */
+    public static boolean cancelForOwner(Connection conn, String pnr, String username) throws SQLException {
+        return RepositorySupport.update(conn,
+                "UPDATE booking SET status = 'Cancelled' WHERE pnr = ? AND username = ? AND status != 'Cancelled'",
+                pnr, username) > 0;
+    }
+
+    /**
+     * Insert into the legacy `bookings` table (flight + amount only) used by ViewFlightDetails
+     */
+    public static boolean insertQuickBooking(Connection conn, String flightCode, double amount) throws SQLException {
+        return RepositorySupport.update(conn,
+                "INSERT INTO bookings (flight_code, booking_date, amount) VALUES (?, NOW(), ?)",
+                flightCode, amount) > 0;
+    }
+}
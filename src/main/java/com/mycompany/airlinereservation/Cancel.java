@@ -3,20 +3,17 @@ package com.mycompany.airlinereservation;
 
 import javax.swing.*;
 import java.awt.*;
-import java.sql.*;
 import java.text.SimpleDateFormat;
 import java.net.URL; // For loading the image icon
 
 public class Cancel extends JFrame {
 
-    // ✅ DB CONNECTION DETAILS (MUST MATCH your airline_db settings)
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/airline_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "Spoorthi@2005"; // Ensure this is correct
+    // Database access goes through TicketRepository / PaymentRepository / FlightRepository
 
     private JTextField pnrField, nameField, cancelNoField, flightCodeField, dateField;
     private JButton showDetailsBtn, cancelTicketBtn;
     private String currentUsername; // ✅ Store current user's username
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     public Cancel() {
         // ✅ ENHANCEMENT: Get the currently logged-in user from SessionManager
@@ -178,24 +175,16 @@ public class Cancel extends JFrame {
 
         // ✅ CRITICAL FIX: Add WHERE clause to filter by current user
         // Only allow cancellation of tickets belonging to the current user
-        String sql = "SELECT customer_name, flight_code, date_of_travel FROM ticket WHERE pnr = ? AND username = ?";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, pnr);
-            pstmt.setString(2, currentUsername); // ✅ Filter by current user
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
+        db.query(() -> TicketRepository.findSummaryForOwner(pnr, currentUsername), ticket -> { // ✅ Filter by current user
+            if (ticket != null) {
                 // Populate fields
-                nameField.setText(rs.getString("customer_name"));
+                nameField.setText((String) ticket.get("customer_name"));
                 cancelNoField.setText(pnr); // PNR acts as the Cancellation No
-                flightCodeField.setText(rs.getString("flight_code"));
+                flightCodeField.setText((String) ticket.get("flight_code"));
                 
                 // Format date for display
                 SimpleDateFormat sdf = new SimpleDateFormat("dd-MMM-yyyy");
-                Date travelDate = rs.getDate("date_of_travel");
+                java.util.Date travelDate = (java.util.Date) ticket.get("date_of_travel");
                 String date = sdf.format(travelDate);
                 dateField.setText(date);
                 
@@ -207,10 +196,7 @@ public class Cancel extends JFrame {
                     "Not Found", 
                     JOptionPane.ERROR_MESSAGE);
             }
-
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this, "Database Error fetching details: " + ex.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ex -> JOptionPane.showMessageDialog(this, "Database Error fetching details: " + ex.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE));
     }
 
     /**
@@ -232,76 +218,42 @@ public class Cancel extends JFrame {
 
         // ✅ SECURITY CHECK: Verify ticket ownership before allowing cancellation
         // Perform cancellation in a transaction: verify ownership -> delete payments -> delete ticket -> increment seats
-        String selectSql = "SELECT flight_code FROM ticket WHERE pnr = ? AND username = ? FOR UPDATE";
-        String deletePaymentsSql = "DELETE FROM payments WHERE pnr = ?"; // ✅ FIX: Delete payments first
-        String updFlightSql = "UPDATE flight SET seats_available = seats_available + 1 WHERE flight_code = ?";
-        String deleteSql = "DELETE FROM ticket WHERE pnr = ? AND username = ?";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-            try {
-                conn.setAutoCommit(false);
-
-                String flightCode = null;
-                try (PreparedStatement pstSelect = conn.prepareStatement(selectSql)) {
-                    pstSelect.setString(1, pnr);
-                    pstSelect.setString(2, currentUsername); // ✅ Verify user ownership
-                    try (ResultSet rs = pstSelect.executeQuery()) {
-                        if (rs.next()) {
-                            flightCode = rs.getString("flight_code");
-                        } else {
-                            conn.rollback();
-                            JOptionPane.showMessageDialog(this, 
-                                "Ticket with PNR " + pnr + " not found.\nNote: You can only cancel your own tickets.", 
-                                "Not Found", 
-                                JOptionPane.ERROR_MESSAGE);
-                            return;
-                        }
-                    }
-                }
-
-                // ✅ DELETE PAYMENTS FIRST (to avoid foreign key constraint violation)
-                try (PreparedStatement pstDelPayments = conn.prepareStatement(deletePaymentsSql)) {
-                    pstDelPayments.setString(1, pnr);
-                    pstDelPayments.executeUpdate();
-                    System.out.println("✅ Payments deleted for PNR: " + pnr);
-                }
-
-                // delete ticket (with user verification)
-                try (PreparedStatement pstDel = conn.prepareStatement(deleteSql)) {
-                    pstDel.setString(1, pnr);
-                    pstDel.setString(2, currentUsername); // ✅ Verify user ownership on deletion
-                    int rowsAffected = pstDel.executeUpdate();
-                    if (rowsAffected == 0) {
-                        conn.rollback();
-                        JOptionPane.showMessageDialog(this, "Cancellation failed. Ticket not found or already cancelled.", "Error", JOptionPane.ERROR_MESSAGE);
-                        return;
-                    }
-                }
-
-                // increment seats
-                try (PreparedStatement pstUpd = conn.prepareStatement(updFlightSql)) {
-                    pstUpd.setString(1, flightCode);
-                    pstUpd.executeUpdate();
-                }
-
-                conn.commit();
-
-                JOptionPane.showMessageDialog(this,
-                    "Ticket with PNR " + pnr + " successfully cancelled.\nRefund process initiated.",
-                    "Cancellation Complete",
-                    JOptionPane.INFORMATION_MESSAGE);
-                dispose(); // Close the window
-
-            } catch (SQLException exInner) {
-                try { conn.rollback(); } catch (SQLException ignore) {}
-                JOptionPane.showMessageDialog(this, "Cancellation Failed (transaction rolled back): " + exInner.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
-            } finally {
-                try { conn.setAutoCommit(true); } catch (SQLException ignore) {}
+        cancelTicketBtn.setEnabled(false);
+        db.update(() -> RepositorySupport.inTransaction(conn -> {
+            String flightCode = TicketRepository.lockFlightCodeForOwner(conn, pnr, currentUsername); // ✅ Verify user ownership
+            if (flightCode == null) {
+                return "Ticket with PNR " + pnr + " not found.\nNote: You can only cancel your own tickets.";
             }
 
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this, "Cancellation Failed (DB Error): " + ex.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
-        }
+            // ✅ DELETE PAYMENTS FIRST (to avoid foreign key constraint violation)
+            PaymentRepository.deleteByPnr(conn, pnr);
+            System.out.println("✅ Payments deleted for PNR: " + pnr);
+
+            // delete ticket (with user verification)
+            if (TicketRepository.deleteForOwner(conn, pnr, currentUsername) == 0) {
+                conn.rollback();
+                return "Cancellation failed. Ticket not found or already cancelled.";
+            }
+
+            // increment seats
+            FlightRepository.incrementSeats(conn, flightCode);
+            return null;
+        }), failure -> {
+            if (failure != null) {
+                cancelTicketBtn.setEnabled(true);
+                JOptionPane.showMessageDialog(this, failure, "Not Found", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            JOptionPane.showMessageDialog(this,
+                "Ticket with PNR " + pnr + " successfully cancelled.\nRefund process initiated.",
+                "Cancellation Complete",
+                JOptionPane.INFORMATION_MESSAGE);
+            dispose(); // Close the window
+        }, ex -> {
+            cancelTicketBtn.setEnabled(true);
+            JOptionPane.showMessageDialog(this, "Cancellation Failed (transaction rolled back): " + ex.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
+        });
     }
 
     public static void main(String[] args) {
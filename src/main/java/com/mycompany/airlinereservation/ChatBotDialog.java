@@ -31,8 +31,8 @@ public class ChatBotDialog extends JFrame {
         setAlwaysOnTop(false);
         setResizable(true);
         
-        // Initialize chatbot with NLP enhancement
-        ChatBot chatBot = new ChatBotEnhanced(username);
+        // Conversation with the shared NLP-enhanced chatbot engine
+        ChatEngine.Conversation chatBot = ChatEngine.getInstance().conversation(username);
         
         // Create main panel
         JPanel mainPanel = new JPanel(new BorderLayout());
@@ -1,13 +1,18 @@
 package com.mycompany.airlinereservation;
 
+import com.mycompany.airlinereservation.nlp.NLPIntent;
+import com.mycompany.airlinereservation.nlp.NLPResponse;
+import com.mycompany.airlinereservation.nlp.NlpHttpTransport;
 import java.io.*;
-import java.sql.*;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import org.json.JSONObject;
 
 /**
  * ChatBotEnhanced.java - NLP-Enhanced Chatbot with spaCy Integration
@@ -15,22 +20,30 @@ import org.json.JSONObject;
  * This enhanced version of the chatbot integrates with spaCy NLP service
  * for intelligent natural language understanding and entity extraction.
  * 
+ * One instance holds one user's conversation state. ChatEngine keeps one
+ * per active user and serializes calls to it; windows never build their own.
+ * 
  * Features:
  * - spaCy-based intent detection
  * - Automatic entity extraction (locations, dates, travel class, Aadhaar)
  * - Reduced multi-step booking by pre-populating extracted data
  * - Better understanding of natural language queries
+ * - In-process fast path (FastIntentClassifier) for clear-cut commands
+ * - While spaCy parses a message, likely database reads (the user's
+ *   bookings, flights on a route named in the message) run in parallel
  * - Graceful fallback to rule-based routing if NLP service unavailable
+ * - Conversation history bounded in memory and kept on disk per user (ConversationLog)
  * - Integration with existing database and booking logic
  */
-public class ChatBotEnhanced extends ChatBot {
+public class ChatBotEnhanced {
     
     private static final Logger LOGGER = Logger.getLogger(ChatBotEnhanced.class.getName());
     
-    private String currentUsername;
-    private Map<String, String> bookingContext = new HashMap<>();
-    private List<String> conversationHistory = new ArrayList<>();
-    private NLPService nlpService;
+    private final String currentUsername;
+    private final Map<String, String> bookingContext = new HashMap<>();
+    // Bounded in memory, persisted per user (survives closing the window)
+    private final ConversationLog conversationHistory;
+    private final NLPService nlpService;
     
     // Booking states
     private enum BookingState {
@@ -38,39 +51,17 @@ public class ChatBotEnhanced extends ChatBot {
     }
     private BookingState currentBookingState = BookingState.IDLE;
     
-    public ChatBotEnhanced(String username) {
-        super(username);
-        this.currentUsername = username;
-        DatabaseInitializer.initializeDatabase();
-        testDatabaseConnection();
-        
-        // Initialize NLP service
-        try {
-            this.nlpService = NLPService.getInstance();
-            if (nlpService.isServiceAvailable()) {
-                LOGGER.info("✅ spaCy NLP Service initialized successfully");
-            } else {
-                LOGGER.warning("⚠️  spaCy NLP Service not available - using fallback mode");
-            }
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "❌ Failed to initialize NLP Service: " + e.getMessage());
-            nlpService = null;
-        }
-    }
+    // Speculative reads for the message being processed (null outside processMessage)
+    private Prefetch prefetch;
     
     /**
-     * Test if database is connected
+     * One user's conversation state; built by ChatEngine, which also did the
+     * one-time database and NLP setup (nlpService is null if that failed)
      */
-    private void testDatabaseConnection() {
-        try (Connection conn = DBConnection.getConnection()) {
-            if (conn != null) {
-                LOGGER.info("✅ ChatBotEnhanced: Database connection successful!");
-            } else {
-                LOGGER.warning("❌ ChatBotEnhanced: Database connection returned null!");
-            }
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "❌ ChatBotEnhanced: Database connection failed - " + e.getMessage());
-        }
+    ChatBotEnhanced(String username, NLPService nlpService) {
+        this.currentUsername = username;
+        this.conversationHistory = ConversationLog.forUser(username);
+        this.nlpService = nlpService;
     }
     
     /**
@@ -79,13 +70,43 @@ public class ChatBotEnhanced extends ChatBot {
      * This is the main entry point that uses spaCy for intelligent message processing
      */
     public String processMessage(String userMessage) {
-        conversationHistory.add("User: " + userMessage);
+        conversationHistory.append("User: " + userMessage);
+        String response = respond(userMessage);
+        conversationHistory.append("Bot: " + response);
+        return response;
+    }
+    
+    /**
+     * Work out the reply to one message (processMessage records both in the history)
+     */
+    private String respond(String userMessage) {
+        // Clear-cut commands are classified in-process, without a spaCy round trip
+        if (currentBookingState == BookingState.IDLE) {
+            FastIntentClassifier.Result fast = FastIntentClassifier.classify(userMessage);
+            if (fast != null) {
+                LOGGER.fine("⚡ Fast path: Intent=" + fast.intent() + ", Confidence=" + fast.confidence());
+                String fastResponse = dispatchIntent(userMessage, fast.intent(), fast.toNlpResponse());
+                if (fastResponse != null) {
+                    return fastResponse;
+                }
+            }
+        }
         
         // Try NLP-based processing first if service available
         if (nlpService != null && nlpService.isServiceAvailable()) {
-            String nlpResponse = processMessageWithNLP(userMessage);
-            if (nlpResponse != null) {
-                return nlpResponse;
+            // All NLP calls for this message share one latency budget (picked up by the
+            // transport from this thread, so it's only opened and closed here)
+            NlpHttpTransport.Budget budget = NlpHttpTransport.beginMessage();
+            try {
+                CompletableFuture<NLPResponse> nlpResult = nlpService.processTextAsync(userMessage);
+                prefetch = Prefetch.start(userMessage, currentUsername);
+                String nlpResponse = processMessageWithNLP(userMessage, nlpResult.join());
+                if (nlpResponse != null) {
+                    return nlpResponse;
+                }
+            } finally {
+                prefetch = null;
+                budget.close();
             }
         }
         
@@ -106,23 +127,20 @@ public class ChatBotEnhanced extends ChatBot {
     /**
      * Process message using NLP analysis
      */
-    private String processMessageWithNLP(String userMessage) {
+    private String processMessageWithNLP(String userMessage, NLPResponse nlpResult) {
         try {
-            // Get NLP analysis
-            JSONObject nlpResult = nlpService.processText(userMessage);
-            
-            if (nlpResult == null || !nlpResult.optBoolean("success", false)) {
+            if (nlpResult == null || !nlpResult.isSuccess()) {
                 return null;
             }
             
             // Extract intent
-            JSONObject intentObj = nlpResult.optJSONObject("intent");
-            if (intentObj == null) {
+            NLPIntent intent = nlpResult.getIntent();
+            if (intent == null) {
                 return null;
             }
             
-            String primaryIntent = intentObj.optString("primary_intent", null);
-            double confidence = intentObj.optDouble("confidence", 0);
+            String primaryIntent = intent.getPrimaryIntent();
+            double confidence = intent.getConfidence();
             
             LOGGER.info("🧠 NLP Analysis: Intent=" + primaryIntent + ", Confidence=" + confidence);
             
@@ -132,6 +150,22 @@ public class ChatBotEnhanced extends ChatBot {
                 return null;
             }
             
+            return dispatchIntent(userMessage, primaryIntent, nlpResult);
+            
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Error in NLP processing: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Route a classified message (spaCy or fast path) to its handler; null if unhandled
+     */
+    private String dispatchIntent(String userMessage, String primaryIntent, NLPResponse nlpResult) {
+        if (primaryIntent == null) {
+            return null;
+        }
+        try {
             switch (primaryIntent) {
                 case "book_flight":
                     return handleBookingWithNLP(userMessage, nlpResult);
@@ -160,12 +194,15 @@ public class ChatBotEnhanced extends ChatBot {
                 case "help":
                     return getHelpMessage();
                     
+                case "greeting":
+                    return getFallbackResponse(userMessage);
+                    
                 default:
                     return null;
             }
             
         } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Error in NLP processing: " + e.getMessage());
+            LOGGER.log(Level.WARNING, "Error handling intent " + primaryIntent + ": " + e.getMessage());
             return null;
         }
     }
@@ -173,13 +210,8 @@ public class ChatBotEnhanced extends ChatBot {
     /**
      * Handle booking with NLP-extracted data
      */
-    private String handleBookingWithNLP(String userMessage, JSONObject nlpResult) {
+    private String handleBookingWithNLP(String userMessage, NLPResponse nlpResult) {
         try {
-            JSONObject extractedData = nlpResult.optJSONObject("extracted_data");
-            if (extractedData == null) {
-                return null;
-            }
-            
             // Try to extract all booking information
             boolean hasSource = false;
             boolean hasDestination = false;
@@ -187,37 +219,33 @@ public class ChatBotEnhanced extends ChatBot {
             boolean hasClass = false;
             
             // Extract route
-            if (extractedData.has("route")) {
-                JSONObject route = extractedData.getJSONObject("route");
-                String source = route.optString("source", null);
-                String destination = route.optString("destination", null);
-                
-                if (source != null && !source.isEmpty()) {
-                    bookingContext.put("source", source);
-                    hasSource = true;
-                }
-                if (destination != null && !destination.isEmpty()) {
-                    bookingContext.put("destination", destination);
-                    hasDestination = true;
-                }
+            String source = nlpResult.getSource();
+            String destination = nlpResult.getDestination();
+            if (source != null && !source.isEmpty()) {
+                bookingContext.put("source", source);
+                hasSource = true;
+            }
+            if (destination != null && !destination.isEmpty()) {
+                bookingContext.put("destination", destination);
+                hasDestination = true;
             }
             
             // Extract date
-            String date = extractedData.optString("travel_date", null);
+            String date = nlpResult.getTravelDate();
             if (date != null && !date.isEmpty()) {
                 bookingContext.put("date", date);
                 hasDate = true;
             }
             
             // Extract travel class
-            String travelClass = extractedData.optString("travel_class", null);
+            String travelClass = nlpResult.getTravelClass();
             if (travelClass != null && !travelClass.isEmpty()) {
                 bookingContext.put("class", travelClass.toUpperCase());
                 hasClass = true;
             }
             
             // Extract Aadhaar if present
-            String aadhaar = extractedData.optString("aadhaar", null);
+            String aadhaar = nlpResult.getAadhaar();
             if (aadhaar != null && !aadhaar.isEmpty()) {
                 bookingContext.put("aadhar", aadhaar);
             }
@@ -251,20 +279,11 @@ public class ChatBotEnhanced extends ChatBot {
     /**
      * Handle flights with NLP-extracted route
      */
-    private String handleShowFlightsWithNLP(String userMessage, JSONObject nlpResult) {
-        try {
-            JSONObject extractedData = nlpResult.optJSONObject("extracted_data");
-            if (extractedData != null && extractedData.has("route")) {
-                JSONObject route = extractedData.getJSONObject("route");
-                String source = route.optString("source", null);
-                String destination = route.optString("destination", null);
-                
-                if (source != null && destination != null && !source.isEmpty() && !destination.isEmpty()) {
-                    return getFlightsList(source, destination);
-                }
-            }
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Error extracting route: " + e.getMessage());
+    private String handleShowFlightsWithNLP(String userMessage, NLPResponse nlpResult) {
+        String source = nlpResult.getSource();
+        String destination = nlpResult.getDestination();
+        if (source != null && destination != null && !source.isEmpty() && !destination.isEmpty()) {
+            return getFlightsList(source, destination);
         }
         
         return handleShowFlights(userMessage);
@@ -385,8 +404,11 @@ public class ChatBotEnhanced extends ChatBot {
                        ".\n\nWould you like to try other destinations?";
             }
             
-            String pnr = generatePNR();
-            insertBooking(pnr, flight.getFlightCode(), date, travelClass);
+            // Retried under a new PNR if this one was already issued
+            String pnr = PnrGenerator.withFreshPnr(code -> {
+                insertBooking(code, flight.getFlightCode(), date, travelClass);
+                return code;
+            });
             
             currentBookingState = BookingState.IDLE;
             bookingContext.clear();
@@ -411,6 +433,12 @@ public class ChatBotEnhanced extends ChatBot {
      * Handle show flights
      */
     private String handleShowFlights(String message) {
+        // Known cities and aliases ("Bombay", "BLR") resolve locally to their database spelling
+        Gazetteer.Route route = Gazetteer.current().route(message);
+        if (route.isComplete()) {
+            return getFlightsList(route.source(), route.destination());
+        }
+        
         Pattern pattern = Pattern.compile("from\\s+([A-Za-z\\s]+?)\\s+to\\s+([A-Za-z\\s]+)", 
                                         Pattern.CASE_INSENSITIVE);
         Matcher matcher = pattern.matcher(message);
@@ -431,51 +459,28 @@ public class ChatBotEnhanced extends ChatBot {
         StringBuilder result = new StringBuilder("✈️ Available Flights:\n" +
                 "From: " + source + " → To: " + destination + "\n\n");
         
-        try (Connection conn = DBConnection.getConnection()) {
-            if (conn == null) {
-                return "❌ Database connection failed. Please try again.";
-            }
-            
-            String query = "SELECT f.flight_code, a.airline_name AS airline, f.departure_time, f.arrival_time, " +
-                          "TIMESTAMPDIFF(MINUTE, f.departure_time, f.arrival_time) AS duration_minutes, " +
-                          "f.price, f.seats_available " +
-                          "FROM flight f " +
-                          "LEFT JOIN airlines a ON f.airline_id = a.airline_id " +
-                          "WHERE LOWER(f.source) = LOWER(?) AND LOWER(f.destination) = LOWER(?)";
-            
-            PreparedStatement pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, source);
-            pstmt.setString(2, destination);
-            
-            ResultSet rs = pstmt.executeQuery();
+        try {
+            List<AirlineService.Flight> flights = RouteIndex.search(source, destination, null);
             
-            if (!rs.isBeforeFirst()) {
+            if (flights.isEmpty()) {
                 return "❌ No flights found for this route.";
             }
             
             int count = 0;
-            while (rs.next()) {
+            for (AirlineService.Flight flight : flights) {
                 count++;
-                String airline = rs.getString("airline");
-                if (airline == null || airline.isEmpty()) airline = "Unknown Airline";
+                String airline = flight.airline;
+                if (airline == null || airline.isEmpty() || airline.equals("Unknown")) airline = "Unknown Airline";
                 
-                int durationMinutes = rs.getInt("duration_minutes");
-                String duration = rs.wasNull() ? "N/A" : formatDuration(durationMinutes);
+                String duration = formatDuration(minutesBetween(flight.departureTime, flight.arrivalTime));
                 
-                result.append(count).append(". Flight: ").append(rs.getString("flight_code"))
+                result.append(count).append(". Flight: ").append(flight.flightCode)
                       .append(" (").append(airline).append(")\n")
-                      .append("   Depart: ").append(rs.getString("departure_time"))
-                      .append(" | Arrive: ").append(rs.getString("arrival_time")).append("\n")
+                      .append("   Depart: ").append(flight.departureTime)
+                      .append(" | Arrive: ").append(flight.arrivalTime).append("\n")
                       .append("   Duration: ").append(duration)
-                      .append(" | Price: ₹").append(rs.getInt("price")).append("\n")
-                      .append("   Seats: ").append(rs.getInt("seats_available")).append("\n\n");
-            }
-            
-            rs.close();
-            pstmt.close();
-            
-            if (count == 0) {
-                return "❌ No flights found for this route.";
+                      .append(" | Price: ₹").append(flight.price).append("\n")
+                      .append("   Seats: ").append(flight.seatsAvailable).append("\n\n");
             }
             
         } catch (SQLException e) {
@@ -489,37 +494,16 @@ public class ChatBotEnhanced extends ChatBot {
      * Get flight between cities
      */
     private Flight getFlightBetween(String source, String destination) {
-        try (Connection conn = DBConnection.getConnection()) {
-            String query = "SELECT f.flight_code, a.airline_name AS airline, f.source, f.destination, " +
-                          "f.departure_time, f.arrival_time, f.price " +
-                          "FROM flight f " +
-                          "LEFT JOIN airlines a ON f.airline_id = a.airline_id " +
-                          "WHERE LOWER(f.source) = LOWER(?) AND LOWER(f.destination) = LOWER(?) LIMIT 1";
-            
-            PreparedStatement pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, source);
-            pstmt.setString(2, destination);
-            
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                String airline = rs.getString("airline");
-                if (airline == null || airline.isEmpty()) airline = "Unknown Airline";
+        try {
+            List<AirlineService.Flight> flights = RouteIndex.search(source, destination, null);
+            if (!flights.isEmpty()) {
+                AirlineService.Flight f = flights.get(0);
+                String airline = f.airline;
+                if (airline == null || airline.isEmpty() || airline.equals("Unknown")) airline = "Unknown Airline";
                 
-                Flight flight = new Flight(
-                    rs.getString("flight_code"),
-                    airline,
-                    rs.getString("source"),
-                    rs.getString("destination"),
-                    rs.getString("departure_time"),
-                    rs.getString("arrival_time"),
-                    rs.getInt("price")
-                );
-                rs.close();
-                pstmt.close();
-                return flight;
+                return new Flight(f.flightCode, airline, f.source, f.destination,
+                                  f.departureTime, f.arrivalTime, f.price);
             }
-            rs.close();
-            pstmt.close();
         } catch (SQLException e) {
             LOGGER.log(Level.WARNING, "Database error: " + e.getMessage());
         }
@@ -545,33 +529,22 @@ public class ChatBotEnhanced extends ChatBot {
      * Get flight status
      */
     private String getFlightStatus(String flightCode) {
-        try (Connection conn = DBConnection.getConnection()) {
-            String query = "SELECT f.flight_code, f.source, f.destination, f.departure_time, f.arrival_time, " +
-                          "f.price, f.seats_available, a.airline_name AS airline " +
-                          "FROM flight f " +
-                          "LEFT JOIN airlines a ON f.airline_id = a.airline_id " +
-                          "WHERE f.flight_code = ?";
-            
-            PreparedStatement pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, flightCode);
-            
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                String airline = rs.getString("airline");
-                if (airline == null || airline.isEmpty()) airline = "Unknown Airline";
+        try {
+            AirlineService.Flight flight = FlightRepository.findByCode(flightCode);
+            if (flight != null) {
+                String airline = flight.airline;
+                if (airline == null || airline.isEmpty() || airline.equals("Unknown")) airline = "Unknown Airline";
                 
                 return "✈️ Flight Details:\n" +
-                       "Flight Code: " + rs.getString("flight_code") + "\n" +
+                       "Flight Code: " + flight.flightCode + "\n" +
                        "Airline: " + airline + "\n" +
-                       "Route: " + rs.getString("source") + " → " + rs.getString("destination") + "\n" +
-                       "Departure: " + rs.getString("departure_time") + "\n" +
-                       "Arrival: " + rs.getString("arrival_time") + "\n" +
-                       "Price: ₹" + rs.getInt("price") + "\n" +
-                       "Seats Available: " + rs.getInt("seats_available") + "\n" +
+                       "Route: " + flight.source + " → " + flight.destination + "\n" +
+                       "Departure: " + flight.departureTime + "\n" +
+                       "Arrival: " + flight.arrivalTime + "\n" +
+                       "Price: ₹" + flight.price + "\n" +
+                       "Seats Available: " + flight.seatsAvailable + "\n" +
                        "Status: ✅ Active";
             }
-            rs.close();
-            pstmt.close();
         } catch (SQLException e) {
             return "❌ Error fetching flight details: " + e.getMessage();
         }
@@ -585,39 +558,30 @@ public class ChatBotEnhanced extends ChatBot {
     private String handleShowBookings() {
         StringBuilder result = new StringBuilder("📋 Your Bookings:\n\n");
         
-        try (Connection conn = DBConnection.getConnection()) {
-            String query = "SELECT b.id, b.flight_code, b.booking_date, f.source, f.destination, f.price, a.airline_name AS airline " +
-                          "FROM booking b " +
-                          "JOIN flight f ON b.flight_code = f.flight_code " +
-                          "LEFT JOIN airlines a ON f.airline_id = a.airline_id " +
-                          "WHERE b.username = ? " +
-                          "ORDER BY b.booking_date DESC";
-            
-            PreparedStatement pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, currentUsername);
-            
-            ResultSet rs = pstmt.executeQuery();
+        try {
+            Prefetch pending = prefetch;
+            List<Map<String, Object>> bookings = pending != null && pending.bookings != null
+                    ? Prefetch.await(pending.bookings)
+                    : BookingRepository.findByUsername(currentUsername);
             
-            if (!rs.isBeforeFirst()) {
+            if (bookings.isEmpty()) {
                 return "❌ You have no bookings yet.\n\n💡 Say 'Book a flight' to get started!";
             }
             
             int count = 0;
-            while (rs.next()) {
+            for (Map<String, Object> booking : bookings) {
                 count++;
-                String airline = rs.getString("airline");
+                String airline = (String) booking.get("airline");
                 if (airline == null || airline.isEmpty()) airline = "Unknown Airline";
                 
-                result.append(count).append(". Flight: ").append(rs.getString("flight_code"))
+                result.append(count).append(". Flight: ").append(booking.get("flightCode"))
                       .append(" (").append(airline).append(")\n")
-                      .append("   Route: ").append(rs.getString("source"))
-                      .append(" → ").append(rs.getString("destination")).append("\n")
-                      .append("   Booking Date: ").append(rs.getString("booking_date"))
-                      .append(" | Amount: ₹").append(String.format("%.2f", rs.getDouble("price"))).append("\n\n");
+                      .append("   Route: ").append(booking.get("source"))
+                      .append(" → ").append(booking.get("destination")).append("\n")
+                      .append("   Booking Date: ").append(booking.get("bookingDate"))
+                      .append(" | Amount: ₹").append(String.format("%.2f", ((Number) booking.get("price")).doubleValue())).append("\n\n");
             }
             
-            rs.close();
-            pstmt.close();
         } catch (SQLException e) {
             return "❌ Database error: " + e.getMessage();
         }
@@ -629,41 +593,27 @@ public class ChatBotEnhanced extends ChatBot {
      * Handle cancel booking
      */
     private String handleCancelBooking(String message) {
-        Pattern pattern = Pattern.compile("(IN\\d+|[A-Z]{2}\\d+)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(message);
-        
-        String pnr = null;
-        if (matcher.find()) {
-            pnr = matcher.group(1).toUpperCase();
-        } else {
+        String pnr = findPnr(message);
+        if (pnr == null) {
             return "🔄 Please provide your PNR number to cancel the booking.";
         }
         
-        try (Connection conn = DBConnection.getConnection()) {
-            String checkQuery = "SELECT id, status, flight_code FROM booking WHERE pnr = ? AND username = ?";
-            PreparedStatement checkStmt = conn.prepareStatement(checkQuery);
-            checkStmt.setString(1, pnr);
-            checkStmt.setString(2, currentUsername);
-            
-            ResultSet rs = checkStmt.executeQuery();
-            if (!rs.next()) {
+        try {
+            String[] booking = BookingRepository.findStatusForOwner(pnr, currentUsername);
+            if (booking == null) {
                 return "❌ Booking with PNR " + pnr + " not found.";
             }
             
-            String currentStatus = rs.getString("status");
-            String flightCode = rs.getString("flight_code");
-            rs.close();
-            checkStmt.close();
+            String currentStatus = booking[0];
+            String flightCode = booking[1];
             
             if (currentStatus.equalsIgnoreCase("Cancelled")) {
                 return "⚠️ This booking has already been cancelled.";
             }
             
-            String updateQuery = "UPDATE booking SET status = 'Cancelled' WHERE pnr = ?";
-            PreparedStatement updateStmt = conn.prepareStatement(updateQuery);
-            updateStmt.setString(1, pnr);
-            updateStmt.executeUpdate();
-            updateStmt.close();
+            if (!AirlineService.cancelBooking(pnr)) {
+                return "⚠️ This booking has already been cancelled.";
+            }
             
             return "✅ Booking Cancelled Successfully!\n\n" +
                    "📋 PNR: " + pnr + "\n" +
@@ -676,6 +626,29 @@ public class ChatBotEnhanced extends ChatBot {
         }
     }
     
+    // Current PNRs (6 Crockford base-32 characters, see PnrGenerator) or legacy ones like IN123456
+    private static final Pattern PNR_CANDIDATE =
+            Pattern.compile("\\b([0-9A-HJKMNP-TV-Z]{6}|IN\\d+|[A-Z]{2}\\d+)\\b", Pattern.CASE_INSENSITIVE);
+    
+    /**
+     * The PNR in a message, upper-cased, or null. A code with a digit wins; an
+     * all-letter one only counts if typed in capitals (so words like "thanks" don't)
+     */
+    static String findPnr(String message) {
+        Matcher matcher = PNR_CANDIDATE.matcher(message);
+        String lettersOnly = null;
+        while (matcher.find()) {
+            String candidate = matcher.group(1);
+            if (candidate.chars().anyMatch(Character::isDigit)) {
+                return candidate.toUpperCase();
+            }
+            if (lettersOnly == null && candidate.equals(candidate.toUpperCase())) {
+                lettersOnly = candidate;
+            }
+        }
+        return lettersOnly;
+    }
+    
     /**
      * Handle boarding pass generation
      */
@@ -692,46 +665,31 @@ public class ChatBotEnhanced extends ChatBot {
             return "📄 Please provide your PNR number to generate boarding pass.";
         }
         
-        try (Connection conn = DBConnection.getConnection()) {
-            String query = "SELECT bp.pnr, bp.passenger_name, bp.flight_code, bp.boarding_time, bp.gate_number, " +
-                          "bp.seat_number, a.airline_name, f.source, f.destination, f.departure_time " +
-                          "FROM boarding_pass bp " +
-                          "JOIN flight f ON bp.flight_code = f.flight_code " +
-                          "LEFT JOIN airlines a ON f.airline_id = a.airline_id " +
-                          "WHERE UPPER(bp.pnr) = ?";
-            
-            PreparedStatement pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, pnr);
-            
-            ResultSet rs = pstmt.executeQuery();
-            if (!rs.next()) {
+        try {
+            Map<String, String> pass = TicketRepository.findBoardingPassWithFlight(pnr);
+            if (pass == null) {
                 return "❌ Boarding pass not found for PNR: " + pnr;
             }
             
-            String airline = rs.getString("airline_name");
+            String airline = pass.get("airline");
             if (airline == null) airline = "Unknown Airline";
             
             try {
                 String boardingPassPath = generateBoardingPassPDF(
                     pnr,
-                    rs.getString("flight_code"),
+                    pass.get("flightCode"),
                     airline,
-                    rs.getString("source"),
-                    rs.getString("destination"),
-                    rs.getString("departure_time"),
-                    rs.getString("seat_number"),
-                    rs.getString("passenger_name"),
-                    rs.getString("boarding_time")
+                    pass.get("source"),
+                    pass.get("destination"),
+                    pass.get("departureTime"),
+                    pass.get("seatNumber"),
+                    pass.get("passengerName"),
+                    pass.get("boardingTime")
                 );
                 
-                rs.close();
-                pstmt.close();
-                
                 return "🎟️ Boarding Pass Generated Successfully!\n" +
                        "📁 Saved at: " + boardingPassPath;
             } catch (Exception e) {
-                rs.close();
-                pstmt.close();
                 return "❌ Error generating boarding pass: " + e.getMessage();
             }
             
@@ -754,31 +712,18 @@ public class ChatBotEnhanced extends ChatBot {
             return "🆔 Please provide your 12-digit Aadhaar number.";
         }
         
-        try (Connection conn = DBConnection.getConnection()) {
-            String query = "SELECT name, gender, phone, email, address FROM customer WHERE aadhaar = ?";
-            PreparedStatement pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, aadhaar);
-            
-            ResultSet rs = pstmt.executeQuery();
-            if (!rs.next()) {
+        try {
+            Map<String, String> customer = CustomerRepository.findByAadhaar(aadhaar);
+            if (customer.isEmpty()) {
                 return "❌ No customer found with Aadhaar number " + aadhaar;
             }
             
-            String name = rs.getString("name");
-            String gender = rs.getString("gender");
-            String phone = rs.getString("phone");
-            String email = rs.getString("email");
-            String address = rs.getString("address");
-            
-            rs.close();
-            pstmt.close();
-            
             return "👤 Passenger Profile:\n\n" +
-                   "📝 Name: " + name + "\n" +
-                   "👥 Gender: " + gender + "\n" +
-                   "📞 Phone: " + phone + "\n" +
-                   "📧 Email: " + email + "\n" +
-                   "📍 Address: " + address + "\n\n" +
+                   "📝 Name: " + customer.get("name") + "\n" +
+                   "👥 Gender: " + customer.get("gender") + "\n" +
+                   "📞 Phone: " + customer.get("phone") + "\n" +
+                   "🌍 Nationality: " + customer.get("nationality") + "\n" +
+                   "📍 Address: " + customer.get("address") + "\n\n" +
                    "✅ Profile verified!";
                    
         } catch (SQLException e) {
@@ -792,39 +737,32 @@ public class ChatBotEnhanced extends ChatBot {
     private String handlePaymentSummary() {
         StringBuilder result = new StringBuilder("💳 Payment Summary:\n\n");
         
-        try (Connection conn = DBConnection.getConnection()) {
-            String query = "SELECT p.pnr, p.amount, p.payment_method, p.payment_status, p.transaction_date, " +
-                          "t.flight_code FROM payments p " +
-                          "INNER JOIN ticket t ON p.pnr = t.pnr " +
-                          "ORDER BY p.transaction_date DESC";
-            
-            PreparedStatement pstmt = conn.prepareStatement(query);
-            ResultSet rs = pstmt.executeQuery();
+        try {
+            List<Map<String, Object>> payments = PaymentRepository.findAllWithTicket();
             
-            if (!rs.isBeforeFirst()) {
+            if (payments.isEmpty()) {
                 return "❌ No payment records found.";
             }
             
             int recordCount = 0;
             int totalPaid = 0;
             
-            while (rs.next()) {
+            for (Map<String, Object> payment : payments) {
                 recordCount++;
-                String status = rs.getString("payment_status");
-                double amount = rs.getDouble("amount");
+                String status = (String) payment.get("payment_status");
+                Number amountValue = (Number) payment.get("amount");
+                double amount = amountValue != null ? amountValue.doubleValue() : 0.0;
                 
                 if (status != null && (status.equalsIgnoreCase("Paid") || status.equalsIgnoreCase("Success"))) {
                     totalPaid += (int) amount;
                 }
                 
-                result.append(recordCount).append(". PNR: ").append(rs.getString("pnr"))
+                result.append(recordCount).append(". PNR: ").append(payment.get("pnr"))
                       .append(" | Amount: ₹").append(String.format("%.2f", amount))
                       .append(" | Status: ").append(status).append("\n");
             }
             
             result.append("\nTotal Paid: ₹").append(totalPaid);
-            rs.close();
-            pstmt.close();
             
         } catch (SQLException e) {
             return "❌ Database error: " + e.getMessage();
@@ -892,10 +830,16 @@ public class ChatBotEnhanced extends ChatBot {
     }
     
     /**
-     * Generate PNR
+     * Minutes between two "yyyy-MM-dd HH:mm:ss" times, or -1 if either is missing/unparseable
      */
-    private String generatePNR() {
-        return java.util.UUID.randomUUID().toString().replace("-", "").substring(0, 6).toUpperCase();
+    private int minutesBetween(String departureTime, String arrivalTime) {
+        if (departureTime == null || arrivalTime == null) return -1;
+        try {
+            long millis = Timestamp.valueOf(arrivalTime).getTime() - Timestamp.valueOf(departureTime).getTime();
+            return (int) (millis / 60000);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
     }
     
     /**
@@ -937,61 +881,52 @@ public class ChatBotEnhanced extends ChatBot {
      * Insert booking
      */
     private void insertBooking(String pnr, String flightCode, String date, String travelClass) throws SQLException {
-        try (Connection conn = DBConnection.getConnection()) {
-            String aadhaar = bookingContext.get("aadhar");
-            if (aadhaar == null) {
-                throw new SQLException("Aadhaar number not found");
-            }
-            
-            String query = "INSERT INTO booking (pnr, username, flight_code, date_of_travel, class, aadhaar, status) " +
-                          "VALUES (?, ?, ?, ?, ?, ?, 'Confirmed')";
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, pnr);
-                pstmt.setString(2, currentUsername);
-                pstmt.setString(3, flightCode);
-                pstmt.setString(4, date);
-                pstmt.setString(5, travelClass);
-                pstmt.setString(6, aadhaar);
-                
-                pstmt.executeUpdate();
-            }
+        String aadhaar = bookingContext.get("aadhar");
+        if (aadhaar == null) {
+            throw new SQLException("Aadhaar number not found");
+        }
+        
+        // Takes a seat; booking and its boarding pass are written together or not at all
+        FlightRepository.bookSeat(flightCode, conn -> {
+            BookingRepository.insert(conn, pnr, currentUsername, flightCode, date, travelClass, aadhaar);
             
-            String flightDetailsQuery = "SELECT departure_time FROM flight WHERE flight_code = ?";
-            try (PreparedStatement flightStmt = conn.prepareStatement(flightDetailsQuery)) {
-                flightStmt.setString(1, flightCode);
-                ResultSet rs = flightStmt.executeQuery();
-                
-                if (rs.next()) {
-                    String departureTime = rs.getString("departure_time");
-                    
-                    String boardingPassQuery = "INSERT INTO boarding_pass (pnr, passenger_name, flight_code, boarding_time, gate_number, seat_number) " +
-                                              "VALUES (?, ?, ?, ?, ?, ?)";
-                    try (PreparedStatement boardingStmt = conn.prepareStatement(boardingPassQuery)) {
-                        boardingStmt.setString(1, pnr);
-                        boardingStmt.setString(2, currentUsername);
-                        boardingStmt.setString(3, flightCode);
-                        boardingStmt.setString(4, departureTime);
-                        boardingStmt.setString(5, "TBD");
-                        boardingStmt.setString(6, "TBD");
-                        
-                        boardingStmt.executeUpdate();
-                    }
-                }
-                rs.close();
+            AirlineService.Flight flight = FlightRepository.findByCode(conn, flightCode);
+            if (flight != null) {
+                TicketRepository.insertBoardingPass(conn, pnr, currentUsername, flightCode,
+                        flight.departureTime, "TBD", "TBD");
             }
-        }
+            return null;
+        });
     }
     
     /**
-     * Get conversation history
+     * Release this session's history log (ChatEngine calls this when the session expires)
+     */
+    void close() {
+        conversationHistory.close();
+    }
+    
+    /**
+     * Get conversation history (the most recent airline.chat.historySize lines,
+     * including ones restored from earlier sessions)
      */
     public List<String> getConversationHistory() {
-        return conversationHistory;
+        List<String> lines = new ArrayList<>();
+        for (ConversationLog.Entry entry : conversationHistory.recent()) {
+            lines.add(entry.text());
+        }
+        return lines;
     }
     
     /**
-     * Clear conversation
+     * Search this user's whole stored history (newest matches, oldest first)
+     */
+    public List<ConversationLog.Entry> searchConversationHistory(String query, int limit) {
+        return conversationHistory.search(query, limit);
+    }
+    
+    /**
+     * Clear conversation (the on-disk history is kept)
      */
     public void clearConversation() {
         conversationHistory.clear();
@@ -999,6 +934,45 @@ public class ChatBotEnhanced extends ChatBot {
         currentBookingState = BookingState.IDLE;
     }
     
+    /**
+     * Database reads started speculatively while spaCy parses a message. A
+     * handler that needs the same data waits for it instead of querying again;
+     * reads nobody uses are simply dropped. Only the user's bookings are
+     * prefetched: flight searches are answered from RouteIndex in memory, so
+     * there is no I/O to overlap.
+     */
+    private static final class Prefetch {
+        private static final Pattern BOOKINGS_HINT = Pattern.compile("\\b(bookings?|reservations?|my)\\b");
+        
+        private final CompletableFuture<List<Map<String, Object>>> bookings;
+        
+        private Prefetch(CompletableFuture<List<Map<String, Object>>> bookings) {
+            this.bookings = bookings;
+        }
+        
+        static Prefetch start(String userMessage, String username) {
+            CompletableFuture<List<Map<String, Object>>> bookings =
+                    username != null && BOOKINGS_HINT.matcher(userMessage.toLowerCase()).find()
+                    ? AsyncDb.background(() -> BookingRepository.findByUsername(username))
+                    : null;
+            return new Prefetch(bookings);
+        }
+        
+        static <T> T await(CompletableFuture<T> future) throws SQLException {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for prefetched data", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SQLException sql) {
+                    throw sql;
+                }
+                throw new SQLException(e.getCause());
+            }
+        }
+    }
+    
     /**
      * Flight data class
      */
@@ -17,6 +17,7 @@ import java.awt.event.MouseEvent;
  * - Modern input field with send button
  * - Rounded edges and transparency effects
  * - Auto-scrolling to latest messages
+ * - Incremental rendering with an on-screen message cap (ChatTranscript)
  * - Chat bubble styling for messages
  */
 public class ChatBotUI extends JPanel {
@@ -25,13 +26,16 @@ public class ChatBotUI extends JPanel {
     private JTextField messageInputField;
     private JButton sendButton;
     private JScrollPane scrollPane;
-    private final ChatBot chatBot;
+    private ChatTranscript transcript;
+    private final ChatEngine.Conversation chatBot;
+    // A panel has no window of its own; it lives as long as the chatbot dialog
+    private final AsyncDb.Scope chat = AsyncDb.scope(1);
     private Runnable onSendMessage;
     
     // Color scheme - Modern blue theme and styling
     private static final Color TEXT_COLOR = new Color(30, 30, 30);       // Dark text (#1E1E1E)
     
-    public ChatBotUI(ChatBot chatBot) {
+    public ChatBotUI(ChatEngine.Conversation chatBot) {
         this.chatBot = chatBot;
         initializeUI();
     }
@@ -53,9 +57,6 @@ public class ChatBotUI extends JPanel {
         chatHistoryPane.setForeground(TEXT_COLOR);
         chatHistoryPane.setMargin(new Insets(10, 10, 10, 10));
         
-        // Initialize HTML document structure
-        chatHistoryPane.setText("<html><body style='font-family:Segoe UI; font-size:13px; background-color:#F0F8FF; margin:0; padding:10px;'></body></html>");
-        
         // Scroll pane with custom scrollbar
         scrollPane = new JScrollPane(chatHistoryPane);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
@@ -64,6 +65,10 @@ public class ChatBotUI extends JPanel {
         scrollPane.setBorder(BorderFactory.createLineBorder(new Color(0, 123, 255), 2)); // Blue border (#007BFF)
         scrollPane.setBackground(new Color(240, 248, 255));
         
+        // Owns the HTML document structure; bubbles are inserted incrementally
+        transcript = new ChatTranscript(chatHistoryPane, scrollPane,
+                "font-family:Segoe UI; font-size:13px; background-color:#F0F8FF; margin:0; padding:10px;");
+        
         // Input panel
         JPanel inputPanel = createInputPanel();
         
@@ -154,29 +159,15 @@ public class ChatBotUI extends JPanel {
         messageInputField.setText("");
         messageInputField.requestFocus();
         
-        // Process message in background thread
-        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
-            @Override
-            protected String doInBackground() throws Exception {
-                return chatBot.processMessage(userInput);
-            }
+        // Process message in background thread (one at a time, so replies keep their order;
+        // may book or cancel, so it runs as an update that isn't cut off mid-way)
+        chat.update(() -> chatBot.processMessage(userInput), response -> {
+            appendBotMessage(response);
             
-            @Override
-            protected void done() {
-                try {
-                    String response = get();
-                    appendBotMessage(response);
-                    
-                    if (onSendMessage != null) {
-                        onSendMessage.run();
-                    }
-                } catch (Exception e) {
-                    appendBotMessage("❌ Error: " + e.getMessage());
-                }
+            if (onSendMessage != null) {
+                onSendMessage.run();
             }
-        };
-        
-        worker.execute();
+        }, e -> appendBotMessage("❌ Error: " + e.getMessage()));
     }
     
     /**
@@ -225,18 +216,8 @@ public class ChatBotUI extends JPanel {
                 alignment, bubbleColor, borderRadius, sender, escapedMessage
             );
             
-            // Get current HTML content and insert new bubble
-            String currentHTML = chatHistoryPane.getText();
-            
-            // Insert before closing body tag
-            String updatedHTML = currentHTML.replace("</body>", htmlBubble + "</body>");
-            chatHistoryPane.setText(updatedHTML);
-            
-            // Auto-scroll to bottom with smooth scrolling
-            SwingUtilities.invokeLater(() -> {
-                JScrollBar vertical = scrollPane.getVerticalScrollBar();
-                vertical.setValue(vertical.getMaximum());
-            });
+            // Insert the new bubble (and scroll to it) without re-rendering earlier ones
+            transcript.append(htmlBubble);
             
         } catch (Exception e) {
             System.err.println("Error appending message: " + e.getMessage());
@@ -254,7 +235,7 @@ public class ChatBotUI extends JPanel {
      * Clear chat history
      */
     public void clearChat() {
-        chatHistoryPane.setText("");
+        transcript.clear();
         chatBot.clearConversation();
     }
     
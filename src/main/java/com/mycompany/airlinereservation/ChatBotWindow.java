@@ -16,7 +16,8 @@ public class ChatBotWindow extends JFrame {
     private JTextField inputField;
     private JButton sendButton;
     private JScrollPane scrollPane;
-    private final ChatBot chatBot;
+    private final ChatEngine.Conversation chatBot;
+    private final AsyncDb.Scope chat = AsyncDb.scope(this, 1);
     private final String username;
     
     private static final Color PRIMARY_COLOR = new Color(74, 166, 240);
@@ -27,7 +28,7 @@ public class ChatBotWindow extends JFrame {
     
     public ChatBotWindow(String username) {
         this.username = username;
-        this.chatBot = new ChatBotEnhanced(username);
+        this.chatBot = ChatEngine.getInstance().conversation(username);
         
         setupWindow();
         setupUI();
@@ -141,25 +142,11 @@ public class ChatBotWindow extends JFrame {
         addMessage(userInput, true);
         inputField.setText("");
         
-        // Process message in background thread
-        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
-            @Override
-            protected String doInBackground() throws Exception {
-                return chatBot.processMessage(userInput);
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    String response = get();
-                    addMessage(response, false);
-                } catch (Exception e) {
-                    addMessage("❌ Error: " + e.getMessage(), false);
-                }
-            }
-        };
-        
-        worker.execute();
+        // Process message in background thread (one at a time, so replies keep their order;
+        // may book or cancel, so it runs as an update that isn't cut off mid-way)
+        chat.update(() -> chatBot.processMessage(userInput),
+                response -> addMessage(response, false),
+                e -> addMessage("❌ Error: " + e.getMessage(), false));
     }
     
     private void addMessage(String message, boolean isUser) {
@@ -0,0 +1,162 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ChatEngine.java - The one chatbot engine shared by every chat window
+ *
+ * Features:
+ * - Initialized once per JVM: the schema check, database connection test and
+ *   NLP service lookup run on first use instead of once per window
+ * - Per-user conversation state (a ChatBotEnhanced: booking flow and its
+ *   context) lives in a ChatSessionStore and is dropped after
+ *   airline.chat.sessionIdleMinutes (default 30) without a message; its
+ *   history log is closed then, so idle users hold no files or mappings
+ * - Messages of one user are handled one at a time (two windows of the same
+ *   user share the booking flow); different users run in parallel
+ * - Opening a chat window only creates a Conversation handle
+ */
+public final class ChatEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(ChatEngine.class.getName());
+
+    private static final long SESSION_IDLE_MINUTES = Long.getLong("airline.chat.sessionIdleMinutes", 30L);
+
+    private static final class Holder {
+        private static final ChatEngine INSTANCE = new ChatEngine();
+    }
+
+    private final NLPService nlpService;
+    private final ChatSessionStore<ChatBotEnhanced> sessions;
+
+    private ChatEngine() {
+        // Chat windows are opened on the EDT: check the schema and connection in the background
+        Thread.ofVirtual().name("chatbot-db-check").start(() -> {
+            SchemaMigrator.migrate();
+            testDatabaseConnection();
+        });
+
+        NLPService nlp;
+        try {
+            nlp = NLPService.getInstance();
+            if (nlp.isServiceAvailable()) {
+                LOGGER.info("✅ spaCy NLP Service initialized successfully");
+            } else {
+                LOGGER.warning("⚠️  spaCy NLP Service not available yet - using rule-based replies until it is");
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "❌ Failed to initialize NLP Service: " + e.getMessage());
+            nlp = null;
+        }
+        this.nlpService = nlp;
+        this.sessions = new ChatSessionStore<>(key -> new ChatBotEnhanced(key.isEmpty() ? null : key, nlpService),
+                ChatEngine::closeSession, SESSION_IDLE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public static ChatEngine getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Handle for one chat window (costs nothing to create)
+     */
+    public Conversation conversation(String username) {
+        return new Conversation(this, username);
+    }
+
+    /**
+     * Reply to one message from the user
+     */
+    public String processMessage(String username, String message) {
+        ChatBotEnhanced session = sessions.acquire(key(username));
+        synchronized (session) {
+            return session.processMessage(message);
+        }
+    }
+
+    /**
+     * Reset the user's booking flow and in-memory history
+     */
+    public void clearConversation(String username) {
+        ChatBotEnhanced session = sessions.acquire(key(username));
+        synchronized (session) {
+            session.clearConversation();
+        }
+    }
+
+    /**
+     * The user's recent history lines, including earlier sessions
+     */
+    public List<String> getConversationHistory(String username) {
+        ChatBotEnhanced session = sessions.acquire(key(username));
+        synchronized (session) {
+            return session.getConversationHistory();
+        }
+    }
+
+    /**
+     * Users with live conversation state
+     */
+    public int activeSessions() {
+        return sessions.size();
+    }
+
+    // Not while a message of this user is being handled
+    private static void closeSession(ChatBotEnhanced session) {
+        synchronized (session) {
+            session.close();
+        }
+    }
+
+    private static String key(String username) {
+        return username == null ? "" : username;
+    }
+
+    /**
+     * Test if database is connected
+     */
+    private static void testDatabaseConnection() {
+        try (Connection conn = RepositorySupport.open()) {
+            if (conn.isValid(2)) {
+                LOGGER.info("✅ ChatEngine: Database connection successful!");
+            } else {
+                LOGGER.warning("❌ ChatEngine: Database connection is not valid");
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "❌ ChatEngine: Database connection failed - " + e.getMessage());
+        }
+    }
+
+    /**
+     * One window's view of a user's conversation
+     */
+    public static final class Conversation {
+        private final ChatEngine engine;
+        private final String username;
+
+        private Conversation(ChatEngine engine, String username) {
+            this.engine = engine;
+            this.username = username;
+        }
+
+        public String processMessage(String message) {
+            return engine.processMessage(username, message);
+        }
+
+        public void clearConversation() {
+            engine.clearConversation(username);
+        }
+
+        public List<String> getConversationHistory() {
+            return engine.getConversationHistory(username);
+        }
+
+        public String getUsername() {
+            return username;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.mycompany.airlinereservation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * ChatSessionStore.java - Concurrent per-user session map with idle expiry
+ *
+ * Features:
+ * - A session is created on its user's first message and found lock-free
+ *   afterwards
+ * - Sessions unused for the idle timeout are dropped; the sweep runs at most
+ *   once a minute, piggybacked on lookups, so no thread is needed for it
+ * - Dropped sessions (expired or removed) are handed to an eviction callback
+ *   so they can release what they hold
+ * - Thread-safe: a lookup and the sweep's expiry check are atomic per key,
+ *   so a session just handed out is never dropped by a racing sweep; the
+ *   session objects themselves are the caller's to guard
+ */
+final class ChatSessionStore<S> {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final class Slot<S> {
+        final S session;
+        volatile long lastUsedNanos = System.nanoTime();
+
+        Slot(S session) {
+            this.session = session;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Slot<S>> sessions = new ConcurrentHashMap<>();
+    private final Function<String, S> factory;
+    private final Consumer<S> onEvict;
+    private final long idleNanos;
+    private volatile long nextSweepNanos;
+
+    ChatSessionStore(Function<String, S> factory, Consumer<S> onEvict, long idleTimeout, TimeUnit unit) {
+        this.factory = factory;
+        this.onEvict = onEvict;
+        this.idleNanos = unit.toNanos(idleTimeout);
+        this.nextSweepNanos = System.nanoTime() + SWEEP_INTERVAL_NANOS;
+    }
+
+    /**
+     * The key's session, created if it has none (or its old one expired)
+     */
+    S acquire(String key) {
+        long now = System.nanoTime();
+        if (now - nextSweepNanos >= 0) {
+            nextSweepNanos = now + SWEEP_INTERVAL_NANOS;
+            sweep(now);
+        }
+        // Touched under the key's bin lock, so a concurrent sweep can't drop it on its way out
+        Slot<S> slot = sessions.compute(key, (k, old) -> {
+            Slot<S> live = old != null ? old : new Slot<>(factory.apply(k));
+            live.lastUsedNanos = now;
+            return live;
+        });
+        return slot.session;
+    }
+
+    /**
+     * Drop the key's session now
+     */
+    void remove(String key) {
+        Slot<S> slot = sessions.remove(key);
+        if (slot != null) {
+            onEvict.accept(slot.session);
+        }
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    private void sweep(long now) {
+        List<S> evicted = new ArrayList<>();
+        sessions.forEach((key, seen) -> {
+            if (now - seen.lastUsedNanos > idleNanos) {
+                // Re-checked under the key's bin lock: an acquire since the read above keeps the session
+                sessions.computeIfPresent(key, (k, slot) -> {
+                    if (System.nanoTime() - slot.lastUsedNanos <= idleNanos) {
+                        return slot;
+                    }
+                    evicted.add(slot.session);
+                    return null;
+                });
+            }
+        });
+        evicted.forEach(onEvict);
+    }
+}
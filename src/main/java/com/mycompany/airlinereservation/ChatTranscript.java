@@ -0,0 +1,142 @@
+package com.mycompany.airlinereservation;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultCaret;
+import javax.swing.text.Element;
+import javax.swing.text.html.HTMLDocument;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * ChatTranscript.java - Chat bubble transcript behind the chatbot windows' JTextPane
+ *
+ * Features:
+ * - Each bubble is inserted straight into the HTMLDocument instead of
+ *   round-tripping the whole conversation through getText / setText, so an
+ *   append costs the same however long the chat has been going
+ * - At most airline.chat.maxRendered bubbles (default 200) stay on screen;
+ *   older ones are kept as HTML and paged back in, airline.chat.pageSize
+ *   (default 50) at a time, when the user scrolls to the top
+ * - Scrolls to the newest bubble on append, and keeps the view still when
+ *   older bubbles are paged in above it
+ *
+ * EDT only, like the text pane it drives.
+ */
+public class ChatTranscript {
+
+    private static final int MAX_RENDERED = Math.max(1, Integer.getInteger("airline.chat.maxRendered", 200));
+    private static final int PAGE_SIZE = Math.max(1, Integer.getInteger("airline.chat.pageSize", 50));
+    private static final String CONTAINER_ID = "transcript";
+
+    private final JTextPane pane;
+    private final JScrollPane scrollPane;
+    private final String emptyHtml;
+
+    // Every bubble of the conversation; history[firstRendered..] are on screen
+    private final List<String> history = new ArrayList<>();
+    private final Deque<Element> rendered = new ArrayDeque<>();
+    private int firstRendered;
+    private boolean pagePending;
+
+    private HTMLDocument document;
+    private Element container;
+
+    /**
+     * @param bodyStyle inline CSS for the transcript's body element
+     */
+    public ChatTranscript(JTextPane pane, JScrollPane scrollPane, String bodyStyle) {
+        this.pane = pane;
+        this.scrollPane = scrollPane;
+        this.emptyHtml = "<html><body style='" + bodyStyle + "'><div id='" + CONTAINER_ID + "'></div></body></html>";
+
+        // Paging in at the top of the document must not drag the view along with the caret
+        if (pane.getCaret() instanceof DefaultCaret caret) {
+            caret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
+        }
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            if (!pagePending && firstRendered > 0 && atTop()) {
+                pagePending = true;
+                SwingUtilities.invokeLater(this::pageOlder);
+            }
+        });
+        reset();
+    }
+
+    /**
+     * Append one bubble (a single top-level HTML element) and scroll to it
+     */
+    public void append(String bubbleHtml) {
+        history.add(bubbleHtml);
+        try {
+            document.insertBeforeEnd(container, bubbleHtml);
+            rendered.addLast(container.getElement(container.getElementCount() - 1));
+            while (rendered.size() > MAX_RENDERED) {
+                document.removeElement(rendered.removeFirst());
+                firstRendered++;
+            }
+        } catch (BadLocationException | IOException e) {
+            System.err.println("Error appending message: " + e.getMessage());
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            JScrollBar vertical = scrollPane.getVerticalScrollBar();
+            vertical.setValue(vertical.getMaximum());
+        });
+    }
+
+    /**
+     * Drop the whole conversation
+     */
+    public void clear() {
+        history.clear();
+        reset();
+    }
+
+    private void reset() {
+        rendered.clear();
+        firstRendered = 0;
+        pane.setText(emptyHtml);
+        document = (HTMLDocument) pane.getDocument();
+        container = document.getElement(CONTAINER_ID);
+    }
+
+    private boolean atTop() {
+        JScrollBar vertical = scrollPane.getVerticalScrollBar();
+        return vertical.getValue() == vertical.getMinimum() && vertical.getMaximum() > vertical.getVisibleAmount();
+    }
+
+    /**
+     * Render the page of bubbles just above the oldest one on screen. The
+     * window grows while the user reads back; the next append trims it to
+     * the cap again.
+     */
+    private void pageOlder() {
+        pagePending = false;
+        if (firstRendered == 0 || !atTop()) {
+            return;
+        }
+        int from = Math.max(0, firstRendered - PAGE_SIZE);
+        StringBuilder page = new StringBuilder();
+        for (int i = from; i < firstRendered; i++) {
+            page.append(history.get(i));
+        }
+
+        JScrollBar vertical = scrollPane.getVerticalScrollBar();
+        int fromBottom = vertical.getMaximum() - vertical.getValue();
+        try {
+            document.insertAfterStart(container, page.toString());
+            for (int i = firstRendered - from - 1; i >= 0; i--) {
+                rendered.addFirst(container.getElement(i));
+            }
+            firstRendered = from;
+        } catch (BadLocationException | IOException e) {
+            System.err.println("Error paging in messages: " + e.getMessage());
+            return;
+        }
+        SwingUtilities.invokeLater(() -> vertical.setValue(vertical.getMaximum() - fromBottom));
+    }
+}
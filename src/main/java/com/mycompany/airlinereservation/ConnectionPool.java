@@ -0,0 +1,471 @@
+package com.mycompany.airlinereservation;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ConnectionPool.java - Bounded JDBC connection pool used by DBConnection
+ *
+ * Physical MySQL connections are expensive to open (TCP + TLS + auth), so
+ * they are kept and handed out again instead of being opened per query.
+ * Callers get a proxy whose close() returns the connection to the pool, so
+ * existing try-with-resources code keeps working unchanged.
+ *
+ * Features:
+ * - Hard upper bound on physical connections (borrowers wait, then time out)
+ * - Validation on borrow for connections that sat idle for a while
+ * - Idle eviction down to a minimum idle count
+ * - Max-lifetime recycling so connections are retired before MySQL's wait_timeout
+ * - Leak detection: logs the borrowing stack of connections held too long
+ * - Live counters (active, idle, waiters, borrow-wait histogram) via getStats()
+ */
+public class ConnectionPool {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    // Upper bounds (ms) of the borrow-wait histogram buckets; the last bucket is open-ended
+    private static final long[] WAIT_BUCKETS_MS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long validationIntervalMs;
+    private final long leakThresholdMs;
+
+    // Idle connections, most recently returned first so warm connections get reused
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    // One permit per connection that may be handed out at the same time
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder borrowTimeouts = new LongAdder();
+    private final LongAdder leaksDetected = new LongAdder();
+    private final LongAdder[] waitHistogram = new LongAdder[WAIT_BUCKETS_MS.length + 1];
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, String user, String password,
+                          int maxSize, int minIdle, long borrowTimeoutMs, long idleTimeoutMs,
+                          long maxLifetimeMs, long validationIntervalMs, long leakThresholdMs) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(Math.max(minIdle, 0), maxSize);
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.leakThresholdMs = leakThresholdMs;
+        this.permits = new Semaphore(maxSize, true);
+        for (int i = 0; i < waitHistogram.length; i++) {
+            waitHistogram[i] = new LongAdder();
+        }
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMs, 30_000) / 2);
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the borrow timeout for one to free up.
+     * Closing the returned connection gives it back to the pool.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        waiters.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        recordWait(System.nanoTime() - start);
+
+        if (!acquired) {
+            borrowTimeouts.increment();
+            throw new SQLTimeoutException("Timed out after " + borrowTimeoutMs
+                    + " ms waiting for a database connection (active=" + active.size()
+                    + ", max=" + maxSize + ")");
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            while (pooled == null) {
+                if (reserveSlot()) {
+                    pooled = openPooled();
+                } else {
+                    // The housekeeper is pre-opening the last slots; wait for one of those
+                    pooled = idle.pollFirst(10, TimeUnit.MILLISECONDS);
+                }
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowStack = leakThresholdMs > 0 ? new Throwable("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            active.add(pooled);
+            return pooled.newHandle();
+        } catch (InterruptedException e) {
+            permits.release();
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Pop the most recently used idle connection that is still usable.
+     */
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long now = System.currentTimeMillis();
+            if (now - pooled.createdAt >= maxLifetimeMs) {
+                destroy(pooled);
+                continue;
+            }
+            if (now - pooled.lastUsed >= validationIntervalMs && !isValid(pooled)) {
+                LOGGER.fine("Discarding stale pooled connection");
+                destroy(pooled);
+                continue;
+            }
+            return pooled;
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Claim room for one more physical connection without exceeding maxSize.
+     */
+    private boolean reserveSlot() {
+        int n;
+        do {
+            n = total.get();
+            if (n >= maxSize) {
+                return false;
+            }
+        } while (!total.compareAndSet(n, n + 1));
+        return true;
+    }
+
+    /**
+     * Open a physical connection into a slot already claimed with reserveSlot().
+     */
+    private PooledConnection openPooled() throws SQLException {
+        Connection physical = null;
+        try {
+            physical = DriverManager.getConnection(url, user, password);
+            PooledConnection pooled = new PooledConnection(physical);
+            created.increment();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            if (physical != null) {
+                try { physical.close(); } catch (SQLException ignore) {}
+            }
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a connection to the pool (called from the proxy's close()).
+     */
+    private void release(PooledConnection pooled) {
+        active.remove(pooled);
+        pooled.borrowStack = null;
+        try {
+            boolean expired = System.currentTimeMillis() - pooled.createdAt >= maxLifetimeMs;
+            if (closed || pooled.broken || expired || !resetState(pooled)) {
+                destroy(pooled);
+            } else {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Undo whatever the borrower changed so the next borrower gets a clean connection.
+     */
+    private boolean resetState(PooledConnection pooled) {
+        try {
+            Connection c = pooled.physical;
+            if (c.isClosed()) {
+                return false;
+            }
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            if (c.isReadOnly()) {
+                c.setReadOnly(false);
+            }
+            if (c.getTransactionIsolation() != pooled.defaultIsolation) {
+                c.setTransactionIsolation(pooled.defaultIsolation);
+            }
+            c.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Could not reset pooled connection, discarding it", e);
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        total.decrementAndGet();
+        destroyed.increment();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignore) {
+            // Already gone - nothing to do
+        }
+    }
+
+    private void recordWait(long nanos) {
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < WAIT_BUCKETS_MS.length && ms >= WAIT_BUCKETS_MS[bucket]) {
+            bucket++;
+        }
+        waitHistogram[bucket].increment();
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Periodic maintenance: evict idle/expired connections, top up to minIdle
+     * and report connections that have been held longer than the leak threshold.
+     */
+    private void houseKeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                boolean expired = now - pooled.createdAt >= maxLifetimeMs;
+                boolean idleTooLong = now - pooled.lastUsed >= idleTimeoutMs && idle.size() > minIdle;
+                if ((expired || idleTooLong) && idle.remove(pooled)) {
+                    destroy(pooled);
+                }
+            }
+
+            while (!closed && idle.size() < minIdle && reserveSlot()) {
+                try {
+                    idle.offerLast(openPooled());
+                } catch (SQLException e) {
+                    LOGGER.fine("Could not pre-open pooled connection: " + e.getMessage());
+                    break;
+                }
+            }
+
+            if (leakThresholdMs > 0) {
+                for (PooledConnection pooled : active) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMs) {
+                        pooled.leakReported = true;
+                        leaksDetected.increment();
+                        LOGGER.log(Level.WARNING, "⚠️ Possible connection leak: connection held for "
+                                + (now - pooled.borrowedAt) + " ms", pooled.borrowStack);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    /**
+     * Close all idle connections and stop handing out new ones. Connections
+     * that are still borrowed are closed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    /**
+     * Snapshot of the pool counters, for sizing and monitoring.
+     */
+    public Stats getStats() {
+        long[] histogram = new long[waitHistogram.length];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = waitHistogram[i].sum();
+        }
+        return new Stats(active.size(), idle.size(), waiters.get(), total.get(), maxSize,
+                created.sum(), destroyed.sum(), borrowTimeouts.sum(), leaksDetected.sum(),
+                WAIT_BUCKETS_MS.clone(), histogram, TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()));
+    }
+
+    /**
+     * Point-in-time pool counters. waitHistogram[i] counts borrows that waited
+     * less than waitBucketsMs[i]; the last slot counts everything slower.
+     */
+    public record Stats(int active, int idle, int waiters, int total, int maxSize,
+                        long created, long destroyed, long borrowTimeouts, long leaksDetected,
+                        long[] waitBucketsMs, long[] waitHistogram, long maxWaitMicros) {
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("active=").append(active)
+              .append(" idle=").append(idle)
+              .append(" waiters=").append(waiters)
+              .append(" total=").append(total)
+              .append(" max=").append(maxSize)
+              .append(" created=").append(created)
+              .append(" destroyed=").append(destroyed)
+              .append(" timeouts=").append(borrowTimeouts)
+              .append(" leaks=").append(leaksDetected)
+              .append(" maxWait=").append(maxWaitMicros).append("us")
+              .append(" wait{");
+            for (int i = 0; i < waitHistogram.length; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(i < waitBucketsMs.length ? "<" + waitBucketsMs[i] + "ms" : ">=" + waitBucketsMs[i - 1] + "ms")
+                  .append('=').append(waitHistogram[i]);
+            }
+            return sb.append('}').toString();
+        }
+    }
+
+    /**
+     * A physical connection plus its bookkeeping.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        final long createdAt = System.currentTimeMillis();
+        final int defaultIsolation;
+        volatile long lastUsed = createdAt;
+        volatile long borrowedAt;
+        volatile Throwable borrowStack;
+        volatile boolean leakReported;
+        volatile boolean broken;
+
+        PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultIsolation = physical.getTransactionIsolation();
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Proxy handler: close() returns the connection to the pool instead of
+     * closing it; every other call is forwarded until the handle is closed.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released = false;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!released) {
+                            released = true;
+                            release(pooled);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sql && isFatal(sql)) {
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+
+    /**
+     * SQLState class 08 means the connection itself is unusable.
+     */
+    private static boolean isFatal(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+}
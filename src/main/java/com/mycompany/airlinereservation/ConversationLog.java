@@ -0,0 +1,508 @@
+package com.mycompany.airlinereservation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * ConversationLog.java - Bounded in-memory chat history backed by a per-user on-disk log
+ *
+ * Features:
+ * - The newest airline.chat.historySize entries (default 200) live in a
+ *   fixed-size ring buffer; older ones are only on disk
+ * - Every entry is appended to airline.chat.logDir/&lt;user&gt;/ (default
+ *   logs/chat): segment files of airline.chat.segmentBytes (default 4 MiB),
+ *   memory-mapped, written once, never rewritten
+ * - A sparse index per segment (the offset of every 64th entry) lets a read
+ *   start next to any sequence number instead of scanning the segment
+ * - Restoring the ring and searching stream through the mapped segments,
+ *   so the full history is never loaded into the heap
+ * - At most airline.chat.maxSegments segments (default 32) are kept per user
+ * - One instance per user per JVM (forUser), shared by all of that user's
+ *   chat windows; thread-safe. Each forUser is paired with a close(); when
+ *   the last holder closes, the mapped segment and index file are released
+ *   and the user is forgotten until their next forUser
+ * - If the log directory can't be used, history stays in memory only
+ *
+ * Segment NNNNNNNNNNNNNNNNNNNN.log (first sequence number, zero padded):
+ * entries of int length | int crc32 | long epochMillis | UTF-8 text, where
+ * length covers timestamp and text and the CRC covers the same bytes. A zero
+ * length or a bad CRC (torn write) marks the end of the data. The matching
+ * .idx file holds the int offset of entries 0, 64, 128, ...
+ */
+public final class ConversationLog implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ConversationLog.class.getName());
+
+    private static final int HISTORY_SIZE = Math.max(1, Integer.getInteger("airline.chat.historySize", 200));
+    private static final int SEGMENT_BYTES = Math.max(64 * 1024, Integer.getInteger("airline.chat.segmentBytes", 4 << 20));
+    private static final int MAX_SEGMENTS = Math.max(2, Integer.getInteger("airline.chat.maxSegments", 32));
+    private static final Path LOG_DIR = Path.of(System.getProperty("airline.chat.logDir", "logs/chat"));
+
+    private static final int INDEX_INTERVAL = 64;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_TEXT_BYTES = 16 * 1024;
+
+    private static final ConcurrentHashMap<String, ConversationLog> LOGS = new ConcurrentHashMap<>();
+
+    /**
+     * One history entry; seq numbers a user's entries from 0, across restarts
+     */
+    public record Entry(long seq, long timestamp, String text) {
+    }
+
+    private final String user;
+    private final Path directory;
+    private final Entry[] ring = new Entry[HISTORY_SIZE];
+    private long ringStart;
+    private long nextSeq;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment active;
+    private boolean opened;
+    private int holders; // guarded by the LOGS entry for this user
+
+    private ConversationLog(String user) {
+        this.user = user;
+        this.directory = LOG_DIR.resolve(directoryName(user));
+    }
+
+    /**
+     * The (shared) log of one user; nothing is read until it is first used.
+     * Call close() when done with it.
+     */
+    public static ConversationLog forUser(String username) {
+        String user = username == null || username.isBlank() ? "guest" : username;
+        return LOGS.compute(user, (u, log) -> {
+            if (log == null) {
+                log = new ConversationLog(u);
+            }
+            log.holders++;
+            return log;
+        });
+    }
+
+    /**
+     * Release this holder's use of the log. The last holder flushes and unmaps
+     * the active segment, closes the index file and drops the instance; a later
+     * forUser reopens the log from disk. A closed instance still accepts
+     * entries, in memory only, so a caller racing with the close loses nothing
+     * it can see.
+     */
+    @Override
+    public void close() {
+        LOGS.computeIfPresent(user, (u, log) -> {
+            if (log != this || --holders > 0) {
+                return log;
+            }
+            release();
+            return null;
+        });
+    }
+
+    /**
+     * Users whose logs are currently held open
+     */
+    static int openCount() {
+        return LOGS.size();
+    }
+
+    private synchronized void release() {
+        opened = true; // never (re)open the disk log from this instance
+        if (active != null) {
+            try {
+                active.closeForWrite();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not flush chat log " + active.file, e);
+                active.closeQuietly();
+            }
+        }
+        active = null;
+        segments.clear();
+    }
+
+    /**
+     * Record one entry in memory and on disk
+     */
+    public synchronized Entry append(String text) {
+        ensureOpen();
+        Entry entry = new Entry(nextSeq++, System.currentTimeMillis(), text);
+        ring[(int) (entry.seq() % ring.length)] = entry;
+        if (active != null) {
+            try {
+                write(entry);
+            } catch (IOException e) {
+                abandonDisk(e);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * The in-memory entries, oldest first (at most airline.chat.historySize)
+     */
+    public synchronized List<Entry> recent() {
+        ensureOpen();
+        long from = Math.max(ringStart, nextSeq - ring.length);
+        List<Entry> entries = new ArrayList<>((int) (nextSeq - from));
+        for (long seq = from; seq < nextSeq; seq++) {
+            entries.add(ring[(int) (seq % ring.length)]);
+        }
+        return entries;
+    }
+
+    /**
+     * Up to max entries starting at fromSeq, read from disk
+     */
+    public synchronized List<Entry> read(long fromSeq, int max) {
+        ensureOpen();
+        List<Entry> entries = new ArrayList<>(Math.min(max, 256));
+        if (max > 0) {
+            scan(fromSeq, entry -> entries.add(entry) && entries.size() < max);
+        }
+        return entries;
+    }
+
+    /**
+     * The newest entries on disk containing the query (case-insensitive), oldest first
+     */
+    public synchronized List<Entry> search(String query, int limit) {
+        ensureOpen();
+        String needle = query.toLowerCase(Locale.ROOT);
+        Deque<Entry> matches = new ArrayDeque<>();
+        if (limit > 0) {
+            scan(0, entry -> {
+                if (entry.text().toLowerCase(Locale.ROOT).contains(needle)) {
+                    if (matches.size() == limit) {
+                        matches.removeFirst();
+                    }
+                    matches.addLast(entry);
+                }
+                return true;
+            });
+        }
+        return new ArrayList<>(matches);
+    }
+
+    /**
+     * Start a fresh in-memory history; the on-disk log is append-only and keeps everything
+     */
+    public synchronized void clear() {
+        ensureOpen();
+        Arrays.fill(ring, null);
+        ringStart = nextSeq;
+    }
+
+    /**
+     * Sequence number the next entry will get
+     */
+    public synchronized long nextSeq() {
+        ensureOpen();
+        return nextSeq;
+    }
+
+    private void ensureOpen() {
+        if (opened) {
+            return;
+        }
+        opened = true;
+        try {
+            open();
+        } catch (IOException e) {
+            abandonDisk(e);
+            return;
+        }
+        // Restore the ring from the tail of the log
+        ringStart = Math.max(0, nextSeq - ring.length);
+        scan(ringStart, entry -> {
+            ring[(int) (entry.seq() % ring.length)] = entry;
+            return true;
+        });
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.matches("\\d{20}\\.log")) {
+                    segments.add(new Segment(directory, Long.parseLong(name.substring(0, 20))));
+                }
+            }
+        }
+        segments.sort((a, b) -> Long.compare(a.base, b.base));
+        for (Segment segment : segments) {
+            segment.loadIndex();
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(new Segment(directory, 0));
+        }
+        active = segments.get(segments.size() - 1);
+        active.openForWrite();
+        nextSeq = active.base + active.count;
+    }
+
+    private void write(Entry entry) throws IOException {
+        byte[] text = entry.text().getBytes(StandardCharsets.UTF_8);
+        if (text.length > MAX_TEXT_BYTES) {
+            text = Arrays.copyOf(text, MAX_TEXT_BYTES);
+        }
+        int length = Long.BYTES + text.length;
+        if (active.end + HEADER_BYTES + length > SEGMENT_BYTES) {
+            roll(entry.seq());
+        }
+
+        MappedByteBuffer buffer = active.buffer;
+        int pos = active.end;
+        buffer.putLong(pos + HEADER_BYTES, entry.timestamp());
+        buffer.put(pos + HEADER_BYTES + Long.BYTES, text);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(pos + HEADER_BYTES, length));
+        buffer.putInt(pos + 4, (int) crc.getValue());
+        // Written last: a nonzero length is what makes the entry visible
+        buffer.putInt(pos, length);
+
+        if (active.count % INDEX_INTERVAL == 0) {
+            active.appendIndex(pos);
+        }
+        active.count++;
+        active.end = pos + HEADER_BYTES + length;
+    }
+
+    private void roll(long base) throws IOException {
+        active.closeForWrite();
+        active = new Segment(directory, base);
+        segments.add(active);
+        active.openForWrite();
+
+        while (segments.size() > MAX_SEGMENTS) {
+            Segment oldest = segments.remove(0);
+            try {
+                Files.deleteIfExists(oldest.file);
+                Files.deleteIfExists(oldest.indexFile);
+            } catch (IOException e) {
+                // Still mapped (Windows) - it goes with a later roll
+                LOGGER.log(Level.FINE, "Could not delete old chat log segment " + oldest.file, e);
+            }
+        }
+    }
+
+    private void abandonDisk(IOException e) {
+        LOGGER.log(Level.WARNING, "⚠️  Chat history log unavailable in " + directory + " - keeping history in memory only", e);
+        if (active != null) {
+            active.closeQuietly();
+        }
+        active = null;
+        segments.clear();
+    }
+
+    /**
+     * Visit entries from fromSeq onwards, oldest first, until the visitor returns false
+     */
+    private void scan(long fromSeq, Predicate<Entry> visitor) {
+        int first = segments.size() - 1;
+        while (first > 0 && segments.get(first).base > fromSeq) {
+            first--;
+        }
+        try {
+            for (int i = Math.max(first, 0); i < segments.size(); i++) {
+                Segment segment = segments.get(i);
+                ByteBuffer buffer = segment.readBuffer();
+
+                // Jump to the closest indexed entry at or before fromSeq
+                long seq = segment.base;
+                int pos = 0;
+                int slot = (int) Math.min(Math.max(0, fromSeq - segment.base) / INDEX_INTERVAL, segment.indexSize - 1L);
+                if (slot > 0) {
+                    seq += (long) slot * INDEX_INTERVAL;
+                    pos = segment.index[slot];
+                }
+
+                int length;
+                while ((length = entryLength(buffer, pos)) > 0) {
+                    if (seq >= fromSeq) {
+                        Entry entry = decode(buffer, pos, length, seq);
+                        if (entry == null) {
+                            break; // torn write
+                        }
+                        if (!visitor.test(entry)) {
+                            return;
+                        }
+                    }
+                    pos += HEADER_BYTES + length;
+                    seq++;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "⚠️  Could not read chat history from " + directory, e);
+        }
+    }
+
+    // Payload length of the entry at pos, or 0 at the end of the data
+    private static int entryLength(ByteBuffer buffer, int pos) {
+        if (pos < 0 || pos + HEADER_BYTES > buffer.limit()) {
+            return 0;
+        }
+        int length = buffer.getInt(pos);
+        if (length < Long.BYTES || length > Long.BYTES + MAX_TEXT_BYTES || pos + HEADER_BYTES + length > buffer.limit()) {
+            return 0;
+        }
+        return length;
+    }
+
+    // The entry at pos, or null if its checksum doesn't match
+    private static Entry decode(ByteBuffer buffer, int pos, int length, long seq) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(pos + HEADER_BYTES, length));
+        if ((int) crc.getValue() != buffer.getInt(pos + 4)) {
+            return null;
+        }
+        byte[] text = new byte[length - Long.BYTES];
+        buffer.get(pos + HEADER_BYTES + Long.BYTES, text);
+        return new Entry(seq, buffer.getLong(pos + HEADER_BYTES), new String(text, StandardCharsets.UTF_8));
+    }
+
+    // Letters, digits and '-' are kept; anything else becomes _XXXX, so distinct names never collide
+    private static String directoryName(String username) {
+        StringBuilder name = new StringBuilder(username.length() + 8);
+        for (char c : username.toCharArray()) {
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-') {
+                name.append(c);
+            } else {
+                name.append('_').append(String.format("%04x", (int) c));
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * One segment file and its sparse index
+     */
+    private static final class Segment {
+        final long base;
+        final Path file;
+        final Path indexFile;
+        int[] index = new int[16];
+        int indexSize;
+
+        // Active segment only
+        MappedByteBuffer buffer;
+        FileChannel indexChannel;
+        int count;
+        int end;
+
+        Segment(Path directory, long base) {
+            this.base = base;
+            String name = String.format("%020d", base);
+            this.file = directory.resolve(name + ".log");
+            this.indexFile = directory.resolve(name + ".idx");
+        }
+
+        void loadIndex() throws IOException {
+            if (!Files.exists(indexFile)) {
+                return;
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+            while (bytes.remaining() >= Integer.BYTES) {
+                addIndex(bytes.getInt());
+            }
+        }
+
+        /**
+         * Map for appending and find where the data ends (after a crash, at
+         * the last entry whose checksum matches)
+         */
+        void openForWrite() throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+            }
+
+            // Resume from the last index entry that still points at a valid entry
+            while (indexSize > 0 && decodeAt(index[indexSize - 1]) == null) {
+                indexSize--;
+            }
+            count = indexSize == 0 ? 0 : (indexSize - 1) * INDEX_INTERVAL;
+            end = indexSize == 0 ? 0 : index[indexSize - 1];
+            int length;
+            while ((length = entryLength(buffer, end)) > 0 && decode(buffer, end, length, 0) != null) {
+                if (count % INDEX_INTERVAL == 0 && count / INDEX_INTERVAL == indexSize) {
+                    addIndex(end);
+                }
+                count++;
+                end += HEADER_BYTES + length;
+            }
+
+            // Rewrite the index file to exactly the entries found
+            indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            ByteBuffer bytes = ByteBuffer.allocate(indexSize * Integer.BYTES);
+            bytes.asIntBuffer().put(index, 0, indexSize);
+            indexChannel.truncate(0);
+            indexChannel.write(bytes, 0);
+            indexChannel.position(indexChannel.size());
+        }
+
+        void appendIndex(int pos) throws IOException {
+            addIndex(pos);
+            indexChannel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, pos));
+        }
+
+        void closeForWrite() throws IOException {
+            buffer.force();
+            buffer = null;
+            indexChannel.close();
+            indexChannel = null;
+        }
+
+        void closeQuietly() {
+            try {
+                if (indexChannel != null) {
+                    indexChannel.close();
+                }
+            } catch (IOException ignored) {
+            }
+            buffer = null;
+            indexChannel = null;
+        }
+
+        ByteBuffer readBuffer() throws IOException {
+            if (buffer != null) {
+                return buffer.duplicate();
+            }
+            // Closed segments are mapped per read; the mapping goes with the buffer
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+        private Entry decodeAt(int pos) {
+            int length = entryLength(buffer, pos);
+            return length > 0 ? decode(buffer, pos, length, 0) : null;
+        }
+
+        private void addIndex(int pos) {
+            if (indexSize == index.length) {
+                index = Arrays.copyOf(index, indexSize * 2);
+            }
+            index[indexSize++] = pos;
+        }
+    }
+}
@@ -3,18 +3,16 @@ package com.mycompany.airlinereservation;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 public class CustomerRegister extends JFrame {
 
-    // Using centralized DBConnection for DB access
+    // Using UserRepository (centralized DBConnection pool) for DB access
 
     private JTextField usernameField;
     private JPasswordField passwordField;
     private JPasswordField confirmPasswordField;
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     public CustomerRegister() {
         setTitle("✈️ New Customer Registration");
@@ -105,41 +103,37 @@ public class CustomerRegister extends JFrame {
             return;
         }
 
-        if (registerUser(username, password)) {
-            JOptionPane.showMessageDialog(this, "Registration Successful! Logging you in...");
-            dispose();
-            // After successful registration, launch Login with Customer preselected
-            SwingUtilities.invokeLater(() -> new Login("Customer"));
-        } else {
-            JOptionPane.showMessageDialog(this, "Registration Failed. Username might already be taken.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    // 💾 Insert new Customer into database with 'Customer' role
-    private boolean registerUser(String username, String password) {
-        // Ensure your 'users' table has columns: username, password, role
-        String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, 'Customer')";
-
-        // Hash password before storing
-        String hashed = PasswordUtils.hashPassword(password);
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, username);
-            pstmt.setString(2, hashed);
-
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-
-        } catch (SQLException ex) {
+        // BCrypt and the insert run off the EDT
+        db.update(() -> registerUser(username, password), registered -> {
+            if (registered) {
+                JOptionPane.showMessageDialog(this, "Registration Successful! Logging you in...");
+                dispose();
+                // After successful registration, launch Login with Customer preselected
+                SwingUtilities.invokeLater(() -> new Login("Customer"));
+            } else {
+                showRegistrationFailed();
+            }
+        }, ex -> {
             System.err.println("SQL Error during customer registration: " + ex.getMessage());
             // Check for duplicate entry error
-            if (ex.getErrorCode() == 1062) { 
+            if (ex instanceof SQLException sqlEx && sqlEx.getErrorCode() == 1062) { 
                 JOptionPane.showMessageDialog(this, "The username '" + username + "' is already taken.", "Username Conflict", JOptionPane.ERROR_MESSAGE);
             } else {
                  ex.printStackTrace();
             }
-            return false;
-        }
+            showRegistrationFailed();
+        });
+    }
+
+    private void showRegistrationFailed() {
+        JOptionPane.showMessageDialog(this, "Registration Failed. Username might already be taken.", "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    // 💾 Insert new Customer into database with 'Customer' role
+    private static boolean registerUser(String username, String password) throws SQLException {
+        // Ensure your 'users' table has columns: username, password, role
+        // Hash password before storing
+        String hashed = PasswordUtils.hashPassword(password);
+        return UserRepository.insertCustomer(username, hashed);
     }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CustomerRepository.java - Data access for the `customer` table
+ */
+public final class CustomerRepository {
+
+    private CustomerRepository() {
+    }
+
+    /**
+     * @return customer profile keyed like AirlineService expects, or an empty map if not found
+     */
+    public static Map<String, String> findByAadhaar(String aadhaar) throws SQLException {
+        Map<String, String> customer = RepositorySupport.queryOne(
+                "SELECT customer_id, name, nationality, phone, address, aadhar_no, gender " +
+                "FROM customer WHERE aadhar_no = ?",
+                rs -> {
+                    Map<String, String> row = new HashMap<>();
+                    row.put("id", rs.getString("customer_id"));
+                    row.put("name", rs.getString("name"));
+                    row.put("nationality", rs.getString("nationality"));
+                    row.put("phone", rs.getString("phone"));
+                    row.put("address", rs.getString("address"));
+                    row.put("aadhaar", rs.getString("aadhar_no"));
+                    row.put("gender", rs.getString("gender"));
+                    return row;
+                }, aadhaar);
+        return customer != null ? customer : new HashMap<>();
+    }
+
+    public static boolean insert(String name, String nationality, String phone, String address,
+                                 String aadhaar, String gender) throws SQLException {
+        return RepositorySupport.update(
+                "INSERT INTO customer (name, nationality, phone, address, aadhar_no, gender) VALUES (?, ?, ?, ?, ?, ?)",
+                name, nationality, phone, address, aadhaar, gender) > 0;
+    }
+}
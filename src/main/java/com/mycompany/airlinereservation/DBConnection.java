@@ -1,26 +1,60 @@
 package com.mycompany.airlinereservation;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.SQLException;
 
 public class DBConnection {
 
     // Database credentials - Replace these with your actual values
     // For security, consider using environment variables or a configuration file
-    private static final String URL = "jdbc:mysql://localhost:3306/airline_db"; // your DB name
+    // Statement-cache options let each pooled connection reuse the repositories' prepared statements
+    private static final String URL = "jdbc:mysql://localhost:3306/airline_db" // your DB name
+            + "?cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048&useServerPrepStmts=true";
     private static final String USER = "root";  // replace if different
     private static final String PASSWORD = "your_mysql_password";  // CHANGE THIS: replace with your MySQL password
 
+    // Pool sizing - override with -Dairline.db.pool.<name>=<value> when tuning
+    private static final int POOL_MAX_SIZE = Integer.getInteger("airline.db.pool.maxSize", 10);
+    private static final int POOL_MIN_IDLE = Integer.getInteger("airline.db.pool.minIdle", 2);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("airline.db.pool.borrowTimeoutMs", 5_000L);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("airline.db.pool.idleTimeoutMs", 300_000L);
+    private static final long MAX_LIFETIME_MS = Long.getLong("airline.db.pool.maxLifetimeMs", 1_800_000L);
+    private static final long VALIDATION_INTERVAL_MS = Long.getLong("airline.db.pool.validationIntervalMs", 5_000L);
+    private static final long LEAK_THRESHOLD_MS = Long.getLong("airline.db.pool.leakThresholdMs", 60_000L);
+
+    // Lazily created on first use so screens that never touch the DB don't open connections
+    private static final class PoolHolder {
+        static final ConnectionPool POOL = createPool();
+    }
+
+    private static ConnectionPool createPool() {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            System.out.println("❌ MySQL driver not found: " + e.getMessage());
+        }
+        ConnectionPool pool = new ConnectionPool(URL, USER, PASSWORD,
+                POOL_MAX_SIZE, POOL_MIN_IDLE, BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS,
+                MAX_LIFETIME_MS, VALIDATION_INTERVAL_MS, LEAK_THRESHOLD_MS);
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "db-pool-shutdown"));
+        System.out.println("✅ Database connection pool ready (max " + POOL_MAX_SIZE + " connections)");
+        return pool;
+    }
+
     // ✅ This is the method all your other files (BookFlight, JourneyDetails, etc.) will use
+    // Returns a pooled connection; closing it hands it back to the pool.
     public static Connection getConnection() {
         Connection conn = null;
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            conn = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("✅ Database connected successfully!");
-        } catch (Exception e) {
+            conn = PoolHolder.POOL.borrow();
+        } catch (SQLException e) {
             System.out.println("❌ Database connection failed: " + e.getMessage());
         }
         return conn;
     }
+
+    // Live pool counters (active, idle, waiters, borrow-wait histogram) for sizing
+    public static ConnectionPool.Stats getPoolStats() {
+        return PoolHolder.POOL.getStats();
+    }
 }
@@ -7,7 +7,7 @@ import java.sql.SQLException;
 
 /**
  * Seeds initial data into the database at application startup.
- * Ensures the `users` table exists and that an Admin account is present.
+ * Ensures an Admin account is present (the `users` table itself comes from SchemaMigrator).
  */
 public class DataSeeder {
 
@@ -25,28 +25,6 @@ public class DataSeeder {
                 return;
             }
 
-            // Ensure table exists (simple DDL). This mirrors init_users.sql but is safe to run.
-            String createTable = "CREATE TABLE IF NOT EXISTS users ("
-                    + "id INT AUTO_INCREMENT PRIMARY KEY,"
-                    + "username VARCHAR(100) NOT NULL UNIQUE,"
-                    + "password VARCHAR(255) NOT NULL,"
-                    + "role VARCHAR(20) NOT NULL,"
-                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP"
-                    + ")";
-            try (PreparedStatement ps = conn.prepareStatement(createTable)) {
-                ps.execute();
-            }
-
-            // Ensure password column is wide enough for BCrypt hashes
-            try {
-                conn.createStatement().execute("ALTER TABLE users MODIFY password VARCHAR(255) NOT NULL");
-                System.out.println("DataSeeder: Ensured password column is VARCHAR(255).");
-            } catch (SQLException alterEx) {
-                // If ALTER fails (for example, table doesn't exist yet), ignore — createTable will handle it.
-                // But log in case of unexpected failures.
-                System.out.println("DataSeeder: ALTER TABLE attempt message: " + alterEx.getMessage());
-            }
-
             // Check if admin exists
             String selectSql = "SELECT id, password FROM users WHERE username = ? LIMIT 1";
             try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
@@ -0,0 +1,339 @@
+package com.mycompany.airlinereservation;
+
+import javax.management.ObjectName;
+import javax.swing.AbstractButton;
+import javax.swing.SwingUtilities;
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.KeyboardFocusManager;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.InvocationEvent;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * EdtWatchdog.java - Opt-in monitor for Swing event thread (EDT) stalls
+ *
+ * Features:
+ * - Times every AWT event through a pushed EventQueue
+ * - A sampler thread captures the EDT stack while an event is still running
+ *   past the threshold (the stack that shows the blocking call, not the
+ *   one after it returned)
+ * - Each stall is attributed to its screen (the window class, or the class
+ *   that posted an invokeLater task / the active window) and action (button text / action
+ *   command / event type)
+ * - Per-screen latency histograms over JMX
+ *   (com.mycompany.airlinereservation:type=EdtWatchdog)
+ * - Stalls with stacks go to a rolling log file
+ *
+ * Enable with -Dairline.edtWatchdog=true. Tuning:
+ * - airline.edtWatchdog.thresholdMs (default 200, also settable over JMX)
+ * - airline.edtWatchdog.log (default logs/edt-stalls%g.log; 5 files x 5 MB)
+ *
+ * Time an event spends in a nested modal loop (JOptionPane and friends)
+ * is the user reading a dialog, so it is left out: such an event is timed
+ * up to its first nested dispatch plus from the end of its last one (the
+ * loop's span in between is skipped). A click that blocks on the database
+ * and then shows a message still reports the blocking part.
+ */
+public final class EdtWatchdog extends EventQueue implements EdtWatchdogMXBean {
+
+    private static final Logger LOGGER = Logger.getLogger(EdtWatchdog.class.getName());
+    private static final Logger STALL_LOG = Logger.getLogger(EdtWatchdog.class.getName() + ".stalls");
+
+    // Histogram bucket upper bounds (ms); the last bucket is everything above
+    private static final long[] BUCKETS_MS = {16, 50, 100, 200, 500, 1_000, 2_000, 5_000};
+
+    private static EdtWatchdog installed;
+
+    // One dispatch in progress (nested when a modal loop runs inside an event)
+    private static final class Dispatch {
+        final long startNanos;
+        final AWTEvent event;
+        volatile boolean nested;
+        volatile boolean stackCaptured;
+        long firstNestedNanos;   // EDT only: start of the first nested dispatch
+        long lastNestedEndNanos; // EDT only: end of the latest nested dispatch
+
+        // Time spent in this event's own code, not in the modal loop it ran
+        long busyNanos(long endNanos) {
+            return nested ? (firstNestedNanos - startNanos) + (endNanos - lastNestedEndNanos) : endNanos - startNanos;
+        }
+
+        Dispatch(AWTEvent event) {
+            this.startNanos = System.nanoTime();
+            this.event = event;
+        }
+    }
+
+    private final Deque<Dispatch> dispatching = new ArrayDeque<>(); // EDT only
+    private volatile Dispatch current;
+    private volatile Thread edt;
+    private volatile long thresholdMs;
+
+    private final Map<String, AtomicLongArray> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Long> maxByScreen = new ConcurrentHashMap<>();
+    private volatile long stallCount;
+    private volatile long maxStallMs;
+
+    private EdtWatchdog(long thresholdMs) {
+        this.thresholdMs = thresholdMs;
+    }
+
+    /**
+     * Install when -Dairline.edtWatchdog=true (call once at startup, from any thread)
+     */
+    public static synchronized void installIfEnabled() {
+        if (installed != null || !Boolean.getBoolean("airline.edtWatchdog")) {
+            return;
+        }
+        EdtWatchdog watchdog = new EdtWatchdog(Long.getLong("airline.edtWatchdog.thresholdMs", 200L));
+        watchdog.openLog(System.getProperty("airline.edtWatchdog.log", "logs/edt-stalls%g.log"));
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog);
+        watchdog.registerMBean();
+        watchdog.startSampler();
+        installed = watchdog;
+        LOGGER.info("✅ EdtWatchdog: watching the EDT (threshold " + watchdog.thresholdMs + " ms)");
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        if (edt == null) {
+            edt = Thread.currentThread();
+        }
+        Dispatch outer = dispatching.peek();
+        Dispatch dispatch = new Dispatch(event);
+        if (outer != null && !outer.nested) {
+            // A modal loop: the outer event's own time stops here
+            outer.firstNestedNanos = dispatch.startNanos;
+            outer.nested = true;
+        }
+        dispatching.push(dispatch);
+        current = dispatch;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            dispatching.pop();
+            current = dispatching.peek();
+            if (outer != null) {
+                outer.lastNestedEndNanos = end; // ... and resumes here if this was the loop's last event
+            }
+            record(dispatch, dispatch.busyNanos(end) / 1_000_000);
+        }
+    }
+
+    private void record(Dispatch dispatch, long elapsedMs) {
+        String screen = screenOf(dispatch.event);
+        AtomicLongArray histogram = histograms.computeIfAbsent(screen, k -> new AtomicLongArray(BUCKETS_MS.length + 1));
+        int bucket = 0;
+        while (bucket < BUCKETS_MS.length && elapsedMs > BUCKETS_MS[bucket]) {
+            bucket++;
+        }
+        histogram.incrementAndGet(bucket);
+        if (elapsedMs < thresholdMs) {
+            return;
+        }
+        stallCount++;
+        maxStallMs = Math.max(maxStallMs, elapsedMs);
+        maxByScreen.merge(screen, elapsedMs, Math::max);
+        STALL_LOG.warning("⚠️ EDT stall " + elapsedMs + " ms in " + screen + " [" + actionOf(dispatch.event) + "]"
+                + (dispatch.nested ? " (excluding time in a modal dialog)" : "")
+                + (dispatch.stackCaptured ? "" : " (no stack: finished before it was sampled, or blocked after a dialog)"));
+    }
+
+    // Samples the running event; logs the EDT stack once per stalled event, while it is still blocked
+    private void startSampler() {
+        Thread sampler = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(Math.max(10, thresholdMs / 4));
+                } catch (InterruptedException e) {
+                    return;
+                }
+                Dispatch dispatch = current;
+                Thread thread = edt;
+                if (dispatch == null || thread == null || dispatch.stackCaptured || dispatch.nested) {
+                    continue;
+                }
+                long elapsedMs = (System.nanoTime() - dispatch.startNanos) / 1_000_000;
+                if (elapsedMs >= thresholdMs) {
+                    dispatch.stackCaptured = true;
+                    StringBuilder sb = new StringBuilder("🧵 EDT blocked ")
+                            .append(elapsedMs).append(" ms in ").append(screenOf(dispatch.event))
+                            .append(" [").append(actionOf(dispatch.event)).append("]");
+                    for (StackTraceElement frame : thread.getStackTrace()) {
+                        sb.append("\n\tat ").append(frame);
+                    }
+                    STALL_LOG.warning(sb.toString());
+                }
+            }
+        }, "edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    private void openLog(String pattern) {
+        try {
+            File parent = new File(pattern).getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            FileHandler handler = new FileHandler(pattern, 5 * 1024 * 1024, 5, true);
+            handler.setFormatter(new SimpleFormatter());
+            STALL_LOG.addHandler(handler);
+            STALL_LOG.setUseParentHandlers(false);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "⚠️ EdtWatchdog: can't open " + pattern + ", logging stalls to the console", e);
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName("com.mycompany.airlinereservation:type=EdtWatchdog"));
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "⚠️ EdtWatchdog: JMX registration failed", e);
+        }
+    }
+
+    // --- Attribution ---
+
+    // Window class for component events; the posting class for invokeLater tasks
+    // (needs --add-opens java.desktop/java.awt.event=ALL-UNNAMED, else the active window)
+    private static String screenOf(AWTEvent event) {
+        Object source = event.getSource();
+        if (source instanceof Component component) {
+            Window window = component instanceof Window w ? w : SwingUtilities.getWindowAncestor(component);
+            return (window != null ? window : component).getClass().getSimpleName();
+        }
+        if (event instanceof InvocationEvent invocation) {
+            Object runnable = runnableOf(invocation);
+            if (runnable != null) {
+                String name = runnable.getClass().getName();
+                int lambda = name.indexOf("$$Lambda");
+                name = lambda >= 0 ? name.substring(0, lambda) : name;
+                return name.substring(name.lastIndexOf('.') + 1);
+            }
+            // No access to the runnable: charge it to the screen the agent is working in
+            Window active = KeyboardFocusManager.getCurrentKeyboardFocusManager().getActiveWindow();
+            if (active != null) {
+                return active.getClass().getSimpleName();
+            }
+        }
+        return source == null ? "unknown" : source.getClass().getSimpleName();
+    }
+
+    private static String actionOf(AWTEvent event) {
+        if (event instanceof ActionEvent action) {
+            Object source = action.getSource();
+            String command = action.getActionCommand();
+            if (source instanceof AbstractButton button && button.getText() != null && !button.getText().isEmpty()) {
+                command = button.getText();
+            }
+            return "action: " + command;
+        }
+        String param = event.paramString();
+        int comma = param.indexOf(',');
+        return comma > 0 ? param.substring(0, comma) : param;
+    }
+
+    // InvocationEvent doesn't expose its runnable; read it reflectively when allowed
+    private static final Field RUNNABLE_FIELD = runnableField();
+
+    private static Field runnableField() {
+        try {
+            Field field = InvocationEvent.class.getDeclaredField("runnable");
+            field.setAccessible(true);
+            return field;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null; // module encapsulation (no --add-opens java.desktop/java.awt.event): screen comes from the source
+        }
+    }
+
+    private static Object runnableOf(InvocationEvent event) {
+        if (RUNNABLE_FIELD == null) {
+            return null;
+        }
+        try {
+            return RUNNABLE_FIELD.get(event);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    // --- JMX ---
+
+    @Override
+    public long getThresholdMs() {
+        return thresholdMs;
+    }
+
+    @Override
+    public void setThresholdMs(long thresholdMs) {
+        this.thresholdMs = Math.max(1, thresholdMs);
+    }
+
+    @Override
+    public long getStallCount() {
+        return stallCount;
+    }
+
+    @Override
+    public long getMaxStallMs() {
+        return maxStallMs;
+    }
+
+    @Override
+    public long[] getBucketUpperBoundsMs() {
+        return BUCKETS_MS.clone();
+    }
+
+    @Override
+    public Map<String, long[]> getHistogramsByScreen() {
+        Map<String, long[]> result = new LinkedHashMap<>();
+        histograms.forEach((screen, histogram) -> {
+            long[] counts = new long[histogram.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = histogram.get(i);
+            }
+            result.put(screen, counts);
+        });
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getMaxStallMsByScreen() {
+        return new LinkedHashMap<>(maxByScreen);
+    }
+
+    @Override
+    public void reset() {
+        histograms.clear();
+        maxByScreen.clear();
+        stallCount = 0;
+        maxStallMs = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "EdtWatchdog[threshold=" + thresholdMs + "ms, stalls=" + stallCount + ", max=" + maxStallMs
+                + "ms, buckets=" + Arrays.toString(BUCKETS_MS) + "]";
+    }
+}
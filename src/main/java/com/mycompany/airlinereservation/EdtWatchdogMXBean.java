@@ -0,0 +1,28 @@
+package com.mycompany.airlinereservation;
+
+import java.util.Map;
+
+/**
+ * EdtWatchdogMXBean.java - JMX view of EDT event latency (see EdtWatchdog)
+ *
+ * Histogram arrays have one count per bucket of getBucketUpperBoundsMs(),
+ * plus a final count for events above the last bound.
+ */
+public interface EdtWatchdogMXBean {
+
+    long getThresholdMs();
+
+    void setThresholdMs(long thresholdMs);
+
+    long getStallCount();
+
+    long getMaxStallMs();
+
+    long[] getBucketUpperBoundsMs();
+
+    Map<String, long[]> getHistogramsByScreen();
+
+    Map<String, Long> getMaxStallMsByScreen();
+
+    void reset();
+}
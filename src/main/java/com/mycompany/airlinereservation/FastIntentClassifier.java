@@ -0,0 +1,437 @@
+package com.mycompany.airlinereservation;
+
+import com.mycompany.airlinereservation.nlp.NLPIntent;
+import com.mycompany.airlinereservation.nlp.NLPResponse;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * FastIntentClassifier.java - In-process intent and entity classifier for chat messages
+ *
+ * Runs before the spaCy service is asked. Short, clear-cut commands
+ * ("show my bookings", "help", "book a flight from Delhi to Mumbai
+ * tomorrow") are classified in microseconds; anything ambiguous returns
+ * null so the caller falls back to NLPService.
+ *
+ * Features:
+ * - One pass over the message: lower-cased tokens are looked up in a
+ *   keyword table without creating substrings
+ * - Cities, airport codes and airline names come from Gazetteer (one
+ *   Aho-Corasick pass)
+ * - Entities: route (from / to), travel date (yyyy-MM-dd, dd-MM-yyyy,
+ *   today, tomorrow), travel class, Aadhaar number, flight code
+ * - Confidence drops with every word it doesn't recognise (sharply for
+ *   one right after "from" / "to": probably an unknown city); below
+ *   -Dairline.nlp.fastPath.minConfidence (0.8) the message is deferred
+ * - Hit-rate counters, logged every few hundred messages
+ *
+ * The result converts to the same NLPResponse a spaCy /process call
+ * decodes to, so the chatbot handles both the same way.
+ */
+public final class FastIntentClassifier {
+
+    private static final Logger LOGGER = Logger.getLogger(FastIntentClassifier.class.getName());
+
+    private static final double MIN_CONFIDENCE =
+            Double.parseDouble(System.getProperty("airline.nlp.fastPath.minConfidence", "0.8"));
+    private static final int LOG_EVERY = 500;
+
+    // Keyword features
+    private static final int BOOK = 1;
+    private static final int CANCEL = 1 << 1;
+    private static final int SHOW = 1 << 2;
+    private static final int BOOKING = 1 << 3;
+    private static final int FLIGHT = 1 << 4;
+    private static final int STATUS = 1 << 5;
+    private static final int BOARDING = 1 << 6;
+    private static final int PASS = 1 << 7;
+    private static final int CUSTOMER = 1 << 8;
+    private static final int PAYMENT = 1 << 9;
+    private static final int HELP = 1 << 10;
+    private static final int GREETING = 1 << 11;
+    private static final int FROM = 1 << 12;
+    private static final int TO = 1 << 13;
+    private static final int ECONOMY = 1 << 14;
+    private static final int BUSINESS = 1 << 15;
+    private static final int TODAY = 1 << 16;
+    private static final int TOMORROW = 1 << 17;
+    private static final int SEARCH = 1 << 18;
+    private static final int PNR = 1 << 19;
+    private static final int FILLER = 1 << 20;
+
+    private static final CharTable<Integer> KEYWORDS = keywords();
+
+    private static final LongAdder ANSWERED = new LongAdder();
+    private static final LongAdder DEFERRED = new LongAdder();
+    private static final LongAdder TOTAL_NANOS = new LongAdder();
+
+    /**
+     * A confident classification, with whatever entities were found (null if absent)
+     */
+    public record Result(String intent, double confidence, String source, String destination,
+                         String travelDate, String travelClass, String aadhaar, String flightCode) {
+
+        /**
+         * Same shape as a decoded spaCy /process response
+         */
+        public NLPResponse toNlpResponse() {
+            NLPResponse response = new NLPResponse(true, null);
+            response.setIntent(new NLPIntent(intent, confidence));
+            response.setSource(source);
+            response.setDestination(destination);
+            response.setTravelDate(travelDate);
+            response.setTravelClass(travelClass);
+            response.setAadhaar(aadhaar);
+            return response;
+        }
+    }
+
+    /**
+     * Answered / deferred counts and mean classification time
+     */
+    public record Stats(long answered, long deferred, double meanMicros) {
+        public double hitRate() {
+            long total = answered + deferred;
+            return total == 0 ? 0.0 : (double) answered / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("fast-path hits=%d deferred=%d hitRate=%.1f%% mean=%.1fµs",
+                    answered, deferred, hitRate() * 100, meanMicros);
+        }
+    }
+
+    private FastIntentClassifier() {
+    }
+
+    /**
+     * Classify a message, or return null if it should go to the NLP service
+     */
+    public static Result classify(String message) {
+        long start = System.nanoTime();
+        Result result = message == null ? null : analyze(message, Gazetteer.current());
+        TOTAL_NANOS.add(System.nanoTime() - start);
+        (result != null ? ANSWERED : DEFERRED).increment();
+
+        long total = ANSWERED.sum() + DEFERRED.sum();
+        if (total % LOG_EVERY == 0) {
+            LOGGER.info("⚡ " + stats());
+        }
+        return result;
+    }
+
+    public static Stats stats() {
+        long answered = ANSWERED.sum();
+        long deferred = DEFERRED.sum();
+        long total = answered + deferred;
+        return new Stats(answered, deferred, total == 0 ? 0.0 : TOTAL_NANOS.sum() / 1000.0 / total);
+    }
+
+    // --- Classification ---
+
+    static Result analyze(String message, Gazetteer gaz) {
+        // Lower-case the text, collapsing every run of separators into one space
+        // (the normalization Gazetteer.scan expects)
+        int n = message.length();
+        char[] buf = new char[n];
+        int[] tokStart = new int[n / 2 + 1];
+        int[] tokEnd = new int[n / 2 + 1];
+        int len = 0;
+        int tokens = 0;
+        for (int i = 0; i < n; i++) {
+            char c = message.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (len == 0 || buf[len - 1] == ' ') {
+                    tokStart[tokens] = len;
+                }
+                buf[len++] = Character.toLowerCase(c);
+            } else if (len > 0 && buf[len - 1] != ' ') {
+                tokEnd[tokens++] = len;
+                buf[len++] = ' ';
+            }
+        }
+        if (len > 0 && buf[len - 1] != ' ') {
+            tokEnd[tokens++] = len;
+        }
+        if (tokens == 0) {
+            return null;
+        }
+
+        // Names from the gazetteer, by the token they start at
+        String[] nameAt = new String[tokens];
+        int[] nameTokens = new int[tokens];
+        boolean[] isCity = new boolean[tokens];
+        int textLen = buf[len - 1] == ' ' ? len - 1 : len;
+        int[] cursor = {0};
+        gaz.scan(buf, textLen, (start, end, kind, canonical) -> {
+            int t = cursor[0];
+            while (tokStart[t] < start) {
+                t++;
+            }
+            int last = t;
+            while (tokEnd[last] < end) {
+                last++;
+            }
+            nameAt[t] = canonical;
+            nameTokens[t] = last - t + 1;
+            isCity[t] = kind != Gazetteer.Kind.AIRLINE;
+            cursor[0] = last + 1;
+        });
+
+        int features = 0;
+        int unknown = 0;
+        String source = null;
+        String destination = null;
+        String travelDate = null;
+        String aadhaar = null;
+        String flightCode = null;
+        int cities = 0;
+        int pending = 0; // FROM / TO waiting for the next city
+
+        for (int t = 0; t < tokens; t++) {
+            int from = tokStart[t];
+            int to = tokEnd[t];
+
+            if (nameAt[t] != null) {
+                if (isCity[t]) {
+                    String city = nameAt[t];
+                    cities++;
+                    if (pending == TO || (pending != FROM && source != null)) {
+                        destination = destination == null ? city : destination;
+                    } else {
+                        source = source == null ? city : source;
+                    }
+                }
+                pending = 0;
+                t += nameTokens[t] - 1;
+                continue;
+            }
+
+            Integer keyword = KEYWORDS.get(buf, from, to);
+            if (keyword != null) {
+                features |= keyword;
+                if ((keyword & (FROM | TO)) != 0) {
+                    pending = keyword & (FROM | TO);
+                } else if ((keyword & FILLER) == 0) {
+                    pending = 0;
+                }
+                continue;
+            }
+
+            // Shapes: dates, Aadhaar, flight codes, PNRs
+            if (t + 2 < tokens && isDigits(buf, from, to)
+                    && isDigits(buf, tokStart[t + 1], tokEnd[t + 1]) && isDigits(buf, tokStart[t + 2], tokEnd[t + 2])) {
+                int a = to - from;
+                int b = tokEnd[t + 1] - tokStart[t + 1];
+                int c = tokEnd[t + 2] - tokStart[t + 2];
+                if ((a == 4 && b == 2 && c == 2) || (a <= 2 && b <= 2 && c == 4)) {
+                    travelDate = a == 4
+                            ? isoDate(buf, from, a, tokStart[t + 1], b, tokStart[t + 2], c)
+                            : isoDate(buf, tokStart[t + 2], c, tokStart[t + 1], b, from, a);
+                    if (travelDate == null) {
+                        return null; // date-shaped but no such day ("2025 13 45"): spaCy's call
+                    }
+                    t += 2;
+                    continue;
+                }
+                if (a == 4 && b == 4 && c == 4) {
+                    aadhaar = new String(buf, from, 4) + new String(buf, tokStart[t + 1], 4)
+                            + new String(buf, tokStart[t + 2], 4);
+                    t += 2;
+                    continue;
+                }
+            }
+            if (to - from == 12 && isDigits(buf, from, to)) {
+                aadhaar = new String(buf, from, 12);
+                continue;
+            }
+            if (isFlightCode(buf, from, to)) {
+                flightCode = new String(buf, from, to - from).toUpperCase();
+                continue;
+            }
+            if ((features & PNR) != 0 && to - from >= 5 && to - from <= 8) {
+                continue; // the PNR itself; handlers read it from the message
+            }
+            // An unknown word right after "from" / "to" is most likely a city we don't know
+            unknown += pending != 0 ? 3 : 1;
+            pending = 0;
+        }
+
+        if ((features & TODAY) != 0 && travelDate == null) {
+            travelDate = LocalDate.now().toString();
+        } else if ((features & TOMORROW) != 0 && travelDate == null) {
+            travelDate = LocalDate.now().plusDays(1).toString();
+        }
+        String travelClass = (features & BUSINESS) != 0 ? "Business" : (features & ECONOMY) != 0 ? "Economy" : null;
+
+        String intent = intentOf(features, cities, flightCode != null, tokens);
+        if (intent == null) {
+            return null;
+        }
+        double confidence = 0.95 - 0.1 * unknown;
+        if (confidence < MIN_CONFIDENCE) {
+            return null;
+        }
+        return new Result(intent, confidence, source, destination, travelDate, travelClass, aadhaar, flightCode);
+    }
+
+    // Exactly one intent must fit, otherwise it's spaCy's call
+    private static String intentOf(int f, int cities, boolean hasFlightCode, int tokens) {
+        boolean any = false;
+        String intent = null;
+        String[] candidates = {
+                has(f, BOOK) && !has(f, CANCEL) ? "book_flight" : null,
+                has(f, CANCEL) && (has(f, BOOKING) || has(f, PNR)) && !has(f, BOOK) ? "cancel_booking" : null,
+                has(f, SHOW) && has(f, BOOKING) && !has(f, BOOK | CANCEL | BOARDING) ? "view_booking" : null,
+                has(f, BOARDING) && has(f, PASS) && !has(f, CANCEL) ? "boarding_pass" : null,
+                hasFlightCode && !has(f, BOOK | CANCEL) && cities == 0 ? "flight_status" : null,
+                cities >= 2 && !has(f, BOOK | CANCEL | BOOKING) ? "check_availability" : null,
+                has(f, CUSTOMER) && !has(f, BOOK) ? "customer_lookup" : null,
+                has(f, PAYMENT) ? "payment_info" : null,
+                has(f, HELP) ? "help" : null,
+                has(f, GREETING) && tokens <= 3 ? "greeting" : null,
+        };
+        for (String candidate : candidates) {
+            if (candidate != null) {
+                if (any) {
+                    return null;
+                }
+                any = true;
+                intent = candidate;
+            }
+        }
+        return intent;
+    }
+
+    private static boolean has(int features, int bits) {
+        return (features & bits) != 0;
+    }
+
+    private static boolean isDigits(char[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] < '0' || buf[i] > '9') {
+                return false;
+            }
+        }
+        return to > from;
+    }
+
+    // 1-3 letters then 2-4 digits (AI203), the chatbot's flight-code pattern
+    private static boolean isFlightCode(char[] buf, int from, int to) {
+        int i = from;
+        while (i < to && buf[i] >= 'a' && buf[i] <= 'z') {
+            i++;
+        }
+        int letters = i - from;
+        int digits = to - i;
+        return letters >= 1 && letters <= 3 && digits >= 2 && digits <= 4 && isDigits(buf, i, to);
+    }
+
+    // "yyyy-MM-dd" if the digits name a real day, else null
+    private static String isoDate(char[] buf, int yFrom, int yLen, int mFrom, int mLen, int dFrom, int dLen) {
+        try {
+            return LocalDate.of(number(buf, yFrom, yLen), number(buf, mFrom, mLen), number(buf, dFrom, dLen)).toString();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int number(char[] buf, int from, int len) {
+        int value = 0;
+        for (int i = from; i < from + len; i++) {
+            value = value * 10 + (buf[i] - '0');
+        }
+        return value;
+    }
+
+    private static CharTable<Integer> keywords() {
+        Map<String, Integer> words = new HashMap<>();
+        Object[][] groups = {
+                {BOOK, "book", "reserve", "buy", "purchase"},
+                {CANCEL, "cancel", "refund"},
+                {SHOW, "show", "view", "list", "see", "display", "my", "get"},
+                {BOOKING, "booking", "bookings", "reservation", "reservations", "ticket", "tickets", "trip", "trips"},
+                {FLIGHT, "flight", "flights"},
+                {STATUS, "status", "delay", "delayed"},
+                {BOARDING, "boarding"},
+                {PASS, "pass"},
+                {CUSTOMER, "customer", "profile", "aadhaar", "aadhar"},
+                {PAYMENT, "payment", "payments", "summary"},
+                {HELP, "help", "menu", "commands"},
+                {GREETING, "hi", "hello", "hey", "namaste"},
+                {FROM, "from"},
+                {TO, "to"},
+                {ECONOMY, "economy"},
+                {BUSINESS, "business"},
+                {TODAY, "today"},
+                {TOMORROW, "tomorrow"},
+                {SEARCH, "search", "find", "available", "availability", "any"},
+                {PNR, "pnr"},
+                {FILLER, "a", "an", "the", "me", "i", "want", "please", "for", "on", "in", "can", "you", "would",
+                        "like", "need", "some", "all", "of", "what", "is", "are", "d", "m", "s", "ll", "class",
+                        "number", "with", "and", "go", "going", "fly", "generate", "check", "cities",
+                        "there", "do", "have", "thanks", "thank", "pls", "now", "seat", "seats"},
+        };
+        for (Object[] group : groups) {
+            int bits = (Integer) group[0];
+            for (int i = 1; i < group.length; i++) {
+                words.merge((String) group[i], bits, (a, b) -> a | b);
+            }
+        }
+        return new CharTable<>(words);
+    }
+
+    /**
+     * Open-addressing table looked up by a char range, so matching a token
+     * needs no substring
+     */
+    static final class CharTable<V> {
+        private final char[][] keys;
+        private final Object[] values;
+        private final int mask;
+
+        CharTable(Map<String, V> entries) {
+            int capacity = Integer.highestOneBit(Math.max(4, entries.size() * 2) - 1) << 1;
+            keys = new char[capacity][];
+            values = new Object[capacity];
+            mask = capacity - 1;
+            for (Map.Entry<String, V> entry : entries.entrySet()) {
+                char[] key = entry.getKey().toCharArray();
+                int i = hash(key, 0, key.length) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = entry.getValue();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(char[] buf, int from, int to) {
+            for (int i = hash(buf, from, to) & mask; ; i = (i + 1) & mask) {
+                char[] key = keys[i];
+                if (key == null) {
+                    return null;
+                }
+                if (key.length == to - from && Arrays.equals(key, 0, key.length, buf, from, to)) {
+                    return (V) values[i];
+                }
+            }
+        }
+
+        private static int hash(char[] chars, int from, int to) {
+            int h = 0;
+            for (int i = from; i < to; i++) {
+                h = 31 * h + chars[i];
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -3,14 +3,15 @@ package com.mycompany.airlinereservation;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.sql.*;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.Future;
 
 public class FlightInfo extends JFrame {
 
-    // Use centralized DBConnection.getConnection() for DB access
+    // DB access goes through AirlineRepository / FlightRepository; lookups use RouteIndex
 
     // ✅ NEW: Map to store Airline Name -> ID for insertion
     private Map<String, Integer> airlineNameToIdMap = new HashMap<>();
@@ -30,6 +31,9 @@ public class FlightInfo extends JFrame {
     // ⚠️ CRITICAL MISSING FIELD: total_seats must be added to the UI
     private JTextField totalSeatsField; 
 
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
+    private Future<?> flightsQuery; // latest route lookup; superseded ones are cancelled
+
     public FlightInfo() {
         setTitle("Add Flight Details (Admin)");
         setSize(700, 550); // Increased size to fit total_seats field
@@ -181,14 +185,7 @@ public class FlightInfo extends JFrame {
 
             if (!isValidData()) return;
 
-            if (saveFlightToDatabase()) {
-                ThemeManager.showInfo(this, "Flight Details Added Successfully!");
-                // Optionally reload flights after saving
-                loadAvailableFlights(); 
-                // Don't dispose yet if admin might want to add another flight
-            } else {
-                ThemeManager.showError(this, "Failed to add flight. Check console for SQL error.");
-            }
+            saveFlightToDatabase();
         });
 
         // FORCE white text on all labels to fix visibility issue
@@ -241,78 +238,61 @@ public class FlightInfo extends JFrame {
 
     // 🛫 Load Airlines Dropdown (Updated to fetch ID)
     private void loadAirlines() {
-        airlineNameToIdMap.clear(); // Reset map
-        comboAirline.removeAllItems(); // Clear ComboBox
-
-        // Query to fetch both ID and Name
-       // Query the lowercase `airlines` table created by init_users.sql
-       String query = "SELECT id, airline_name FROM airlines";
-       try (Connection con = DBConnection.getConnection();
-           PreparedStatement pst = con.prepareStatement(query);
-           ResultSet rs = pst.executeQuery()) {
-            
-            while (rs.next()) {
-                String name = rs.getString("airline_name");
-                int id = rs.getInt("id");
-                comboAirline.addItem(name);
-                airlineNameToIdMap.put(name, id); // Store the ID associated with the name
+        // Fetch both ID and Name from the lowercase `airlines` table created by init_users.sql
+        db.query(AirlineRepository::findAirlineIds, airlines -> {
+            airlineNameToIdMap.clear(); // Reset map
+            comboAirline.removeAllItems(); // Clear ComboBox
+            for (Map.Entry<String, Integer> airline : airlines.entrySet()) {
+                comboAirline.addItem(airline.getKey());
+                airlineNameToIdMap.put(airline.getKey(), airline.getValue()); // Store the ID associated with the name
             }
             
             if (comboAirline.getItemCount() == 0) {
                 JOptionPane.showMessageDialog(this, "No Airlines found. Please add airlines to the 'Airlines' table first.", "Data Missing", JOptionPane.WARNING_MESSAGE);
             }
-            
-        } catch (SQLException e) {
+        }, e -> {
             JOptionPane.showMessageDialog(this, "Error loading Airlines. Check if 'Airlines' table exists and has 'airline_id' and 'airline_name' columns.", "DB Load Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
-        }
+        });
     }
 
     // 🗺️ Load distinct Sources and Destinations (No change needed)
     private void loadSourceDestinations() {
         // ... (existing implementation is fine)
-    try (Connection con = DBConnection.getConnection()) {
-            // Load from the 'flight' table as before, for existing destinations
-            PreparedStatement pstSrc = con.prepareStatement("SELECT DISTINCT source FROM flight");
-            PreparedStatement pstDest = con.prepareStatement("SELECT DISTINCT destination FROM flight");
-
-            ResultSet rsSrc = pstSrc.executeQuery();
+        // Load from the 'flight' table as before, for existing destinations
+        db.query(() -> List.of(RouteIndex.sources(), RouteIndex.destinations()), lists -> {
             comboSource.removeAllItems();
-            while (rsSrc.next()) comboSource.addItem(rsSrc.getString("source"));
+            for (String source : lists.get(0)) comboSource.addItem(source);
 
-            ResultSet rsDest = pstDest.executeQuery();
             comboDestination.removeAllItems();
-            while (rsDest.next()) comboDestination.addItem(rsDest.getString("destination"));
-        } catch (SQLException e) {
+            for (String destination : lists.get(1)) comboDestination.addItem(destination);
+        }, e -> {
              // This is fine if the 'flight' table is empty.
              // e.g. If you run this file before creating/populating the flight table, it will print stack trace but not crash the UI.
              // e.printStackTrace(); 
-        }
+        });
     }
 
     // 🧭 Load Available Flights dynamically (No change needed)
     private void loadAvailableFlights() {
         // ... (existing implementation is fine)
-        comboFlights.removeAllItems();
         String source = (String) comboSource.getSelectedItem();
         String destination = (String) comboDestination.getSelectedItem();
 
-        if (source == null || destination == null) return;
-
-       String query = "SELECT flight_code, flight_name, price, seats_available FROM flight WHERE source=? AND destination=?";
-       try (Connection con = DBConnection.getConnection();
-           PreparedStatement pst = con.prepareStatement(query)) {
-
-            pst.setString(1, source);
-            pst.setString(2, destination);
-            ResultSet rs = pst.executeQuery();
+        if (flightsQuery != null) flightsQuery.cancel(true);
+        if (source == null || destination == null) {
+            comboFlights.removeAllItems();
+            return;
+        }
 
-            while (rs.next()) {
+        flightsQuery = db.query(() -> RouteIndex.search(source, destination, null), flights -> {
+            comboFlights.removeAllItems();
+            for (AirlineService.Flight flight : flights) {
                 String flightInfo = String.format("%s - %s (Price: %.2f, Seats: %d)",
-                    rs.getString("flight_code"),
-                    rs.getString("flight_name"),
-                    rs.getDouble("price"),
-                    rs.getInt("seats_available")
+                    flight.flightCode,
+                    flight.flightName,
+                    (double) flight.price,
+                    flight.seatsAvailable
                 );
                 comboFlights.addItem(flightInfo);
             }
@@ -320,52 +300,54 @@ public class FlightInfo extends JFrame {
             if (comboFlights.getItemCount() == 0) {
                 comboFlights.addItem("❌ No flights available for this route");
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        }, Throwable::printStackTrace);
     }
 
     // 💾 Insert new Flight into database (CRITICALLY UPDATED to use airline_id and total_seats)
-    private boolean saveFlightToDatabase() {
+    private void saveFlightToDatabase() {
         String selectedAirlineName = (String) comboAirline.getSelectedItem();
         Integer airlineId = airlineNameToIdMap.get(selectedAirlineName);
 
         if (airlineId == null) {
             JOptionPane.showMessageDialog(this, "Internal Error: Could not find Airline ID for the selected airline.", "Logic Error", JOptionPane.ERROR_MESSAGE);
-            return false;
+            ThemeManager.showError(this, "Failed to add flight. Check console for SQL error.");
+            return;
         }
 
-        // CORRECT SQL: Using airline_id, departure_time, arrival_time, price, seats_available, and total_seats
-        String sql = "INSERT INTO flight (flight_code, flight_name, source, destination, airline_id, departure_time, arrival_time, price, seats_available, total_seats) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-       try (Connection conn = DBConnection.getConnection();
-           PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, flightCodeField.getText());
-            pstmt.setString(2, flightNameField.getText());
-            pstmt.setString(3, (String) comboSource.getSelectedItem());
-            pstmt.setString(4, (String) comboDestination.getSelectedItem());
-            
-            // PARAMETER 5: Use the ID, not the name
-            pstmt.setInt(5, airlineId); 
-            
-            // PARAMETERS 6 & 7: Time (must match DATETIME format in MySQL)
-            pstmt.setString(6, departureTimeField.getText() + ":00"); // Append seconds for proper DATETIME
-            pstmt.setString(7, arrivalTimeField.getText() + ":00"); // Append seconds
-            
-            // PARAMETERS 8, 9, 10: Price and Seats
-            pstmt.setDouble(8, Double.parseDouble(priceField.getText()));
-            pstmt.setInt(9, Integer.parseInt(seatsAvailableField.getText()));
-            pstmt.setInt(10, Integer.parseInt(totalSeatsField.getText())); // Insert total_seats
-
-            return pstmt.executeUpdate() > 0;
-
-        } catch (SQLException ex) {
+        // Read the form on the EDT; the insert and index refresh run in the background
+        String code = flightCodeField.getText();
+        String name = flightNameField.getText();
+        String source = (String) comboSource.getSelectedItem();
+        String destination = (String) comboDestination.getSelectedItem();
+        double price = Double.parseDouble(priceField.getText());
+        int seatsAvailable = Integer.parseInt(seatsAvailableField.getText());
+        int totalSeats = Integer.parseInt(totalSeatsField.getText());
+        // Time must match DATETIME format in MySQL: append seconds
+        String departure = departureTimeField.getText() + ":00";
+        String arrival = arrivalTimeField.getText() + ":00";
+
+        db.update(() -> {
+            boolean added = FlightRepository.insert(code, name,
+                    airlineId, // Use the ID, not the name
+                    source, destination, price, seatsAvailable, totalSeats, departure, arrival);
+            if (added) {
+                RouteIndex.refresh(); // make the new flight searchable right away
+            }
+            return added;
+        }, added -> {
+            if (added) {
+                ThemeManager.showInfo(this, "Flight Details Added Successfully!");
+                // Optionally reload flights after saving
+                loadAvailableFlights(); 
+                // Don't dispose yet if admin might want to add another flight
+            } else {
+                ThemeManager.showError(this, "Failed to add flight. Check console for SQL error.");
+            }
+        }, ex -> {
             System.err.println("SQL Error while saving flight: " + ex.getMessage());
             // Most likely cause now: UNIQUE key violation (duplicate flight_code) or a formatting error.
-            return false;
-        }
+            ThemeManager.showError(this, "Failed to add flight. Check console for SQL error.");
+        });
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,223 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * FlightRepository.java - Data access for the `flight` table
+ *
+ * Handles:
+ * - Route lookups (exact match for the Swing pickers, case-insensitive for search)
+ * - Distinct source/destination lists for the city dropdowns
+ * - Flight inserts from the admin screens
+ * - Seat inventory: conditional single-statement reservation inside the
+ *   booking transaction, seat release inside cancel transactions
+ */
+public final class FlightRepository {
+
+    // Plain flight columns (screens that don't need the airline name)
+    private static final String FLIGHT_COLUMNS =
+            "SELECT f.flight_code, f.flight_name, NULL AS airline_name, f.source, f.destination, " +
+            "f.departure_time, f.arrival_time, f.price, f.seats_available FROM flight f ";
+
+    // Flight columns joined with the airline name
+    private static final String FLIGHT_WITH_AIRLINE_COLUMNS =
+            "SELECT f.flight_code, f.flight_name, a.airline_name, f.source, f.destination, " +
+            "f.departure_time, f.arrival_time, f.price, f.seats_available " +
+            "FROM flight f LEFT JOIN airlines a ON f.airline_id = a.id ";
+
+    private FlightRepository() {
+    }
+
+    public static List<String> findDistinctSources() throws SQLException {
+        return RepositorySupport.queryList("SELECT DISTINCT source FROM flight", rs -> rs.getString("source"));
+    }
+
+    public static List<String> findDistinctDestinations() throws SQLException {
+        return RepositorySupport.queryList("SELECT DISTINCT destination FROM flight", rs -> rs.getString("destination"));
+    }
+
+    /**
+     * All flights, ordered by flight code
+     */
+    public static List<AirlineService.Flight> findAll() throws SQLException {
+        return RepositorySupport.queryList(FLIGHT_COLUMNS + "ORDER BY f.flight_code", FlightRepository::mapFlight);
+    }
+
+    /**
+     * Cheap "has the flight table changed?" probe for RouteIndex:
+     * row count (catches deletes) and newest updated_at (catches inserts/updates).
+     * A changed marker proves a change; an unchanged one doesn't prove there was none.
+     */
+    public record ChangeMarker(long rowCount, Timestamp lastUpdated) {
+    }
+
+    public static ChangeMarker readChangeMarker() throws SQLException {
+        return RepositorySupport.queryOne("SELECT COUNT(*) AS row_count, MAX(updated_at) AS last_updated FROM flight",
+                rs -> new ChangeMarker(rs.getLong("row_count"), rs.getTimestamp("last_updated")));
+    }
+
+    /**
+     * Flights (with airline names) inserted or updated at or after the given time; all flights if null
+     */
+    public static List<AirlineService.Flight> findUpdatedSince(Timestamp since) throws SQLException {
+        if (since == null) {
+            return RepositorySupport.queryList(FLIGHT_WITH_AIRLINE_COLUMNS, FlightRepository::mapFlight);
+        }
+        return RepositorySupport.queryList(FLIGHT_WITH_AIRLINE_COLUMNS + "WHERE f.updated_at >= ?",
+                FlightRepository::mapFlight, since);
+    }
+
+    /**
+     * Flights on an exact (source, destination) pair, ordered by flight code
+     */
+    public static List<AirlineService.Flight> findByRoute(String source, String destination) throws SQLException {
+        return RepositorySupport.queryList(
+                FLIGHT_COLUMNS + "WHERE f.source = ? AND f.destination = ? ORDER BY f.flight_code",
+                FlightRepository::mapFlight, source, destination);
+    }
+
+    /**
+     * Case-insensitive route search with airline names, optionally limited to one departure date
+     */
+    public static List<AirlineService.Flight> searchRoute(String source, String destination, String date) throws SQLException {
+        StringBuilder sql = new StringBuilder(FLIGHT_WITH_AIRLINE_COLUMNS)
+                .append("WHERE LOWER(f.source) = LOWER(?) AND LOWER(f.destination) = LOWER(?)");
+        if (date != null && !date.isEmpty()) {
+            sql.append(" AND DATE(f.departure_time) = DATE(?) ORDER BY f.departure_time ASC");
+            return RepositorySupport.queryList(sql.toString(), FlightRepository::mapFlight, source, destination, date);
+        }
+        sql.append(" ORDER BY f.departure_time ASC");
+        return RepositorySupport.queryList(sql.toString(), FlightRepository::mapFlight, source, destination);
+    }
+
+    /**
+     * @return the flight with its airline name, or null if the code is unknown
+     */
+    public static AirlineService.Flight findByCode(String flightCode) throws SQLException {
+        return RepositorySupport.queryOne(FLIGHT_WITH_AIRLINE_COLUMNS + "WHERE f.flight_code = ?",
+                FlightRepository::mapFlight, flightCode);
+    }
+
+    public static AirlineService.Flight findByCode(Connection conn, String flightCode) throws SQLException {
+        return RepositorySupport.queryOne(conn, FLIGHT_WITH_AIRLINE_COLUMNS + "WHERE f.flight_code = ?",
+                FlightRepository::mapFlight, flightCode);
+    }
+
+    /**
+     * Insert a new flight; times are "yyyy-MM-dd HH:mm:ss" strings
+     */
+    public static boolean insert(String flightCode, String flightName, int airlineId, String source,
+                                 String destination, double price, int seatsAvailable, int totalSeats,
+                                 String departureTime, String arrivalTime) throws SQLException {
+        String sql = "INSERT INTO flight (flight_code, flight_name, airline_id, source, destination, price, " +
+                     "seats_available, total_seats, departure_time, arrival_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        return RepositorySupport.update(sql, flightCode, flightName, airlineId, source, destination, price,
+                seatsAvailable, totalSeats, departureTime, arrivalTime) > 0;
+    }
+
+    /**
+     * Thrown by {@link #bookSeat} when no seat could be reserved
+     */
+    public static final class SeatUnavailableException extends SQLException {
+        private final boolean flightExists;
+
+        SeatUnavailableException(String flightCode, boolean flightExists) {
+            super(flightExists ? "No seats available on flight " + flightCode : "Flight not found: " + flightCode);
+            this.flightExists = flightExists;
+        }
+
+        /**
+         * @return true if the flight exists but is sold out, false if the code is unknown
+         */
+        public boolean flightExists() {
+            return flightExists;
+        }
+    }
+
+    /**
+     * Booking writes run by {@link #bookSeat} once the seat is taken, with the
+     * fare read from the same flight row the seat came from
+     */
+    @FunctionalInterface
+    public interface SeatBooking<T> {
+        T run(Connection conn, double fare) throws SQLException;
+    }
+
+    /**
+     * Take one seat with a single conditional UPDATE and read the fare of the
+     * row it decremented, on the caller's connection (and transaction): the
+     * flight row stays locked until that transaction ends.
+     *
+     * @return the fare if a seat was taken, null if the flight is sold out or unknown
+     */
+    public static Double reserveSeat(Connection conn, String flightCode) throws SQLException {
+        if (RepositorySupport.update(conn,
+                "UPDATE flight SET seats_available = seats_available - 1 " +
+                "WHERE flight_code = ? AND seats_available > 0", flightCode) != 1) {
+            return null;
+        }
+        return RepositorySupport.queryOne(conn, "SELECT price FROM flight WHERE flight_code = ?",
+                rs -> rs.getDouble("price"), flightCode);
+    }
+
+    /**
+     * Reserve a seat and run the booking writes in one transaction: the seat
+     * and the rows for it commit together or not at all, so a failure or crash
+     * part-way can't leave a seat taken with nothing booked on it.
+     * The seat UPDATE goes first, so a sold-out flight fails before any write
+     * and concurrent bookers queue on the flight row's exclusive lock rather
+     * than deadlocking on the share locks their foreign keys would take.
+     *
+     * @throws SeatUnavailableException if the flight is sold out or unknown
+     */
+    static <T> T bookSeat(String flightCode, RepositorySupport.TransactionCallback<T> booking) throws SQLException {
+        return bookSeat(flightCode, (conn, fare) -> booking.run(conn));
+    }
+
+    /**
+     * Same as above for bookings that charge the fare of the reserved seat
+     */
+    static <T> T bookSeat(String flightCode, SeatBooking<T> booking) throws SQLException {
+        return RepositorySupport.inTransaction(conn -> {
+            Double fare = reserveSeat(conn, flightCode);
+            if (fare == null) {
+                boolean exists = RepositorySupport.queryOne(conn,
+                        "SELECT 1 FROM flight WHERE flight_code = ?", rs -> Boolean.TRUE, flightCode) != null;
+                throw new SeatUnavailableException(flightCode, exists);
+            }
+            return booking.run(conn, fare);
+        });
+    }
+
+    /**
+     * Give back the seat of a booking (inside the transaction that cancels it)
+     */
+    public static void releaseSeatForBooking(Connection conn, String pnr) throws SQLException {
+        RepositorySupport.update(conn,
+                "UPDATE flight SET seats_available = seats_available + 1 " +
+                "WHERE flight_code = (SELECT flight_code FROM booking WHERE pnr = ?)", pnr);
+    }
+
+    public static void incrementSeats(Connection conn, String flightCode) throws SQLException {
+        RepositorySupport.update(conn,
+                "UPDATE flight SET seats_available = seats_available + 1 WHERE flight_code = ?", flightCode);
+    }
+
+    private static AirlineService.Flight mapFlight(ResultSet rs) throws SQLException {
+        String airline = rs.getString("airline_name");
+        return new AirlineService.Flight(
+                rs.getString("flight_code"),
+                rs.getString("flight_name"),
+                airline != null ? airline : "Unknown",
+                rs.getString("source"),
+                rs.getString("destination"),
+                rs.getString("departure_time"),
+                rs.getString("arrival_time"),
+                rs.getInt("price"),
+                rs.getInt("seats_available"));
+    }
+}
@@ -16,6 +16,7 @@ import java.awt.geom.RoundRectangle2D;
  * - Always-on-top functionality (can be toggled)
  * - Smooth animations for expand/collapse
  * - Integrates with ChatBot for conversation logic
+ * - Incremental message rendering (ChatTranscript), so long chats stay fast
  * - Customizable theme colors
  */
 public class FloatingChatWidget extends JFrame {
@@ -32,13 +33,15 @@ public class FloatingChatWidget extends JFrame {
     
     private JPanel chatPanel;
     private JTextPane messageDisplay;
+    private ChatTranscript transcript;
     private JTextField messageInput;
     private JButton sendButton;
     private JButton minimizeButton;
     private JButton closeButton;
     private JButton toggleAlwaysOnTop;
     
-    private ChatBot chatBot;
+    private ChatEngine.Conversation chatBot;
+    private final AsyncDb.Scope chat = AsyncDb.scope(this, 1);
     private String username;
     private Dimension minimizedSize;
     private Dimension maximizedSize;
@@ -54,7 +57,7 @@ public class FloatingChatWidget extends JFrame {
     
     public FloatingChatWidget(String username, JFrame parent) {
         this.username = username;
-        this.chatBot = new ChatBotEnhanced(username);
+        this.chatBot = ChatEngine.getInstance().conversation(username);
         this.minimizedSize = new Dimension(BUBBLE_SIZE, BUBBLE_SIZE);
         this.maximizedSize = new Dimension(EXPANDED_WIDTH, EXPANDED_HEIGHT);
         
@@ -162,12 +165,13 @@ public class FloatingChatWidget extends JFrame {
         messageDisplay.setBackground(ACCENT_COLOR);
         messageDisplay.setForeground(TEXT_COLOR);
         messageDisplay.setMargin(new Insets(8, 8, 8, 8));
-        messageDisplay.setText("<html><body style='font-family:Segoe UI; font-size:12px; background-color:#F0F8FF; margin:0; padding:10px;'></body></html>");
         
         JScrollPane scrollPane = new JScrollPane(messageDisplay);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         scrollPane.setBorder(BorderFactory.createLineBorder(PRIMARY_COLOR, 1));
+        transcript = new ChatTranscript(messageDisplay, scrollPane,
+                "font-family:Segoe UI; font-size:12px; background-color:#F0F8FF; margin:0; padding:10px;");
         
         // Input panel
         JPanel inputPanel = new JPanel(new BorderLayout(5, 0));
@@ -400,25 +404,11 @@ public class FloatingChatWidget extends JFrame {
         appendUserMessage(userInput);
         messageInput.setText("");
         
-        // Process message in background thread
-        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
-            @Override
-            protected String doInBackground() throws Exception {
-                return chatBot.processMessage(userInput);
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    String response = get();
-                    appendBotMessage(response);
-                } catch (Exception e) {
-                    appendBotMessage("❌ Error: " + e.getMessage());
-                }
-            }
-        };
-        
-        worker.execute();
+        // Process message in background thread (one at a time, so replies keep their order;
+        // may book or cancel, so it runs as an update that isn't cut off mid-way)
+        chat.update(() -> chatBot.processMessage(userInput),
+                response -> appendBotMessage(response),
+                e -> appendBotMessage("❌ Error: " + e.getMessage()));
     }
     
     /**
@@ -462,15 +452,8 @@ public class FloatingChatWidget extends JFrame {
                 alignment, bubbleColor, borderRadius, escapedMessage
             );
             
-            String currentHTML = messageDisplay.getText();
-            String updatedHTML = currentHTML.replace("</body>", htmlBubble + "</body>");
-            messageDisplay.setText(updatedHTML);
-            
-            // Auto-scroll to bottom
-            SwingUtilities.invokeLater(() -> {
-                JScrollBar vertical = ((JScrollPane) messageDisplay.getParent().getParent()).getVerticalScrollBar();
-                vertical.setValue(vertical.getMaximum());
-            });
+            // Inserted into the document and scrolled to; earlier messages aren't re-rendered
+            transcript.append(htmlBubble);
             
         } catch (Exception e) {
             System.err.println("Error appending message: " + e.getMessage());
@@ -506,7 +489,7 @@ public class FloatingChatWidget extends JFrame {
      * Clear chat history
      */
     public void clearChat() {
-        messageDisplay.setText("<html><body style='font-family:Segoe UI; font-size:12px; background-color:#F0F8FF; margin:0; padding:10px;'></body></html>");
+        transcript.clear();
         chatBot.clearConversation();
     }
     
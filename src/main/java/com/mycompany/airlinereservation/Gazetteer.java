@@ -0,0 +1,501 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Gazetteer.java - Finds cities, airport codes and airline names in free text
+ *
+ * Features:
+ * - One Aho-Corasick automaton over every known name, so a message is
+ *   scanned once however many names there are
+ * - Names come from the flight table (sources, destinations, airline names
+ *   via RouteIndex) and the airlines table, plus common city aliases and
+ *   IATA codes (Bombay / BOM -> Mumbai)
+ * - Whole-word, case-insensitive; punctuation and repeated spaces are
+ *   ignored ("new   delhi," matches "New Delhi"); the longest name wins
+ * - Accented Latin letters match their base letter ("Zürich" / "Zurich");
+ *   other non-ASCII letters are not told apart (see classOf)
+ * - Rebuilt when RouteIndex's schedule changes (not on seat-count-only
+ *   snapshots, so bookings don't trigger it) or the airlines table
+ *   changes (checked in the background at most once a minute)
+ * - Local route extraction ("from X to Y", "X to Y")
+ */
+public final class Gazetteer {
+
+    private static final Logger LOGGER = Logger.getLogger(Gazetteer.class.getName());
+
+    public enum Kind { CITY, AIRPORT_CODE, AIRLINE }
+
+    /**
+     * A name found in the text: [start, end) in the original string
+     */
+    public record Match(int start, int end, Kind kind, String canonical) {
+    }
+
+    /**
+     * Source / destination found in a message (either may be null)
+     */
+    public record Route(String source, String destination) {
+        public boolean isComplete() {
+            return source != null && destination != null;
+        }
+    }
+
+    // Known cities and their other spellings (as in app.py CITY_SYNONYMS)
+    private static final String[][] CITY_ALIASES = {
+            {"Delhi", "New Delhi", "NDLS"},
+            {"Mumbai", "Bombay"},
+            {"Bangalore", "Bengaluru"},
+            {"Kolkata", "Calcutta"},
+            {"Chennai", "Madras"},
+            {"Hyderabad"},
+            {"Pune", "Puneh"},
+            {"Goa"},
+            {"Jaipur"},
+    };
+
+    // IATA codes for the common cities (matched as whole words, like any other name)
+    private static final String[][] AIRPORT_CODES = {
+            {"Delhi", "del"}, {"Mumbai", "bom"}, {"Bangalore", "blr"}, {"Kolkata", "ccu"},
+            {"Chennai", "maa"}, {"Hyderabad", "hyd"}, {"Pune", "pnq"}, {"Goa", "goi"},
+            {"Jaipur", "jai"}, {"Ahmedabad", "amd"}, {"Kochi", "cok"}, {"Lucknow", "lko"},
+            {"Chandigarh", "ixc"}, {"Guwahati", "gau"}, {"Srinagar", "sxr"}, {"Bhubaneswar", "bbi"},
+            {"Varanasi", "vns"}, {"Amritsar", "atq"}, {"Thiruvananthapuram", "trv"}, {"Indore", "idr"},
+    };
+
+    private static final long AIRLINE_CHECK_MS = 60_000;
+
+    // Character classes: 0 = anything else, 1-26 = a-z, 27-36 = 0-9, 37 = space.
+    // Accented Latin letters fold to their base letter ("Zürich" matches "Zurich").
+    // Letters with no ASCII base (ß, ø, ł, other scripts) all share class 0, so
+    // names that differ only in those letters can match each other.
+    private static final int CLASSES = 38;
+    private static final int SPACE = 37;
+    private static final char LATIN_FROM = '\u00C0';
+    private static final byte[] LATIN_FOLD = latinFold();
+
+    private static volatile Gazetteer current;
+    private static volatile List<String> airlineNames = List.of();
+    private static volatile AirlineRepository.ChangeMarker airlineMarker;
+    private static volatile long airlineCheckedAt;
+    private static volatile boolean airlineCheckRunning;
+
+    // Automaton: delta[state * CLASSES + class]; per state the pattern ending there (or -1)
+    // and the next state down the failure chain that ends a pattern
+    private final int[] delta;
+    private final int[] output;
+    private final int[] outputLink;
+    private final int[] depth;
+    private final Kind[] kinds;
+    private final String[] canonicals;
+
+    // What this instance was built from: RouteIndex.scheduleVersion() (seat
+    // counts don't change it) and the airline list (compared by identity)
+    private final long scheduleVersion;
+    private final List<String> airlines;
+
+    private Gazetteer(int[] delta, int[] output, int[] outputLink, int[] depth, Kind[] kinds, String[] canonicals,
+                      long scheduleVersion, List<String> airlines) {
+        this.delta = delta;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.depth = depth;
+        this.kinds = kinds;
+        this.canonicals = canonicals;
+        this.scheduleVersion = scheduleVersion;
+        this.airlines = airlines;
+    }
+
+    /**
+     * The gazetteer for the current flight and airline data (aliases only
+     * until RouteIndex has loaded)
+     */
+    public static Gazetteer current() {
+        checkAirlinesInBackground();
+        Gazetteer g = current;
+        long version = RouteIndex.isLoaded() ? RouteIndex.scheduleVersion() : -1;
+        List<String> airlines = airlineNames;
+        if (g != null && g.scheduleVersion == version && g.airlines == airlines) {
+            return g;
+        }
+        synchronized (Gazetteer.class) {
+            g = current;
+            if (g != null && g.scheduleVersion == version && g.airlines == airlines) {
+                return g;
+            }
+            long start = System.nanoTime();
+            List<String> sources = null;
+            List<String> destinations = null;
+            if (version != -1) {
+                try {
+                    sources = RouteIndex.sources();
+                    destinations = RouteIndex.destinations();
+                } catch (SQLException e) {
+                    version = -1; // aliases only; retried on the next call
+                }
+            }
+            g = build(version, sources, destinations, airlines, flightAirlines(sources));
+            current = g;
+            LOGGER.fine("Gazetteer rebuilt: " + g.kinds.length + " names in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return g;
+        }
+    }
+
+    // Airline names on indexed flights (the airlines table may list more)
+    private static Collection<String> flightAirlines(List<String> sources) {
+        if (sources == null) {
+            return List.of();
+        }
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            for (AirlineService.Flight flight : RouteIndex.allFlights()) {
+                if (flight.airline != null) {
+                    names.add(flight.airline);
+                }
+            }
+        } catch (SQLException e) {
+            // names from the airlines table still apply
+        }
+        return names;
+    }
+
+    // Re-read airline names when the table has changed; never blocks the caller
+    private static void checkAirlinesInBackground() {
+        long now = System.currentTimeMillis();
+        if (airlineCheckRunning || now - airlineCheckedAt < AIRLINE_CHECK_MS) {
+            return;
+        }
+        synchronized (Gazetteer.class) {
+            if (airlineCheckRunning) {
+                return;
+            }
+            airlineCheckRunning = true;
+            airlineCheckedAt = now;
+        }
+        Thread.ofVirtual().name("gazetteer-airlines").start(() -> {
+            try {
+                AirlineRepository.ChangeMarker marker = AirlineRepository.readChangeMarker();
+                if (!marker.equals(airlineMarker)) {
+                    airlineNames = List.copyOf(AirlineRepository.findAirlineIds().keySet());
+                    airlineMarker = marker;
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Gazetteer: airline check failed - " + e.getMessage());
+            } finally {
+                airlineCheckRunning = false;
+            }
+        });
+    }
+
+    // --- Building ---
+
+    static Gazetteer build(long scheduleVersion, List<String> sources, List<String> destinations,
+                           List<String> airlines, Collection<String> flightAirlines) {
+        Map<String, String> dbCities = new LinkedHashMap<>(); // normalized -> database spelling
+        for (List<String> list : Arrays.asList(sources, destinations)) {
+            if (list != null) {
+                for (String city : list) {
+                    dbCities.putIfAbsent(normalize(city), city);
+                }
+            }
+        }
+
+        // Later puts win: codes < airlines < city names
+        Map<String, Object[]> names = new LinkedHashMap<>();
+        Map<String, String> cityByKey = new HashMap<>(dbCities);
+        Map<String, String> aliasCity = new LinkedHashMap<>();
+        for (String[] group : CITY_ALIASES) {
+            // Aliases resolve to the database spelling when the database uses one of them
+            String city = group[0];
+            for (String member : group) {
+                String spelling = dbCities.get(normalize(member));
+                if (spelling != null) {
+                    city = spelling;
+                    break;
+                }
+            }
+            for (String member : group) {
+                aliasCity.put(normalize(member), city);
+            }
+            cityByKey.putIfAbsent(normalize(group[0]), city);
+        }
+        for (String[] code : AIRPORT_CODES) {
+            String city = cityByKey.get(normalize(code[0]));
+            if (city != null) {
+                names.put(code[1], new Object[]{Kind.AIRPORT_CODE, city});
+            }
+        }
+        for (Collection<String> list : Arrays.asList(airlines, flightAirlines)) {
+            if (list != null) {
+                for (String airline : list) {
+                    names.put(normalize(airline), new Object[]{Kind.AIRLINE, airline});
+                }
+            }
+        }
+        aliasCity.forEach((key, city) -> names.put(key, new Object[]{Kind.CITY, city}));
+        dbCities.forEach((key, city) -> names.put(key, new Object[]{Kind.CITY, city}));
+        names.remove("");
+        return compile(names, scheduleVersion, airlines);
+    }
+
+    private static Gazetteer compile(Map<String, Object[]> names, long scheduleVersion, List<String> airlines) {
+        int maxStates = 1;
+        for (String key : names.keySet()) {
+            maxStates += key.length();
+        }
+        int[] delta = new int[maxStates * CLASSES];
+        Arrays.fill(delta, -1);
+        int[] output = new int[maxStates];
+        Arrays.fill(output, -1);
+        int[] depth = new int[maxStates];
+        Kind[] kinds = new Kind[names.size()];
+        String[] canonicals = new String[names.size()];
+
+        // Trie
+        int states = 1;
+        int id = 0;
+        for (Map.Entry<String, Object[]> entry : names.entrySet()) {
+            String key = entry.getKey();
+            int s = 0;
+            for (int i = 0; i < key.length(); i++) {
+                int c = classOf(key.charAt(i));
+                if (delta[s * CLASSES + c] < 0) {
+                    depth[states] = depth[s] + 1;
+                    delta[s * CLASSES + c] = states++;
+                }
+                s = delta[s * CLASSES + c];
+            }
+            output[s] = id;
+            kinds[id] = (Kind) entry.getValue()[0];
+            canonicals[id] = (String) entry.getValue()[1];
+            id++;
+        }
+
+        // Failure links (breadth first), folded into a full transition table
+        int[] fail = new int[states];
+        int[] outputLink = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < CLASSES; c++) {
+            int child = delta[c];
+            if (child < 0) {
+                delta[c] = 0;
+            } else {
+                fail[child] = 0;
+                queue[tail++] = child;
+            }
+        }
+        while (head < tail) {
+            int s = queue[head++];
+            int f = fail[s];
+            outputLink[s] = output[f] >= 0 ? f : outputLink[f];
+            for (int c = 0; c < CLASSES; c++) {
+                int child = delta[s * CLASSES + c];
+                if (child < 0) {
+                    delta[s * CLASSES + c] = delta[f * CLASSES + c];
+                } else {
+                    fail[child] = delta[f * CLASSES + c];
+                    queue[tail++] = child;
+                }
+            }
+        }
+        return new Gazetteer(Arrays.copyOf(delta, states * CLASSES), Arrays.copyOf(output, states), outputLink,
+                Arrays.copyOf(depth, states), kinds, canonicals, scheduleVersion, airlines);
+    }
+
+    // --- Matching ---
+
+    /**
+     * Every whole-word name in the text, left to right, longest first where
+     * names overlap
+     */
+    public List<Match> findAll(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        char[] buf = new char[text.length()];
+        int[] origin = new int[text.length() + 1];
+        int len = normalize(text, buf, origin);
+        List<Match> matches = new ArrayList<>();
+        scan(buf, len, (start, end, kind, canonical) ->
+                matches.add(new Match(origin[start], origin[end - 1] + 1, kind, canonical)));
+        return matches;
+    }
+
+    /**
+     * Receives matches in normalized coordinates
+     */
+    @FunctionalInterface
+    interface Sink {
+        void accept(int start, int end, Kind kind, String canonical);
+    }
+
+    /**
+     * Scan text already normalized the same way as the names (lower case,
+     * separators collapsed to one space); matches are reported left to right,
+     * non-overlapping, the longest at each start
+     */
+    void scan(char[] buf, int len, Sink sink) {
+        // Candidates ending at word boundaries, in end order
+        int[] starts = new int[8];
+        int[] ends = new int[8];
+        int[] ids = new int[8];
+        int count = 0;
+        int s = 0;
+        for (int i = 0; i < len; i++) {
+            s = delta[s * CLASSES + classOf(buf[i])];
+            if (i + 1 < len && buf[i + 1] != ' ') {
+                continue;
+            }
+            for (int t = output[s] >= 0 ? s : outputLink[s]; t > 0; t = outputLink[t]) {
+                int start = i + 1 - depth[t];
+                if (start > 0 && buf[start - 1] != ' ') {
+                    continue;
+                }
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                starts[count] = start;
+                ends[count] = i + 1;
+                ids[count] = output[t];
+                count++;
+            }
+        }
+
+        // Leftmost first, longest first at the same start (insertion sort: there are only a few)
+        for (int i = 1; i < count; i++) {
+            int st = starts[i];
+            int en = ends[i];
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= 0 && (starts[j] > st || (starts[j] == st && ends[j] < en))) {
+                starts[j + 1] = starts[j];
+                ends[j + 1] = ends[j];
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            starts[j + 1] = st;
+            ends[j + 1] = en;
+            ids[j + 1] = id;
+        }
+        int taken = 0;
+        for (int i = 0; i < count; i++) {
+            if (starts[i] >= taken) {
+                sink.accept(starts[i], ends[i], kinds[ids[i]], canonicals[ids[i]]);
+                taken = ends[i];
+            }
+        }
+    }
+
+    /**
+     * Source and destination: a city after "from" is the source, after "to"
+     * the destination; otherwise the first city is the source
+     */
+    public Route route(String text) {
+        if (text == null) {
+            return new Route(null, null);
+        }
+        char[] buf = new char[text.length()];
+        int len = normalize(text, buf, null);
+        String[] found = new String[2];
+        scan(buf, len, (start, end, kind, canonical) -> {
+            if (kind == Kind.AIRLINE) {
+                return;
+            }
+            String previous = previousWord(buf, start);
+            int slot = "to".equals(previous) ? 1
+                    : "from".equals(previous) ? 0
+                    : found[0] == null ? 0 : 1;
+            if (found[slot] == null) {
+                found[slot] = canonical;
+            }
+        });
+        return new Route(found[0], found[1]);
+    }
+
+    private static String previousWord(char[] buf, int start) {
+        int end = start - 1; // the space before the match
+        if (end <= 0) {
+            return null;
+        }
+        int begin = end;
+        while (begin > 0 && buf[begin - 1] != ' ') {
+            begin--;
+        }
+        return new String(buf, begin, end - begin);
+    }
+
+    // --- Normalization ---
+
+    static String normalize(String text) {
+        char[] buf = new char[text.length()];
+        return new String(buf, 0, normalize(text, buf, null));
+    }
+
+    /**
+     * Lower-case letters and digits; every run of anything else becomes one
+     * space (none leading or trailing). origin[i] is the source index of buf[i].
+     */
+    static int normalize(String text, char[] buf, int[] origin) {
+        int len = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (origin != null) {
+                    origin[len] = i;
+                }
+                buf[len++] = Character.toLowerCase(c);
+            } else if (len > 0 && buf[len - 1] != ' ') {
+                if (origin != null) {
+                    origin[len] = i;
+                }
+                buf[len++] = ' ';
+            }
+        }
+        return len > 0 && buf[len - 1] == ' ' ? len - 1 : len;
+    }
+
+    private static int classOf(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        if (c == ' ') {
+            return SPACE;
+        }
+        return c >= LATIN_FROM && c < LATIN_FROM + LATIN_FOLD.length ? LATIN_FOLD[c - LATIN_FROM] : 0;
+    }
+
+    // Class of the base letter of U+00C0..U+024F (Latin-1 Supplement, Extended-A/B), 0 if none
+    private static byte[] latinFold() {
+        byte[] fold = new byte[0x250 - LATIN_FROM];
+        for (int i = 0; i < fold.length; i++) {
+            String decomposed = Normalizer.normalize(String.valueOf((char) (LATIN_FROM + i)), Normalizer.Form.NFD);
+            char base = Character.toLowerCase(decomposed.charAt(0));
+            fold[i] = (byte) (base >= 'a' && base <= 'z' ? base - 'a' + 1 : 0);
+        }
+        return fold;
+    }
+
+    public int size() {
+        return kinds.length;
+    }
+}
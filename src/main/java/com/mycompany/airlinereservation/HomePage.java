@@ -213,6 +213,9 @@ public class HomePage extends JFrame {
     }
 
     public static void main(String[] args) {
+        // Opt-in EDT stall monitoring (-Dairline.edtWatchdog=true)
+        EdtWatchdog.installIfEnabled();
+
         // Apply built-in dark theme using UIManager defaults (no external dependency required)
         try {
             // Set system L&F first for consistent base
@@ -268,9 +271,15 @@ public class HomePage extends JFrame {
         // created after startup (dialogs, dynamically created forms, etc.).
         ThemeManager.installGlobalHighContrastEnforcer();
 
-        // Seed initial data (admin account) before showing GUI
+        // Bring the schema up to date, then seed initial data (admin account) before showing GUI
+        SchemaMigrator.migrate();
         DataSeeder.seedAdmin();
 
+        // Load the flight route index in the background so the first search is already in memory
+        Thread routeIndexLoader = new Thread(RouteIndex::start, "route-index-load");
+        routeIndexLoader.setDaemon(true);
+        routeIndexLoader.start();
+
         // Show a simple custom launcher dialog (Admin or Customer). Using a custom JDialog
         // so the dark theme colors render correctly for buttons and labels.
         SwingUtilities.invokeLater(() -> {
@@ -0,0 +1,182 @@
+package com.mycompany.airlinereservation;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ItineraryBenchmark.java - Query latency of ItineraryEngine on a large schedule
+ *
+ * Generates a synthetic schedule in memory (no database): cities with a few
+ * busy hubs, several airlines, flights of 1-6 hours spread over a number of
+ * days. Then:
+ * - checks the engine's best itinerary against a brute-force search on a
+ *   small schedule
+ * - times random (source, destination, day) queries with up to 2 stops on the
+ *   large schedule and reports latency percentiles against the 50 ms target
+ *
+ * Usage: ItineraryBenchmark [flights=300000] [cities=150] [days=14] [queries=5000]
+ */
+public class ItineraryBenchmark {
+
+    private static final DateTimeFormatter DB_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final double TARGET_MS = 50.0;
+
+    public static void main(String[] args) {
+        int flightCount = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        int cities = args.length > 1 ? Integer.parseInt(args[1]) : 150;
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 14;
+        int queries = args.length > 3 ? Integer.parseInt(args[3]) : 5_000;
+
+        System.out.println("==============================================");
+        System.out.println("Itinerary Engine Benchmark");
+        System.out.println("flights=" + flightCount + " cities=" + cities + " days=" + days + " queries=" + queries);
+        System.out.println("==============================================\n");
+
+        boolean verified = verify(42L);
+
+        List<AirlineService.Flight> schedule = generate(flightCount, cities, days, 7L);
+        long t0 = System.nanoTime();
+        ItineraryEngine engine = ItineraryEngine.build(schedule, ItineraryEngine.DEFAULT_MCT_SAME_AIRLINE,
+                ItineraryEngine.DEFAULT_MCT_INTERLINE, ItineraryEngine.DEFAULT_MAX_LAYOVER);
+        System.out.printf("▶ Graph build: %d flights in %.1f ms%n", engine.flightCount(), (System.nanoTime() - t0) / 1e6);
+
+        Random random = new Random(99L);
+        // Warm up the JIT on the same kind of queries
+        for (int i = 0; i < Math.min(queries, 2_000); i++) {
+            query(engine, random, cities, days);
+        }
+
+        long[] latencyMicros = new long[queries];
+        int[] found = new int[3];
+        int empty = 0;
+        for (int i = 0; i < queries; i++) {
+            long q0 = System.nanoTime();
+            List<ItineraryEngine.Itinerary> result = query(engine, random, cities, days);
+            latencyMicros[i] = (System.nanoTime() - q0) / 1_000;
+            if (result.isEmpty()) {
+                empty++;
+            } else {
+                found[result.get(0).stops()]++;
+            }
+        }
+        Arrays.sort(latencyMicros);
+
+        double p99 = percentile(latencyMicros, 99);
+        System.out.printf("▶ Queries (up to 2 stops, top %d)%n", ItineraryEngine.DEFAULT_LIMIT);
+        System.out.printf("  best is direct=%d 1-stop=%d 2-stop=%d none=%d%n", found[0], found[1], found[2], empty);
+        System.out.printf("  latency ms: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n",
+                percentile(latencyMicros, 50), percentile(latencyMicros, 95), p99,
+                latencyMicros[latencyMicros.length - 1] / 1000.0);
+        System.out.println(p99 < TARGET_MS
+                ? "  ✅ p99 under " + (int) TARGET_MS + " ms"
+                : "  ❌ p99 over " + (int) TARGET_MS + " ms");
+        System.out.println(verified ? "✅ Results match brute force" : "❌ Results differ from brute force");
+    }
+
+    private static List<ItineraryEngine.Itinerary> query(ItineraryEngine engine, Random random, int cities, int days) {
+        int s = random.nextInt(cities);
+        int t = random.nextInt(cities - 1);
+        if (t >= s) t++;
+        String day = START.plusDays(random.nextInt(days)).toLocalDate().toString();
+        return engine.find(city(s), city(t), day, 2, ItineraryEngine.DEFAULT_LIMIT);
+    }
+
+    // Compare the engine's best duration with an exhaustive search on a small schedule
+    private static boolean verify(long seed) {
+        int cities = 25;
+        List<AirlineService.Flight> schedule = generate(3_000, cities, 3, seed);
+        ItineraryEngine engine = ItineraryEngine.build(schedule, ItineraryEngine.DEFAULT_MCT_SAME_AIRLINE,
+                ItineraryEngine.DEFAULT_MCT_INTERLINE, ItineraryEngine.DEFAULT_MAX_LAYOVER);
+        Random random = new Random(seed);
+        int mismatches = 0;
+        for (int i = 0; i < 200; i++) {
+            int s = random.nextInt(cities);
+            int t = random.nextInt(cities - 1);
+            if (t >= s) t++;
+            String day = START.plusDays(random.nextInt(3)).toLocalDate().toString();
+            List<ItineraryEngine.Itinerary> result = engine.find(city(s), city(t), day, 2, 1);
+            int expected = bruteForceBest(schedule, city(s), city(t), day);
+            int actual = result.isEmpty() ? Integer.MAX_VALUE : result.get(0).totalMinutes();
+            if (expected != actual) {
+                mismatches++;
+                System.err.println("❌ " + city(s) + " → " + city(t) + " on " + day
+                        + ": expected " + expected + " min, got " + actual);
+            }
+        }
+        return mismatches == 0;
+    }
+
+    private static int bruteForceBest(List<AirlineService.Flight> schedule, String s, String t, String day) {
+        int best = Integer.MAX_VALUE;
+        for (AirlineService.Flight a : schedule) {
+            if (!a.source.equals(s) || !a.departureTime.startsWith(day)) continue;
+            int d0 = ItineraryEngine.toMinutes(a.departureTime);
+            if (a.destination.equals(t)) {
+                best = Math.min(best, ItineraryEngine.toMinutes(a.arrivalTime) - d0);
+                continue;
+            }
+            for (AirlineService.Flight b : schedule) {
+                if (!connects(a, b) || b.destination.equals(s)) continue;
+                if (b.destination.equals(t)) {
+                    best = Math.min(best, ItineraryEngine.toMinutes(b.arrivalTime) - d0);
+                    continue;
+                }
+                for (AirlineService.Flight c : schedule) {
+                    if (connects(b, c) && c.destination.equals(t) && !b.destination.equals(a.destination)) {
+                        best = Math.min(best, ItineraryEngine.toMinutes(c.arrivalTime) - d0);
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean connects(AirlineService.Flight in, AirlineService.Flight out) {
+        if (!in.destination.equals(out.source)) return false;
+        int layover = ItineraryEngine.toMinutes(out.departureTime) - ItineraryEngine.toMinutes(in.arrivalTime);
+        int mct = in.airline.equals(out.airline)
+                ? ItineraryEngine.DEFAULT_MCT_SAME_AIRLINE : ItineraryEngine.DEFAULT_MCT_INTERLINE;
+        return layover >= mct && layover <= ItineraryEngine.DEFAULT_MAX_LAYOVER;
+    }
+
+    // Hubs (the first tenth of the cities) get most of the traffic
+    private static List<AirlineService.Flight> generate(int count, int cities, int days, long seed) {
+        Random random = new Random(seed);
+        int hubs = Math.max(1, cities / 10);
+        String[] airlines = {"Air India", "IndiGo", "SpiceJet", "Vistara", "Akasa Air", "Go First"};
+        List<AirlineService.Flight> flights = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int from = pickCity(random, cities, hubs);
+            int to = pickCity(random, cities, hubs);
+            while (to == from) {
+                to = pickCity(random, cities, hubs);
+            }
+            LocalDateTime departure = START.plusDays(random.nextInt(days))
+                    .plusMinutes(5L * random.nextInt(24 * 12));
+            int duration = 60 + 5 * random.nextInt(60);
+            flights.add(new AirlineService.Flight("BX" + i, "Bench " + i, airlines[random.nextInt(airlines.length)],
+                    city(from), city(to), departure.format(DB_TIME),
+                    departure.plusMinutes(duration).format(DB_TIME),
+                    2_000 + duration * 20 + random.nextInt(3_000), 180));
+        }
+        return flights;
+    }
+
+    private static int pickCity(Random random, int cities, int hubs) {
+        return random.nextInt(2) == 0 ? random.nextInt(hubs) : random.nextInt(cities);
+    }
+
+    private static String city(int id) {
+        return "City" + id;
+    }
+
+    private static double percentile(long[] sortedMicros, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sortedMicros.length) - 1;
+        return sortedMicros[Math.max(0, index)] / 1000.0;
+    }
+}
@@ -0,0 +1,491 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ItineraryEngine.java - Direct, 1-stop and 2-stop itinerary search
+ *
+ * Features:
+ * - Precomputed departure graph: every flight as parallel int arrays
+ *   (departure/arrival minutes, destination city, airline, price), grouped
+ *   by origin city and sorted by departure, plus each origin's flights
+ *   grouped by destination for direct route lookups
+ * - Time-dependent search: each connection only considers flights departing
+ *   inside its connection window (binary search), never the whole table
+ * - Minimum connection time rules: same-airline vs interline minimums and a
+ *   maximum layover (-Dairline.itinerary.mctSameAirline / mctInterline /
+ *   maxLayover, minutes)
+ * - Ranked by total duration, then total price; a bounded best-k heap prunes
+ *   partial itineraries that can no longer make the list
+ * - Sold-out legs are never offered
+ *
+ * The shared instance is rebuilt from RouteIndex when its schedule version
+ * changes (not on seat-only changes), on a background thread: searches keep
+ * using the previous engine until the new one is ready. Its legs are looked
+ * up in the latest RouteIndex snapshot as they're offered, so seat counts
+ * are as fresh as the index. Times are compared as local wall-clock times
+ * (the flight table has no time zones).
+ */
+public final class ItineraryEngine {
+
+    public static final int DEFAULT_MCT_SAME_AIRLINE = Integer.getInteger("airline.itinerary.mctSameAirline", 45);
+    public static final int DEFAULT_MCT_INTERLINE = Integer.getInteger("airline.itinerary.mctInterline", 90);
+    public static final int DEFAULT_MAX_LAYOVER = Integer.getInteger("airline.itinerary.maxLayover", 720);
+    public static final int DEFAULT_LIMIT = 10;
+
+    /**
+     * One bookable journey: its legs in order with totals
+     */
+    public record Itinerary(List<AirlineService.Flight> legs, int totalMinutes, long totalPrice) {
+        public int stops() {
+            return legs.size() - 1;
+        }
+
+        public String departureTime() {
+            return legs.get(0).departureTime;
+        }
+
+        public String arrivalTime() {
+            return legs.get(legs.size() - 1).arrivalTime;
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ItineraryEngine.class.getName());
+
+    // Shared engine and the RouteIndex schedule version it was built from
+    private record Shared(ItineraryEngine engine, long scheduleVersion) {
+    }
+
+    private static volatile Shared shared;
+    private static final AtomicBoolean REBUILDING = new AtomicBoolean();
+
+    private static final class Builder {
+        private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "itinerary-engine-build");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // City ids
+    private final Map<String, Integer> cityIds;
+    private final String[] cityNames;
+
+    // Flights sorted by (origin, departure); outgoing flights of city c are [outStart[c], outStart[c + 1])
+    private final int[] outStart;
+    private final int[] dep;
+    private final int[] arr;
+    private final int[] dest;
+    private final int[] airline;
+    private final int[] price;
+    private final AirlineService.Flight[] flights;
+
+    // Same flights sorted by (origin, destination, departure); (from, to) -> [start, end) in route order
+    private final Map<Long, int[]> routeRanges;
+    private final int[] routeDep;
+    private final int[] routeArr;
+    private final int[] routeAirline;
+    private final int[] routePrice;
+    private final AirlineService.Flight[] routeFlights;
+
+    // inbound[c] = distinct origins with a direct flight to c
+    private final int[][] inbound;
+
+    private final int mctSameAirline;
+    private final int mctInterline;
+    private final int maxLayover;
+
+    // A leg as it stands now (null if it no longer exists); identity for a standalone engine
+    private final UnaryOperator<AirlineService.Flight> currentLeg;
+
+    private ItineraryEngine(Collection<AirlineService.Flight> all, int mctSameAirline, int mctInterline, int maxLayover,
+                            UnaryOperator<AirlineService.Flight> currentLeg) {
+        this.currentLeg = currentLeg;
+        this.mctSameAirline = mctSameAirline;
+        this.mctInterline = mctInterline;
+        this.maxLayover = maxLayover;
+
+        Map<String, Integer> cities = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> airlines = new HashMap<>();
+
+        // Parse once into scratch arrays; drop flights without usable times
+        int n = all.size();
+        int[] fromS = new int[n], toS = new int[n], depS = new int[n], arrS = new int[n], airS = new int[n], priceS = new int[n];
+        AirlineService.Flight[] refS = new AirlineService.Flight[n];
+        int count = 0;
+        for (AirlineService.Flight f : all) {
+            int d = toMinutes(f.departureTime);
+            int a = toMinutes(f.arrivalTime);
+            if (d == Integer.MIN_VALUE || a == Integer.MIN_VALUE || a < d || f.source == null || f.destination == null) {
+                continue;
+            }
+            int from = cityId(cities, names, f.source);
+            int to = cityId(cities, names, f.destination);
+            if (from == to) {
+                continue;
+            }
+            fromS[count] = from;
+            toS[count] = to;
+            depS[count] = d;
+            arrS[count] = a;
+            airS[count] = airlines.computeIfAbsent(f.airline == null ? "" : f.airline, k -> airlines.size());
+            priceS[count] = f.price;
+            refS[count] = f;
+            count++;
+        }
+        this.cityIds = cities;
+        this.cityNames = names.toArray(new String[0]);
+        int cityCount = cityNames.length;
+
+        // Primitive sorts only: departure order, then stable counting sorts on
+        // destination/origin give (origin, departure) and (origin, destination, departure)
+        int minDep = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) minDep = Math.min(minDep, depS[i]);
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) keys[i] = ((long) (depS[i] - minDep) << 32) | i;
+        Arrays.sort(keys);
+        int[] byDeparture = new int[count];
+        for (int k = 0; k < count; k++) byDeparture[k] = (int) keys[k];
+
+        // Departure graph: by (origin, departure)
+        int[] order = stableSortBy(byDeparture, fromS, cityCount);
+        outStart = new int[cityCount + 1];
+        dep = new int[count];
+        arr = new int[count];
+        dest = new int[count];
+        airline = new int[count];
+        price = new int[count];
+        flights = new AirlineService.Flight[count];
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            dep[k] = depS[i];
+            arr[k] = arrS[i];
+            dest[k] = toS[i];
+            airline[k] = airS[i];
+            price[k] = priceS[i];
+            flights[k] = refS[i];
+            outStart[fromS[i] + 1]++;
+        }
+        for (int c = 0; c < cityCount; c++) outStart[c + 1] += outStart[c];
+
+        // Route table: by (origin, destination, departure)
+        order = stableSortBy(stableSortBy(byDeparture, toS, cityCount), fromS, cityCount);
+        routeRanges = new HashMap<>();
+        routeDep = new int[count];
+        routeArr = new int[count];
+        routeAirline = new int[count];
+        routePrice = new int[count];
+        routeFlights = new AirlineService.Flight[count];
+        List<List<Integer>> inboundLists = new ArrayList<>();
+        for (int c = 0; c < cityCount; c++) inboundLists.add(new ArrayList<>());
+        int k = 0;
+        while (k < count) {
+            int from = fromS[order[k]];
+            int to = toS[order[k]];
+            int start = k;
+            while (k < count && fromS[order[k]] == from && toS[order[k]] == to) {
+                int i = order[k];
+                routeDep[k] = depS[i];
+                routeArr[k] = arrS[i];
+                routeAirline[k] = airS[i];
+                routePrice[k] = priceS[i];
+                routeFlights[k] = refS[i];
+                k++;
+            }
+            routeRanges.put(pairKey(from, to), new int[]{start, k});
+            inboundLists.get(to).add(from);
+        }
+        inbound = new int[cityCount][];
+        for (int c = 0; c < cityCount; c++) {
+            inbound[c] = inboundLists.get(c).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    // Stable counting sort of flight indices by a small int key
+    private static int[] stableSortBy(int[] indices, int[] key, int keyCount) {
+        int[] start = new int[keyCount + 1];
+        for (int i : indices) start[key[i] + 1]++;
+        for (int k = 0; k < keyCount; k++) start[k + 1] += start[k];
+        int[] sorted = new int[indices.length];
+        for (int i : indices) sorted[start[key[i]]++] = i;
+        return sorted;
+    }
+
+    /**
+     * Build an engine over the given flights (flights without parseable times are skipped)
+     */
+    public static ItineraryEngine build(Collection<AirlineService.Flight> flights,
+                                        int mctSameAirline, int mctInterline, int maxLayover) {
+        return new ItineraryEngine(flights, mctSameAirline, mctInterline, maxLayover, UnaryOperator.identity());
+    }
+
+    /**
+     * Search the live flight table (via RouteIndex) with the default rules
+     *
+     * @param date "yyyy-MM-dd" day of the first departure, or null/empty for any day
+     */
+    public static List<Itinerary> search(String source, String destination, String date) throws SQLException {
+        long version = RouteIndex.scheduleVersion();
+        Shared current = shared;
+        if (version < 0) {
+            // Index unavailable: one-off engine over the table as it is now
+            return buildShared(RouteIndex.allFlights(), version).engine().find(source, destination, date, 2, DEFAULT_LIMIT);
+        }
+        if (current == null) {
+            // First search waits for the build; later ones never do
+            synchronized (ItineraryEngine.class) {
+                if (shared == null) {
+                    shared = buildShared(RouteIndex.allFlights(), version);
+                }
+                current = shared;
+            }
+        } else if (current.scheduleVersion() != version) {
+            rebuildInBackground();
+        }
+        return current.engine().find(source, destination, date, 2, DEFAULT_LIMIT);
+    }
+
+    // One rebuild at a time; a change that lands during it is picked up by the next search
+    private static void rebuildInBackground() {
+        if (!REBUILDING.compareAndSet(false, true)) {
+            return;
+        }
+        Builder.EXECUTOR.execute(() -> {
+            try {
+                // Version before flights: a newer list under an older version only costs an extra rebuild
+                long version = RouteIndex.scheduleVersion();
+                shared = buildShared(RouteIndex.allFlights(), version);
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "⚠️ ItineraryEngine: rebuild failed - " + e.getMessage());
+            } finally {
+                REBUILDING.set(false);
+            }
+        });
+    }
+
+    private static Shared buildShared(List<AirlineService.Flight> flights, long version) {
+        ItineraryEngine engine = new ItineraryEngine(flights, DEFAULT_MCT_SAME_AIRLINE, DEFAULT_MCT_INTERLINE,
+                DEFAULT_MAX_LAYOVER, leg -> RouteIndex.isLoaded() ? RouteIndex.indexedFlight(leg.flightCode) : leg);
+        return new Shared(engine, version);
+    }
+
+    public int flightCount() {
+        return flights.length;
+    }
+
+    /**
+     * @param maxStops 0 (direct only), 1 or 2
+     * @param limit    maximum itineraries returned, best first
+     */
+    public List<Itinerary> find(String source, String destination, String date, int maxStops, int limit) {
+        Integer s = cityIds.get(normalize(source));
+        Integer t = cityIds.get(normalize(destination));
+        if (s == null || t == null || s.equals(t) || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        int windowStart = Integer.MIN_VALUE;
+        int windowEnd = Integer.MAX_VALUE;
+        if (date != null && !date.isEmpty()) {
+            windowStart = toMinutes(date.substring(0, Math.min(10, date.length())) + " 00:00:00");
+            if (windowStart == Integer.MIN_VALUE) {
+                return new ArrayList<>();
+            }
+            windowEnd = windowStart + 24 * 60;
+        }
+
+        Search search = new Search(t, limit);
+        int first = lowerBound(dep, outStart[s], outStart[s + 1], windowStart);
+        int last = lowerBound(dep, first, outStart[s + 1], windowEnd);
+
+        // Pass 1: direct and 1-stop (cheap, fills the heap so pass 2 can prune)
+        for (int f1 = first; f1 < last; f1++) {
+            int c1 = dest[f1];
+            if (c1 == t) {
+                search.offer(arr[f1] - dep[f1], price[f1], flights[f1]);
+            } else if (maxStops >= 1) {
+                search.connectToDestination(c1, dep[f1], arr[f1], airline[f1], price[f1], flights[f1], null);
+            }
+        }
+
+        // Pass 2: 2-stop via c1 -> c2 -> t, only through c2 cities that fly to t
+        if (maxStops >= 2) {
+            boolean[] feedsDestination = new boolean[cityNames.length];
+            for (int c : inbound[t]) feedsDestination[c] = true;
+
+            int minMct = Math.min(mctSameAirline, mctInterline);
+            for (int f1 = first; f1 < last; f1++) {
+                int c1 = dest[f1];
+                if (c1 == t || c1 == s) continue;
+                int d1 = dep[f1];
+                if (search.cannotImprove(arr[f1] - d1 + 2 * minMct)) continue;
+
+                int from = lowerBound(dep, outStart[c1], outStart[c1 + 1], arr[f1] + minMct);
+                int to = outStart[c1 + 1];
+                for (int f2 = from; f2 < to; f2++) {
+                    if (dep[f2] > arr[f1] + maxLayover || search.cannotImprove(dep[f2] - d1)) break;
+                    int c2 = dest[f2];
+                    if (c2 == s || c2 == t || !feedsDestination[c2]) continue;
+                    if (dep[f2] - arr[f1] < mct(airline[f1], airline[f2])) continue;
+                    if (search.cannotImprove(arr[f2] - d1 + minMct)) continue;
+                    search.connectToDestination(c2, d1, arr[f2], airline[f2], price[f1] + price[f2], flights[f2], flights[f1]);
+                }
+            }
+        }
+        return search.results();
+    }
+
+    // Per-query state: best-k heap (worst on top) plus the last-leg scan
+    private final class Search {
+        private final int t;
+        private final int limit;
+        private final PriorityQueue<Itinerary> best;
+
+        Search(int t, int limit) {
+            this.t = t;
+            this.limit = limit;
+            this.best = new PriorityQueue<>(RANKING.reversed());
+        }
+
+        boolean cannotImprove(int minutes) {
+            return best.size() >= limit && minutes > best.peek().totalMinutes();
+        }
+
+        void offer(int minutes, long totalPrice, AirlineService.Flight... legs) {
+            if (best.size() >= limit) {
+                Itinerary worst = best.peek();
+                if (minutes > worst.totalMinutes()
+                        || (minutes == worst.totalMinutes() && totalPrice >= worst.totalPrice())) {
+                    return;
+                }
+            }
+            // Only now (few candidates get this far) check each leg still exists and has a seat
+            AirlineService.Flight[] current = new AirlineService.Flight[legs.length];
+            for (int i = 0; i < legs.length; i++) {
+                current[i] = currentLeg.apply(legs[i]);
+                if (current[i] == null || current[i].seatsAvailable <= 0) {
+                    return;
+                }
+            }
+            if (best.size() >= limit) {
+                best.poll();
+            }
+            best.add(new Itinerary(List.of(current), minutes, totalPrice));
+        }
+
+        /**
+         * Finish an itinerary whose current leg lands in city c at arrival time a:
+         * scan the (c, t) route inside the connection window.
+         */
+        void connectToDestination(int c, int firstDeparture, int a, int legAirline,
+                                  long priceSoFar, AirlineService.Flight leg, AirlineService.Flight previous) {
+            int[] range = routeRanges.get(pairKey(c, t));
+            if (range == null) return;
+            int minMct = Math.min(mctSameAirline, mctInterline);
+            for (int r = lowerBound(routeDep, range[0], range[1], a + minMct); r < range[1]; r++) {
+                if (routeDep[r] > a + maxLayover || cannotImprove(routeDep[r] - firstDeparture)) break;
+                if (routeDep[r] - a < mct(legAirline, routeAirline[r])) continue;
+                int minutes = routeArr[r] - firstDeparture;
+                long total = priceSoFar + routePrice[r];
+                if (previous == null) {
+                    offer(minutes, total, leg, routeFlights[r]);
+                } else {
+                    offer(minutes, total, previous, leg, routeFlights[r]);
+                }
+            }
+        }
+
+        List<Itinerary> results() {
+            List<Itinerary> out = new ArrayList<>(best);
+            out.sort(RANKING);
+            return out;
+        }
+    }
+
+    private static final Comparator<Itinerary> RANKING =
+            Comparator.comparingInt(Itinerary::totalMinutes).thenComparingLong(Itinerary::totalPrice);
+
+    private int mct(int arrivingAirline, int departingAirline) {
+        return arrivingAirline == departingAirline ? mctSameAirline : mctInterline;
+    }
+
+    // First index in [from, to) whose value is >= key
+    private static int lowerBound(int[] values, int from, int to, int key) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long pairKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private static int cityId(Map<String, Integer> cities, List<String> names, String city) {
+        return cities.computeIfAbsent(normalize(city), k -> {
+            names.add(city.trim());
+            return names.size() - 1;
+        });
+    }
+
+    private static String normalize(String city) {
+        return city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Minutes since 1970-01-01 00:00 of a "yyyy-MM-dd HH:mm[:ss]" string, or MIN_VALUE if missing/unparseable
+    static int toMinutes(String dbTime) {
+        if (dbTime == null || dbTime.length() < 16 || dbTime.charAt(4) != '-' || dbTime.charAt(7) != '-'
+                || dbTime.charAt(13) != ':') {
+            return Integer.MIN_VALUE;
+        }
+        // Fixed positions, no formatter: the graph build parses every departure and arrival
+        int year = digits(dbTime, 0, 4);
+        int month = digits(dbTime, 5, 2);
+        int day = digits(dbTime, 8, 2);
+        int hour = digits(dbTime, 11, 2);
+        int minute = digits(dbTime, 14, 2);
+        if (year < 0 || month < 1 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return Integer.MIN_VALUE;
+        }
+        try {
+            return (int) (LocalDate.of(year, month, day).toEpochDay() * 24 * 60 + hour * 60 + minute);
+        } catch (DateTimeException e) {
+            return Integer.MIN_VALUE;
+        }
+    }
+
+    private static int digits(String s, int from, int length) {
+        int value = 0;
+        for (int i = from; i < from + length; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -2,7 +2,7 @@ package com.mycompany.airlinereservation;
 
 import javax.swing.*;
 import java.awt.*;
-import java.sql.*;
+import java.sql.SQLException;
 
 /**
  * JourneyDetails.java
@@ -18,14 +18,10 @@ import java.sql.*;
  */
 public class JourneyDetails extends JFrame {
 
-    // ✅ DB CONNECTION DETAILS
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/airline_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "Spoorthi@2005";
-
     private JTextField pnrField;
     private JTextArea journeyArea;
     private String currentUsername;
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     public JourneyDetails() {
         // 🔑 Get the currently logged-in user from session
@@ -89,51 +85,33 @@ public class JourneyDetails extends JFrame {
             return;
         }
 
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        try {
-            conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD); 
-            
-            // 🔑 ENHANCED: Added username filter to ensure user owns this journey
-            // This prevents users from seeing other users' journey details
-            String query = "SELECT t.pnr, t.name, t.aadhar_no, t.nationality, " +
-                          "t.address, t.gender, t.class, t.status, t.journey_date, t.booking_date, " +
-                          "f.flight_name, f.flight_code, f.source, f.destination " +
-                          "FROM ticket t " +
-                          "JOIN flight f ON t.flight_code = f.flight_code " +
-                          "WHERE t.pnr = ? AND t.username = ?";  // 🔑 Double-check: PNR AND username
-
-            pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, pnr);
-            pstmt.setString(2, currentUsername);  // 🔑 Only allow access if username matches
-            rs = pstmt.executeQuery();
-
-            if (rs.next()) {
+        // 🔑 ENHANCED: Filtered by username to ensure user owns this journey
+        // This prevents users from seeing other users' journey details
+        db.query(() -> TicketRepository.findJourneyForOwner(pnr, currentUsername), row -> {
+            if (row != null) {
                 StringBuilder details = new StringBuilder();
                 details.append("✈️  JOURNEY DETAILS\n\n");
                 details.append("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n");
-                details.append("Ticket ID (PNR):   ").append(rs.getString("pnr")).append("\n");
-                details.append("Status:            ").append(rs.getString("status")).append("\n");
-                details.append("Booking Date:      ").append(rs.getTimestamp("booking_date")).append("\n\n");
+                details.append("Ticket ID (PNR):   ").append(row.get("pnr")).append("\n");
+                details.append("Status:            ").append(row.get("status")).append("\n");
+                details.append("Booking Date:      ").append(row.get("booking_date")).append("\n\n");
                 
                 details.append("👤 PASSENGER INFORMATION\n");
                 details.append("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n");
-                details.append("Name:              ").append(rs.getString("name")).append("\n");
-                details.append("Aadhar Number:     ").append(rs.getString("aadhar_no")).append("\n");
-                details.append("Nationality:       ").append(rs.getString("nationality")).append("\n");
-                details.append("Gender:            ").append(rs.getString("gender")).append("\n");
-                details.append("Class:             ").append(rs.getString("class")).append("\n");
-                details.append("Address:           ").append(rs.getString("address")).append("\n\n");
+                details.append("Name:              ").append(row.get("name")).append("\n");
+                details.append("Aadhar Number:     ").append(row.get("aadhar_no")).append("\n");
+                details.append("Nationality:       ").append(row.get("nationality")).append("\n");
+                details.append("Gender:            ").append(row.get("gender")).append("\n");
+                details.append("Class:             ").append(row.get("class")).append("\n");
+                details.append("Address:           ").append(row.get("address")).append("\n\n");
                 
                 details.append("✈️  FLIGHT INFORMATION\n");
                 details.append("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n");
-                details.append("Flight Name:       ").append(rs.getString("flight_name")).append("\n");
-                details.append("Flight Code:       ").append(rs.getString("flight_code")).append("\n");
-                details.append("Source:            ").append(rs.getString("source")).append("\n");
-                details.append("Destination:       ").append(rs.getString("destination")).append("\n");
-                details.append("Journey Date:      ").append(rs.getDate("journey_date")).append("\n");
+                details.append("Flight Name:       ").append(row.get("flight_name")).append("\n");
+                details.append("Flight Code:       ").append(row.get("flight_code")).append("\n");
+                details.append("Source:            ").append(row.get("source")).append("\n");
+                details.append("Destination:       ").append(row.get("destination")).append("\n");
+                details.append("Journey Date:      ").append(row.get("journey_date")).append("\n");
 
                 journeyArea.setText(details.toString());
             } else {
@@ -141,19 +119,15 @@ public class JourneyDetails extends JFrame {
                                      "\nOr this ticket does not belong to your account.");
                 journeyArea.setText("");
             }
-
-        } catch (SQLException e) {
-            System.err.println("❌ Database Error: " + e.getMessage());
-            ThemeManager.showError(this, "Database Error: " + e.getMessage());
-        } catch (Exception e) {
-            System.err.println("❌ Error fetching details: " + e.getMessage());
-            ThemeManager.showError(this, "Error fetching details: " + e.getMessage());
-        } finally {
-            // Close resources in reverse order
-            try { if (rs != null) rs.close(); } catch (SQLException ignored) {}
-            try { if (pstmt != null) pstmt.close(); } catch (SQLException ignored) {}
-            try { if (conn != null) conn.close(); } catch (SQLException ignored) {}
-        }
+        }, e -> {
+            if (e instanceof SQLException) {
+                System.err.println("❌ Database Error: " + e.getMessage());
+                ThemeManager.showError(this, "Database Error: " + e.getMessage());
+            } else {
+                System.err.println("❌ Error fetching details: " + e.getMessage());
+                ThemeManager.showError(this, "Error fetching details: " + e.getMessage());
+            }
+        });
     }
 
     public static void main(String[] args) {
@@ -4,11 +4,12 @@ package com.mycompany.airlinereservation;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.sql.*;
+import java.sql.SQLException;
 
 public class Login extends JFrame {
 
-    // DBConnection class provides connection details (DB_URL/USER/PASSWORD centralized)
+    // UserRepository reads the users table through the shared DBConnection pool
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     private JTextField txtUsername;
     private JPasswordField txtPassword;
@@ -124,11 +125,6 @@ public class Login extends JFrame {
         txtUsername.requestFocus();
     }
     
-    // Use centralized DBConnection for consistency
-    private Connection getConnection() throws SQLException {
-        return DBConnection.getConnection();
-    }
-    
     // 🔹 Handler for Register Button
     private void handleRegister(ActionEvent e) {
         dispose(); // Close the current login window
@@ -146,49 +142,22 @@ public class Login extends JFrame {
             return;
         }
 
-        try (Connection con = getConnection()) {
-            String query = "SELECT password FROM users WHERE username=? AND role=? LIMIT 1";
-            PreparedStatement pst = con.prepareStatement(query);
-            pst.setString(1, username);
-            pst.setString(2, role);
-
-            ResultSet rs = pst.executeQuery();
-
-            if (rs.next()) {
-                String stored = rs.getString("password");
-
-                // If stored value is a BCrypt hash, verify it.
-                boolean verified = PasswordUtils.verifyPassword(password, stored);
-
-                // If not verified, support legacy plaintext passwords: compare directly.
-                boolean legacyMatch = !verified && stored.equals(password);
-
-                if (verified || legacyMatch) {
-                    // If legacy plaintext matched, migrate to a hashed password immediately.
-                    if (legacyMatch) {
-                        String newHash = PasswordUtils.hashPassword(password);
-                        try (PreparedStatement ups = con.prepareStatement("UPDATE users SET password = ? WHERE username = ?")) {
-                            ups.setString(1, newHash);
-                            ups.setString(2, username);
-                            ups.executeUpdate();
-                            System.out.println("Login: Migrated user '" + username + "' to BCrypt-hashed password.");
-                        } catch (SQLException ignore) {
-                            // Migration failed — not fatal for login
-                            System.err.println("Login: failed to migrate password for user " + username + ": " + ignore.getMessage());
-                        }
-                    }
-
-                    ThemeManager.showInfo(this, "✅ Login Successful!");
-                    // Store the current user in SessionManager for session management
-                    SessionManager.getInstance().setCurrentUser(username);
-                    dispose(); // close login window
-                    if ("Admin".equalsIgnoreCase(role)) {
-                        SwingUtilities.invokeLater(() -> new AdminDashboard(username));
-                    } else {
-                        SwingUtilities.invokeLater(() -> new UserDashboard(username));
-                    }
-                    return;
+        // Lookup and BCrypt both run off the EDT; the button stays disabled until they finish
+        JButton source = e != null && e.getSource() instanceof JButton button ? button : null;
+        if (source != null) source.setEnabled(false);
+        db.query(() -> authenticate(username, password, role), authenticated -> {
+            if (source != null) source.setEnabled(true);
+            if (authenticated) {
+                ThemeManager.showInfo(this, "✅ Login Successful!");
+                // Store the current user in SessionManager for session management
+                SessionManager.getInstance().setCurrentUser(username, role);
+                dispose(); // close login window
+                if ("Admin".equalsIgnoreCase(role)) {
+                    SwingUtilities.invokeLater(() -> new AdminDashboard(username));
+                } else {
+                    SwingUtilities.invokeLater(() -> new UserDashboard(username));
                 }
+                return;
             }
 
             // If we reach here, authentication failed
@@ -202,11 +171,39 @@ public class Login extends JFrame {
             } else {
                 ThemeManager.showError(this, "❌ Invalid credentials or role!");
             }
-
-        } catch (SQLException ex) {
+        }, ex -> {
+            if (source != null) source.setEnabled(true);
             ex.printStackTrace();
             ThemeManager.showError(this, "Database error. Please check connection.");
+        });
+    }
+
+    // Runs on a background thread: password lookup, BCrypt verify, legacy plaintext migration
+    // (also used by AirlineApiServer for POST /api/sessions)
+    static boolean authenticate(String username, String password, String role) throws SQLException {
+        String stored = UserRepository.findPassword(username, role);
+        if (stored == null) {
+            return false;
+        }
+
+        // If stored value is a BCrypt hash, verify it.
+        boolean verified = PasswordUtils.verifyPassword(password, stored);
+
+        // If not verified, support legacy plaintext passwords: compare directly.
+        boolean legacyMatch = !verified && stored.equals(password);
+
+        // If legacy plaintext matched, migrate to a hashed password immediately.
+        if (legacyMatch) {
+            String newHash = PasswordUtils.hashPassword(password);
+            try {
+                UserRepository.updatePassword(username, newHash);
+                System.out.println("Login: Migrated user '" + username + "' to BCrypt-hashed password.");
+            } catch (SQLException ignore) {
+                // Migration failed — not fatal for login
+                System.err.println("Login: failed to migrate password for user " + username + ": " + ignore.getMessage());
+            }
         }
+        return verified || legacyMatch;
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,148 @@
+package com.mycompany.airlinereservation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LruCache.java - Small bounded cache with least-recently-used eviction and a TTL
+ *
+ * Features:
+ * - Thread-safe; the lock is only held for the map update, never while a
+ *   value is being computed, so a slow lookup doesn't block other readers
+ * - Entries expire after a fixed time to live
+ * - Hit / miss / eviction / expiry counters for logging and diagnostics
+ */
+public final class LruCache<K, V> {
+
+    /**
+     * Point-in-time counters
+     */
+    public record Stats(int size, long hits, long misses, long evictions, long expirations) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("size=%d hits=%d misses=%d evictions=%d expirations=%d hitRate=%.1f%%",
+                    size, hits, misses, evictions, expirations, hitRate() * 100);
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public LruCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries < 1 || ttl <= 0) {
+            throw new IllegalArgumentException("maxEntries and ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.map = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The cached value, or null if absent or expired
+     */
+    public V get(K key) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Entry<V> entry = map.get(key);
+            if (entry != null && now - entry.expiresAtNanos() < 0) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entry != null) {
+                map.remove(key);
+                expirations.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+        lock.lock();
+        try {
+            map.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            map.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            map.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop expired entries now rather than when they are next looked up
+     */
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Iterator<Entry<V>> it = map.values().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().expiresAtNanos() >= 0) {
+                    it.remove();
+                    expirations.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        lock.lock();
+        try {
+            size = map.size();
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(size, hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+}
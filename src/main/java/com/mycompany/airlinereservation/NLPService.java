@@ -1,13 +1,22 @@
 package com.mycompany.airlinereservation;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.airlinereservation.nlp.CircuitBreaker;
+import com.mycompany.airlinereservation.nlp.NLPEntity;
+import com.mycompany.airlinereservation.nlp.NLPIntent;
+import com.mycompany.airlinereservation.nlp.NLPResponse;
+import com.mycompany.airlinereservation.nlp.NLPResponseDecoder;
+import com.mycompany.airlinereservation.nlp.NlpHttpTransport;
 
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.Normalizer;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -24,33 +33,58 @@ import java.util.logging.Level;
  * - Travel date extraction
  * - Travel class detection
  * - Aadhaar number extraction
- * - Retry logic and error handling
+ * - Shared pooled transport with jittered backoff inside a per-message
+ *   latency budget (see NlpHttpTransport)
+ * - Circuit breaker on error rate and latency, plus a background health
+ *   prober: while spaCy is down, calls fail fast and the chatbot uses its
+ *   rule-based replies; it switches back when the service recovers
+ * - Bounded LRU/TTL response cache keyed by endpoint and normalized text, so
+ *   repeated utterances (and the several extract* calls made for one
+ *   message) are answered without another HTTP round trip
+ * - processTextAsync for callers that overlap the spaCy call with their own work
+ * - Responses decoded from the stream into NLPResponse (NLPResponseDecoder)
  */
 public class NLPService {
     
     private static final Logger LOGGER = Logger.getLogger(NLPService.class.getName());
     
-    // Python spaCy microservice endpoint
-    private static final String SPACY_SERVICE_URL = "http://localhost:5000";
+    // Python spaCy microservice endpoint (-Dairline.nlp.url, e.g. a SpacyStubServer for load tests)
+    private static final String SPACY_SERVICE_URL = System.getProperty("airline.nlp.url", "http://localhost:5000");
     private static final String PROCESS_ENDPOINT = "/process";
     private static final String ENTITIES_ENDPOINT = "/entities";
     private static final String INTENT_ENDPOINT = "/intent";
     private static final String ROUTE_ENDPOINT = "/extract-route";
     private static final String HEALTH_ENDPOINT = "/health";
     
-    // Request timeout in milliseconds
-    private static final int TIMEOUT_MS = 5000;
+    // Pooled keep-alive client shared with SpacyNLPClient (retries, backoff and latency budget live there)
+    private final NlpHttpTransport transport = NlpHttpTransport.shared();
     
-    // Retry configuration
-    private static final int MAX_RETRIES = 3;
-    private static final long RETRY_DELAY_MS = 1000;
+    // Response cache: -Dairline.nlp.cache.maxEntries / -Dairline.nlp.cache.ttlSeconds
+    private static final int CACHE_MAX_ENTRIES = Integer.getInteger("airline.nlp.cache.maxEntries", 2000);
+    private static final long CACHE_TTL_SECONDS = Long.getLong("airline.nlp.cache.ttlSeconds", 600L);
     
-    private boolean serviceAvailable = false;
+    // Decoded responses are shared between callers: read-only
+    private final LruCache<String, NLPResponse> responseCache =
+            new LruCache<>(CACHE_MAX_ENTRIES, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+    
+    // Breaker: fail fast to the rule-based path while spaCy is down or slow
+    private static final long SLOW_CALL_MS = Long.getLong("airline.nlp.slowCallMs", 1000L);
+    private static final long OPEN_SECONDS = Long.getLong("airline.nlp.openSeconds", 30L);
+    private static final long PROBE_INTERVAL_SECONDS = Long.getLong("airline.nlp.probeIntervalSeconds", 10L);
+    
+    private final CircuitBreaker breaker = new CircuitBreaker("spaCy NLP", 20, 5, 50, 50,
+            SLOW_CALL_MS, OPEN_SECONDS * 1000, 2, true);
     private static NLPService instance;
     
     private NLPService() {
-        // Private constructor for singleton
-        checkServiceHealth();
+        // Private constructor for singleton. Health is learned in the background:
+        // the breaker starts open (rule-based replies) until the first probe succeeds.
+        ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nlp-health-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        prober.scheduleWithFixedDelay(this::checkServiceHealth, 0, PROBE_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
     
     /**
@@ -64,200 +98,217 @@ public class NLPService {
     }
     
     /**
-     * Check if spaCy service is available and healthy
+     * Check if spaCy service is available and healthy (runs periodically on the
+     * prober thread; the breaker logs when availability changes)
      */
     public void checkServiceHealth() {
+        boolean healthy;
         try {
-            URL url = new URL(SPACY_SERVICE_URL + HEALTH_ENDPOINT);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(TIMEOUT_MS);
-            conn.setReadTimeout(TIMEOUT_MS);
-            
-            int responseCode = conn.getResponseCode();
-            serviceAvailable = (responseCode == 200);
-            
-            if (serviceAvailable) {
-                LOGGER.info("✅ spaCy NLP Service is HEALTHY and available");
-            } else {
-                LOGGER.warning("⚠️  spaCy NLP Service returned status code: " + responseCode);
-                serviceAvailable = false;
+            int responseCode = transport.probe(SPACY_SERVICE_URL + HEALTH_ENDPOINT).code();
+            healthy = (responseCode == 200);
+            if (!healthy) {
+                LOGGER.fine("spaCy NLP Service health returned status code: " + responseCode);
             }
-            
-            conn.disconnect();
-        } catch (Exception e) {
-            LOGGER.warning("⚠️  spaCy NLP Service is NOT AVAILABLE: " + e.getMessage());
-            serviceAvailable = false;
+        } catch (IOException e) {
+            LOGGER.fine("spaCy NLP Service health check failed: " + e.getMessage());
+            healthy = false;
         }
+        breaker.onProbe(healthy);
     }
     
     /**
-     * Check if service is available
+     * Check if service is available (false while the circuit is open)
      */
     public boolean isServiceAvailable() {
-        return serviceAvailable;
+        return breaker.state() != CircuitBreaker.State.OPEN;
     }
     
     /**
-     * Send HTTP POST request to spaCy service
+     * POST the text to an endpoint, answering repeats from the response cache.
+     * Only successful responses are cached.
      */
-    private String sendPostRequest(String endpoint, String jsonPayload) throws Exception {
-        int retryCount = 0;
+    private NLPResponse post(String endpoint, String userText, String errorPrefix) {
+        String key = endpoint + '\n' + normalize(userText);
+        NLPResponse cached = responseCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (!breaker.tryAcquire()) {
+            LOGGER.fine("spaCy circuit open, skipping " + endpoint);
+            return null;
+        }
         
-        while (retryCount < MAX_RETRIES) {
-            try {
-                URL url = new URL(SPACY_SERVICE_URL + endpoint);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("POST");
-                conn.setRequestProperty("Content-Type", "application/json");
-                conn.setConnectTimeout(TIMEOUT_MS);
-                conn.setReadTimeout(TIMEOUT_MS);
-                conn.setDoOutput(true);
-                
-                // Send request body
-                try (OutputStream os = conn.getOutputStream()) {
-                    byte[] input = jsonPayload.getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
-                }
-                
-                // Read response
-                int responseCode = conn.getResponseCode();
-                
-                if (responseCode == 200) {
-                    StringBuilder response = new StringBuilder();
-                    try (BufferedReader br = new BufferedReader(
-                            new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            response.append(line);
-                        }
-                    }
-                    
-                    conn.disconnect();
-                    return response.toString();
-                } else {
-                    LOGGER.warning("⚠️  spaCy service returned status code: " + responseCode);
-                    conn.disconnect();
-                    
-                    if (responseCode >= 500) {
-                        // Server error - retry
-                        retryCount++;
-                        if (retryCount < MAX_RETRIES) {
-                            LOGGER.info("🔄 Retrying request (attempt " + (retryCount + 1) + "/" + MAX_RETRIES + ")...");
-                            Thread.sleep(RETRY_DELAY_MS);
-                            continue;
-                        }
-                    }
-                    
-                    throw new Exception("spaCy service returned status code: " + responseCode);
-                }
-            } catch (Exception e) {
-                retryCount++;
-                if (retryCount >= MAX_RETRIES) {
-                    throw e;
-                }
-                LOGGER.info("🔄 Retrying request (attempt " + (retryCount + 1) + "/" + MAX_RETRIES + ")...");
-                Thread.sleep(RETRY_DELAY_MS);
+        long start = System.nanoTime();
+        NlpHttpTransport.Decoded<NLPResponse> result;
+        try {
+            result = transport.postJson(SPACY_SERVICE_URL + endpoint, payload(userText), NLPResponseDecoder::decode);
+        } catch (Exception e) {
+            breaker.onFailure(System.nanoTime() - start);
+            LOGGER.warning(errorPrefix + e.getMessage());
+            return null;
+        }
+        return complete(key, result, start, errorPrefix);
+    }
+    
+    /**
+     * post() without blocking: the request runs on a virtual thread within the
+     * caller's message budget. Completes with null where post() returns null.
+     */
+    private CompletableFuture<NLPResponse> postAsync(String endpoint, String userText, String errorPrefix) {
+        String key = endpoint + '\n' + normalize(userText);
+        NLPResponse cached = responseCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (!breaker.tryAcquire()) {
+            LOGGER.fine("spaCy circuit open, skipping " + endpoint);
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        long start = System.nanoTime();
+        CompletableFuture<NlpHttpTransport.Decoded<NLPResponse>> call =
+                transport.postJsonAsync(SPACY_SERVICE_URL + endpoint, payload(userText), NLPResponseDecoder::decode);
+        call.whenComplete((result, error) -> {
+            if (call.isCancelled()) {
+                breaker.onCancelled(); // the caller gave up; says nothing about spaCy
             }
+        });
+        return NlpHttpTransport.cancelling(call.handle((result, error) -> {
+            if (error instanceof CancellationException) {
+                return null; // released above
+            }
+            if (error != null) {
+                breaker.onFailure(System.nanoTime() - start);
+                LOGGER.warning(errorPrefix + (error.getCause() != null ? error.getCause() : error).getMessage());
+                return null;
+            }
+            return complete(key, result, start, errorPrefix);
+        }), call);
+    }
+    
+    private static String payload(String userText) {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginObject().name("text").value(userText).endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringWriter does not fail
+        }
+        return out.toString();
+    }
+    
+    // Record the outcome with the breaker and cache a successful response
+    private NLPResponse complete(String key, NlpHttpTransport.Decoded<NLPResponse> result, long start,
+                                 String errorPrefix) {
+        if (result.code() >= 500 || result.code() == 429) {
+            breaker.onFailure(System.nanoTime() - start);
+        } else {
+            breaker.onSuccess(System.nanoTime() - start);
+        }
+        if (result.code() < 200 || result.code() >= 300) {
+            LOGGER.warning("⚠️  spaCy service returned status code: " + result.code());
+            return null;
+        }
+        if (!result.isSuccessful()) {
+            LOGGER.severe(errorPrefix + result.error());
+            return null;
         }
         
-        throw new Exception("Failed to get response after " + MAX_RETRIES + " retries");
+        NLPResponse response = result.value();
+        if (response.isSuccess()) {
+            responseCache.put(key, response);
+        }
+        return response;
+    }
+    
+    /**
+     * Cache key form of an utterance: trimmed, Unicode-normalized, whitespace
+     * collapsed. Case is kept - spaCy's entity recognizer is case-sensitive.
+     */
+    static String normalize(String userText) {
+        if (userText == null) {
+            return "";
+        }
+        String text = Normalizer.normalize(userText, Normalizer.Form.NFC);
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) {
+                    sb.append(' ');
+                    space = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Response cache counters (hits never reach the spaCy service)
+     */
+    public LruCache.Stats getCacheStats() {
+        return responseCache.stats();
+    }
+    
+    /**
+     * Drop all cached responses (e.g. after the spaCy model is redeployed)
+     */
+    public void clearCache() {
+        responseCache.clear();
     }
     
     /**
      * Process user text and extract intent, entities, and structured data
      * 
      * @param userText The user input text
-     * @return JSONObject with intent, entities, and extracted data
+     * @return Response with intent, entities, and extracted data (null on failure)
      */
-    public JSONObject processText(String userText) {
-        if (!serviceAvailable) {
-            LOGGER.warning("⚠️  spaCy service not available, returning null");
-            return null;
-        }
-        
-        try {
-            JSONObject payload = new JSONObject();
-            payload.put("text", userText);
-            
-            String response = sendPostRequest(PROCESS_ENDPOINT, payload.toString());
-            return new JSONObject(response);
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "❌ Error processing text with spaCy: " + e.getMessage(), e);
-            return null;
-        }
+    public NLPResponse processText(String userText) {
+        return post(PROCESS_ENDPOINT, userText, "❌ Error processing text with spaCy: ");
+    }
+    
+    /**
+     * processText without blocking, so the caller can do other work (e.g.
+     * database reads) while spaCy parses the text
+     * 
+     * @param userText The user input text
+     * @return Future of the processText result (null when processText would return null)
+     */
+    public CompletableFuture<NLPResponse> processTextAsync(String userText) {
+        return postAsync(PROCESS_ENDPOINT, userText, "❌ Error processing text with spaCy: ");
     }
     
     /**
      * Extract only entities from user text
      * 
      * @param userText The user input text
-     * @return JSONObject with extracted entities
+     * @return Response with extracted entities
      */
-    public JSONObject extractEntities(String userText) {
-        if (!serviceAvailable) {
-            LOGGER.warning("⚠️  spaCy service not available, returning null");
-            return null;
-        }
-        
-        try {
-            JSONObject payload = new JSONObject();
-            payload.put("text", userText);
-            
-            String response = sendPostRequest(ENTITIES_ENDPOINT, payload.toString());
-            return new JSONObject(response);
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "❌ Error extracting entities: " + e.getMessage(), e);
-            return null;
-        }
+    public NLPResponse extractEntities(String userText) {
+        return post(ENTITIES_ENDPOINT, userText, "❌ Error extracting entities: ");
     }
     
     /**
      * Detect only intent from user text
      * 
      * @param userText The user input text
-     * @return JSONObject with detected intent
+     * @return Response with detected intent
      */
-    public JSONObject detectIntent(String userText) {
-        if (!serviceAvailable) {
-            LOGGER.warning("⚠️  spaCy service not available, returning null");
-            return null;
-        }
-        
-        try {
-            JSONObject payload = new JSONObject();
-            payload.put("text", userText);
-            
-            String response = sendPostRequest(INTENT_ENDPOINT, payload.toString());
-            return new JSONObject(response);
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "❌ Error detecting intent: " + e.getMessage(), e);
-            return null;
-        }
+    public NLPResponse detectIntent(String userText) {
+        return post(INTENT_ENDPOINT, userText, "❌ Error detecting intent: ");
     }
     
     /**
      * Extract route (source and destination) from user text
      * 
      * @param userText The user input text
-     * @return JSONObject with extracted route
+     * @return Response with extracted route
      */
-    public JSONObject extractRoute(String userText) {
-        if (!serviceAvailable) {
-            LOGGER.warning("⚠️  spaCy service not available, returning null");
-            return null;
-        }
-        
-        try {
-            JSONObject payload = new JSONObject();
-            payload.put("text", userText);
-            
-            String response = sendPostRequest(ROUTE_ENDPOINT, payload.toString());
-            return new JSONObject(response);
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "❌ Error extracting route: " + e.getMessage(), e);
-            return null;
-        }
+    public NLPResponse extractRoute(String userText) {
+        return post(ROUTE_ENDPOINT, userText, "❌ Error extracting route: ");
     }
     
     /**
@@ -267,12 +318,12 @@ public class NLPService {
      * @return Intent string (e.g., "book_flight", "cancel_booking") or null
      */
     public String getPrimaryIntent(String userText) {
-        JSONObject intentResponse = detectIntent(userText);
+        NLPResponse intentResponse = detectIntent(userText);
         
-        if (intentResponse != null && intentResponse.optBoolean("success", false)) {
-            JSONObject intent = intentResponse.optJSONObject("intent");
+        if (intentResponse != null && intentResponse.isSuccess()) {
+            NLPIntent intent = intentResponse.getIntent();
             if (intent != null) {
-                return intent.optString("primary_intent", null);
+                return intent.getPrimaryIntent();
             }
         }
         
@@ -286,12 +337,12 @@ public class NLPService {
      * @return Confidence score (0.0 to 1.0) or -1 if error
      */
     public double getIntentConfidence(String userText) {
-        JSONObject intentResponse = detectIntent(userText);
+        NLPResponse intentResponse = detectIntent(userText);
         
-        if (intentResponse != null && intentResponse.optBoolean("success", false)) {
-            JSONObject intent = intentResponse.optJSONObject("intent");
+        if (intentResponse != null && intentResponse.isSuccess()) {
+            NLPIntent intent = intentResponse.getIntent();
             if (intent != null) {
-                return intent.optDouble("confidence", -1);
+                return intent.getConfidence();
             }
         }
         
@@ -305,13 +356,10 @@ public class NLPService {
      * @return Date string or null
      */
     public String extractTravelDate(String userText) {
-        JSONObject response = processText(userText);
+        NLPResponse response = processText(userText);
         
-        if (response != null && response.optBoolean("success", false)) {
-            JSONObject extractedData = response.optJSONObject("extracted_data");
-            if (extractedData != null) {
-                return extractedData.optString("travel_date", null);
-            }
+        if (response != null && response.isSuccess()) {
+            return response.getTravelDate();
         }
         
         return null;
@@ -324,13 +372,10 @@ public class NLPService {
      * @return Travel class string or null
      */
     public String extractTravelClass(String userText) {
-        JSONObject response = processText(userText);
+        NLPResponse response = processText(userText);
         
-        if (response != null && response.optBoolean("success", false)) {
-            JSONObject extractedData = response.optJSONObject("extracted_data");
-            if (extractedData != null) {
-                return extractedData.optString("travel_class", null);
-            }
+        if (response != null && response.isSuccess()) {
+            return response.getTravelClass();
         }
         
         return null;
@@ -343,13 +388,10 @@ public class NLPService {
      * @return Aadhaar number string or null
      */
     public String extractAadhaar(String userText) {
-        JSONObject response = processText(userText);
+        NLPResponse response = processText(userText);
         
-        if (response != null && response.optBoolean("success", false)) {
-            JSONObject extractedData = response.optJSONObject("extracted_data");
-            if (extractedData != null) {
-                return extractedData.optString("aadhaar", null);
-            }
+        if (response != null && response.isSuccess()) {
+            return response.getAadhaar();
         }
         
         return null;
@@ -358,37 +400,34 @@ public class NLPService {
     /**
      * Extract all locations mentioned in text
      * 
+     * Known cities and airport codes are found locally (Gazetteer); the spaCy
+     * service is only asked when none of them appear.
+     * 
      * @param userText The user input text
-     * @return List of location objects
+     * @return Distinct location names, in order of appearance
      */
     public List<String> extractLocations(String userText) {
-        List<String> locations = new ArrayList<>();
-        JSONObject response = extractEntities(userText);
+        Set<String> locations = new LinkedHashSet<>();
+        for (Gazetteer.Match match : Gazetteer.current().findAll(userText)) {
+            if (match.kind() != Gazetteer.Kind.AIRLINE) {
+                locations.add(match.canonical());
+            }
+        }
+        if (!locations.isEmpty()) {
+            return new ArrayList<>(locations);
+        }
         
-        if (response != null && response.optBoolean("success", false)) {
-            JSONObject entities = response.optJSONObject("entities");
-            if (entities != null) {
-                JSONArray locArray = entities.optJSONArray("locations");
-                if (locArray != null) {
-                    for (int i = 0; i < locArray.length(); i++) {
-                        JSONObject loc = locArray.getJSONObject(i);
-                        locations.add(loc.optString("normalized", loc.optString("text", "")));
-                    }
-                }
-                
-                JSONArray customLocArray = entities.optJSONArray("custom_locations");
-                if (customLocArray != null) {
-                    for (int i = 0; i < customLocArray.length(); i++) {
-                        JSONObject loc = customLocArray.getJSONObject(i);
-                        String normalized = loc.optString("normalized", loc.optString("text", ""));
-                        if (!locations.contains(normalized)) {
-                            locations.add(normalized);
-                        }
-                    }
+        NLPResponse response = extractEntities(userText);
+        
+        if (response != null && response.isSuccess()) {
+            for (NLPEntity location : response.getAllLocations()) {
+                String name = location.getNormalized() != null ? location.getNormalized() : location.getText();
+                if (name != null) {
+                    locations.add(name);
                 }
             }
         }
         
-        return locations;
+        return new ArrayList<>(locations);
     }
 }
@@ -0,0 +1,65 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PaymentRepository.java - Data access for the `payments` table
+ */
+public final class PaymentRepository {
+
+    private PaymentRepository() {
+    }
+
+    public static boolean insert(String pnr, double amount, String method, String status) throws SQLException {
+        try (Connection conn = RepositorySupport.open()) {
+            return insert(conn, pnr, amount, method, status);
+        }
+    }
+
+    /**
+     * Record a payment on the caller's connection (part of a booking transaction)
+     */
+    public static boolean insert(Connection conn, String pnr, double amount, String method, String status) throws SQLException {
+        return RepositorySupport.update(conn,
+                "INSERT INTO payments (pnr, amount, payment_method, payment_status, transaction_date) VALUES (?, ?, ?, ?, NOW())",
+                pnr, amount, method, status) > 0;
+    }
+
+    public static int deleteByPnr(Connection conn, String pnr) throws SQLException {
+        return RepositorySupport.update(conn, "DELETE FROM payments WHERE pnr = ?", pnr);
+    }
+
+    /**
+     * @return payment keyed like AirlineService expects, or an empty map if not found
+     */
+    public static Map<String, Object> findByPnr(String pnr) throws SQLException {
+        Map<String, Object> payment = RepositorySupport.queryOne(
+                "SELECT p.id AS payment_id, p.amount, p.payment_method, p.payment_status, p.transaction_date " +
+                "FROM payments p WHERE p.pnr = ?",
+                rs -> {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("paymentId", rs.getString("payment_id"));
+                    row.put("amount", rs.getInt("amount"));
+                    row.put("method", rs.getString("payment_method"));
+                    row.put("status", rs.getString("payment_status"));
+                    row.put("date", rs.getString("transaction_date"));
+                    return row;
+                }, pnr);
+        return payment != null ? payment : new HashMap<>();
+    }
+
+    /**
+     * Every payment that belongs to a ticket, newest first
+     */
+    public static List<Map<String, Object>> findAllWithTicket() throws SQLException {
+        return RepositorySupport.queryList(
+                "SELECT p.pnr, p.amount, p.payment_method, p.payment_status, p.transaction_date, t.flight_code " +
+                "FROM payments p INNER JOIN ticket t ON p.pnr = t.pnr " +
+                "ORDER BY p.transaction_date DESC",
+                RepositorySupport::toRow);
+    }
+}
@@ -0,0 +1,145 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * PnrGenerator.java - Shared, lock-free PNR generator (no database round trip)
+ *
+ * Every PNR is 6 Crockford base-32 characters (0-9, A-Z without I, L, O, U),
+ * i.e. 30 bits:
+ * - 3 bits: node id (-Dairline.pnr.node=0..7, one per app instance)
+ * - 27 bits: sequence, which never falls behind the clock (one tick per second
+ *   since 2025-01-01), so a restarted node resumes from the clock (see Limits)
+ *
+ * The 30 bits are then scrambled with a bijective mix, so consecutive PNRs
+ * don't look consecutive but can never collide.
+ *
+ * Limits (nothing is persisted, the clock is the only high-water mark):
+ * - Within one process run codes never repeat until the sequence wraps.
+ * - Across restarts: a node that issued more than one PNR per second on
+ *   average has run ahead of the clock, and after a restart it re-issues
+ *   codes from that lead (N codes ahead = up to N repeats if it restarts
+ *   within N seconds). Uniqueness across restarts is only guaranteed at up
+ *   to ~1 PNR/s sustained per node.
+ * - Wrap: the sequence is seconds since 2025-01-01 in 27 bits, so it wraps
+ *   on 2029-04-03 regardless of volume (sooner if a node runs ahead), and
+ *   then repeats codes issued from 2025 on.
+ * A repeat is not silent: pnr is UNIQUE in booking, ticket and boarding_pass,
+ * so the insert fails and the booking transaction rolls back. Bookings go
+ * through withFreshPnr(), which then retries with a new code, skipping
+ * further ahead each time (1, 2, 4, ... codes) to get past a restarted
+ * node's lead or a post-wrap run of old codes.
+ */
+public final class PnrGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(PnrGenerator.class.getName());
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 6;
+    private static final int BITS = LENGTH * 5;
+    private static final int NODE_BITS = 3;
+    private static final long MASK = (1L << BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << (BITS - NODE_BITS)) - 1;
+
+    private static final long EPOCH_MS = 1_735_689_600_000L; // 2025-01-01T00:00:00Z
+    private static final long TICK_MS = 1_000L;
+
+    private static final int NODE = Integer.getInteger("airline.pnr.node", 0) & ((1 << NODE_BITS) - 1);
+
+    // Tries per booking: the last retry skips 2^(MAX_ATTEMPTS - 2) codes ahead, ~2^20 skipped in total
+    private static final int MAX_ATTEMPTS = 21;
+    private static final int ER_DUP_ENTRY = 1062;
+
+    // Last sequence handed out (shared by all threads, advanced by CAS)
+    private static final AtomicLong LAST = new AtomicLong(-1);
+
+    private PnrGenerator() {
+    }
+
+    /**
+     * Writes keyed by a new PNR (typically one booking transaction)
+     */
+    @FunctionalInterface
+    public interface PnrWrite<T> {
+        T run(String pnr) throws SQLException;
+    }
+
+    /**
+     * Run a write under a new PNR; if the database already has that PNR
+     * (duplicate key on a pnr column) the write is retried under a fresh one.
+     * Other errors, and a duplicate on the last try, are rethrown.
+     */
+    public static <T> T withFreshPnr(PnrWrite<T> write) throws SQLException {
+        long skip = 1;
+        for (int attempt = 1; ; attempt++) {
+            String pnr = next();
+            try {
+                return write.run(pnr);
+            } catch (SQLIntegrityConstraintViolationException e) {
+                if (attempt >= MAX_ATTEMPTS || !isDuplicatePnr(e)) {
+                    throw e;
+                }
+                LOGGER.warning("⚠️ PNR " + pnr + " already issued; skipping " + skip + " code(s) ahead and retrying");
+                LAST.addAndGet(skip);
+                skip <<= 1;
+            }
+        }
+    }
+
+    private static boolean isDuplicatePnr(SQLException e) {
+        String message = e.getMessage();
+        // MySQL: "Duplicate entry 'X' for key 'booking.pnr'" (or just 'pnr' before 8.0)
+        return e.getErrorCode() == ER_DUP_ENTRY && message != null && message.contains("pnr'");
+    }
+
+    /**
+     * @return a new 6-character PNR
+     */
+    public static String next() {
+        long now = (System.currentTimeMillis() - EPOCH_MS) / TICK_MS;
+        long sequence = LAST.accumulateAndGet(now, (last, tick) -> Math.max(last + 1, tick));
+        long value = ((sequence & SEQUENCE_MASK) << NODE_BITS) | NODE;
+        return encode(scramble(value));
+    }
+
+    // Multiply by an odd constant and xor-shift right: each step is a bijection on 30 bits
+    static long scramble(long x) {
+        x = (x * 0x2545F491L) & MASK;
+        x ^= x >>> 15;
+        x = (x * 0x1B873593L) & MASK;
+        x ^= x >>> 13;
+        return x;
+    }
+
+    static String encode(long value) {
+        char[] out = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            out[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(out);
+    }
+
+    /**
+     * @return the 30-bit value of an upper-case code, or -1 if it isn't valid base-32
+     */
+    static long decode(String code) {
+        long value = 0;
+        for (int i = 0; i < code.length(); i++) {
+            int digit = -1;
+            char c = code.charAt(i);
+            for (int d = 0; d < ALPHABET.length; d++) {
+                if (ALPHABET[d] == c) {
+                    digit = d;
+                    break;
+                }
+            }
+            if (digit < 0) return -1;
+            value = (value << 5) | digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mycompany.airlinereservation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * PnrGeneratorTest.java - Multi-threaded uniqueness check for PnrGenerator
+ *
+ * Generates tens of millions of PNRs from many threads at once and marks each
+ * one in a shared 2^30-bit set; any code seen twice is a collision.
+ *
+ * Usage: PnrGeneratorTest [threads=16] [perThread=2500000]   (needs ~256 MB heap)
+ */
+public class PnrGeneratorTest {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_500_000;
+        long total = (long) threads * perThread;
+
+        System.out.println("==============================================");
+        System.out.println("PNR Generator Uniqueness Test");
+        System.out.println("threads=" + threads + " codes=" + total);
+        System.out.println("==============================================\n");
+
+        AtomicLongArray seen = new AtomicLongArray(1 << 24); // 2^30 bits
+        AtomicLong duplicates = new AtomicLong();
+        AtomicLong malformed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    String pnr = PnrGenerator.next();
+                    long value = pnr.length() == 6 ? PnrGenerator.decode(pnr) : -1;
+                    if (value < 0) {
+                        malformed.incrementAndGet();
+                        continue;
+                    }
+                    int word = (int) (value >>> 6);
+                    long bit = 1L << (value & 63);
+                    if ((seen.getAndAccumulate(word, bit, (old, b) -> old | b) & bit) != 0) {
+                        if (duplicates.incrementAndGet() <= 10) {
+                            System.out.println("❌ Duplicate PNR: " + pnr);
+                        }
+                    }
+                }
+            }, "pnr-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - t0) / 1e9;
+
+        System.out.printf("Generated %,d PNRs in %.2f s (%,.0f/s)%n", total, seconds, total / seconds);
+        System.out.println("Sample: " + PnrGenerator.next());
+        if (duplicates.get() == 0 && malformed.get() == 0) {
+            System.out.println("✅ All PNRs unique and well-formed");
+        } else {
+            System.out.println("❌ duplicates=" + duplicates.get() + " malformed=" + malformed.get());
+            System.exit(1);
+        }
+    }
+}
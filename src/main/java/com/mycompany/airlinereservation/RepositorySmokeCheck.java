@@ -0,0 +1,216 @@
+package com.mycompany.airlinereservation;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RepositorySmokeCheck.java - Runs every repository query once against a migrated airline_db
+ *
+ * Nothing else executes the SQL strings before a screen or endpoint hits
+ * them, so a wrong column or join only shows up at runtime. This check:
+ * - Migrates the schema (SchemaMigrator) and creates its own SMOKE flight
+ * - Runs each read in the Flight, Airline, User, Customer, Booking, Ticket
+ *   and Payment repositories, plus RouteIndex and ItineraryEngine
+ * - Books, looks up and cancels a seat through AirlineService and checks
+ *   the seat count goes down and back up (and that another user can't cancel)
+ * - Starts AirlineApiServer on a free port and checks the owner of a PNR
+ *   can read it while another customer gets 404
+ * Every check runs even if an earlier one fails; the rows it created are
+ * removed at the end.
+ *
+ * Usage: RepositorySmokeCheck   (exit code 1 if any check failed)
+ */
+public class RepositorySmokeCheck {
+
+    private static final String FLIGHT_CODE = "SMOKE-1";
+    private static final String SOURCE = "SmokeSrc";
+    private static final String DESTINATION = "SmokeDst";
+    private static final String TRAVEL_DATE = "2030-01-01";
+    private static final String USERNAME = "smoke_user";
+    private static final String OTHER_USERNAME = "smoke_other";
+    private static final String AADHAAR = "999999999998";
+    private static final int SEATS = 10;
+
+    @FunctionalInterface
+    private interface Check {
+        void run() throws Exception;
+    }
+
+    private static int passed;
+    private static int failed;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("==============================================");
+        System.out.println("Repository Smoke Check");
+        System.out.println("==============================================\n");
+
+        if (!SchemaMigrator.migrate()) {
+            System.out.println("❌ Schema migration failed - is the database up?");
+            System.exit(1);
+        }
+        try {
+            setUp();
+            runChecks();
+        } finally {
+            tearDown();
+        }
+
+        System.out.println("\n" + "=".repeat(45));
+        System.out.println("passed=" + passed + " failed=" + failed);
+        System.out.println("=".repeat(45));
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private static void runChecks() throws Exception {
+        // Flights and airlines
+        check("FlightRepository.findDistinctSources", () -> expect(FlightRepository.findDistinctSources().contains(SOURCE)));
+        check("FlightRepository.findDistinctDestinations",
+                () -> expect(FlightRepository.findDistinctDestinations().contains(DESTINATION)));
+        check("FlightRepository.findAll", () -> expect(!FlightRepository.findAll().isEmpty()));
+        check("FlightRepository.readChangeMarker", () -> expect(FlightRepository.readChangeMarker().rowCount() > 0));
+        check("FlightRepository.findUpdatedSince", () -> expect(!FlightRepository.findUpdatedSince(new Timestamp(0)).isEmpty()));
+        check("FlightRepository.findByRoute", () -> expect(FlightRepository.findByRoute(SOURCE, DESTINATION).size() == 1));
+        check("FlightRepository.searchRoute",
+                () -> expect(FlightRepository.searchRoute(SOURCE, DESTINATION, TRAVEL_DATE).size() == 1));
+        check("FlightRepository.findByCode (airline joined)", () -> {
+            AirlineService.Flight flight = FlightRepository.findByCode(FLIGHT_CODE);
+            expect(flight != null && flight.airline != null);
+        });
+        check("RouteIndex.search", () -> {
+            RouteIndex.refresh();
+            expect(RouteIndex.search(SOURCE, DESTINATION, null).size() == 1);
+        });
+        check("ItineraryEngine.search", () -> expect(!ItineraryEngine.search(SOURCE, DESTINATION, null).isEmpty()));
+        check("AirlineRepository.findAirlineIds", () -> expect(!AirlineRepository.findAirlineIds().isEmpty()));
+        check("AirlineRepository.readChangeMarker", () -> expect(AirlineRepository.readChangeMarker().rowCount() > 0));
+
+        // Users and customers
+        check("UserRepository.findPassword", () -> UserRepository.findPassword(USERNAME, "Customer"));
+        check("CustomerRepository.insert / findByAadhaar", () -> {
+            CustomerRepository.insert("Smoke Passenger", "Indian", "0000000000", "Nowhere", AADHAAR, "Other");
+            expect("Smoke Passenger".equals(AirlineService.getCustomerByAadhaar(AADHAAR).get("name")));
+        });
+
+        // Booking round trip
+        String pnr = AirlineService.createBooking(USERNAME, "Smoke Passenger", FLIGHT_CODE, TRAVEL_DATE,
+                "Economy", AADHAAR);
+        check("AirlineService.createBooking takes a seat", () -> expect(seatsAvailable() == SEATS - 1));
+        check("AirlineService.getBookingByPNR", () -> {
+            Map<String, Object> booking = AirlineService.getBookingByPNR(pnr);
+            expect(USERNAME.equals(booking.get("username")) && booking.get("airline") != null);
+        });
+        check("AirlineService.getBookingsByUsername",
+                () -> expect(AirlineService.getBookingsByUsername(USERNAME).size() == 1));
+        check("BookingRepository.findStatusForOwner",
+                () -> expect(BookingRepository.findStatusForOwner(pnr, USERNAME) != null));
+        check("TicketRepository.findByPnr",
+                () -> expect(SOURCE.equals(AirlineService.getTicketByPNR(pnr).get("source"))));
+        check("TicketRepository.findForBoardingPass", () -> expect(TicketRepository.findForBoardingPass(pnr) != null));
+        check("TicketRepository.findSummaryForOwner",
+                () -> expect(TicketRepository.findSummaryForOwner(pnr, USERNAME) != null));
+        check("TicketRepository.findDetailsForOwner",
+                () -> expect(TicketRepository.findDetailsForOwner(pnr, USERNAME) != null));
+        check("TicketRepository.findJourneyForOwner", () -> {
+            Map<String, Object> journey = TicketRepository.findJourneyForOwner(pnr, USERNAME);
+            expect(journey != null && "CONFIRMED".equals(journey.get("status")) && "Economy".equals(journey.get("class")));
+        });
+        check("TicketRepository.findWithFlightByUsername", () -> {
+            List<Map<String, Object>> tickets = TicketRepository.findWithFlightByUsername(USERNAME);
+            expect(tickets.size() == 1 && "CONFIRMED".equals(tickets.get(0).get("status")));
+        });
+        check("TicketRepository.findWithPaymentByUsername",
+                () -> expect(TicketRepository.findWithPaymentByUsername(USERNAME).size() == 1));
+        check("PaymentRepository.findByPnr", () -> expect(!AirlineService.getPaymentByPNR(pnr).isEmpty()));
+        check("PaymentRepository.findAllWithTicket", () -> PaymentRepository.findAllWithTicket());
+        check("AirlineService.createBoardingPass / getBoardingPassByPNR", () -> {
+            expect(AirlineService.createBoardingPass(pnr, "Smoke Passenger", FLIGHT_CODE, "09:30", "A1", "12C"));
+            expect("12C".equals(AirlineService.getBoardingPassByPNR(pnr).get("seatNumber")));
+        });
+        check("TicketRepository.findBoardingPassWithFlight",
+                () -> expect(TicketRepository.findBoardingPassWithFlight(pnr) != null));
+
+        // API ownership path (requireOwner reads the booking's username)
+        check("AirlineApiServer: owner reads, other customer gets 404", () -> {
+            SessionManager sessions = SessionManager.getInstance();
+            String owner = sessions.createSession(USERNAME, "Customer").getToken();
+            String other = sessions.createSession(OTHER_USERNAME, "Customer").getToken();
+            try (AirlineApiServer server = new AirlineApiServer("127.0.0.1", 0).start()) {
+                HttpClient http = HttpClient.newHttpClient();
+                expect(get(http, server.url() + "/api/bookings/" + pnr, owner) == 200);
+                expect(get(http, server.url() + "/api/bookings/" + pnr, other) == 404);
+            } finally {
+                sessions.invalidate(owner);
+                sessions.invalidate(other);
+            }
+        });
+
+        check("AirlineService.cancelBookingForOwner refuses another user",
+                () -> expect(!AirlineService.cancelBookingForOwner(pnr, OTHER_USERNAME) && seatsAvailable() == SEATS - 1));
+        check("AirlineService.cancelBooking gives the seat back", () -> {
+            expect(AirlineService.cancelBooking(pnr));
+            expect(seatsAvailable() == SEATS);
+            expect(!AirlineService.cancelBooking(pnr));
+            expect(seatsAvailable() == SEATS);
+        });
+    }
+
+    private static void check(String name, Check check) {
+        try {
+            check.run();
+            passed++;
+            System.out.println("✅ " + name);
+        } catch (Exception | AssertionError e) {
+            failed++;
+            System.out.println("❌ " + name + ": " + e);
+        }
+    }
+
+    private static void expect(boolean condition) {
+        if (!condition) {
+            throw new AssertionError("unexpected result");
+        }
+    }
+
+    private static int get(HttpClient http, String url, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static int seatsAvailable() throws SQLException {
+        return FlightRepository.findByCode(FLIGHT_CODE).seatsAvailable;
+    }
+
+    private static void setUp() throws SQLException {
+        Integer airlineId = RepositorySupport.queryOne("SELECT MIN(id) AS id FROM airlines", rs -> {
+            int id = rs.getInt("id");
+            return rs.wasNull() ? null : id;
+        });
+        if (airlineId == null) {
+            AirlineRepository.insert("Smoke Airline", null);
+            airlineId = AirlineRepository.findAirlineIds().get("Smoke Airline");
+        }
+        tearDown();
+        FlightRepository.insert(FLIGHT_CODE, "Smoke Flight", airlineId, SOURCE, DESTINATION,
+                4999.0, SEATS, SEATS, TRAVEL_DATE + " 10:00:00", TRAVEL_DATE + " 12:00:00");
+    }
+
+    private static void tearDown() throws SQLException {
+        RepositorySupport.update("DELETE bp FROM boarding_pass bp JOIN booking b ON bp.pnr = b.pnr WHERE b.flight_code = ?",
+                FLIGHT_CODE);
+        RepositorySupport.update("DELETE p FROM payments p JOIN booking b ON p.pnr = b.pnr WHERE b.flight_code = ?",
+                FLIGHT_CODE);
+        RepositorySupport.update("DELETE FROM ticket WHERE flight_code = ?", FLIGHT_CODE);
+        RepositorySupport.update("DELETE FROM booking WHERE flight_code = ?", FLIGHT_CODE);
+        RepositorySupport.update("DELETE FROM flight WHERE flight_code = ?", FLIGHT_CODE);
+        RepositorySupport.update("DELETE FROM customer WHERE aadhar_no = ?", AADHAAR);
+    }
+}
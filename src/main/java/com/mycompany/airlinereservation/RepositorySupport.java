@@ -0,0 +1,165 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RepositorySupport.java - Shared JDBC plumbing for the repository classes
+ *
+ * Every repository goes through these helpers, so connections always come
+ * from the DBConnection pool and statements are always prepared the same
+ * way (letting the driver's per-connection statement cache reuse them).
+ * Methods that take a Connection run inside a caller's transaction; the
+ * others borrow and return a pooled connection per call.
+ */
+final class RepositorySupport {
+
+    private RepositorySupport() {
+    }
+
+    /**
+     * Maps the current row of a ResultSet to an object.
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Work to run on a single connection inside one transaction.
+     */
+    @FunctionalInterface
+    interface TransactionCallback<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Borrow a pooled connection, failing loudly instead of returning null.
+     * The failure is a SQLTransientConnectionException, so callers can tell
+     * "database unreachable, retry later" from a bad statement.
+     */
+    static Connection open() throws SQLException {
+        Connection conn = DBConnection.getConnection();
+        if (conn == null) {
+            throw new SQLTransientConnectionException("Database connection unavailable");
+        }
+        return conn;
+    }
+
+    static <T> List<T> queryList(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (Connection conn = open()) {
+            return queryList(conn, sql, mapper, params);
+        }
+    }
+
+    static <T> List<T> queryList(Connection conn, String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<T> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * @return the first mapped row, or null when the query returns nothing
+     */
+    static <T> T queryOne(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (Connection conn = open()) {
+            return queryOne(conn, sql, mapper, params);
+        }
+    }
+
+    static <T> T queryOne(Connection conn, String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapper.map(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * @return the affected row count
+     */
+    static int update(String sql, Object... params) throws SQLException {
+        try (Connection conn = open()) {
+            return update(conn, sql, params);
+        }
+    }
+
+    static int update(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bind(ps, params);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Run the callback on one connection and commit; roll back if it throws.
+     */
+    static <T> T inTransaction(TransactionCallback<T> callback) throws SQLException {
+        try (Connection conn = open()) {
+            return inTransaction(conn, callback);
+        }
+    }
+
+    /**
+     * Same as above on a connection the caller already holds (left in autocommit afterwards).
+     */
+    static <T> T inTransaction(Connection conn, TransactionCallback<T> callback) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            T result = callback.run(conn);
+            conn.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            try { conn.rollback(); } catch (SQLException ignore) {}
+            throw e;
+        } finally {
+            try { conn.setAutoCommit(true); } catch (SQLException ignore) {}
+        }
+    }
+
+    /**
+     * Copy the current row into a column-label keyed map (for detail views
+     * that display whatever columns the query returns). Like rs.getXxx(label),
+     * the first column with a given label wins. DATETIME values come back as
+     * Timestamp, as rs.getTimestamp() did, so screens format them unchanged.
+     */
+    static Map<String, Object> toRow(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String label = meta.getColumnLabel(i);
+            if (!row.containsKey(label)) {
+                Object value = rs.getObject(i);
+                if (value instanceof LocalDateTime dateTime) {
+                    value = Timestamp.valueOf(dateTime);
+                }
+                row.put(label, value);
+            }
+        }
+        return row;
+    }
+
+    private static void bind(PreparedStatement ps, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            ps.setObject(i + 1, params[i]);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RouteIndex.java - In-memory flight search index
+ *
+ * Features:
+ * - Flights grouped by normalized (source, destination), each route a
+ *   departure-sorted array, so a route search is one hash lookup (plus a
+ *   binary search when a date is given) instead of a LOWER(...) table scan
+ * - Loaded on first use (or at startup via start()), then refreshed in the
+ *   background every airline.routeIndex.refreshMs (default 5000 ms)
+ * - Incremental refresh: each pass re-reads only the rows whose
+ *   flight.updated_at (microsecond precision) is at or after the last marker,
+ *   minus airline.routeIndex.overlapMs (default 2000) so rows written by
+ *   transactions that commit after their timestamp aren't missed; a new
+ *   snapshot is published only if one of them differs. A changed row count
+ *   (deletes) triggers a full reload
+ * - Readers never block: each refresh publishes a new immutable snapshot
+ * - Schedule version: bumped only when something other than seat counts
+ *   changes (a flight added, removed, re-timed, re-priced...), so caches
+ *   derived from the schedule (ItineraryEngine) can skip seat-only snapshots
+ *
+ * Seat counts in results can be up to one refresh interval old; booking
+ * still checks seats in the database. If the index can't be loaded, searches
+ * fall back to FlightRepository. Returned flights are shared; treat them as read-only.
+ */
+public final class RouteIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(RouteIndex.class.getName());
+
+    private static final long REFRESH_MS = Long.getLong("airline.routeIndex.refreshMs", 5_000L);
+    private static final long OVERLAP_MS = Long.getLong("airline.routeIndex.overlapMs", 2_000L);
+
+    // "yyyy-MM-dd HH:mm:ss" strings sort chronologically; flights without a time go last
+    private static final Comparator<AirlineService.Flight> BY_DEPARTURE =
+            Comparator.comparing((AirlineService.Flight f) -> f.departureTime,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private record Snapshot(Map<String, AirlineService.Flight[]> routes,
+                            Map<String, AirlineService.Flight> byCode,
+                            List<AirlineService.Flight> all,
+                            List<String> sources,
+                            List<String> destinations,
+                            FlightRepository.ChangeMarker marker,
+                            long scheduleVersion) {
+    }
+
+    private static volatile Snapshot snapshot;
+    private static final Object REFRESH_LOCK = new Object();
+    private static ScheduledExecutorService refresher;
+
+    private RouteIndex() {
+    }
+
+    /**
+     * Load the index and start background refresh (safe to call more than once)
+     */
+    public static void start() {
+        synchronized (REFRESH_LOCK) {
+            if (refresher != null) {
+                return;
+            }
+            refresh();
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "route-index-refresh");
+                t.setDaemon(true);
+                return t;
+            });
+            refresher.scheduleWithFixedDelay(RouteIndex::refresh, REFRESH_MS, REFRESH_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Flights on a route (case-insensitive), earliest departure first,
+     * optionally limited to one departure date ("yyyy-MM-dd")
+     */
+    public static List<AirlineService.Flight> search(String source, String destination, String date) throws SQLException {
+        Snapshot snap = current();
+        if (snap == null) {
+            return FlightRepository.searchRoute(source, destination, date);
+        }
+
+        AirlineService.Flight[] flights = snap.routes().get(routeKey(source, destination));
+        if (flights == null) {
+            return Collections.emptyList();
+        }
+        if (date == null || date.isEmpty()) {
+            return Collections.unmodifiableList(Arrays.asList(flights));
+        }
+
+        String day = date.length() > 10 ? date.substring(0, 10) : date;
+        List<AirlineService.Flight> result = new ArrayList<>();
+        for (int i = firstDepartingAtOrAfter(flights, day); i < flights.length; i++) {
+            String departure = flights[i].departureTime;
+            if (departure == null || !departure.startsWith(day)) {
+                break;
+            }
+            result.add(flights[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Every indexed flight. The same list instance is returned until the next
+     * snapshot; structures that ignore seat counts can be cached per
+     * scheduleVersion() instead.
+     */
+    public static List<AirlineService.Flight> allFlights() throws SQLException {
+        Snapshot snap = current();
+        return snap != null ? snap.all() : FlightRepository.findAll();
+    }
+
+    /**
+     * Version of the schedule behind allFlights(): unchanged by snapshots that
+     * only move seat counts. -1 if the index couldn't be loaded.
+     */
+    public static long scheduleVersion() {
+        Snapshot snap = current();
+        return snap != null ? snap.scheduleVersion() : -1;
+    }
+
+    /**
+     * The flight as of the latest snapshot, or null if it isn't indexed (or
+     * the index isn't loaded); never goes to the database
+     */
+    public static AirlineService.Flight indexedFlight(String flightCode) {
+        Snapshot snap = snapshot;
+        return snap != null ? snap.byCode().get(flightCode) : null;
+    }
+
+    /**
+     * Distinct sources, sorted (for pickers)
+     */
+    public static List<String> sources() throws SQLException {
+        Snapshot snap = current();
+        return snap != null ? snap.sources() : FlightRepository.findDistinctSources();
+    }
+
+    /**
+     * Distinct destinations, sorted (for pickers)
+     */
+    public static List<String> destinations() throws SQLException {
+        Snapshot snap = current();
+        return snap != null ? snap.destinations() : FlightRepository.findDistinctDestinations();
+    }
+
+    /**
+     * True once a snapshot is in memory (lookups won't touch the database)
+     */
+    public static boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Bring the index up to date now (also called by the background refresher)
+     */
+    public static void refresh() {
+        synchronized (REFRESH_LOCK) {
+            Snapshot old = snapshot;
+            try {
+                // Read the marker first: rows changed after this point are picked up next time
+                FlightRepository.ChangeMarker marker = FlightRepository.readChangeMarker();
+                boolean changed = old == null || !marker.equals(old.marker());
+                boolean scheduleChanged = old == null;
+
+                // An equal marker doesn't prove nothing changed (a row updated within the same
+                // timestamp, or committed late), so the tail since the last marker is always re-read
+                Map<String, AirlineService.Flight> byCode = null;
+                if (old != null && old.marker().lastUpdated() != null) {
+                    byCode = new HashMap<>(old.byCode());
+                    Timestamp since = new Timestamp(old.marker().lastUpdated().getTime() - OVERLAP_MS);
+                    for (AirlineService.Flight flight : FlightRepository.findUpdatedSince(since)) {
+                        AirlineService.Flight previous = byCode.put(flight.flightCode, flight);
+                        if (previous == null || !sameFlight(previous, flight)) {
+                            changed = true;
+                            scheduleChanged |= previous == null || !sameSchedule(previous, flight);
+                        }
+                    }
+                    if (byCode.size() != marker.rowCount()) {
+                        byCode = null; // rows were deleted: incremental merge can't see that
+                    }
+                }
+                if (!changed) {
+                    return;
+                }
+                if (byCode == null) {
+                    byCode = new HashMap<>();
+                    for (AirlineService.Flight flight : FlightRepository.findUpdatedSince(null)) {
+                        byCode.put(flight.flightCode, flight);
+                    }
+                    LOGGER.info("✅ RouteIndex: loaded " + byCode.size() + " flights");
+                    scheduleChanged = old == null || !sameSchedule(old.byCode(), byCode);
+                }
+
+                long version = old == null ? 1 : scheduleChanged ? old.scheduleVersion() + 1 : old.scheduleVersion();
+                snapshot = build(byCode, marker, version, old);
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "⚠️ RouteIndex: refresh failed - " + e.getMessage());
+            }
+        }
+    }
+
+    private static Snapshot current() {
+        Snapshot snap = snapshot;
+        if (snap == null) {
+            start();
+            snap = snapshot;
+        }
+        return snap;
+    }
+
+    private static Snapshot build(Map<String, AirlineService.Flight> byCode, FlightRepository.ChangeMarker marker,
+                                  long scheduleVersion, Snapshot old) {
+        Map<String, List<AirlineService.Flight>> grouped = new HashMap<>();
+        TreeSet<String> sources = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        TreeSet<String> destinations = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (AirlineService.Flight flight : byCode.values()) {
+            grouped.computeIfAbsent(routeKey(flight.source, flight.destination), k -> new ArrayList<>()).add(flight);
+            if (flight.source != null) sources.add(flight.source);
+            if (flight.destination != null) destinations.add(flight.destination);
+        }
+
+        Map<String, AirlineService.Flight[]> routes = new HashMap<>(grouped.size() * 2);
+        for (Map.Entry<String, List<AirlineService.Flight>> route : grouped.entrySet()) {
+            AirlineService.Flight[] flights = route.getValue().toArray(new AirlineService.Flight[0]);
+            Arrays.sort(flights, BY_DEPARTURE);
+            routes.put(route.getKey(), flights);
+        }
+        // Unchanged picker lists keep their instance, so callers can cache on identity
+        List<String> sourceList = List.copyOf(sources);
+        List<String> destinationList = List.copyOf(destinations);
+        if (old != null && old.sources().equals(sourceList)) sourceList = old.sources();
+        if (old != null && old.destinations().equals(destinationList)) destinationList = old.destinations();
+        return new Snapshot(routes, byCode, List.copyOf(byCode.values()), sourceList, destinationList, marker,
+                scheduleVersion);
+    }
+
+    private static boolean sameFlight(AirlineService.Flight a, AirlineService.Flight b) {
+        return a.seatsAvailable == b.seatsAvailable && sameSchedule(a, b);
+    }
+
+    // Everything but the seat count
+    private static boolean sameSchedule(AirlineService.Flight a, AirlineService.Flight b) {
+        return a.price == b.price
+                && Objects.equals(a.flightName, b.flightName) && Objects.equals(a.airline, b.airline)
+                && Objects.equals(a.source, b.source) && Objects.equals(a.destination, b.destination)
+                && Objects.equals(a.departureTime, b.departureTime) && Objects.equals(a.arrivalTime, b.arrivalTime);
+    }
+
+    private static boolean sameSchedule(Map<String, AirlineService.Flight> a, Map<String, AirlineService.Flight> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (AirlineService.Flight flight : b.values()) {
+            AirlineService.Flight other = a.get(flight.flightCode);
+            if (other == null || !sameSchedule(other, flight)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Lower bound: index of the first flight departing on/after the given day
+    private static int firstDepartingAtOrAfter(AirlineService.Flight[] flights, String day) {
+        int lo = 0;
+        int hi = flights.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            String departure = flights[mid].departureTime;
+            if (departure != null && departure.compareTo(day) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static String routeKey(String source, String destination) {
+        return normalize(source) + '\u0000' + normalize(destination);
+    }
+
+    private static String normalize(String city) {
+        return city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+    }
+}
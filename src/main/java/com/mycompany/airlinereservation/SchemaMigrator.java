@@ -0,0 +1,276 @@
+package com.mycompany.airlinereservation;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SchemaMigrator.java - Versioned schema migrations (replaces DatabaseInitializer)
+ *
+ * Features:
+ * - Ordered migrations, each applied once per database and recorded in
+ *   schema_migrations with a SHA-256 checksum of its SQL
+ * - An edited migration that was already applied (checksum mismatch) stops
+ *   startup instead of silently diverging
+ * - MySQL named lock (GET_LOCK) around applying, so concurrent app instances
+ *   don't run the same DDL twice
+ * - Warm start: one primary-key MAX(version) lookup; once a process has
+ *   migrated, later calls return immediately
+ *
+ * Databases created by the old DatabaseInitializer / init_users.sql are
+ * adopted as-is: V1 only creates missing tables, and later steps tolerate
+ * "already exists" errors for objects those scripts had added.
+ * Never edit an applied migration - add a new version instead.
+ */
+public final class SchemaMigrator {
+
+    private static final String LOCK_NAME = "airline_db.schema_migrations";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    // MySQL error codes tolerated where a step may already be in place
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    private record Migration(int version, String description, Set<Integer> alreadyAppliedErrors, List<String> statements) {
+        String checksum() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                for (String sql : statements) {
+                    digest.update(sql.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) ';');
+                }
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "baseline schema", Set.of(), List.of(
+                    "CREATE TABLE IF NOT EXISTS users (" +
+                            "id INT AUTO_INCREMENT PRIMARY KEY," +
+                            "username VARCHAR(100) NOT NULL UNIQUE," +
+                            "password VARCHAR(255) NOT NULL," +
+                            "role VARCHAR(20) NOT NULL," +
+                            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+                    "CREATE TABLE IF NOT EXISTS airlines (" +
+                            "id INT AUTO_INCREMENT PRIMARY KEY," +
+                            "airline_name VARCHAR(255) NOT NULL UNIQUE," +
+                            "rating DECIMAL(2,1) DEFAULT NULL," +
+                            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+                    "CREATE TABLE IF NOT EXISTS flight (" +
+                            "id INT AUTO_INCREMENT PRIMARY KEY," +
+                            "flight_code VARCHAR(50) NOT NULL UNIQUE," +
+                            "flight_name VARCHAR(255)," +
+                            "source VARCHAR(100) NOT NULL," +
+                            "destination VARCHAR(100) NOT NULL," +
+                            "airline_id INT NOT NULL," +
+                            "departure_time DATETIME," +
+                            "arrival_time DATETIME," +
+                            "price INT," +
+                            "seats_available INT DEFAULT 100," +
+                            "total_seats INT DEFAULT 100," +
+                            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                            "FOREIGN KEY (airline_id) REFERENCES airlines(id) ON DELETE CASCADE)",
+                    "CREATE TABLE IF NOT EXISTS ticket (" +
+                            "id INT AUTO_INCREMENT PRIMARY KEY," +
+                            "pnr VARCHAR(50) NOT NULL UNIQUE," +
+                            "flight_code VARCHAR(50) NOT NULL," +
+                            "username VARCHAR(100) NOT NULL," +
+                            "customer_aadhar VARCHAR(12)," +
+                            "customer_name VARCHAR(255)," +
+                            "nationality VARCHAR(100)," +
+                            "address TEXT," +
+                            "gender VARCHAR(20)," +
+                            "source VARCHAR(100)," +
+                            "destination VARCHAR(100)," +
+                            "flight_name VARCHAR(255)," +
+                            "date_of_travel DATE," +
+                            "passenger_name VARCHAR(255)," +
+                            "booking_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                            "FOREIGN KEY (flight_code) REFERENCES flight(flight_code) ON DELETE CASCADE," +
+                            "INDEX (username))",
+                    "CREATE TABLE IF NOT EXISTS booking (" +
+                            "id INT AUTO_INCREMENT PRIMARY KEY," +
+                            "pnr VARCHAR(50) NOT NULL UNIQUE," +
+                            "username VARCHAR(100) NOT NULL," +
+                            "flight_code VARCHAR(50) NOT NULL," +
+                            "booking_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                            "date_of_travel DATE NOT NULL," +
+                            "class VARCHAR(50) NOT NULL," +
+                            "aadhaar VARCHAR(12) NOT NULL," +
+                            "status VARCHAR(50) DEFAULT 'Confirmed'," +
+                            "FOREIGN KEY (flight_code) REFERENCES flight(flight_code) ON DELETE CASCADE)",
+                    "CREATE TABLE IF NOT EXISTS bookings (" +
+                            "id INT AUTO_INCREMENT PRIMARY KEY," +
+                            "flight_code VARCHAR(50) NOT NULL," +
+                            "booking_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                            "amount DOUBLE NOT NULL)",
+                    "CREATE TABLE IF NOT EXISTS payments (" +
+                            "id INT AUTO_INCREMENT PRIMARY KEY," +
+                            "pnr VARCHAR(50) NOT NULL," +
+                            "amount DOUBLE NOT NULL," +
+                            "payment_method VARCHAR(100)," +
+                            "payment_status VARCHAR(50)," +
+                            "transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                            "INDEX (pnr))",
+                    "CREATE TABLE IF NOT EXISTS boarding_pass (" +
+                            "id INT AUTO_INCREMENT PRIMARY KEY," +
+                            "pnr VARCHAR(50) NOT NULL UNIQUE," +
+                            "passenger_name VARCHAR(255)," +
+                            "flight_code VARCHAR(50)," +
+                            "boarding_time VARCHAR(50)," +
+                            "gate_number VARCHAR(10)," +
+                            "seat_number VARCHAR(10)," +
+                            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)")),
+
+            // Change marker RouteIndex refreshes from
+            new Migration(2, "flight.updated_at change marker", Set.of(ER_DUP_FIELDNAME, ER_DUP_KEYNAME), List.of(
+                    "ALTER TABLE flight ADD COLUMN updated_at TIMESTAMP " +
+                            "DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP",
+                    "ALTER TABLE flight ADD INDEX idx_flight_updated_at (updated_at)")),
+
+            // Older users tables had a short password column; BCrypt hashes need 60+ chars
+            new Migration(3, "users.password wide enough for BCrypt", Set.of(), List.of(
+                    "ALTER TABLE users MODIFY password VARCHAR(255) NOT NULL")),
+
+            // Second precision let RouteIndex miss updates in the second of its last refresh
+            new Migration(4, "flight.updated_at microsecond precision", Set.of(), List.of(
+                    "ALTER TABLE flight MODIFY updated_at TIMESTAMP(6) " +
+                            "DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")),
+
+            // Passenger profiles (AddCustomer, BookFlight and the chatbot look them up by
+            // Aadhaar); no earlier script created this table
+            new Migration(5, "customer profiles", Set.of(), List.of(
+                    "CREATE TABLE IF NOT EXISTS customer (" +
+                            "customer_id INT AUTO_INCREMENT PRIMARY KEY," +
+                            "name VARCHAR(255) NOT NULL," +
+                            "nationality VARCHAR(100)," +
+                            "phone VARCHAR(20)," +
+                            "address TEXT," +
+                            "aadhar_no VARCHAR(12) NOT NULL UNIQUE," +
+                            "gender VARCHAR(20)," +
+                            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)"))
+    );
+
+    private static final int LATEST = MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+
+    private static volatile boolean upToDate;
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Bring the schema to the latest version (cheap when it already is)
+     *
+     * @return false if the database couldn't be migrated (details are logged)
+     */
+    public static boolean migrate() {
+        if (upToDate) {
+            return true;
+        }
+        synchronized (SchemaMigrator.class) {
+            if (upToDate) {
+                return true;
+            }
+            try (Connection conn = RepositorySupport.open()) {
+                if (currentVersion(conn) < LATEST) {
+                    applyPending(conn);
+                }
+                upToDate = true;
+                return true;
+            } catch (SQLException e) {
+                System.err.println("❌ SchemaMigrator: Failed - " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    // Highest applied version, 0 if the history table doesn't exist yet
+    private static int currentVersion(Connection conn) throws SQLException {
+        try {
+            Integer version = RepositorySupport.queryOne(conn, "SELECT MAX(version) AS version FROM schema_migrations",
+                    rs -> rs.getInt("version"));
+            return version == null ? 0 : version;
+        } catch (SQLException e) {
+            if ("42S02".equals(e.getSQLState())) { // table doesn't exist
+                return 0;
+            }
+            throw e;
+        }
+    }
+
+    private static void applyPending(Connection conn) throws SQLException {
+        Integer locked = RepositorySupport.queryOne(conn, "SELECT GET_LOCK(?, ?) AS locked",
+                rs -> {
+                    int value = rs.getInt("locked");
+                    return rs.wasNull() ? null : value;
+                }, LOCK_NAME, LOCK_TIMEOUT_SECONDS);
+        if (locked == null || locked != 1) {
+            throw new SQLException("Timed out waiting for the schema migration lock");
+        }
+        try {
+            RepositorySupport.update(conn, "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                    "version INT PRIMARY KEY," +
+                    "description VARCHAR(255) NOT NULL," +
+                    "checksum CHAR(64) NOT NULL," +
+                    "execution_ms INT NOT NULL," +
+                    "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+            // Another instance may have migrated while we waited for the lock
+            Map<Integer, String> applied = new HashMap<>();
+            for (Map.Entry<Integer, String> row : RepositorySupport.queryList(conn,
+                    "SELECT version, checksum FROM schema_migrations",
+                    rs -> Map.entry(rs.getInt("version"), rs.getString("checksum")))) {
+                applied.put(row.getKey(), row.getValue());
+            }
+
+            for (Migration migration : MIGRATIONS) {
+                String checksum = migration.checksum();
+                String recorded = applied.get(migration.version());
+                if (recorded != null) {
+                    if (!recorded.equals(checksum)) {
+                        throw new SQLException("Migration V" + migration.version() + " (" + migration.description()
+                                + ") was changed after it was applied; add a new migration instead");
+                    }
+                    continue;
+                }
+                apply(conn, migration, checksum);
+            }
+        } finally {
+            RepositorySupport.queryOne(conn, "SELECT RELEASE_LOCK(?) AS released", rs -> null, LOCK_NAME);
+        }
+    }
+
+    // MySQL DDL commits implicitly, so a migration can't be rolled back; statements are written to be re-runnable
+    private static void apply(Connection conn, Migration migration, String checksum) throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.statements()) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    if (!migration.alreadyAppliedErrors().contains(e.getErrorCode())) {
+                        throw new SQLException("Migration V" + migration.version() + " failed: " + e.getMessage(),
+                                e.getSQLState(), e.getErrorCode(), e);
+                    }
+                }
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        RepositorySupport.update(conn,
+                "INSERT INTO schema_migrations (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)",
+                migration.version(), migration.description(), checksum, (int) elapsed);
+        System.out.println("✅ SchemaMigrator: Applied V" + migration.version() + " - " + migration.description()
+                + " (" + elapsed + " ms)");
+    }
+}
@@ -0,0 +1,202 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SeatContentionBenchmark.java - Many concurrent bookers on one hot flight
+ *
+ * Compares the two seat inventory strategies against a real airline_db:
+ * - LOCKING: SELECT ... FOR UPDATE, booking writes, decrement, commit
+ * - CONDITIONAL: FlightRepository.bookSeat (conditional UPDATE, then the
+ *   booking writes, in the same transaction)
+ * Both hold the flight row lock until commit, so a seat is never taken
+ * without its booking; the conditional path saves the locking read and
+ * fails a sold-out booker before it writes anything.
+ *
+ * Each booker writes a row to the `booking` table (the one AirlineService
+ * and the booking screens write) and holds its transaction open for holdMs
+ * to stand in for the ticket and payment inserts.
+ * Reports throughput, latency percentiles and checks nothing was oversold.
+ * Creates (and removes) its own BENCH flight.
+ *
+ * Usage: SeatContentionBenchmark [bookers=200] [seats=150] [holdMs=2]
+ * Pool size defaults to 50 here; override with -Dairline.db.pool.maxSize.
+ */
+public class SeatContentionBenchmark {
+
+    private static final String FLIGHT_CODE = "BENCH-SEAT";
+
+    private static final String USERNAME = "bench_user";
+    private static final String AADHAAR = "999999999999";
+
+    private interface Strategy {
+        void book(long holdMs) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int bookers = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seats = args.length > 1 ? Integer.parseInt(args[1]) : 150;
+        long holdMs = args.length > 2 ? Long.parseLong(args[2]) : 2;
+        if (System.getProperty("airline.db.pool.maxSize") == null) {
+            System.setProperty("airline.db.pool.maxSize", "50");
+        }
+
+        System.out.println("==============================================");
+        System.out.println("Seat Contention Benchmark");
+        System.out.println("bookers=" + bookers + " seats=" + seats + " holdMs=" + holdMs);
+        System.out.println("==============================================\n");
+
+        SchemaMigrator.migrate();
+        try {
+            setUpFlight(seats);
+            // Warm up the pool and statement caches before measuring
+            run("warm-up", SeatContentionBenchmark::bookConditional, Math.min(bookers, 20), seats, 0);
+
+            run("LOCKING (SELECT ... FOR UPDATE)", SeatContentionBenchmark::bookLocking, bookers, seats, holdMs);
+            run("CONDITIONAL (UPDATE ... seats_available > 0)", SeatContentionBenchmark::bookConditional, bookers, seats, holdMs);
+        } finally {
+            tearDown();
+        }
+        System.out.println("Pool: " + DBConnection.getPoolStats());
+        System.exit(0);
+    }
+
+    // Old path: row lock held from the SELECT until commit
+    private static void bookLocking(long holdMs) throws SQLException {
+        RepositorySupport.inTransaction(conn -> {
+            Integer avail = RepositorySupport.queryOne(conn,
+                    "SELECT seats_available FROM flight WHERE flight_code = ? FOR UPDATE",
+                    rs -> rs.getInt("seats_available"), FLIGHT_CODE);
+            if (avail == null || avail <= 0) {
+                throw new FlightRepository.SeatUnavailableException(FLIGHT_CODE, avail != null);
+            }
+            insertBooking(conn);
+            pause(holdMs);
+            RepositorySupport.update(conn,
+                    "UPDATE flight SET seats_available = seats_available - 1 WHERE flight_code = ?", FLIGHT_CODE);
+            return null;
+        });
+    }
+
+    // New path: conditional UPDATE first, row lock held until the booking commits
+    private static void bookConditional(long holdMs) throws SQLException {
+        FlightRepository.bookSeat(FLIGHT_CODE, conn -> {
+            insertBooking(conn);
+            pause(holdMs);
+            return null;
+        });
+    }
+
+    private static void insertBooking(Connection conn) throws SQLException {
+        BookingRepository.insert(conn, PnrGenerator.next(), USERNAME, FLIGHT_CODE, "2030-01-01", "Economy", AADHAAR);
+    }
+
+    private static void run(String name, Strategy strategy, int bookers, int seats, long holdMs) throws Exception {
+        resetFlight(seats);
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencyMicros = new long[bookers];
+        CountDownLatch ready = new CountDownLatch(bookers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(bookers);
+
+        for (int i = 0; i < bookers; i++) {
+            final int id = i;
+            Thread t = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long t0 = System.nanoTime();
+                try {
+                    strategy.book(holdMs);
+                    booked.incrementAndGet();
+                } catch (FlightRepository.SeatUnavailableException e) {
+                    soldOut.incrementAndGet();
+                } catch (SQLException | RuntimeException e) {
+                    errors.incrementAndGet();
+                    System.err.println("❌ booker " + id + ": " + e.getMessage());
+                }
+                latencyMicros[id] = (System.nanoTime() - t0) / 1_000;
+            }, "booker-" + i);
+            threads.add(t);
+            t.start();
+        }
+
+        ready.await();
+        long wallStart = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        long wallMicros = (System.nanoTime() - wallStart) / 1_000;
+
+        int remaining = seatsLeft();
+        Arrays.sort(latencyMicros);
+        boolean consistent = booked.get() + remaining == seats && remaining >= 0;
+
+        System.out.println("▶ " + name);
+        System.out.printf("  booked=%d soldOut=%d errors=%d seatsLeft=%d %s%n",
+                booked.get(), soldOut.get(), errors.get(), remaining,
+                consistent ? "✅ consistent" : "❌ INVENTORY MISMATCH");
+        System.out.printf("  wall=%.1f ms  throughput=%.0f bookings/s%n",
+                wallMicros / 1000.0, bookers / (wallMicros / 1_000_000.0));
+        System.out.printf("  latency ms: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n%n",
+                percentile(latencyMicros, 50), percentile(latencyMicros, 95),
+                percentile(latencyMicros, 99), latencyMicros[latencyMicros.length - 1] / 1000.0);
+    }
+
+    private static double percentile(long[] sortedMicros, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sortedMicros.length) - 1;
+        return sortedMicros[Math.max(0, index)] / 1000.0;
+    }
+
+    private static void pause(long ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void setUpFlight(int seats) throws SQLException {
+        Integer airlineId = RepositorySupport.queryOne("SELECT MIN(id) AS id FROM airlines", rs -> {
+            int id = rs.getInt("id");
+            return rs.wasNull() ? null : id;
+        });
+        if (airlineId == null) {
+            AirlineRepository.insert("Bench Airline", null);
+            airlineId = AirlineRepository.findAirlineIds().get("Bench Airline");
+        }
+        tearDown();
+        FlightRepository.insert(FLIGHT_CODE, "Benchmark Flight", airlineId, "BenchSrc", "BenchDst",
+                4999.0, seats, seats, "2030-01-01 10:00:00", "2030-01-01 12:00:00");
+    }
+
+    private static void resetFlight(int seats) throws SQLException {
+        RepositorySupport.update("DELETE FROM booking WHERE flight_code = ?", FLIGHT_CODE);
+        RepositorySupport.update("UPDATE flight SET seats_available = ? WHERE flight_code = ?", seats, FLIGHT_CODE);
+    }
+
+    private static int seatsLeft() throws SQLException {
+        return RepositorySupport.queryOne("SELECT seats_available FROM flight WHERE flight_code = ?",
+                rs -> rs.getInt("seats_available"), FLIGHT_CODE);
+    }
+
+    private static void tearDown() throws SQLException {
+        RepositorySupport.update("DELETE FROM booking WHERE flight_code = ?", FLIGHT_CODE);
+        RepositorySupport.update("DELETE FROM flight WHERE flight_code = ?", FLIGHT_CODE);
+    }
+}
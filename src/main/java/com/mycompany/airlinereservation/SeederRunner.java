@@ -2,7 +2,8 @@ package com.mycompany.airlinereservation;
 
 public class SeederRunner {
     public static void main(String[] args) {
-        System.out.println("Running DataSeeder...");
+        System.out.println("Running SchemaMigrator and DataSeeder...");
+        SchemaMigrator.migrate();
         DataSeeder.seedAdmin();
         System.out.println("Done.");
     }
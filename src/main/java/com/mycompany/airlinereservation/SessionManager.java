@@ -1,76 +1,169 @@
 package com.mycompany.airlinereservation;
 
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
 /**
  * SessionManager.java
- * 
+ *
  * Singleton class for managing user session information.
- * Stores the currently authenticated user's username and provides access to it
- * throughout the application.
- * 
- * Usage:
- *   - After successful login: SessionManager.getInstance().setCurrentUser("username")
+ *
+ * Desktop (Swing) path - one default session per JVM:
+ *   - After successful login: SessionManager.getInstance().setCurrentUser("username", "Customer")
  *   - To get current user: String username = SessionManager.getInstance().getCurrentUser()
  *   - On logout: SessionManager.getInstance().clearSession()
- * 
+ *
+ * Server path - any number of concurrent sessions, each behind an opaque token:
+ *   - createSession(username, role) after authenticating, hand out session.getToken()
+ *   - getSession(token) on every request: a lock-free map read that also slides
+ *     the expiry; null once the session is gone
+ *   - invalidate(token) on logout
+ *
+ * Sessions expire after airline.session.idleMinutes (default 30) without a
+ * request. Expiry is driven by a hashed timer wheel (512 slots of
+ * airline.session.tickMs, default 1000 ms) on one daemon thread; lookups
+ * never touch the wheel - when a session's slot comes round the wheel checks
+ * its last access and either drops it or files it again for later.
+ * The default desktop session never expires.
+ *
  * This ensures data isolation - each dashboard view only shows data for the logged-in user.
  */
 public class SessionManager {
-    
-    private static SessionManager instance;
-    private String currentUsername;
-    
+
+    private static final Logger LOGGER = Logger.getLogger(SessionManager.class.getName());
+
+    private static final long IDLE_MILLIS = TimeUnit.MINUTES.toMillis(Long.getLong("airline.session.idleMinutes", 30L));
+    private static final long TICK_MILLIS = Math.max(10L, Long.getLong("airline.session.tickMs", 1000L));
+    private static final int WHEEL_SLOTS = 512; // power of two
+    private static final int TOKEN_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * One signed-in user. Everything but the last access time is immutable.
+     */
+    public static final class Session {
+        private final String token;
+        private final String username;
+        private final String role;
+        private final long createdAtMillis;
+        private volatile long lastAccessMillis;
+        private volatile boolean invalidated;
+
+        private Session(String token, String username, String role, long now) {
+            this.token = token;
+            this.username = username;
+            this.role = role;
+            this.createdAtMillis = now;
+            this.lastAccessMillis = now;
+        }
+
+        public String getToken() { return token; }
+        public String getUsername() { return username; }
+        public String getRole() { return role; }
+        public long getCreatedAtMillis() { return createdAtMillis; }
+        public long getLastAccessMillis() { return lastAccessMillis; }
+        public long getExpiresAtMillis() { return lastAccessMillis + IDLE_MILLIS; }
+
+        public boolean isAdmin() {
+            return "Admin".equalsIgnoreCase(role);
+        }
+    }
+
+    private static final class Holder {
+        private static final SessionManager INSTANCE = new SessionManager();
+    }
+
+    // Desktop session (null when logged out)
+    private volatile Session defaultSession;
+
+    // Server sessions by token
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+
+    // Timer wheel: slot i holds the sessions to check when the wheel reaches it
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ConcurrentLinkedQueue<Session>[] wheel = new ConcurrentLinkedQueue[WHEEL_SLOTS];
+    private volatile long tick;
+    private final AtomicBoolean wheelStarted = new AtomicBoolean();
+    private ScheduledExecutorService ticker;
+
     /**
      * Private constructor to prevent direct instantiation
      */
     private SessionManager() {
-        this.currentUsername = null;
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
     }
-    
+
     /**
      * Gets the singleton instance of SessionManager
      */
-    public static synchronized SessionManager getInstance() {
-        if (instance == null) {
-            instance = new SessionManager();
-        }
-        return instance;
+    public static SessionManager getInstance() {
+        return Holder.INSTANCE;
     }
-    
+
+    // ==================== Desktop (default) session ====================
+
     /**
      * Sets the currently logged-in user
      * @param username The username of the authenticated user
      */
     public void setCurrentUser(String username) {
-        this.currentUsername = username;
+        setCurrentUser(username, null);
+    }
+
+    /**
+     * Sets the currently logged-in user and the role they logged in with
+     */
+    public void setCurrentUser(String username, String role) {
+        this.defaultSession = username == null ? null : new Session(newToken(), username, role, System.currentTimeMillis());
         System.out.println("✅ SessionManager: User '" + username + "' logged in");
     }
-    
+
     /**
      * Gets the currently logged-in user
      * @return The username of the current user, or null if no user is logged in
      */
     public String getCurrentUser() {
-        return this.currentUsername;
+        Session session = defaultSession;
+        return session == null ? null : session.username;
     }
-    
+
+    /**
+     * The desktop session, or null if no user is logged in
+     */
+    public Session getDefaultSession() {
+        return defaultSession;
+    }
+
     /**
      * Checks if a user is currently logged in
      * @return true if a user is logged in, false otherwise
      */
     public boolean isUserLoggedIn() {
-        return this.currentUsername != null && !this.currentUsername.trim().isEmpty();
+        String username = getCurrentUser();
+        return username != null && !username.trim().isEmpty();
     }
-    
+
     /**
      * Clears the session (used on logout)
      */
     public void clearSession() {
-        if (this.currentUsername != null) {
-            System.out.println("✅ SessionManager: User '" + this.currentUsername + "' logged out");
+        Session session = defaultSession;
+        if (session != null) {
+            System.out.println("✅ SessionManager: User '" + session.username + "' logged out");
         }
-        this.currentUsername = null;
+        this.defaultSession = null;
     }
-    
+
     /**
      * Gets the current user with a null-check message
      * Useful for debugging when user is not logged in
@@ -81,6 +174,117 @@ public class SessionManager {
         if (!isUserLoggedIn()) {
             throw new IllegalStateException("❌ No user is currently logged in. Please log in first.");
         }
-        return this.currentUsername;
+        return getCurrentUser();
+    }
+
+    // ==================== Server sessions ====================
+
+    /**
+     * Start a session for an authenticated user
+     */
+    public Session createSession(String username, String role) {
+        startWheel();
+        Session session = new Session(newToken(), username, role, System.currentTimeMillis());
+        sessions.put(session.token, session);
+        schedule(session, IDLE_MILLIS);
+        return session;
+    }
+
+    /**
+     * The live session for a token, with its expiry pushed back; null if the
+     * token is unknown, logged out or expired
+     */
+    public Session getSession(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now >= session.getExpiresAtMillis()) {
+            // Expired between wheel ticks
+            sessions.remove(token, session);
+            return null;
+        }
+        // Skip the write while it wouldn't move the expiry by a tick (busy sessions)
+        if (now - session.lastAccessMillis >= TICK_MILLIS) {
+            session.lastAccessMillis = now;
+        }
+        return session;
+    }
+
+    /**
+     * Log a session out
+     * @return false if there was no such live session
+     */
+    public boolean invalidate(String token) {
+        Session session = token == null ? null : sessions.remove(token);
+        if (session == null) {
+            return false;
+        }
+        session.invalidated = true;
+        return true;
+    }
+
+    /**
+     * Server sessions currently live (the desktop session not included)
+     */
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private void startWheel() {
+        if (wheelStarted.compareAndSet(false, true)) {
+            ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "session-expiry-wheel");
+                t.setDaemon(true);
+                return t;
+            });
+            ticker.scheduleAtFixedRate(this::advance, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * File a session under the slot delayMillis ahead. Delays past one turn of
+     * the wheel land in the slot before the current one and are filed again
+     * when it comes round.
+     */
+    private void schedule(Session session, long delayMillis) {
+        long ticks = Math.min(Math.max(1, (delayMillis + TICK_MILLIS - 1) / TICK_MILLIS), WHEEL_SLOTS - 1);
+        wheel[(int) ((tick + ticks) & (WHEEL_SLOTS - 1))].add(session);
+    }
+
+    // Wheel thread: check the sessions filed under the next slot
+    private void advance() {
+        long current = tick + 1;
+        tick = current;
+        ConcurrentLinkedQueue<Session> slot = wheel[(int) (current & (WHEEL_SLOTS - 1))];
+        long now = System.currentTimeMillis();
+        int expired = 0;
+        Session session;
+        while ((session = slot.poll()) != null) {
+            if (session.invalidated) {
+                continue;
+            }
+            long remaining = session.getExpiresAtMillis() - now;
+            if (remaining <= 0) {
+                if (sessions.remove(session.token, session)) {
+                    expired++;
+                }
+            } else {
+                schedule(session, remaining);
+            }
+        }
+        if (expired > 0) {
+            LOGGER.fine("Expired " + expired + " idle session(s); " + sessions.size() + " live");
+        }
     }
 }
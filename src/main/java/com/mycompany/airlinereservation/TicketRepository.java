@@ -0,0 +1,233 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TicketRepository.java - Data access for the `ticket` and `boarding_pass` tables
+ *
+ * Handles:
+ * - Ticket inserts inside a booking transaction
+ * - Per-user ticket listings and detail lookups (always filtered by owner)
+ * - Ticket deletion (cancellation is a booking status, see BookingRepository)
+ * - Boarding pass records
+ *
+ * Detail lookups return rows as column-label keyed maps so each screen can
+ * show the columns its layout needs.
+ */
+public final class TicketRepository {
+
+    private TicketRepository() {
+    }
+
+    /**
+     * Values for a new ticket row
+     */
+    public record NewTicket(String pnr, String username, String aadhaar, String customerName,
+                            String nationality, String address, String gender, String source,
+                            String destination, String flightName, String flightCode, Object travelDate) {
+
+        /**
+         * The same ticket under another PNR (a retry after a PNR collision)
+         */
+        public NewTicket withPnr(String newPnr) {
+            return new NewTicket(newPnr, username, aadhaar, customerName, nationality, address, gender,
+                    source, destination, flightName, flightCode, travelDate);
+        }
+    }
+
+    public static void insert(Connection conn, NewTicket t) throws SQLException {
+        String sql = "INSERT INTO ticket (pnr, username, customer_aadhar, customer_name, nationality, address, " +
+                     "gender, source, destination, flight_name, flight_code, date_of_travel) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        RepositorySupport.update(conn, sql, t.pnr(), t.username(), t.aadhaar(), t.customerName(),
+                t.nationality(), t.address(), t.gender(), t.source(), t.destination(),
+                t.flightName(), t.flightCode(), t.travelDate());
+    }
+
+    /**
+     * Ticket row written alongside a service booking; route and flight name are
+     * copied from the flight in the same statement. travelDate may be a
+     * java.sql.Date or a "yyyy-MM-dd" string.
+     */
+    public static void insertForBooking(Connection conn, String pnr, String username, String aadhaar,
+                                        String passengerName, String flightCode, Object travelDate) throws SQLException {
+        RepositorySupport.update(conn,
+                "INSERT INTO ticket (pnr, username, customer_aadhar, customer_name, source, destination, " +
+                "flight_name, flight_code, date_of_travel) " +
+                "SELECT ?, ?, ?, ?, f.source, f.destination, f.flight_name, f.flight_code, ? " +
+                "FROM flight f WHERE f.flight_code = ?",
+                pnr, username, aadhaar, passengerName, travelDate, flightCode);
+    }
+
+    /**
+     * @return ticket details keyed like AirlineService expects, or an empty map if not found
+     */
+    public static Map<String, String> findByPnr(String pnr) throws SQLException {
+        String sql = "SELECT t.id AS ticket_id, t.pnr, t.customer_aadhar, t.customer_name, " +
+                     "t.nationality, t.address, t.gender, t.source, t.destination, " +
+                     "t.flight_name, t.flight_code, t.date_of_travel, t.booking_date " +
+                     "FROM ticket t WHERE t.pnr = ?";
+        Map<String, String> ticket = RepositorySupport.queryOne(sql, rs -> {
+            Map<String, String> row = new HashMap<>();
+            row.put("ticketId", rs.getString("ticket_id"));
+            row.put("pnr", rs.getString("pnr"));
+            row.put("aadhaar", rs.getString("customer_aadhar"));
+            row.put("name", rs.getString("customer_name"));
+            row.put("nationality", rs.getString("nationality"));
+            row.put("address", rs.getString("address"));
+            row.put("gender", rs.getString("gender"));
+            row.put("source", rs.getString("source"));
+            row.put("destination", rs.getString("destination"));
+            row.put("flightName", rs.getString("flight_name"));
+            row.put("flightCode", rs.getString("flight_code"));
+            row.put("travelDate", rs.getString("date_of_travel"));
+            row.put("bookingDate", rs.getString("booking_date"));
+            return row;
+        }, pnr);
+        return ticket != null ? ticket : new HashMap<>();
+    }
+
+    /**
+     * Passenger and flight fields printed on a boarding pass, or null if the PNR is unknown
+     */
+    public static Map<String, Object> findForBoardingPass(String pnr) throws SQLException {
+        return RepositorySupport.queryOne(
+                "SELECT customer_name, nationality, source, destination, flight_name, flight_code, date_of_travel " +
+                "FROM ticket WHERE pnr = ?",
+                RepositorySupport::toRow, pnr);
+    }
+
+    /**
+     * Summary of a ticket owned by the user, or null if not found / not theirs
+     */
+    public static Map<String, Object> findSummaryForOwner(String pnr, String username) throws SQLException {
+        return RepositorySupport.queryOne(
+                "SELECT customer_name, flight_code, date_of_travel FROM ticket WHERE pnr = ? AND username = ?",
+                RepositorySupport::toRow, pnr, username);
+    }
+
+    /**
+     * Ticket joined with its flight, owned by the user (booking details dialog)
+     */
+    public static Map<String, Object> findDetailsForOwner(String pnr, String username) throws SQLException {
+        return RepositorySupport.queryOne(
+                "SELECT t.*, f.flight_name, f.source, f.destination, f.departure_time, f.arrival_time " +
+                "FROM ticket t JOIN flight f ON t.flight_code = f.flight_code " +
+                "WHERE t.pnr = ? AND t.username = ?",
+                RepositorySupport::toRow, pnr, username);
+    }
+
+    /**
+     * Passenger and journey fields of a ticket owned by the user (journey details screen);
+     * class and status come from its booking row, status upper-cased (CONFIRMED, CANCELLED)
+     */
+    public static Map<String, Object> findJourneyForOwner(String pnr, String username) throws SQLException {
+        return RepositorySupport.queryOne(
+                "SELECT t.pnr, t.customer_name AS name, t.customer_aadhar AS aadhar_no, t.nationality, " +
+                "t.address, t.gender, b.class, UPPER(b.status) AS status, t.date_of_travel AS journey_date, " +
+                "t.booking_date, f.flight_name, f.flight_code, f.source, f.destination " +
+                "FROM ticket t JOIN flight f ON t.flight_code = f.flight_code " +
+                "LEFT JOIN booking b ON b.pnr = t.pnr " +
+                "WHERE t.pnr = ? AND t.username = ?",
+                RepositorySupport::toRow, pnr, username);
+    }
+
+    /**
+     * A user's tickets with flight info, class and status (as findJourneyForOwner), newest booking first
+     */
+    public static List<Map<String, Object>> findWithFlightByUsername(String username) throws SQLException {
+        return RepositorySupport.queryList(
+                "SELECT t.pnr, t.flight_code, f.flight_name, f.source, f.destination, " +
+                "t.date_of_travel AS journey_date, b.class, UPPER(b.status) AS status, t.booking_date, f.price " +
+                "FROM ticket t JOIN flight f ON t.flight_code = f.flight_code " +
+                "LEFT JOIN booking b ON b.pnr = t.pnr " +
+                "WHERE t.username = ? ORDER BY t.booking_date DESC",
+                RepositorySupport::toRow, username);
+    }
+
+    /**
+     * A user's tickets with the amount paid, latest travel date first
+     */
+    public static List<Map<String, Object>> findWithPaymentByUsername(String username) throws SQLException {
+        return RepositorySupport.queryList(
+                "SELECT t.pnr, t.flight_code, IFNULL(t.flight_name, '') AS flight_name, t.source, t.destination, " +
+                "t.date_of_travel, IFNULL(p.amount, 0) AS amount " +
+                "FROM ticket t LEFT JOIN payments p ON t.pnr = p.pnr " +
+                "WHERE t.username = ? ORDER BY t.date_of_travel DESC",
+                RepositorySupport::toRow, username);
+    }
+
+    /**
+     * Lock a ticket owned by the user and return its flight code, or null if not found
+     */
+    public static String lockFlightCodeForOwner(Connection conn, String pnr, String username) throws SQLException {
+        return RepositorySupport.queryOne(conn,
+                "SELECT flight_code FROM ticket WHERE pnr = ? AND username = ? FOR UPDATE",
+                rs -> rs.getString("flight_code"), pnr, username);
+    }
+
+    /**
+     * @return number of rows deleted
+     */
+    public static int deleteForOwner(Connection conn, String pnr, String username) throws SQLException {
+        return RepositorySupport.update(conn, "DELETE FROM ticket WHERE pnr = ? AND username = ?", pnr, username);
+    }
+
+    public static boolean insertBoardingPass(Connection conn, String pnr, String passengerName, String flightCode,
+                                             String boardingTime, String gateNumber, String seatNumber) throws SQLException {
+        String sql = "INSERT INTO boarding_pass (pnr, passenger_name, flight_code, boarding_time, " +
+                     "gate_number, seat_number, created_at) VALUES (?, ?, ?, ?, ?, ?, NOW())";
+        return RepositorySupport.update(conn, sql, pnr, passengerName, flightCode,
+                boardingTime, gateNumber, seatNumber) > 0;
+    }
+
+    /**
+     * @return boarding pass keyed like AirlineService expects, or an empty map if not found
+     */
+    public static Map<String, String> findBoardingPassByPnr(String pnr) throws SQLException {
+        String sql = "SELECT id, pnr, passenger_name, flight_code, boarding_time, gate_number, " +
+                     "seat_number, created_at FROM boarding_pass WHERE pnr = ?";
+        Map<String, String> pass = RepositorySupport.queryOne(sql, rs -> {
+            Map<String, String> row = new HashMap<>();
+            row.put("id", rs.getString("id"));
+            row.put("pnr", rs.getString("pnr"));
+            row.put("passengerName", rs.getString("passenger_name"));
+            row.put("flightCode", rs.getString("flight_code"));
+            row.put("boardingTime", rs.getString("boarding_time"));
+            row.put("gateNumber", rs.getString("gate_number"));
+            row.put("seatNumber", rs.getString("seat_number"));
+            row.put("createdAt", rs.getString("created_at"));
+            return row;
+        }, pnr);
+        return pass != null ? pass : new HashMap<>();
+    }
+
+    /**
+     * Boarding pass joined with flight and airline (chatbot boarding pass file), or null
+     */
+    public static Map<String, String> findBoardingPassWithFlight(String pnr) throws SQLException {
+        return RepositorySupport.queryOne(
+                "SELECT bp.pnr, bp.passenger_name, bp.flight_code, bp.boarding_time, bp.gate_number, " +
+                "bp.seat_number, a.airline_name, f.source, f.destination, f.departure_time " +
+                "FROM boarding_pass bp " +
+                "JOIN flight f ON bp.flight_code = f.flight_code " +
+                "LEFT JOIN airlines a ON f.airline_id = a.id " +
+                "WHERE UPPER(bp.pnr) = ?",
+                rs -> {
+                    Map<String, String> row = new HashMap<>();
+                    row.put("flightCode", rs.getString("flight_code"));
+                    row.put("airline", rs.getString("airline_name"));
+                    row.put("source", rs.getString("source"));
+                    row.put("destination", rs.getString("destination"));
+                    row.put("departureTime", rs.getString("departure_time"));
+                    row.put("seatNumber", rs.getString("seat_number"));
+                    row.put("passengerName", rs.getString("passenger_name"));
+                    row.put("boardingTime", rs.getString("boarding_time"));
+                    return row;
+                }, pnr);
+    }
+}
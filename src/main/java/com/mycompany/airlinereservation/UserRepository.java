@@ -0,0 +1,29 @@
+package com.mycompany.airlinereservation;
+
+import java.sql.SQLException;
+
+/**
+ * UserRepository.java - Data access for the `users` table (login accounts)
+ */
+public final class UserRepository {
+
+    private UserRepository() {
+    }
+
+    /**
+     * @return the stored password (BCrypt hash or legacy plaintext), or null if no such user/role
+     */
+    public static String findPassword(String username, String role) throws SQLException {
+        return RepositorySupport.queryOne("SELECT password FROM users WHERE username=? AND role=? LIMIT 1",
+                rs -> rs.getString("password"), username, role);
+    }
+
+    public static void updatePassword(String username, String hashedPassword) throws SQLException {
+        RepositorySupport.update("UPDATE users SET password = ? WHERE username = ?", hashedPassword, username);
+    }
+
+    public static boolean insertCustomer(String username, String hashedPassword) throws SQLException {
+        return RepositorySupport.update("INSERT INTO users (username, password, role) VALUES (?, ?, 'Customer')",
+                username, hashedPassword) > 0;
+    }
+}
@@ -4,14 +4,11 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.Map;
 
 /**
  * Simple viewer for the `bookings` table.
- * Uses DBConnection.getConnection() so it shares the project's DB config.
+ * Reads through TicketRepository so it shares the project's pooled DB config.
  * 
  * Enhanced for user-specific data isolation:
  * - Shows only tickets and bookings for the currently logged-in user
@@ -23,6 +20,7 @@ public class ViewBookings extends JFrame {
     private DefaultTableModel model;
     private JTable table;
     private String currentUsername;
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     public ViewBookings() {
         // Get the current logged-in user from SessionManager
@@ -76,46 +74,30 @@ public class ViewBookings extends JFrame {
     // ✅ ENHANCED: Shows only tickets for the current customer (filtered by username)
     // The ticket table now stores username directly, so we filter by that
     private void loadBookings(ActionEvent e) {
-        model.setRowCount(0);
-
         // ✅ SIMPLIFIED Query: Filter directly by username in ticket table
-        String sql = "SELECT t.pnr, t.flight_code, IFNULL(t.flight_name, '') AS flight_name, t.source, t.destination, t.date_of_travel, IFNULL(p.amount, 0) AS amount "
-            + "FROM ticket t "
-            + "LEFT JOIN payments p ON t.pnr = p.pnr "
-            + "WHERE t.username = ? "
-            + "ORDER BY t.date_of_travel DESC";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pst = conn.prepareStatement(sql)) {
-            
-            // Set the current username parameter
-            System.out.println("🔍 DEBUG: Querying tickets for username: '" + currentUsername + "'");  // Debug log
-            pst.setString(1, currentUsername);
-            
-            try (ResultSet rs = pst.executeQuery()) {
-                int rowCount = 0;
-                while (rs.next()) {
-                    model.addRow(new Object[] {
-                        rs.getString("pnr"),
-                        rs.getString("flight_code"),
-                        rs.getString("flight_name"),
-                        rs.getString("source"),
-                        rs.getString("destination"),
-                        rs.getDate("date_of_travel"),
-                        rs.getDouble("amount")
-                    });
-                    rowCount++;
-                }
-                
-                if (rowCount == 0) {
-                    ThemeManager.showInfo(this, "No bookings found for user: " + currentUsername);
-                }
+        System.out.println("🔍 DEBUG: Querying tickets for username: '" + currentUsername + "'");  // Debug log
+        db.query(() -> TicketRepository.findWithPaymentByUsername(currentUsername), rows -> {
+            model.setRowCount(0);
+            for (Map<String, Object> row : rows) {
+                Number amount = (Number) row.get("amount");
+                model.addRow(new Object[] {
+                    row.get("pnr"),
+                    row.get("flight_code"),
+                    row.get("flight_name"),
+                    row.get("source"),
+                    row.get("destination"),
+                    row.get("date_of_travel"),
+                    amount != null ? amount.doubleValue() : 0.0
+                });
             }
 
-        } catch (SQLException ex) {
+            if (rows.isEmpty()) {
+                ThemeManager.showInfo(this, "No bookings found for user: " + currentUsername);
+            }
+        }, ex -> {
             ex.printStackTrace();
             ThemeManager.showError(this, "Error loading bookings: " + ex.getMessage());
-        }
+        });
     }
 
     public static void main(String[] args) {
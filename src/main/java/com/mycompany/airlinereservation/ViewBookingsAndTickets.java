@@ -4,7 +4,7 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.sql.*;
+import java.util.Map;
 
 /**
  * ViewBookingsAndTickets.java
@@ -24,14 +24,11 @@ import java.sql.*;
  */
 public class ViewBookingsAndTickets extends JFrame {
 
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/airline_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "Spoorthi@2005";
-
     private JTable bookingsTable;
     private DefaultTableModel model;
     private String currentUsername;
     private JButton viewDetailsBtn, cancelTicketBtn, refreshBtn;
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
 
     public ViewBookingsAndTickets() {
         // 🔑 Get the currently logged-in user from session
@@ -103,50 +100,34 @@ public class ViewBookingsAndTickets extends JFrame {
      * ✅ KEY: Uses WHERE username = ? to filter by current user
      */
     private void loadUserBookings() {
-        model.setRowCount(0); // Clear table
-
-        String sql = "SELECT t.pnr, t.flight_code, f.flight_name, f.source, f.destination, " +
-                     "t.journey_date, t.class, t.status, t.booking_date, f.price " +
-                     "FROM ticket t " +
-                     "JOIN flight f ON t.flight_code = f.flight_code " +
-                     "WHERE t.username = ? " +  // 🔑 FILTER: Only current user's bookings
-                     "ORDER BY t.booking_date DESC";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Set the current user's username as the filter
-            pstmt.setString(1, currentUsername);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                int rowCount = 0;
-                while (rs.next()) {
-                    model.addRow(new Object[]{
-                            rs.getString("pnr"),
-                            rs.getString("flight_code"),
-                            rs.getString("flight_name"),
-                            rs.getString("source"),
-                            rs.getString("destination"),
-                            rs.getDate("journey_date"),
-                            rs.getString("class"),
-                            rs.getString("status"),
-                            rs.getTimestamp("booking_date"),
-                            String.format("₹%.2f", rs.getDouble("price"))
-                    });
-                    rowCount++;
-                }
-
-                if (rowCount == 0) {
-                    JOptionPane.showMessageDialog(this, 
-                        "📭 No bookings found. You haven't booked any flights yet.", 
-                        "No Bookings", JOptionPane.INFORMATION_MESSAGE);
-                }
+        // 🔑 FILTER: Only current user's bookings
+        db.query(() -> TicketRepository.findWithFlightByUsername(currentUsername), rows -> {
+            model.setRowCount(0); // Clear table
+            for (Map<String, Object> row : rows) {
+                Number price = (Number) row.get("price");
+                model.addRow(new Object[]{
+                        row.get("pnr"),
+                        row.get("flight_code"),
+                        row.get("flight_name"),
+                        row.get("source"),
+                        row.get("destination"),
+                        row.get("journey_date"),
+                        row.get("class"),
+                        row.get("status"),
+                        row.get("booking_date"),
+                        String.format("₹%.2f", price != null ? price.doubleValue() : 0.0)
+                });
             }
 
-        } catch (SQLException ex) {
+            if (rows.isEmpty()) {
+                JOptionPane.showMessageDialog(this, 
+                    "📭 No bookings found. You haven't booked any flights yet.", 
+                    "No Bookings", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }, ex -> {
             System.err.println("❌ Error loading bookings: " + ex.getMessage());
             ThemeManager.showError(this, "Error loading bookings: " + ex.getMessage());
-        }
+        });
     }
 
     /**
@@ -163,57 +144,44 @@ public class ViewBookingsAndTickets extends JFrame {
         String pnr = (String) model.getValueAt(selectedRow, 0);
         
         // Verify that the PNR belongs to the current user before showing details
-        String sql = "SELECT t.*, f.flight_name, f.source, f.destination, " +
-                     "f.departure_time, f.arrival_time " +
-                     "FROM ticket t " +
-                     "JOIN flight f ON t.flight_code = f.flight_code " +
-                     "WHERE t.pnr = ? AND t.username = ?";  // 🔑 Double-check: both PNR and username
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, pnr);
-            pstmt.setString(2, currentUsername);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    showDetailDialog(rs);
-                } else {
-                    ThemeManager.showError(this, "❌ Booking not found or access denied.");
-                }
+        // 🔑 Double-check: both PNR and username
+        db.query(() -> TicketRepository.findDetailsForOwner(pnr, currentUsername), details -> {
+            if (details != null) {
+                showDetailDialog(details);
+            } else {
+                ThemeManager.showError(this, "❌ Booking not found or access denied.");
             }
-
-        } catch (SQLException ex) {
+        }, ex -> {
             System.err.println("❌ Error fetching booking details: " + ex.getMessage());
             ThemeManager.showError(this, "Error fetching details: " + ex.getMessage());
-        }
+        });
     }
 
     /**
      * Display booking details in a dialog
      */
-    private void showDetailDialog(ResultSet rs) throws SQLException {
+    private void showDetailDialog(Map<String, Object> row) {
         StringBuilder details = new StringBuilder();
         details.append("📋 BOOKING DETAILS\n");
         details.append("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n\n");
         
         details.append("✈️  FLIGHT INFORMATION\n");
-        details.append("  PNR: ").append(rs.getString("pnr")).append("\n");
-        details.append("  Flight Code: ").append(rs.getString("flight_code")).append("\n");
-        details.append("  Flight Name: ").append(rs.getString("flight_name")).append("\n");
-        details.append("  Route: ").append(rs.getString("source")).append(" → ")
-                .append(rs.getString("destination")).append("\n\n");
+        details.append("  PNR: ").append(row.get("pnr")).append("\n");
+        details.append("  Flight Code: ").append(row.get("flight_code")).append("\n");
+        details.append("  Flight Name: ").append(row.get("flight_name")).append("\n");
+        details.append("  Route: ").append(row.get("source")).append(" → ")
+                .append(row.get("destination")).append("\n\n");
 
         details.append("👤 PASSENGER INFORMATION\n");
-        details.append("  Name: ").append(rs.getString("name")).append("\n");
-        details.append("  Aadhar: ").append(rs.getString("aadhar_no")).append("\n");
-        details.append("  Gender: ").append(rs.getString("gender")).append("\n\n");
+        details.append("  Name: ").append(row.get("name")).append("\n");
+        details.append("  Aadhar: ").append(row.get("aadhar_no")).append("\n");
+        details.append("  Gender: ").append(row.get("gender")).append("\n\n");
 
         details.append("📅 JOURNEY DETAILS\n");
-        details.append("  Journey Date: ").append(rs.getDate("journey_date")).append("\n");
-        details.append("  Booking Date: ").append(rs.getTimestamp("booking_date")).append("\n");
-        details.append("  Class: ").append(rs.getString("class")).append("\n");
-        details.append("  Status: ").append(rs.getString("status")).append("\n");
+        details.append("  Journey Date: ").append(row.get("journey_date")).append("\n");
+        details.append("  Booking Date: ").append(row.get("booking_date")).append("\n");
+        details.append("  Class: ").append(row.get("class")).append("\n");
+        details.append("  Status: ").append(row.get("status")).append("\n");
 
         JTextArea textArea = new JTextArea(details.toString());
         textArea.setEditable(false);
@@ -263,29 +231,18 @@ public class ViewBookingsAndTickets extends JFrame {
             return;
         }
 
-        // 🔑 Cancel ticket with double-check (PNR + username)
-        String sql = "UPDATE ticket SET status = 'CANCELLED', cancellation_date = NOW() " +
-                     "WHERE pnr = ? AND username = ?";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, pnr);
-            pstmt.setString(2, currentUsername);
-
-            int rowsUpdated = pstmt.executeUpdate();
-
-            if (rowsUpdated > 0) {
+        // 🔑 Cancel booking with double-check (PNR + username); the seat is released with it
+        db.update(() -> AirlineService.cancelBookingForOwner(pnr, currentUsername), cancelled -> {
+            if (cancelled) {
                 JOptionPane.showMessageDialog(this, "✅ Ticket cancelled successfully!", 
                     "Success", JOptionPane.INFORMATION_MESSAGE);
                 loadUserBookings(); // Refresh the table
             } else {
                 ThemeManager.showError(this, "❌ Failed to cancel ticket. Access denied or ticket not found.");
             }
-
-        } catch (SQLException ex) {
+        }, ex -> {
             System.err.println("❌ Error cancelling ticket: " + ex.getMessage());
             ThemeManager.showError(this, "Error cancelling ticket: " + ex.getMessage());
-        }
+        });
     }
 }
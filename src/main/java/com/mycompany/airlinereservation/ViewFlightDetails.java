@@ -3,7 +3,9 @@ package com.mycompany.airlinereservation;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.*;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,6 +20,9 @@ public class ViewFlightDetails extends JFrame {
     // Current logged-in user for session-based operations
     private final String currentUsername;
 
+    private final AsyncDb.Scope db = AsyncDb.scope(this);
+    private Future<?> tableQuery; // latest table load; a newer search cancels it
+
     public ViewFlightDetails() {
         String username = SessionManager.getInstance().getCurrentUser();
         this.currentUsername = (username != null && !username.isEmpty()) ? username : "Unknown User";
@@ -100,61 +105,33 @@ public class ViewFlightDetails extends JFrame {
 
     // 🔹 Load distinct source and destination for filters
     private void loadSourceDestinations() {
-        String sqlSrc = "SELECT DISTINCT source FROM flight";
-        String sqlDest = "SELECT DISTINCT destination FROM flight";
-
-        try (Connection conn = DBConnection.getConnection()) {
-            try (PreparedStatement pstSrc = conn.prepareStatement(sqlSrc);
-                 ResultSet rsSrc = pstSrc.executeQuery()) {
-                while (rsSrc.next()) {
-                    comboSource.addItem(rsSrc.getString("source"));
-                }
+        db.query(() -> List.of(RouteIndex.sources(), RouteIndex.destinations()), lists -> {
+            for (String source : lists.get(0)) {
+                comboSource.addItem(source);
             }
-
-            try (PreparedStatement pstDest = conn.prepareStatement(sqlDest);
-                 ResultSet rsDest = pstDest.executeQuery()) {
-                while (rsDest.next()) {
-                    comboDestination.addItem(rsDest.getString("destination"));
-                }
+            for (String destination : lists.get(1)) {
+                comboDestination.addItem(destination);
             }
-        } catch (SQLException ex) {
+        }, ex -> {
             LOGGER.log(Level.SEVERE, "Error loading source/destination data", ex);
             JOptionPane.showMessageDialog(this, 
                 "Error loading locations: " + ex.getMessage(),
                 "Database Error",
                 JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     // 🔹 Fetch and display all flights
     // ✅ ENHANCED: Also show which flights the current user has already booked
     private void fetchFlightData() {
-        model.setRowCount(0);
-        
-        String sql = "SELECT f.flight_code, f.flight_name, f.source, f.destination, f.seats_available, f.price " +
-                    "FROM flight f " +
-                    "ORDER BY f.flight_code";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                model.addRow(new Object[]{
-                    rs.getString("flight_code"),
-                    rs.getString("flight_name"),
-                    rs.getString("source"),
-                    rs.getString("destination"),
-                    rs.getInt("seats_available"),
-                    rs.getDouble("price")
-                });
-            }
-        } catch (SQLException ex) {
+        if (tableQuery != null) tableQuery.cancel(true);
+        tableQuery = db.query(FlightRepository::findAll, this::showFlightRows, ex -> {
             LOGGER.log(Level.SEVERE, "Error loading flight data", ex);
             JOptionPane.showMessageDialog(this, 
                 "Error loading flight data: " + ex.getMessage(),
                 "Database Error",
                 JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     // 🔹 Handle Search Button
@@ -172,42 +149,33 @@ public class ViewFlightDetails extends JFrame {
             return;
         }
 
-        model.setRowCount(0);
-        
-        String sql = "SELECT f.flight_code, f.flight_name, f.source, f.destination, f.seats_available, f.price " +
-                    "FROM flight f " +
-                    "WHERE f.source = ? AND f.destination = ? " +
-                    "ORDER BY f.flight_code";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pst = conn.prepareStatement(sql)) {
-            
-            pst.setString(1, source);
-            pst.setString(2, destination);
-            
-            try (ResultSet rs = pst.executeQuery()) {
-
-                while (rs.next()) {
-                model.addRow(new Object[]{
-                    rs.getString("flight_code"),
-                    rs.getString("flight_name"),
-                    rs.getString("source"),
-                    rs.getString("destination"),
-                    rs.getInt("seats_available"),
-                    rs.getDouble("price")
-                });
-            }
+        if (tableQuery != null) tableQuery.cancel(true);
+        tableQuery = db.query(() -> RouteIndex.search(source, destination, null), flights -> {
+            showFlightRows(flights);
 
             if (model.getRowCount() == 0) {
                 ThemeManager.showInfo(this, "No flights found for this route.");
             }
-            }
-        } catch (SQLException ex) {
+        }, ex -> {
             LOGGER.log(Level.SEVERE, "Error searching flights", ex);
             JOptionPane.showMessageDialog(this,
                 "Error searching flights: " + ex.getMessage(),
                 "Database Error", 
                 JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private void showFlightRows(List<AirlineService.Flight> flights) {
+        model.setRowCount(0);
+        for (AirlineService.Flight flight : flights) {
+            model.addRow(new Object[]{
+                flight.flightCode,
+                flight.flightName,
+                flight.source,
+                flight.destination,
+                flight.seatsAvailable,
+                (double) flight.price
+            });
         }
     }
 
@@ -240,70 +208,29 @@ public class ViewFlightDetails extends JFrame {
                 JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            bookFlight(flightCode, price);
+            bookFlight(flightCode);
         }
     }
 
     // 🔹 Insert into Bookings table
-    private void bookFlight(String flightCode, double price) {
-        String checkSql = "SELECT seats_available FROM flight WHERE flight_code = ? FOR UPDATE";
-        String insertSql = "INSERT INTO bookings (flight_code, booking_date, amount) VALUES (?, NOW(), ?)";
-        String updateSql = "UPDATE flight SET seats_available = seats_available - 1 WHERE flight_code = ?";
-
-        try (Connection conn = DBConnection.getConnection()) {
-            conn.setAutoCommit(false);
-            try {
-                // 0. Check availability
-                try (PreparedStatement pstCheck = conn.prepareStatement(checkSql)) {
-                    pstCheck.setString(1, flightCode);
-                    try (ResultSet rs = pstCheck.executeQuery()) {
-                        if (!rs.next()) {
-                            conn.rollback();
-                            ThemeManager.showError(this, "Flight not found. Cannot book.");
-                            return;
-                        }
-                        int avail = rs.getInt("seats_available");
-                        if (avail <= 0) {
-                            conn.rollback();
-                            ThemeManager.showError(this, "No seats available for this flight.");
-                            return;
-                        }
-                    }
-                }
-
-                // 1. Insert booking
-                try (PreparedStatement pstIns = conn.prepareStatement(insertSql)) {
-                    pstIns.setString(1, flightCode);
-                    pstIns.setDouble(2, price);
-                    int rows = pstIns.executeUpdate();
-                    if (rows <= 0) {
-                        conn.rollback();
-                        ThemeManager.showError(this, "Booking failed!");
-                        return;
-                    }
-                }
-
-                // 2. Decrement seats
-                try (PreparedStatement pstUpd = conn.prepareStatement(updateSql)) {
-                    pstUpd.setString(1, flightCode);
-                    pstUpd.executeUpdate();
-                }
-
-                conn.commit();
-                ThemeManager.showInfo(this, "✅ Booking Successful!");
-
-            } catch (SQLException exInner) {
-                try { conn.rollback(); } catch (SQLException ignore) {}
-                exInner.printStackTrace();
-                ThemeManager.showError(this, "Error during booking (rolled back): " + exInner.getMessage());
-            } finally {
-                try { conn.setAutoCommit(true); } catch (SQLException ignore) {}
+    private void bookFlight(String flightCode) {
+        // Seat is taken with one conditional UPDATE and the booking row written in the same transaction
+        // (charged at the fare read with the seat, not the price the dialog showed)
+        db.update(() -> FlightRepository.bookSeat(flightCode, (conn, fare) -> {
+            if (!BookingRepository.insertQuickBooking(conn, flightCode, fare)) {
+                throw new SQLException("Booking failed!");
             }
-
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            ThemeManager.showError(this, "Error during booking!");
-        }
+            return null;
+        }), ignored -> ThemeManager.showInfo(this, "✅ Booking Successful!"), ex -> {
+            if (ex instanceof FlightRepository.SeatUnavailableException seatEx) {
+                ThemeManager.showError(this, seatEx.flightExists()
+                        ? "No seats available for this flight."
+                        : "Flight not found. Cannot book.");
+            } else {
+                ex.printStackTrace();
+                ThemeManager.showError(this, "Error during booking (rolled back): " + ex.getMessage());
+            }
+        });
     }
 
     public static void main(String[] args) {
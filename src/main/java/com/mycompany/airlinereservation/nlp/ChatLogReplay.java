@@ -0,0 +1,88 @@
+package com.mycompany.airlinereservation.nlp;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ChatLogReplay.java - Re-runs intent detection over a chat log
+ *
+ * Streams the log through SpacyNLPClient.processBatch (the /process/batch
+ * endpoint) and reports the intent distribution and throughput in
+ * utterances/second. The file is read lazily, so logs of any size work.
+ *
+ * Log format: one utterance per line. A line of the form
+ * "expected_intent<TAB>utterance" is also scored against the expected
+ * intent, giving the detector's accuracy on labelled logs. Blank lines are
+ * skipped.
+ *
+ * Usage: ChatLogReplay <log-file> [chunkSize=64] [inFlight=4] [serviceUrl=http://localhost:5000]
+ */
+public class ChatLogReplay {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: ChatLogReplay <log-file> [chunkSize=64] [inFlight=4] [serviceUrl]");
+            return;
+        }
+        Path log = Path.of(args[0]);
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : SpacyNLPClient.DEFAULT_BATCH_CHUNK_SIZE;
+        int inFlight = args.length > 2 ? Integer.parseInt(args[2]) : SpacyNLPClient.DEFAULT_BATCH_IN_FLIGHT;
+        String url = args.length > 3 ? args[3] : "http://localhost:5000";
+
+        System.out.println("==============================================");
+        System.out.println("Chat Log Replay");
+        System.out.println("log=" + log + " chunkSize=" + chunkSize + " inFlight=" + inFlight + " service=" + url);
+        System.out.println("==============================================\n");
+
+        SpacyNLPClient client = new SpacyNLPClient(url);
+        if (!client.isServiceAvailable()) {
+            System.out.println("❌ spaCy service is not running. Please start it with:");
+            System.out.println("   cd spacy_service");
+            System.out.println("   python app.py");
+            return;
+        }
+
+        // Expected intents of the lines sent but not yet answered (responses come back in order)
+        ArrayDeque<String> expected = new ArrayDeque<>();
+        Map<String, Integer> intents = new TreeMap<>();
+        int[] labelled = new int[2]; // labelled lines, correct
+
+        SpacyNLPClient.BatchStats stats;
+        try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            Iterator<String> utterances = reader.lines()
+                    .filter(line -> !line.isBlank())
+                    .map(line -> {
+                        int tab = line.indexOf('\t');
+                        expected.add(tab >= 0 ? line.substring(0, tab).trim() : "");
+                        return tab >= 0 ? line.substring(tab + 1) : line;
+                    })
+                    .iterator();
+
+            stats = client.processBatch(utterances, chunkSize, inFlight, response -> {
+                String label = expected.poll();
+                String intent = response.isSuccess() ? response.getPrimaryIntent() : "(failed)";
+                intents.merge(intent, 1, Integer::sum);
+                if (label != null && !label.isEmpty() && response.isSuccess()) {
+                    labelled[0]++;
+                    if (label.equals(intent)) {
+                        labelled[1]++;
+                    }
+                }
+            });
+        }
+
+        System.out.println("Intents:");
+        intents.forEach((intent, count) -> System.out.printf("   %-20s %8d%n", intent, count));
+        if (labelled[0] > 0) {
+            System.out.printf("%nAccuracy: %d/%d = %.1f%%%n", labelled[1], labelled[0], 100.0 * labelled[1] / labelled[0]);
+        }
+        System.out.println("\n▶ " + stats);
+    }
+}
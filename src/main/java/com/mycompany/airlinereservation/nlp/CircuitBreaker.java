@@ -0,0 +1,191 @@
+package com.mycompany.airlinereservation.nlp;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * CircuitBreaker.java - Closed / open / half-open breaker for a remote service
+ *
+ * Features:
+ * - Trips on the error rate or the slow-call rate over a sliding window of
+ *   the most recent calls (once the window has enough calls to judge)
+ * - While open, callers fail fast (tryAcquire() returns false)
+ * - After the open period - or as soon as a health probe succeeds - a few
+ *   trial calls are let through (half-open); they close the breaker if they
+ *   all succeed quickly and re-open it otherwise
+ *
+ * Every tryAcquire() that returns true must be followed by exactly one
+ * onSuccess / onFailure, or onCancelled when the caller abandoned the call.
+ */
+public final class CircuitBreaker {
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class.getName());
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte OK = 0;
+    private static final byte SLOW = 1;
+    private static final byte FAILED = 2;
+
+    private final String name;
+    private final int minCalls;
+    private final int failureRatePercent;
+    private final int slowRatePercent;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenTrials;
+
+    // Ring buffer of recent outcomes
+    private final byte[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state;
+    private long openedAtNanos;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    /**
+     * @param windowSize         number of recent calls judged
+     * @param minCalls           calls needed in the window before it can trip
+     * @param failureRatePercent trip when at least this share of calls failed
+     * @param slowRatePercent    trip when at least this share of calls were slow
+     * @param slowCallMs         a successful call slower than this counts as slow
+     * @param openMs             how long to fail fast before trying again
+     * @param halfOpenTrials     trial calls that must succeed to close again
+     * @param startOpen          start open (health unknown) until a probe or trial succeeds
+     */
+    public CircuitBreaker(String name, int windowSize, int minCalls, int failureRatePercent, int slowRatePercent,
+                          long slowCallMs, long openMs, int halfOpenTrials, boolean startOpen) {
+        this.name = name;
+        this.window = new byte[Math.max(1, windowSize)];
+        this.minCalls = Math.max(1, Math.min(minCalls, window.length));
+        this.failureRatePercent = failureRatePercent;
+        this.slowRatePercent = slowRatePercent;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenTrials = Math.max(1, halfOpenTrials);
+        this.state = startOpen ? State.OPEN : State.CLOSED;
+        this.openedAtNanos = System.nanoTime();
+    }
+
+    /**
+     * May a call go out now? False means fail fast.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                return false;
+            }
+            halfOpen("open period elapsed");
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsInFlight >= halfOpenTrials - trialSuccesses) {
+                return false;
+            }
+            trialsInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess(long latencyNanos) {
+        boolean slow = latencyNanos > slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+            if (slow) {
+                open("slow trial call (" + TimeUnit.NANOSECONDS.toMillis(latencyNanos) + " ms)");
+            } else if (++trialSuccesses >= halfOpenTrials) {
+                close();
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(slow ? SLOW : OK);
+        }
+    }
+
+    public synchronized void onFailure(long latencyNanos) {
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+            open("trial call failed");
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(FAILED);
+        }
+    }
+
+    /**
+     * The call was cancelled before it finished: free its trial slot
+     * without counting it either way
+     */
+    public synchronized void onCancelled() {
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+        }
+    }
+
+    /**
+     * Feed an out-of-band health check: a healthy probe lets trial traffic
+     * through right away; a failed one opens the breaker.
+     */
+    public synchronized void onProbe(boolean healthy) {
+        if (healthy && state == State.OPEN) {
+            halfOpen("health probe succeeded");
+        } else if (!healthy && state != State.OPEN) {
+            open("health probe failed");
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void record(byte outcome) {
+        if (recorded == window.length) {
+            byte evicted = window[next];
+            if (evicted == FAILED) failures--;
+            if (evicted == SLOW) slowCalls--;
+        } else {
+            recorded++;
+        }
+        window[next] = outcome;
+        next = (next + 1) % window.length;
+        if (outcome == FAILED) failures++;
+        if (outcome == SLOW) slowCalls++;
+
+        if (recorded < minCalls) {
+            return;
+        }
+        if (failures * 100 >= failureRatePercent * recorded) {
+            open(failures + "/" + recorded + " recent calls failed");
+        } else if (slowCalls * 100 >= slowRatePercent * recorded) {
+            open(slowCalls + "/" + recorded + " recent calls were slow");
+        }
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        trialsInFlight = 0;
+        trialSuccesses = 0;
+        LOGGER.warning("🔴 " + name + " circuit OPEN: " + reason);
+    }
+
+    private void halfOpen(String reason) {
+        state = State.HALF_OPEN;
+        trialsInFlight = 0;
+        trialSuccesses = 0;
+        LOGGER.info("🟡 " + name + " circuit HALF-OPEN: " + reason);
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        LOGGER.info("🟢 " + name + " circuit CLOSED: service recovered");
+    }
+}
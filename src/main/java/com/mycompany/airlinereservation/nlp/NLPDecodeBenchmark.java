@@ -0,0 +1,119 @@
+package com.mycompany.airlinereservation.nlp;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * NLPDecodeBenchmark.java - Allocation and time per decoded spaCy response
+ *
+ * Decodes the same /process response body (as it arrives: bytes) two ways:
+ * - tree: body read into a String, parsed into a Gson tree, entities and
+ *   extracted data converted to generic Maps (how responses were decoded
+ *   before NLPResponseDecoder)
+ * - stream: NLPResponseDecoder reading the bytes through a Reader
+ *
+ * and reports bytes allocated and nanoseconds per decoded response, measured
+ * with the per-thread allocation counter after a warm-up.
+ *
+ * Usage: NLPDecodeBenchmark [iterations=200000]
+ */
+public class NLPDecodeBenchmark {
+
+    private static final String BODY = "{\"success\": true, "
+            + "\"original_text\": \"Book a business class flight from Delhi to Mumbai on 2026-11-02\", "
+            + "\"intent\": {\"primary_intent\": \"book_flight\", \"confidence\": 0.4, \"all_intents\": ["
+            + "{\"intent\": \"book_flight\", \"score\": 2}, {\"intent\": \"check_availability\", \"score\": 2}, "
+            + "{\"intent\": \"flight_status\", \"score\": 1}]}, "
+            + "\"entities\": {\"locations\": [{\"text\": \"Delhi\", \"normalized\": \"Delhi\", \"type\": \"location\"}, "
+            + "{\"text\": \"Mumbai\", \"normalized\": \"Mumbai\", \"type\": \"location\"}], "
+            + "\"dates\": [{\"text\": \"2026-11-02\", \"type\": \"date\"}], \"organizations\": [], \"money\": [], "
+            + "\"person\": [], \"custom_locations\": []}, "
+            + "\"extracted_data\": {\"route\": {\"source\": \"Delhi\", \"destination\": \"Mumbai\"}, "
+            + "\"travel_date\": \"2026-11-02\", \"travel_class\": \"Business\"}, "
+            + "\"pos_tags\": [[\"Book\", \"VERB\"], [\"a\", \"DET\"], [\"business\", \"NOUN\"], [\"class\", \"NOUN\"], "
+            + "[\"flight\", \"NOUN\"], [\"from\", \"ADP\"], [\"Delhi\", \"PROPN\"], [\"to\", \"ADP\"], "
+            + "[\"Mumbai\", \"PROPN\"], [\"on\", \"ADP\"], [\"2026-11-02\", \"NUM\"]], "
+            + "\"processed_at\": \"2026-10-16T21:04:11.201934\"}";
+
+    private static final Gson GSON = new Gson();
+
+    // Keeps the JIT from discarding the decoded results
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+
+        System.out.println("==============================================");
+        System.out.println("NLP Response Decoding Benchmark");
+        System.out.println("body=" + body.length + " bytes iterations=" + iterations);
+        System.out.println("==============================================\n");
+
+        NLPResponse check = stream(body);
+        if (!"book_flight".equals(check.getPrimaryIntent()) || !"Mumbai".equals(check.getDestination())
+                || check.getLocations().size() != 2) {
+            System.out.println("❌ Stream decoder returned " + check);
+            return;
+        }
+
+        // Warm up both paths before measuring either
+        for (int i = 0; i < Math.min(iterations, 50_000); i++) {
+            sink += tree(body).getPrimaryIntent().length();
+            sink += stream(body).getPrimaryIntent().length();
+        }
+
+        report("tree  ", measure(body, iterations, false), iterations);
+        report("stream", measure(body, iterations, true), iterations);
+        System.out.println("\n(checksum " + sink + ")");
+    }
+
+    private static long[] measure(byte[] body, int iterations, boolean streaming) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long bytes0 = threads.getThreadAllocatedBytes(thread);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            NLPResponse response = streaming ? stream(body) : tree(body);
+            sink += response.getPrimaryIntent().length();
+        }
+        return new long[]{threads.getThreadAllocatedBytes(thread) - bytes0, System.nanoTime() - t0};
+    }
+
+    private static void report(String label, long[] result, int iterations) {
+        System.out.printf("▶ %s %8.0f bytes/response %8.0f ns/response%n",
+                label, (double) result[0] / iterations, (double) result[1] / iterations);
+    }
+
+    private static NLPResponse stream(byte[] body) throws IOException {
+        return NLPResponseDecoder.decode(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static NLPResponse tree(byte[] body) {
+        JsonObject json = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+        NLPResponse response = new NLPResponse();
+        response.setSuccess(json.get("success").getAsBoolean());
+        response.setOriginalText(json.get("original_text").getAsString());
+        response.setProcessedAt(json.get("processed_at").getAsString());
+
+        JsonObject intentJson = json.getAsJsonObject("intent");
+        response.setIntent(new NLPIntent(intentJson.get("primary_intent").getAsString(),
+                intentJson.get("confidence").getAsDouble()));
+
+        Map<String, Object> entities = GSON.fromJson(json.get("entities"), Map.class);
+        Map<String, Object> extracted = GSON.fromJson(json.get("extracted_data"), Map.class);
+        Map<String, Object> route = (Map<String, Object>) extracted.get("route");
+        response.setSource((String) route.get("source"));
+        response.setDestination((String) route.get("destination"));
+        sink += entities.size();
+        return response;
+    }
+}
@@ -1,6 +1,7 @@
 package com.mycompany.airlinereservation.nlp;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -14,28 +15,33 @@ import java.util.Map;
  * - Extracted data (route, travel date, travel class, Aadhaar)
  * - POS tags for grammatical analysis
  * - Processing timestamp
+ *
+ * Built by NLPResponseDecoder straight from the response stream. Responses
+ * may be cached and shared, so treat a decoded response as read-only.
  */
 public class NLPResponse {
     private boolean success;
     private String originalText;
     private NLPIntent intent;
-    private Map<String, Object> entities;
-    private Map<String, Object> extractedData;
+    private Map<String, List<NLPEntity>> entities;
+    private String source;
+    private String destination;
+    private String travelDate;
+    private String travelClass;
+    private String aadhaar;
     private String[] posTags;
     private String processedAt;
     private String error;
 
     // Constructors
     public NLPResponse() {
-        this.entities = new HashMap<>();
-        this.extractedData = new HashMap<>();
+        this.entities = new LinkedHashMap<>();
     }
 
     public NLPResponse(boolean success, String originalText) {
         this.success = success;
         this.originalText = originalText;
-        this.entities = new HashMap<>();
-        this.extractedData = new HashMap<>();
+        this.entities = new LinkedHashMap<>();
     }
 
     // Getters and Setters
@@ -63,20 +69,55 @@ public class NLPResponse {
         this.intent = intent;
     }
 
-    public Map<String, Object> getEntities() {
+    /**
+     * Entities by category ("locations", "custom_locations", "dates", ...)
+     */
+    public Map<String, List<NLPEntity>> getEntities() {
         return entities;
     }
 
-    public void setEntities(Map<String, Object> entities) {
+    public void setEntities(Map<String, List<NLPEntity>> entities) {
         this.entities = entities;
     }
 
-    public Map<String, Object> getExtractedData() {
-        return extractedData;
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public String getTravelDate() {
+        return travelDate;
+    }
+
+    public void setTravelDate(String travelDate) {
+        this.travelDate = travelDate;
+    }
+
+    public String getTravelClass() {
+        return travelClass;
     }
 
-    public void setExtractedData(Map<String, Object> extractedData) {
-        this.extractedData = extractedData;
+    public void setTravelClass(String travelClass) {
+        this.travelClass = travelClass;
+    }
+
+    public String getAadhaar() {
+        return aadhaar;
+    }
+
+    public void setAadhaar(String aadhaar) {
+        this.aadhaar = aadhaar;
     }
 
     public String[] getPosTags() {
@@ -120,17 +161,28 @@ public class NLPResponse {
     /**
      * Get locations from entities
      */
-    @SuppressWarnings("unchecked")
-    public List<Object> getLocations() {
-        return (List<Object>) entities.getOrDefault("locations", List.of());
+    public List<NLPEntity> getLocations() {
+        return entities.getOrDefault("locations", List.of());
+    }
+
+    /**
+     * Locations found by the model followed by those from the city synonym table
+     */
+    public List<NLPEntity> getAllLocations() {
+        List<NLPEntity> custom = entities.getOrDefault("custom_locations", List.of());
+        if (custom.isEmpty()) {
+            return getLocations();
+        }
+        List<NLPEntity> all = new ArrayList<>(getLocations());
+        all.addAll(custom);
+        return all;
     }
 
     /**
      * Get dates from entities
      */
-    @SuppressWarnings("unchecked")
-    public List<Object> getDates() {
-        return (List<Object>) entities.getOrDefault("dates", List.of());
+    public List<NLPEntity> getDates() {
+        return entities.getOrDefault("dates", List.of());
     }
 
     @Override
@@ -139,6 +191,7 @@ public class NLPResponse {
                 "success=" + success +
                 ", originalText='" + originalText + '\'' +
                 ", intent=" + intent +
+                ", route=" + source + "->" + destination +
                 ", processedAt='" + processedAt + '\'' +
                 '}';
     }
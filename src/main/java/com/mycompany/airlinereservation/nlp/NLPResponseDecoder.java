@@ -0,0 +1,217 @@
+package com.mycompany.airlinereservation.nlp;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * NLPResponseDecoder.java - Streaming decoder for spaCy service responses
+ *
+ * Reads the JSON of /process, /entities, /intent, /extract-route and
+ * /process/batch token by token (Gson JsonReader) straight into
+ * NLPResponse / NLPIntent / NLPEntity - no parse tree, no generic maps, no
+ * intermediate body String. Unknown fields (and pos_tags, which nothing
+ * reads) are skipped without being materialized.
+ *
+ * Malformed JSON is reported as JsonSyntaxException (unchecked), so the
+ * transport tells it apart from I/O errors and does not retry it.
+ */
+public final class NLPResponseDecoder {
+
+    private NLPResponseDecoder() {
+    }
+
+    /**
+     * Decode one response object (any single-text endpoint)
+     */
+    public static NLPResponse decode(Reader body) throws IOException {
+        try {
+            return readResponse(new JsonReader(body));
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Decode a /process/batch response, handing each result to the sink in
+     * order as soon as it is read; returns how many were decoded
+     */
+    public static int decodeBatch(Reader body, Consumer<NLPResponse> sink) throws IOException {
+        try {
+            JsonReader in = new JsonReader(body);
+            int count = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("results") && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        sink.accept(readResponse(in));
+                        count++;
+                    }
+                    in.endArray();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return count;
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * decodeBatch into a list
+     */
+    public static List<NLPResponse> decodeBatch(Reader body) throws IOException {
+        List<NLPResponse> results = new ArrayList<>();
+        decodeBatch(body, results::add);
+        return results;
+    }
+
+    private static NLPResponse readResponse(JsonReader in) throws IOException {
+        NLPResponse response = new NLPResponse();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "success" -> response.setSuccess(in.nextBoolean());
+                case "original_text" -> response.setOriginalText(nextString(in));
+                case "processed_at" -> response.setProcessedAt(nextString(in));
+                case "error" -> response.setError(nextString(in));
+                case "intent" -> response.setIntent(readIntent(in));
+                case "entities" -> response.setEntities(readEntities(in));
+                case "extracted_data" -> readExtractedData(in, response);
+                case "route" -> readRoute(in, response); // /extract-route
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return response;
+    }
+
+    private static NLPIntent readIntent(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        NLPIntent intent = new NLPIntent();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "primary_intent" -> intent.setPrimaryIntent(nextString(in));
+                case "confidence" -> intent.setConfidence(in.nextDouble());
+                case "all_intents" -> intent.setAllIntents(readIntentNames(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return intent;
+    }
+
+    // [{"intent": "book_flight", "score": 2}, ...] -> ["book_flight", ...]
+    private static String[] readIntentNames(JsonReader in) throws IOException {
+        List<String> names = new ArrayList<>(4);
+        in.beginArray();
+        while (in.hasNext()) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("intent")) {
+                    names.add(nextString(in));
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+        }
+        in.endArray();
+        return names.toArray(new String[0]);
+    }
+
+    private static Map<String, List<NLPEntity>> readEntities(JsonReader in) throws IOException {
+        Map<String, List<NLPEntity>> entities = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String category = in.nextName();
+            in.beginArray();
+            if (!in.hasNext()) {
+                in.endArray();
+                continue; // empty categories are the norm; don't allocate for them
+            }
+            List<NLPEntity> list = new ArrayList<>(2);
+            while (in.hasNext()) {
+                list.add(readEntity(in));
+            }
+            in.endArray();
+            entities.put(category, list);
+        }
+        in.endObject();
+        return entities;
+    }
+
+    private static NLPEntity readEntity(JsonReader in) throws IOException {
+        NLPEntity entity = new NLPEntity();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "text" -> entity.setText(nextString(in));
+                case "normalized" -> entity.setNormalized(nextString(in));
+                case "type" -> entity.setType(nextString(in));
+                case "label" -> entity.setLabel(nextString(in));
+                case "start_char" -> entity.setStartChar(in.nextInt());
+                case "end_char" -> entity.setEndChar(in.nextInt());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return entity;
+    }
+
+    private static void readExtractedData(JsonReader in, NLPResponse response) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "route" -> readRoute(in, response);
+                case "travel_date" -> response.setTravelDate(nextString(in));
+                case "travel_class" -> response.setTravelClass(nextString(in));
+                case "aadhaar" -> response.setAadhaar(nextString(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private static void readRoute(JsonReader in, NLPResponse response) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return;
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "source" -> response.setSource(nextString(in));
+                case "destination" -> response.setDestination(nextString(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    // String or null (JSON null and the empty string both mean "absent")
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String value = in.nextString();
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,334 @@
+package com.mycompany.airlinereservation.nlp;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * NlpHttpTransport.java - Shared HTTP transport for the spaCy NLP service
+ *
+ * Used by NLPService and SpacyNLPClient so both share one connection pool.
+ *
+ * Features:
+ * - One OkHttp client: keep-alive, pooled connections, short connect timeout
+ * - Retries on network errors, 5xx and 429 with exponential backoff and
+ *   full jitter (no fixed sleeps, no retry storms in lock-step)
+ * - A latency budget: every attempt and backoff must fit in it. A chat
+ *   message opens one budget (beginMessage) shared by all its NLP calls;
+ *   a call outside one gets a budget of its own.
+ * - Async variants (postJsonAsync) run the same retry loop on a virtual
+ *   thread; the deadline is fixed when the call is made, so a message's
+ *   budget still applies to calls it starts in parallel. A stage derived
+ *   from one doesn't forward cancel(); cancelling(stage, call) links them.
+ * - Successful bodies go straight from the socket to a BodyDecoder (no
+ *   intermediate String)
+ *
+ * Tuning (system properties, milliseconds unless noted):
+ * - airline.nlp.budgetMs (1500)        total time per chat message
+ * - airline.nlp.connectTimeoutMs (500)
+ * - airline.nlp.maxAttempts (3)
+ * - airline.nlp.backoffBaseMs (50), airline.nlp.backoffMaxMs (400)
+ * - airline.nlp.pool.maxIdle (8), airline.nlp.pool.keepAliveSeconds (300)
+ */
+public final class NlpHttpTransport {
+    private static final Logger LOGGER = Logger.getLogger(NlpHttpTransport.class.getName());
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private static final long BUDGET_MS = Long.getLong("airline.nlp.budgetMs", 1500L);
+    private static final long CONNECT_TIMEOUT_MS = Long.getLong("airline.nlp.connectTimeoutMs", 500L);
+    private static final int MAX_ATTEMPTS = Integer.getInteger("airline.nlp.maxAttempts", 3);
+    private static final long BACKOFF_BASE_MS = Long.getLong("airline.nlp.backoffBaseMs", 50L);
+    private static final long BACKOFF_MAX_MS = Long.getLong("airline.nlp.backoffMaxMs", 400L);
+
+    // Don't start an attempt with less time than this left
+    private static final long MIN_ATTEMPT_MS = 20;
+
+    private static final NlpHttpTransport SHARED = new NlpHttpTransport();
+
+    private static final ThreadLocal<Budget> CURRENT_BUDGET = new ThreadLocal<>();
+
+    private static final ExecutorService ASYNC = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("nlp-async-", 0).factory());
+
+    private final OkHttpClient client;
+
+    /**
+     * Status and body of a completed HTTP exchange
+     */
+    public record Result(int code, String body) {
+        public boolean isSuccessful() {
+            return code >= 200 && code < 300;
+        }
+    }
+
+    /**
+     * Reads a successful (2xx) response body from the stream. I/O failures
+     * are thrown as IOException (and retried); a malformed body as an
+     * unchecked exception (not retried).
+     */
+    @FunctionalInterface
+    public interface BodyDecoder<T> {
+        T decode(Reader body) throws IOException;
+    }
+
+    /**
+     * Status of a completed exchange with its decoded body, or the error text
+     * when the status was not 2xx or the decoder rejected the body
+     */
+    public record Decoded<T>(int code, T value, String error) {
+        public boolean isSuccessful() {
+            return value != null;
+        }
+    }
+
+    /**
+     * Deadline shared by the NLP calls of one chat message (try-with-resources)
+     */
+    public static final class Budget implements AutoCloseable {
+        private final long deadlineNanos;
+        private final boolean owner;
+
+        private Budget(long deadlineNanos, boolean owner) {
+            this.deadlineNanos = deadlineNanos;
+            this.owner = owner;
+        }
+
+        public long remainingMillis() {
+            return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+        }
+
+        @Override
+        public void close() {
+            if (owner) {
+                CURRENT_BUDGET.remove();
+            }
+        }
+    }
+
+    private NlpHttpTransport() {
+        this.client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(
+                        Integer.getInteger("airline.nlp.pool.maxIdle", 8),
+                        Long.getLong("airline.nlp.pool.keepAliveSeconds", 300L), TimeUnit.SECONDS))
+                .connectTimeout(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                // Per-call limits come from the budget (Call.timeout), not fixed read/write timeouts
+                .readTimeout(0, TimeUnit.MILLISECONDS)
+                .writeTimeout(0, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(false)
+                .build();
+    }
+
+    public static NlpHttpTransport shared() {
+        return SHARED;
+    }
+
+    /**
+     * Start the budget for one chat message on this thread. Nested calls
+     * join the outer budget instead of extending it.
+     */
+    public static Budget beginMessage() {
+        Budget outer = CURRENT_BUDGET.get();
+        if (outer != null) {
+            return new Budget(outer.deadlineNanos, false);
+        }
+        Budget budget = new Budget(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BUDGET_MS), true);
+        CURRENT_BUDGET.set(budget);
+        return budget;
+    }
+
+    /**
+     * POST a JSON body, retrying transient failures within the budget, and
+     * decode the response
+     */
+    public <T> Decoded<T> postJson(String url, String json, BodyDecoder<T> decoder) throws IOException {
+        return execute(post(url, json), MAX_ATTEMPTS, budgetDeadline(), decoder);
+    }
+
+    /**
+     * POST a JSON body with a time limit of its own instead of the chat
+     * budget (offline batch work), retrying transient failures within it
+     */
+    public <T> Decoded<T> postJson(String url, String json, long timeoutMs, BodyDecoder<T> decoder)
+            throws IOException {
+        return execute(post(url, json), MAX_ATTEMPTS, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs),
+                decoder);
+    }
+
+    /**
+     * postJson on a virtual thread, within the calling thread's budget.
+     * Completes exceptionally with the IOException postJson would throw;
+     * cancelling the future interrupts the call.
+     */
+    public <T> CompletableFuture<Decoded<T>> postJsonAsync(String url, String json, BodyDecoder<T> decoder) {
+        return submit(post(url, json), budgetDeadline(), decoder);
+    }
+
+    /**
+     * postJsonAsync with a per-call deadline; inside a chat message the
+     * earlier of the two applies
+     */
+    public <T> CompletableFuture<Decoded<T>> postJsonAsync(String url, String json, long timeoutMs,
+                                                           BodyDecoder<T> decoder) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Budget active = CURRENT_BUDGET.get();
+        if (active != null && active.deadlineNanos - deadline < 0) {
+            deadline = active.deadlineNanos;
+        }
+        return submit(post(url, json), deadline, decoder);
+    }
+
+    /**
+     * Single GET attempt bounded by the connect timeout (health checks)
+     */
+    public Result probe(String url) throws IOException {
+        Request request = new Request.Builder().url(url).get().build();
+        Call call = client.newCall(request);
+        call.timeout().timeout(CONNECT_TIMEOUT_MS * 2, TimeUnit.MILLISECONDS);
+        try (Response response = call.execute()) {
+            ResponseBody body = response.body();
+            return new Result(response.code(), body != null ? body.string() : "");
+        }
+    }
+
+    /**
+     * Cancel the transport call when the stage derived from it is cancelled
+     * (handle/thenApply stages don't pass cancel() upstream); returns stage
+     */
+    public static <T> CompletableFuture<T> cancelling(CompletableFuture<T> stage, Future<?> call) {
+        stage.whenComplete((result, error) -> {
+            if (stage.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return stage;
+    }
+
+    private static Request post(String url, String json) {
+        return new Request.Builder().url(url).post(RequestBody.create(json, JSON)).build();
+    }
+
+    private static long budgetDeadline() {
+        Budget active = CURRENT_BUDGET.get();
+        return active != null ? active.deadlineNanos : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BUDGET_MS);
+    }
+
+    private <T> CompletableFuture<Decoded<T>> submit(Request request, long deadline, BodyDecoder<T> decoder) {
+        CompletableFuture<Decoded<T>> future = new CompletableFuture<>();
+        Future<?> task = ASYNC.submit(() -> {
+            try {
+                future.complete(execute(request, MAX_ATTEMPTS, deadline, decoder));
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    private <T> Decoded<T> execute(Request request, int maxAttempts, long deadline, BodyDecoder<T> decoder)
+            throws IOException {
+        IOException lastError = null;
+        Decoded<T> lastResult = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs < MIN_ATTEMPT_MS) {
+                break;
+            }
+            if (attempt > 0) {
+                long sleepMs = Math.min(backoffMillis(attempt), remainingMs - MIN_ATTEMPT_MS);
+                LOGGER.info("🔄 Retrying " + request.url().encodedPath() + " in " + sleepMs + " ms (attempt "
+                        + (attempt + 1) + "/" + maxAttempts + ")");
+                sleep(sleepMs);
+                // Overslept: a 0 ms call timeout would mean no timeout at all in OkHttp
+                remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs < MIN_ATTEMPT_MS) {
+                    break;
+                }
+            }
+
+            Call call = client.newCall(request);
+            call.timeout().timeout(remainingMs, TimeUnit.MILLISECONDS);
+            try {
+                lastResult = read(call, decoder);
+                lastError = null;
+                if (!isRetryable(lastResult.code())) {
+                    return lastResult;
+                }
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                lastError = e;
+            }
+        }
+
+        if (lastResult != null && lastError == null) {
+            return lastResult; // still failing with a retryable status; the caller sees the code
+        }
+        if (lastError != null) {
+            throw lastError;
+        }
+        throw new InterruptedIOException("NLP latency budget exhausted");
+    }
+
+    private static <T> Decoded<T> read(Call call, BodyDecoder<T> decoder) throws IOException {
+        try (Response response = call.execute()) {
+            ResponseBody body = response.body();
+            int code = response.code();
+            if (code < 200 || code >= 300 || body == null) {
+                return new Decoded<>(code, null, body != null ? body.string() : "");
+            }
+            T value;
+            try {
+                value = decoder.decode(body.charStream());
+            } catch (RuntimeException e) {
+                // A malformed body is not worth a retry (I/O errors mid-body are): the caller sees the error
+                return new Decoded<>(code, null, "Malformed response: " + e.getMessage());
+            }
+            return value != null ? new Decoded<>(code, value, null) : new Decoded<>(code, null, "Empty response");
+        }
+    }
+
+    private static boolean isRetryable(int code) {
+        return code >= 500 || code == 429;
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^(attempt - 1))]
+    private static long backoffMillis(int attempt) {
+        long ceiling = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off");
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package com.mycompany.airlinereservation.nlp;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -23,23 +27,27 @@ import java.util.logging.Level;
  * - Extract specific entities (locations, dates, money, etc.)
  * - Detect user intent with confidence scoring
  * - Extract travel routes from natural language
+ * - Process large text collections (chat logs) in batches
  * 
  * Features:
- * - Automatic retry on connection failure
- * - Timeout handling
- * - JSON serialization/deserialization using Gson
+ * - Automatic retry with jittered backoff and a latency budget, over the
+ *   pooled keep-alive transport shared with NLPService (NlpHttpTransport)
+ * - Responses decoded straight from the stream into typed objects
+ *   (NLPResponseDecoder); requests written with a JsonWriter
  * - Comprehensive logging
  * - Health check endpoint
+ * - Streaming batch processing: chunks are pipelined with a bounded number
+ *   of requests in flight and results come back in input order
+ * - Async variants (processTextAsync, detectIntentAsync, ...) returning
+ *   CompletableFutures, each with its own deadline, so callers can overlap
+ *   NLP with other work
  */
 public class SpacyNLPClient {
     private static final Logger LOGGER = Logger.getLogger(SpacyNLPClient.class.getName());
     
     private final String serviceUrl;
-    private final OkHttpClient httpClient;
-    private final Gson gson;
-    private boolean serviceAvailable = false;
-    private int retryCount = 0;
-    private static final int MAX_RETRIES = 3;
+    private final NlpHttpTransport transport;
+    private volatile boolean serviceAvailable = false;
 
     // Default endpoints
     private static final String PROCESS_ENDPOINT = "/process";
@@ -47,20 +55,23 @@ public class SpacyNLPClient {
     private static final String INTENT_ENDPOINT = "/intent";
     private static final String EXTRACT_ROUTE_ENDPOINT = "/extract-route";
     private static final String HEALTH_ENDPOINT = "/health";
+    private static final String BATCH_ENDPOINT = "/process/batch";
+
+    // Batch defaults (the service accepts at most 1000 texts per request)
+    public static final int DEFAULT_BATCH_CHUNK_SIZE = 64;
+    public static final int DEFAULT_BATCH_IN_FLIGHT = 4;
+    private static final int MAX_BATCH_CHUNK_SIZE = 1000;
+    private static final long BATCH_TIMEOUT_MS = Long.getLong("airline.nlp.batch.timeoutMs", 30_000L);
+
+    // Deadline of an async call made without one (retries included)
+    public static final long DEFAULT_ASYNC_TIMEOUT_MS = Long.getLong("airline.nlp.async.timeoutMs", 1500L);
 
     /**
      * Constructor with service URL
      */
     public SpacyNLPClient(String serviceUrl) {
         this.serviceUrl = serviceUrl;
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
-        
-        // Configure OkHttpClient with timeout
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(10, TimeUnit.SECONDS)
-                .readTimeout(10, TimeUnit.SECONDS)
-                .writeTimeout(10, TimeUnit.SECONDS)
-                .build();
+        this.transport = NlpHttpTransport.shared();
         
         // Check service health on initialization
         checkServiceHealth();
@@ -78,20 +89,14 @@ public class SpacyNLPClient {
      */
     public boolean checkServiceHealth() {
         try {
-            Request request = new Request.Builder()
-                    .url(serviceUrl + HEALTH_ENDPOINT)
-                    .get()
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                serviceAvailable = response.isSuccessful();
-                if (serviceAvailable) {
-                    LOGGER.info("✅ spaCy NLP Service is available at " + serviceUrl);
-                } else {
-                    LOGGER.warning("⚠️  spaCy NLP Service returned status: " + response.code());
-                }
-                return serviceAvailable;
+            NlpHttpTransport.Result response = transport.probe(serviceUrl + HEALTH_ENDPOINT);
+            serviceAvailable = response.isSuccessful();
+            if (serviceAvailable) {
+                LOGGER.info("✅ spaCy NLP Service is available at " + serviceUrl);
+            } else {
+                LOGGER.warning("⚠️  spaCy NLP Service returned status: " + response.code());
             }
+            return serviceAvailable;
         } catch (IOException e) {
             serviceAvailable = false;
             LOGGER.warning("❌ spaCy NLP Service unavailable: " + e.getMessage());
@@ -113,25 +118,14 @@ public class SpacyNLPClient {
         }
 
         try {
-            NLPRequest request = new NLPRequest(text);
-            String jsonRequest = gson.toJson(request);
-
-            RequestBody body = RequestBody.create(jsonRequest, MediaType.parse("application/json"));
-            Request httpRequest = new Request.Builder()
-                    .url(serviceUrl + PROCESS_ENDPOINT)
-                    .post(body)
-                    .build();
-
-            try (Response response = httpClient.newCall(httpRequest).execute()) {
-                if (!response.isSuccessful()) {
-                    String errorBody = response.body() != null ? response.body().string() : "";
-                    LOGGER.warning("API Error " + response.code() + ": " + errorBody);
-                    return createErrorResponse("API returned status " + response.code());
-                }
-
-                String responseBody = response.body() != null ? response.body().string() : "";
-                return parseResponse(responseBody);
+            NlpHttpTransport.Decoded<NLPResponse> response = post(PROCESS_ENDPOINT, text);
+            if (!response.isSuccessful()) {
+                LOGGER.warning("API Error " + response.code() + ": " + response.error());
+                return createErrorResponse(failure(response));
             }
+
+            LOGGER.info("✅ Successfully processed: " + response.value().getOriginalText());
+            return response.value();
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Network error calling spaCy service", e);
             return createErrorResponse("Network error: " + e.getMessage());
@@ -150,23 +144,12 @@ public class SpacyNLPClient {
         }
 
         try {
-            NLPRequest request = new NLPRequest(text);
-            String jsonRequest = gson.toJson(request);
-
-            RequestBody body = RequestBody.create(jsonRequest, MediaType.parse("application/json"));
-            Request httpRequest = new Request.Builder()
-                    .url(serviceUrl + ENTITIES_ENDPOINT)
-                    .post(body)
-                    .build();
-
-            try (Response response = httpClient.newCall(httpRequest).execute()) {
-                if (!response.isSuccessful()) {
-                    return createErrorResponse("API returned status " + response.code());
-                }
-
-                String responseBody = response.body() != null ? response.body().string() : "";
-                return parseResponse(responseBody);
+            NlpHttpTransport.Decoded<NLPResponse> response = post(ENTITIES_ENDPOINT, text);
+            if (!response.isSuccessful()) {
+                return createErrorResponse(failure(response));
             }
+
+            return response.value();
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Error extracting entities", e);
             return createErrorResponse("Error: " + e.getMessage());
@@ -182,29 +165,9 @@ public class SpacyNLPClient {
         }
 
         try {
-            NLPRequest request = new NLPRequest(text);
-            String jsonRequest = gson.toJson(request);
-
-            RequestBody body = RequestBody.create(jsonRequest, MediaType.parse("application/json"));
-            Request httpRequest = new Request.Builder()
-                    .url(serviceUrl + INTENT_ENDPOINT)
-                    .post(body)
-                    .build();
-
-            try (Response response = httpClient.newCall(httpRequest).execute()) {
-                if (!response.isSuccessful()) {
-                    return new NLPIntent("unknown", 0.0);
-                }
-
-                String responseBody = response.body() != null ? response.body().string() : "";
-                JsonObject json = JsonParser.parseString(responseBody).getAsJsonObject();
-                
-                if (json.has("intent")) {
-                    JsonObject intentJson = json.getAsJsonObject("intent");
-                    String primaryIntent = intentJson.get("primary_intent").getAsString();
-                    double confidence = intentJson.get("confidence").getAsDouble();
-                    return new NLPIntent(primaryIntent, confidence);
-                }
+            NlpHttpTransport.Decoded<NLPResponse> response = post(INTENT_ENDPOINT, text);
+            if (response.isSuccessful()) {
+                return intentOf(response.value());
             }
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Error detecting intent", e);
@@ -222,29 +185,9 @@ public class SpacyNLPClient {
         }
 
         try {
-            NLPRequest request = new NLPRequest(text);
-            String jsonRequest = gson.toJson(request);
-
-            RequestBody body = RequestBody.create(jsonRequest, MediaType.parse("application/json"));
-            Request httpRequest = new Request.Builder()
-                    .url(serviceUrl + EXTRACT_ROUTE_ENDPOINT)
-                    .post(body)
-                    .build();
-
-            try (Response response = httpClient.newCall(httpRequest).execute()) {
-                if (!response.isSuccessful()) {
-                    return new RouteInfo(null, null);
-                }
-
-                String responseBody = response.body() != null ? response.body().string() : "";
-                JsonObject json = JsonParser.parseString(responseBody).getAsJsonObject();
-                
-                if (json.has("route")) {
-                    JsonObject routeJson = json.getAsJsonObject("route");
-                    String source = routeJson.get("source").isJsonNull() ? null : routeJson.get("source").getAsString();
-                    String destination = routeJson.get("destination").isJsonNull() ? null : routeJson.get("destination").getAsString();
-                    return new RouteInfo(source, destination);
-                }
+            NlpHttpTransport.Decoded<NLPResponse> response = post(EXTRACT_ROUTE_ENDPOINT, text);
+            if (response.isSuccessful()) {
+                return routeOf(response.value());
             }
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Error extracting route", e);
@@ -253,42 +196,249 @@ public class SpacyNLPClient {
         return new RouteInfo(null, null);
     }
 
+    // ==================== Async API ====================
+
+    /**
+     * processText without blocking, within the default async deadline
+     */
+    public CompletableFuture<NLPResponse> processTextAsync(String text) {
+        return processTextAsync(text, DEFAULT_ASYNC_TIMEOUT_MS);
+    }
+
+    /**
+     * processText on a virtual thread; the call (retries included) must finish
+     * within timeoutMs. Like processText, failures come back as error
+     * responses rather than exceptional completion.
+     */
+    public CompletableFuture<NLPResponse> processTextAsync(String text, long timeoutMs) {
+        return postAsync(PROCESS_ENDPOINT, text, timeoutMs,
+                response -> response, error -> createErrorResponse(describe(error)));
+    }
+
+    /**
+     * extractEntities without blocking, within timeoutMs
+     */
+    public CompletableFuture<NLPResponse> extractEntitiesAsync(String text, long timeoutMs) {
+        return postAsync(ENTITIES_ENDPOINT, text, timeoutMs,
+                response -> response, error -> createErrorResponse(describe(error)));
+    }
+
+    /**
+     * detectIntent without blocking; "unknown" (confidence 0) on failure
+     */
+    public CompletableFuture<NLPIntent> detectIntentAsync(String text, long timeoutMs) {
+        return postAsync(INTENT_ENDPOINT, text, timeoutMs,
+                SpacyNLPClient::intentOf, error -> new NLPIntent("unknown", 0.0));
+    }
+
+    /**
+     * extractRoute without blocking; an empty route on failure
+     */
+    public CompletableFuture<RouteInfo> extractRouteAsync(String text, long timeoutMs) {
+        return postAsync(EXTRACT_ROUTE_ENDPOINT, text, timeoutMs,
+                SpacyNLPClient::routeOf, error -> new RouteInfo(null, null));
+    }
+
+    private NlpHttpTransport.Decoded<NLPResponse> post(String endpoint, String text) throws IOException {
+        return transport.postJson(serviceUrl + endpoint, textRequest(text), NLPResponseDecoder::decode);
+    }
+
+    // POST {"text": ...}; the decoded 2xx response goes to onSuccess, any failure to onError.
+    // Cancelling the returned future cancels the HTTP call.
+    private <R> CompletableFuture<R> postAsync(String endpoint, String text, long timeoutMs,
+                                               Function<NLPResponse, R> onSuccess, Function<Throwable, R> onError) {
+        CompletableFuture<NlpHttpTransport.Decoded<NLPResponse>> call =
+                transport.postJsonAsync(serviceUrl + endpoint, textRequest(text), timeoutMs, NLPResponseDecoder::decode);
+        return NlpHttpTransport.cancelling(call.handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof IOException) {
+                    serviceAvailable = false;
+                    LOGGER.warning("Network error calling " + endpoint + ": " + cause.getMessage());
+                }
+                throw new CompletionException(cause);
+            }
+            serviceAvailable = true;
+            if (!response.isSuccessful()) {
+                LOGGER.warning("API Error " + response.code() + ": " + response.error());
+                throw new CompletionException(new IOException(failure(response)));
+            }
+            return response.value();
+        }).thenApply(onSuccess).exceptionally(onError), call);
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof IOException ? "Network error: " + cause.getMessage()
+                : "Processing error: " + cause.getMessage();
+    }
+
+    private static String failure(NlpHttpTransport.Decoded<?> response) {
+        return response.code() >= 200 && response.code() < 300
+                ? "Failed to parse response: " + response.error()
+                : "API returned status " + response.code();
+    }
+
+    private static NLPIntent intentOf(NLPResponse response) {
+        return response.getIntent() != null && response.getIntent().getPrimaryIntent() != null
+                ? response.getIntent() : new NLPIntent("unknown", 0.0);
+    }
+
+    private static RouteInfo routeOf(NLPResponse response) {
+        return new RouteInfo(response.getSource(), response.getDestination());
+    }
+
+    private static String textRequest(String text) {
+        StringWriter out = new StringWriter(text.length() + 16);
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginObject().name("text").value(text).endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringWriter does not fail
+        }
+        return out.toString();
+    }
+
     /**
-     * Parse JSON response from spaCy service
+     * Utterances processed by one batch run and how fast
      */
-    private NLPResponse parseResponse(String jsonResponse) {
+    public record BatchStats(long utterances, long failed, long elapsedNanos) {
+        public double utterancesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : utterances * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d utterances (%d failed) in %.1f s: %.1f utterances/s",
+                    utterances, failed, elapsedNanos / 1e9, utterancesPerSecond());
+        }
+    }
+
+    /**
+     * Process many texts with default chunking (64 per request, 4 requests in flight)
+     */
+    public BatchStats processBatch(Iterable<String> texts, Consumer<NLPResponse> sink) {
+        return processBatch(texts.iterator(), DEFAULT_BATCH_CHUNK_SIZE, DEFAULT_BATCH_IN_FLIGHT, sink);
+    }
+
+    /**
+     * Process a stream of texts through the batch endpoint.
+     *
+     * Texts are read lazily and sent in chunks; while up to maxInFlight
+     * chunks are being processed by the service, the next chunk is already
+     * on its way, so the service never waits on the client. Each text gets
+     * exactly one response, delivered to the sink on the calling thread in
+     * input order. A chunk that fails (after retries) yields error responses
+     * for its texts rather than stopping the run.
+     */
+    public BatchStats processBatch(Iterator<String> texts, int chunkSize, int maxInFlight,
+                                   Consumer<NLPResponse> sink) {
+        int size = Math.max(1, Math.min(chunkSize, MAX_BATCH_CHUNK_SIZE));
+        int window = Math.max(1, maxInFlight);
+        boolean available = serviceAvailable || checkServiceHealth();
+
+        long start = System.nanoTime();
+        long[] counts = new long[2]; // utterances, failed
+        ArrayDeque<Future<List<NLPResponse>>> inFlight = new ArrayDeque<>();
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("spacy-batch-", 0).factory())) {
+            try {
+                while (texts.hasNext()) {
+                    List<String> chunk = new ArrayList<>(size);
+                    while (chunk.size() < size && texts.hasNext()) {
+                        chunk.add(texts.next());
+                    }
+                    inFlight.add(available ? executor.submit(() -> postBatch(chunk, size))
+                            : CompletableFuture.completedFuture(errorResponses(chunk, "spaCy NLP Service unavailable")));
+                    if (inFlight.size() >= window && !deliver(inFlight.poll(), sink, counts)) {
+                        break;
+                    }
+                }
+                while (!inFlight.isEmpty() && deliver(inFlight.poll(), sink, counts)) {
+                    // drain in order
+                }
+            } finally {
+                // Interrupted or the sink threw: don't wait for chunks nobody will read
+                inFlight.forEach(future -> future.cancel(true));
+            }
+        }
+
+        BatchStats stats = new BatchStats(counts[0], counts[1], System.nanoTime() - start);
+        LOGGER.info("✅ Batch complete: " + stats);
+        return stats;
+    }
+
+    // Hand one chunk's responses to the sink; false if interrupted while waiting
+    private boolean deliver(Future<List<NLPResponse>> future, Consumer<NLPResponse> sink, long[] counts) {
+        List<NLPResponse> responses;
         try {
-            JsonObject json = JsonParser.parseString(jsonResponse).getAsJsonObject();
-            NLPResponse response = new NLPResponse();
-            
-            response.setSuccess(json.get("success").getAsBoolean());
-            response.setOriginalText(json.get("original_text").getAsString());
-            response.setProcessedAt(json.get("processed_at").getAsString());
-
-            // Parse intent
-            if (json.has("intent")) {
-                JsonObject intentJson = json.getAsJsonObject("intent");
-                String primaryIntent = intentJson.get("primary_intent").getAsString();
-                double confidence = intentJson.get("confidence").getAsDouble();
-                response.setIntent(new NLPIntent(primaryIntent, confidence));
+            responses = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch chunk failed", e.getCause());
+        }
+        for (NLPResponse response : responses) {
+            counts[0]++;
+            if (!response.isSuccess()) {
+                counts[1]++;
             }
+            sink.accept(response);
+        }
+        return true;
+    }
 
-            // Parse entities (using Gson to convert JSON to Map)
-            if (json.has("entities")) {
-                response.setEntities(gson.fromJson(json.get("entities"), java.util.Map.class));
+    // One request to the batch endpoint; never throws, one response per text
+    private List<NLPResponse> postBatch(List<String> chunk, int pipeBatchSize) {
+        StringWriter request = new StringWriter(chunk.size() * 48);
+        try (JsonWriter writer = new JsonWriter(request)) {
+            writer.beginObject().name("texts").beginArray();
+            for (String text : chunk) {
+                writer.value(text);
             }
+            writer.endArray().name("batch_size").value(pipeBatchSize).endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringWriter does not fail
+        }
 
-            // Parse extracted data
-            if (json.has("extracted_data")) {
-                response.setExtractedData(gson.fromJson(json.get("extracted_data"), java.util.Map.class));
+        try {
+            NlpHttpTransport.Decoded<List<NLPResponse>> response = transport.postJson(serviceUrl + BATCH_ENDPOINT,
+                    request.toString(), BATCH_TIMEOUT_MS, NLPResponseDecoder::decodeBatch);
+            if (!response.isSuccessful()) {
+                LOGGER.warning("Batch API Error " + response.code() + ": " + response.error());
+                return errorResponses(chunk, failure(response));
+            }
+            List<NLPResponse> responses = response.value();
+            if (responses.size() != chunk.size()) {
+                return errorResponses(chunk, "Batch response did not match the request");
             }
+            for (int i = 0; i < responses.size(); i++) {
+                NLPResponse item = responses.get(i);
+                if (!item.isSuccess()) {
+                    item.setOriginalText(chunk.get(i));
+                    if (item.getError() == null) {
+                        item.setError("Failed");
+                    }
+                }
+            }
+            return responses;
+        } catch (IOException e) {
+            LOGGER.warning("Batch request failed: " + e.getMessage());
+            return errorResponses(chunk, "Network error: " + e.getMessage());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error parsing batch response", e);
+            return errorResponses(chunk, "Failed to parse response: " + e.getMessage());
+        }
+    }
 
-            LOGGER.info("✅ Successfully processed: " + response.getOriginalText());
-            return response;
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error parsing NLP response", e);
-            return createErrorResponse("Failed to parse response: " + e.getMessage());
+    private List<NLPResponse> errorResponses(List<String> chunk, String error) {
+        List<NLPResponse> responses = new ArrayList<>(chunk.size());
+        for (String text : chunk) {
+            NLPResponse response = createErrorResponse(error);
+            response.setOriginalText(text);
+            responses.add(response);
         }
+        return responses;
     }
 
     /**
@@ -130,7 +130,8 @@ public class SpacyNLPIntegrationTest {
             System.out.println("   Intent: " + response.getPrimaryIntent() + 
                              " (Confidence: " + response.getIntentConfidence() + ")");
             System.out.println("   Entities: " + response.getEntities());
-            System.out.println("   Extracted Data: " + response.getExtractedData());
+            System.out.println("   Extracted Data: route=" + response.getSource() + " -> " + response.getDestination()
+                    + ", date=" + response.getTravelDate() + ", class=" + response.getTravelClass());
             System.out.println("   Processed At: " + response.getProcessedAt());
             System.out.println();
         }
@@ -0,0 +1,507 @@
+package com.mycompany.airlinereservation.nlp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SpacyStubServer.java - In-JVM stand-in for the spaCy NLP microservice
+ *
+ * Serves /health, /process, /process/batch, /intent, /entities and
+ * /extract-route with the same JSON shapes as spacy_service/app.py, so
+ * NLPService, SpacyNLPClient and ChatBotEnhanced can be load-tested on one
+ * box without Python.
+ *
+ * Responses come from:
+ * - Recordings: a JSON-lines file of {"endpoint": "/process", "text": "...",
+ *   "response": {...}} captured from the real service (exact text match)
+ * - Rules: otherwise, a port of the service's rule-based path (keyword
+ *   intents, city synonyms, date/class/Aadhaar patterns). Without a spaCy
+ *   model the real service answers the same way.
+ *
+ * Fault injection (per request, /health excluded):
+ * - latency: fixed delay plus uniform jitter
+ * - error rate: share of requests answered with HTTP 500
+ * - timeout rate: share of requests held for timeoutMs before answering,
+ *   long enough to run the client into its latency budget
+ *
+ * Usage: SpacyStubServer [port=5000] [latencyMs=0] [jitterMs=0] [errorRate=0.0]
+ *                        [timeoutRate=0.0] [recordings.jsonl]
+ */
+public final class SpacyStubServer implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(SpacyStubServer.class.getName());
+
+    private static final Map<String, List<String>> INTENT_PATTERNS = new LinkedHashMap<>();
+    private static final Map<String, List<String>> CITY_SYNONYMS = new LinkedHashMap<>();
+
+    static {
+        // Same tables, in the same order, as spacy_service/app.py
+        INTENT_PATTERNS.put("book_flight", List.of("book", "reserve", "buy", "purchase", "flight"));
+        INTENT_PATTERNS.put("cancel_booking", List.of("cancel", "refund", "delete", "remove", "booking", "ticket"));
+        INTENT_PATTERNS.put("view_booking", List.of("show", "view", "check", "list", "my", "booking", "reservation"));
+        INTENT_PATTERNS.put("flight_status", List.of("status", "delay", "info", "information", "flight"));
+        INTENT_PATTERNS.put("boarding_pass", List.of("boarding", "pass", "ticket", "download", "generate"));
+        INTENT_PATTERNS.put("customer_lookup", List.of("customer", "profile", "aadhaar", "aadhar", "details"));
+        INTENT_PATTERNS.put("check_availability", List.of("available", "flights", "check", "search", "from", "to"));
+        INTENT_PATTERNS.put("payment_info", List.of("payment", "summary", "cost", "price", "fare"));
+        INTENT_PATTERNS.put("help", List.of("help", "menu", "guide", "what can you do", "commands"));
+
+        CITY_SYNONYMS.put("delhi", List.of("delhi", "new delhi", "dxb", "ndls"));
+        CITY_SYNONYMS.put("mumbai", List.of("mumbai", "bombay", "bom"));
+        CITY_SYNONYMS.put("bangalore", List.of("bangalore", "bengaluru", "blr"));
+        CITY_SYNONYMS.put("kolkata", List.of("kolkata", "calcutta", "ccu"));
+        CITY_SYNONYMS.put("hyderabad", List.of("hyderabad", "hyd"));
+        CITY_SYNONYMS.put("pune", List.of("pune", "puneh", "pnq"));
+        CITY_SYNONYMS.put("goa", List.of("goa", "goi"));
+        CITY_SYNONYMS.put("jaipur", List.of("jaipur", "jai", "jpr"));
+    }
+
+    private static final Pattern ISO_DATE = Pattern.compile("\\b(\\d{4}-\\d{2}-\\d{2})\\b");
+    private static final Pattern DMY_DATE = Pattern.compile("\\b(\\d{1,2}[-/]\\d{1,2}[-/]\\d{4})\\b");
+    private static final int MAX_BATCH_TEXTS = 1000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, JsonObject> recordings = new ConcurrentHashMap<>();
+
+    private volatile long latencyMs;
+    private volatile long jitterMs;
+    private volatile double errorRate;
+    private volatile double timeoutRate;
+    private volatile long timeoutMs = 5_000;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong injectedTimeouts = new AtomicLong();
+
+    /**
+     * Bind to a port on localhost (0 picks a free one, see port()); call start() to serve
+     */
+    public SpacyStubServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 128);
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("spacy-stub-", 0).factory());
+        server.setExecutor(executor);
+        server.createContext("/health", exchange -> send(exchange, 200, health()));
+        server.createContext("/process", exchange -> handle(exchange, "/process"));
+        server.createContext("/process/batch", exchange -> handle(exchange, "/process/batch"));
+        server.createContext("/intent", exchange -> handle(exchange, "/intent"));
+        server.createContext("/entities", exchange -> handle(exchange, "/entities"));
+        server.createContext("/extract-route", exchange -> handle(exchange, "/extract-route"));
+    }
+
+    public SpacyStubServer start() {
+        server.start();
+        LOGGER.info("🚀 spaCy stub serving on " + url());
+        return this;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String url() {
+        return "http://localhost:" + port();
+    }
+
+    // ==================== Configuration ====================
+
+    /**
+     * Delay every request by latencyMs plus a uniform random 0..jitterMs
+     */
+    public SpacyStubServer latency(long latencyMs, long jitterMs) {
+        this.latencyMs = Math.max(0, latencyMs);
+        this.jitterMs = Math.max(0, jitterMs);
+        return this;
+    }
+
+    /**
+     * Answer this share of requests (0.0 - 1.0) with HTTP 500
+     */
+    public SpacyStubServer errorRate(double errorRate) {
+        this.errorRate = clampRate(errorRate);
+        return this;
+    }
+
+    /**
+     * Hold this share of requests (0.0 - 1.0) for timeoutMs before answering
+     */
+    public SpacyStubServer timeouts(double timeoutRate, long timeoutMs) {
+        this.timeoutRate = clampRate(timeoutRate);
+        this.timeoutMs = Math.max(0, timeoutMs);
+        return this;
+    }
+
+    /**
+     * Answer requests for this endpoint and text with a recorded response
+     */
+    public SpacyStubServer record(String endpoint, String text, JsonObject response) {
+        recordings.put(endpoint + "\n" + text.strip(), response);
+        return this;
+    }
+
+    /**
+     * Load recordings from a JSON-lines file; returns how many were loaded
+     */
+    public int loadRecordings(Path file) throws IOException {
+        int loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonObject entry = JsonParser.parseString(line).getAsJsonObject();
+                record(entry.get("endpoint").getAsString(), entry.get("text").getAsString(),
+                        entry.getAsJsonObject("response"));
+                loaded++;
+            }
+        }
+        LOGGER.info("Loaded " + loaded + " recorded responses from " + file);
+        return loaded;
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    public long injectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    public long injectedTimeoutCount() {
+        return injectedTimeouts.get();
+    }
+
+    // ==================== Request handling ====================
+
+    private void handle(HttpExchange exchange, String endpoint) throws IOException {
+        // "/process" also receives unmatched sub-paths; only serve exact ones
+        if (!exchange.getRequestURI().getPath().equals(endpoint)) {
+            send(exchange, 404, error("Not found"));
+            return;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Method not allowed"));
+            return;
+        }
+        requests.incrementAndGet();
+
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+            if (timeoutRate > 0 && random.nextDouble() < timeoutRate) {
+                injectedTimeouts.incrementAndGet();
+                delay += timeoutMs;
+            }
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+            return;
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            send(exchange, 500, error("Injected failure"));
+            return;
+        }
+
+        JsonObject body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+        } catch (RuntimeException e) {
+            send(exchange, 400, error("Invalid JSON"));
+            return;
+        }
+
+        if (endpoint.equals("/process/batch")) {
+            processBatch(exchange, body);
+            return;
+        }
+        if (!body.has("text") || !body.get("text").isJsonPrimitive()) {
+            send(exchange, 400, error("Missing 'text' field in request"));
+            return;
+        }
+        String text = body.get("text").getAsString().strip();
+        if (text.isEmpty()) {
+            send(exchange, 400, error("Empty text provided"));
+            return;
+        }
+
+        JsonObject recorded = recordings.get(endpoint + "\n" + text);
+        if (recorded != null) {
+            send(exchange, 200, recorded);
+            return;
+        }
+
+        JsonObject entities = extractEntities(text);
+        JsonObject response = new JsonObject();
+        response.addProperty("success", true);
+        switch (endpoint) {
+            case "/process" -> {
+                response = processResponse(text, entities);
+                response.add("pos_tags", new JsonArray());
+            }
+            case "/intent" -> response.add("intent", detectIntent(text));
+            case "/entities" -> response.add("entities", entities);
+            default -> response.add("route", extractRoute(text, entities));
+        }
+        send(exchange, 200, response);
+    }
+
+    private void processBatch(HttpExchange exchange, JsonObject body) throws IOException {
+        if (!body.has("texts") || !body.get("texts").isJsonArray()) {
+            send(exchange, 400, error("Missing 'texts' list in request"));
+            return;
+        }
+        JsonArray texts = body.getAsJsonArray("texts");
+        if (texts.size() > MAX_BATCH_TEXTS) {
+            send(exchange, 413, error("At most " + MAX_BATCH_TEXTS + " texts per request"));
+            return;
+        }
+
+        long started = System.nanoTime();
+        JsonArray results = new JsonArray(texts.size());
+        for (JsonElement element : texts) {
+            String text = element.isJsonPrimitive() ? element.getAsString().strip() : "";
+            if (text.isEmpty()) {
+                results.add(error("Empty text provided"));
+                continue;
+            }
+            JsonObject recorded = recordings.get("/process\n" + text);
+            results.add(recorded != null ? recorded : processResponse(text, extractEntities(text)));
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        JsonObject response = new JsonObject();
+        response.addProperty("success", true);
+        response.addProperty("count", texts.size());
+        response.add("results", results);
+        response.addProperty("elapsed_ms", Math.round(elapsed * 10_000) / 10.0);
+        response.addProperty("utterances_per_second", elapsed > 0 ? Math.round(texts.size() / elapsed * 10) / 10.0 : 0.0);
+        send(exchange, 200, response);
+    }
+
+    private static JsonObject health() {
+        JsonObject health = new JsonObject();
+        health.addProperty("status", "healthy");
+        health.addProperty("service", "spaCy NLP Stub");
+        return health;
+    }
+
+    private static JsonObject error(String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        error.addProperty("success", false);
+        return error;
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static double clampRate(double rate) {
+        return Math.max(0.0, Math.min(1.0, rate));
+    }
+
+    // ==================== Rule-based NLP (mirrors app.py) ====================
+
+    private static JsonObject processResponse(String text, JsonObject entities) {
+        JsonObject extracted = new JsonObject();
+        extracted.add("route", extractRoute(text, entities));
+        String date = extractDate(text);
+        if (date != null) {
+            extracted.addProperty("travel_date", date);
+        }
+        String lower = text.toLowerCase();
+        if (lower.contains("business")) {
+            extracted.addProperty("travel_class", "Business");
+        } else if (lower.contains("economy") || lower.contains("eco")) {
+            extracted.addProperty("travel_class", "Economy");
+        }
+        String digits = text.replaceAll("[^\\d]", "");
+        if (digits.length() >= 12) {
+            extracted.addProperty("aadhaar", digits.substring(0, 12));
+        }
+
+        JsonObject response = new JsonObject();
+        response.addProperty("success", true);
+        response.addProperty("original_text", text);
+        response.add("intent", detectIntent(text));
+        response.add("entities", entities);
+        response.add("extracted_data", extracted);
+        response.addProperty("processed_at", LocalDateTime.now().toString());
+        return response;
+    }
+
+    private static JsonObject detectIntent(String text) {
+        String lower = text.toLowerCase();
+        Map<String, Integer> scores = new LinkedHashMap<>();
+        INTENT_PATTERNS.forEach((intent, keywords) -> {
+            int score = (int) keywords.stream().filter(lower::contains).count();
+            if (score > 0) {
+                scores.put(intent, score);
+            }
+        });
+
+        JsonObject intent = new JsonObject();
+        JsonArray all = new JsonArray();
+        if (scores.isEmpty()) {
+            intent.addProperty("primary_intent", "general_query");
+            intent.addProperty("confidence", 0.5);
+            intent.add("all_intents", all);
+            return intent;
+        }
+
+        // Stable sort, like Python's sorted(): ties keep table order
+        List<Map.Entry<String, Integer>> sorted = scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .toList();
+        String primary = sorted.get(0).getKey();
+        double confidence = Math.min((double) sorted.get(0).getValue() / INTENT_PATTERNS.get(primary).size(), 1.0);
+        for (Map.Entry<String, Integer> entry : sorted) {
+            JsonObject scored = new JsonObject();
+            scored.addProperty("intent", entry.getKey());
+            scored.addProperty("score", entry.getValue());
+            all.add(scored);
+        }
+        intent.addProperty("primary_intent", primary);
+        intent.addProperty("confidence", Math.round(confidence * 100) / 100.0);
+        intent.add("all_intents", all);
+        return intent;
+    }
+
+    private static JsonObject extractEntities(String text) {
+        JsonObject entities = new JsonObject();
+        for (String key : List.of("locations", "dates", "organizations", "money", "person")) {
+            entities.add(key, new JsonArray());
+        }
+
+        // No NER here: only the synonym table, as the service does without a model
+        JsonArray custom = new JsonArray();
+        String lower = text.toLowerCase();
+        CITY_SYNONYMS.forEach((standard, synonyms) -> {
+            for (String synonym : synonyms) {
+                if (lower.contains(synonym)) {
+                    JsonObject location = new JsonObject();
+                    location.addProperty("text", synonym);
+                    location.addProperty("normalized", normalizeCity(synonym));
+                    location.addProperty("type", "location");
+                    custom.add(location);
+                }
+            }
+        });
+        entities.add("custom_locations", custom);
+        return entities;
+    }
+
+    private static String normalizeCity(String city) {
+        String lower = city.toLowerCase().strip();
+        for (Map.Entry<String, List<String>> entry : CITY_SYNONYMS.entrySet()) {
+            if (entry.getValue().contains(lower)) {
+                return titleCase(entry.getKey());
+            }
+        }
+        return titleCase(city);
+    }
+
+    private static String titleCase(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        boolean start = true;
+        for (char c : text.toCharArray()) {
+            out.append(start ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            start = !Character.isLetter(c);
+        }
+        return out.toString();
+    }
+
+    private static JsonObject extractRoute(String text, JsonObject entities) {
+        JsonArray locations = new JsonArray();
+        locations.addAll(entities.getAsJsonArray("locations"));
+        locations.addAll(entities.getAsJsonArray("custom_locations"));
+
+        JsonObject route = new JsonObject();
+        route.add("source", JsonNull.INSTANCE);
+        route.add("destination", JsonNull.INSTANCE);
+        String lower = text.toLowerCase();
+        if (locations.size() >= 2) {
+            route.add("source", normalized(locations.get(0)));
+            route.add("destination", normalized(locations.get(1)));
+        } else if (locations.size() == 1) {
+            if (lower.contains("from")) {
+                route.add("source", normalized(locations.get(0)));
+            } else if (lower.contains("to")) {
+                route.add("destination", normalized(locations.get(0)));
+            }
+        }
+        return route;
+    }
+
+    private static JsonElement normalized(JsonElement location) {
+        return location.getAsJsonObject().get("normalized");
+    }
+
+    private static String extractDate(String text) {
+        Matcher iso = ISO_DATE.matcher(text);
+        if (iso.find()) {
+            return iso.group(1);
+        }
+        Matcher dmy = DMY_DATE.matcher(text);
+        return dmy.find() ? dmy.group(1) : null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        SpacyStubServer stub = new SpacyStubServer(port)
+                .latency(args.length > 1 ? Long.parseLong(args[1]) : 0, args.length > 2 ? Long.parseLong(args[2]) : 0)
+                .errorRate(args.length > 3 ? Double.parseDouble(args[3]) : 0.0)
+                .timeouts(args.length > 4 ? Double.parseDouble(args[4]) : 0.0,
+                        Long.getLong("airline.nlp.stub.timeoutMs", 5_000L));
+        if (args.length > 5) {
+            stub.loadRecordings(Path.of(args[5]));
+        }
+        stub.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stub.close();
+            System.out.printf("%d requests, %d injected errors, %d injected timeouts%n",
+                    stub.requestCount(), stub.injectedErrorCount(), stub.injectedTimeoutCount());
+        }));
+    }
+}
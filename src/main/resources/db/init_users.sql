@@ -1,5 +1,6 @@
 -- init_users.sql
 -- Creates a `users` table (if not exists) and inserts an initial admin user.
+-- Optional: the application creates the full schema itself (see SchemaMigrator).
 -- Adjust the SQL to match your MySQL/Postgres dialect if necessary.
 
 CREATE DATABASE IF NOT EXISTS airline_db;
@@ -36,17 +37,6 @@ ON DUPLICATE KEY UPDATE
   password = VALUES(password),
   role = VALUES(role);
 
--- -----------------------------------------------------------------
--- Bookings table: required by the app when booking flights
--- Minimal schema to support INSERTs from the UI
--- -----------------------------------------------------------------
-CREATE TABLE IF NOT EXISTS bookings (
-  id INT AUTO_INCREMENT PRIMARY KEY,
-  flight_code VARCHAR(50) NOT NULL,
-  booking_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  amount DOUBLE NOT NULL
-);
-
 -- -----------------------------------------------------------------
 -- Trigger: Prevent ticket insert when no seats and decrement seats
 -- BEFORE INSERT on `ticket`: checks seats_available in `flight` and
@@ -75,72 +65,8 @@ CREATE TABLE IF NOT EXISTS bookings (
 
 
 -- -----------------------------------------------------------------
--- Airlines table: used by AddAirline.java and Airlines UI
+-- All other tables (airlines, flight, ticket, booking, bookings, customer,
+-- payments, boarding_pass) are created and versioned by the application:
+-- SchemaMigrator applies its migrations on startup and records them in
+-- `schema_migrations`. Add schema changes there, not here.
 -- -----------------------------------------------------------------
-CREATE TABLE IF NOT EXISTS airlines (
-  id INT AUTO_INCREMENT PRIMARY KEY,
-  airline_name VARCHAR(255) NOT NULL UNIQUE,
-  rating DECIMAL(2,1) DEFAULT NULL,
-  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
-
--- -----------------------------------------------------------------
--- Flight table: stores flight information with airline reference
--- -----------------------------------------------------------------
-CREATE TABLE IF NOT EXISTS flight (
-  id INT AUTO_INCREMENT PRIMARY KEY,
-  flight_code VARCHAR(50) NOT NULL UNIQUE,
-  flight_name VARCHAR(255),
-  source VARCHAR(100) NOT NULL,
-  destination VARCHAR(100) NOT NULL,
-  airline_id INT NOT NULL,
-  departure_time DATETIME,
-  arrival_time DATETIME,
-  price INT,
-  seats_available INT DEFAULT 100,
-  total_seats INT DEFAULT 100,
-  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  FOREIGN KEY (airline_id) REFERENCES airlines(id)
-);
-
--- -----------------------------------------------------------------
--- Ticket table: stores booked tickets (PNR)
--- Enhanced schema to include customer details and booking information
--- -----------------------------------------------------------------
-CREATE TABLE IF NOT EXISTS ticket (
-  id INT AUTO_INCREMENT PRIMARY KEY,
-  pnr VARCHAR(50) NOT NULL UNIQUE,
-  flight_code VARCHAR(50) NOT NULL,
-  username VARCHAR(100) NOT NULL,
-  customer_aadhar VARCHAR(12),
-  customer_name VARCHAR(255),
-  nationality VARCHAR(100),
-  address TEXT,
-  gender VARCHAR(20),
-  source VARCHAR(100),
-  destination VARCHAR(100),
-  flight_name VARCHAR(255),
-  date_of_travel DATE,
-  passenger_name VARCHAR(255),
-  booking_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  FOREIGN KEY (flight_code) REFERENCES flight(flight_code),
-  FOREIGN KEY (username) REFERENCES users(username),
-  INDEX (username)
-);
-
--- -----------------------------------------------------------------
--- Payments table: used to record payments for tickets (PNR)
--- Note: no strict foreign key to `ticket` so this can be run even if
--- the `ticket` table is created later. Index on `pnr` speeds lookups.
--- -----------------------------------------------------------------
-CREATE TABLE IF NOT EXISTS payments (
-  id INT AUTO_INCREMENT PRIMARY KEY,
-  pnr VARCHAR(50) NOT NULL,
-  amount DOUBLE NOT NULL,
-  payment_method VARCHAR(100),
-  payment_status VARCHAR(50),
-  transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  INDEX (pnr)
-);
-
-